@@ -0,0 +1,79 @@
+package com.abhi.appium.benchmarks;
+
+import com.abhi.appium.stub.LoginScreenScript;
+import com.abhi.appium.stub.StubAppiumServer;
+import com.abhi.appium.utils.PageSnapshot;
+import com.abhi.appium.utils.SessionScope;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.android.AndroidDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openqa.selenium.By;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LocatorBenchmark class compares server lookups with page snapshot lookups
+ * for the locator strategies the login screens use
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LocatorBenchmark {
+
+    private static final By BY_ID = AppiumBy.id("android:id/button1");
+    private static final By BY_UI_SELECTOR =
+            AppiumBy.androidUIAutomator("new UiSelector().className(\"android.view.View\").instance(6)");
+
+    private StubAppiumServer server;
+    private AndroidDriver driver;
+    private PageSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = LoginScreenScript.apply(new StubAppiumServer(0), 0).start();
+        driver = server.newDriver();
+        snapshot = new PageSnapshot(driver, Long.MAX_VALUE).refresh();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SessionScope.quit(driver);
+        server.close();
+    }
+
+    @Benchmark
+    public int findElementsById() {
+        return driver.findElements(BY_ID).size();
+    }
+
+    @Benchmark
+    public int findElementsByUiSelector() {
+        return driver.findElements(BY_UI_SELECTOR).size();
+    }
+
+    @Benchmark
+    public Boolean snapshotById() {
+        return snapshot.isPresent(BY_ID);
+    }
+
+    @Benchmark
+    public Boolean snapshotByUiSelector() {
+        return snapshot.isPresent(BY_UI_SELECTOR);
+    }
+
+    /**
+     * Fetching and indexing the page source, the cost a snapshot pays once per screen
+     */
+    @Benchmark
+    public PageSnapshot snapshotRefresh() {
+        return snapshot.refresh();
+    }
+}
@@ -0,0 +1,66 @@
+package com.abhi.appium.benchmarks;
+
+import com.abhi.appium.flows.LoginFlow;
+import com.abhi.appium.stub.LoginScreenScript;
+import com.abhi.appium.stub.StubAppiumServer;
+import com.abhi.appium.utils.SessionScope;
+import io.appium.java_client.android.AndroidDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoginFlowBenchmark class runs the whole login flow against the stub login screens
+ * With zero screen delay and latency the result is pure orchestration overhead;
+ * the latency parameter shows how that overhead scales with a slower server
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class LoginFlowBenchmark {
+
+    @Param({"0", "20"})
+    public long latencyMillis;
+
+    private StubAppiumServer server;
+    private AndroidDriver driver;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = LoginScreenScript.apply(new StubAppiumServer(0), 0).start();
+        driver = server.newDriver();
+        server.latency(latencyMillis);
+    }
+
+    @Setup(Level.Invocation)
+    public void relaunchApp() {
+        server.resetScreen();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SessionScope.quit(driver);
+        server.close();
+    }
+
+    @Benchmark
+    public boolean login() {
+        if (!new LoginFlow(driver).login("9999999999")) {
+            throw new IllegalStateException("Login flow failed against the stub");
+        }
+        return true;
+    }
+}
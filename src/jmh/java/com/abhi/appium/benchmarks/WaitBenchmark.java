@@ -0,0 +1,75 @@
+package com.abhi.appium.benchmarks;
+
+import com.abhi.appium.stub.StubAppiumServer;
+import com.abhi.appium.utils.SessionScope;
+import com.abhi.appium.utils.WaitUtils;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.android.AndroidDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WaitBenchmark class measures the framework's wait overhead on top of a zero-latency stub
+ * Anything above one round trip per call is time the framework spends, not the device
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WaitBenchmark {
+
+    private static final By PRESENT = AppiumBy.accessibilityId("present");
+    private static final By ABSENT = AppiumBy.accessibilityId("absent");
+
+    private StubAppiumServer server;
+    private AndroidDriver driver;
+    private WaitUtils waitUtils;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new StubAppiumServer(0).start();
+        server.element("accessibility id", "present");
+        driver = server.newDriver();
+        waitUtils = new WaitUtils(driver);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SessionScope.quit(driver);
+        server.close();
+    }
+
+    /**
+     * A wait for an element that is already on screen
+     */
+    @Benchmark
+    public WebElement waitForPresentElement() {
+        return waitUtils.waitForElement(PRESENT);
+    }
+
+    /**
+     * A raw findElement, the floor the wait above is compared with
+     */
+    @Benchmark
+    public WebElement findElementBaseline() {
+        return driver.findElement(PRESENT);
+    }
+
+    /**
+     * An optional element that never shows up, bounded by the optional-element budget
+     */
+    @Benchmark
+    public boolean clickIfPresentAbsent() {
+        return waitUtils.clickIfPresent(ABSENT, 0);
+    }
+}
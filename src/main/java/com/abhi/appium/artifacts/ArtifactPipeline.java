@@ -0,0 +1,278 @@
+package com.abhi.appium.artifacts;
+
+import com.abhi.appium.config.ConfigManager;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.logging.LogEntry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ArtifactPipeline class saves failure artifacts without holding up the test thread
+ * The test thread only fetches the raw screenshot, page source and logcat; compressing,
+ * encoding and writing happen on a small bounded executor. When the queue is full the
+ * test thread waits for a slot instead of piling up memory, and once the run has written
+ * its disk budget further artifacts are skipped
+ */
+public class ArtifactPipeline implements AutoCloseable {
+
+    private static ArtifactPipeline shared;
+
+    private final File dir;
+    private final int queueSize;
+    private final long diskBudgetBytes;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore slots;
+
+    private final AtomicLong diskUsed = new AtomicLong();
+    private final AtomicLong captureNanos = new AtomicLong();
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger overBudget = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    /**
+     * Constructor that creates a pipeline writing under the given directory
+     * @param dir The directory each failure gets a folder in
+     * @param threads The number of background writer threads
+     * @param queueSize The number of artifacts that may wait for a writer
+     * @param diskBudgetBytes The most bytes this pipeline writes in total
+     */
+    public ArtifactPipeline(File dir, int threads, int queueSize, long diskBudgetBytes) {
+        this.dir = dir;
+        this.queueSize = queueSize;
+        this.diskBudgetBytes = diskBudgetBytes;
+        this.slots = new Semaphore(queueSize);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "artifact-writer-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Gets the pipeline shared by the run, configured from config.properties
+     * @return The shared pipeline
+     */
+    public static synchronized ArtifactPipeline getInstance() {
+        if (shared == null) {
+            shared = new ArtifactPipeline(new File(ConfigManager.getArtifactsDir()), ConfigManager.getArtifactThreads(),
+                    ConfigManager.getArtifactQueueSize(), ConfigManager.getArtifactDiskBudgetBytes());
+        }
+        return shared;
+    }
+
+    /**
+     * Waits for the shared pipeline's pending writes and prints its summary
+     * Call this once at suite end
+     */
+    public static synchronized void closeShared() {
+        if (shared != null) {
+            shared.close();
+            System.out.println("🗂️ " + shared.getSummary());
+            shared = null;
+        }
+    }
+
+    /**
+     * Captures a failure's screenshot, page source, logcat and buffered screenshots
+     * @param driver The driver of the failed test
+     * @param name The failure name, usually the test method
+     * @return The folder the artifacts are written to
+     */
+    public File captureFailure(WebDriver driver, String name) {
+        return captureFailure(driver, name, ScreenshotBuffer.forDriver(driver).drain());
+    }
+
+    /**
+     * Captures a failure's artifacts along with the given earlier screenshots
+     * @param driver The driver of the failed test
+     * @param name The failure name, usually the test method
+     * @param frames Screenshots leading up to the failure, oldest first
+     * @return The folder the artifacts are written to
+     */
+    public File captureFailure(WebDriver driver, String name, List<ScreenshotBuffer.Frame> frames) {
+        long start = System.nanoTime();
+        File target = new File(dir, name.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + System.currentTimeMillis());
+
+        byte[] screenshot = fetch(() -> ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES));
+        String pageSource = fetch(driver::getPageSource);
+        List<LogEntry> logcat = fetch(() -> driver.manage().logs().get("logcat").getAll());
+
+        // Everything past this point runs on the writer threads
+        if (screenshot != null) {
+            submit(target, "screenshot.png", () -> screenshot);
+        }
+        if (pageSource != null) {
+            submit(target, "page-source.xml.gz", () -> gzip(pageSource.getBytes(StandardCharsets.UTF_8)));
+        }
+        if (logcat != null) {
+            submit(target, "logcat.txt.gz", () -> gzip(encode(logcat)));
+        }
+        for (int i = 0; i < frames.size(); i++) {
+            ScreenshotBuffer.Frame frame = frames.get(i);
+            String fileName = "before-" + (i + 1) + "-" + frame.getLabel().replaceAll("[^A-Za-z0-9._-]", "_") + ".png";
+            submit(target, fileName, frame::getPng);
+        }
+        captureNanos.addAndGet(System.nanoTime() - start);
+        return target;
+    }
+
+    /**
+     * Waits until every submitted artifact is written or skipped
+     * @param timeoutMillis The longest time to wait
+     * @return true if the queue drained in time
+     */
+    public boolean flush(long timeoutMillis) {
+        try {
+            if (!slots.tryAcquire(queueSize, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            slots.release(queueSize);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Writes what is still queued, then stops the writer threads
+     */
+    @Override
+    public void close() {
+        flush(TimeUnit.MINUTES.toMillis(1));
+        executor.shutdown();
+    }
+
+    public int getWrittenCount() {
+        return written.get();
+    }
+
+    public int getOverBudgetCount() {
+        return overBudget.get();
+    }
+
+    public long getDiskUsedBytes() {
+        return diskUsed.get();
+    }
+
+    /**
+     * Gets the time test threads spent capturing, which is all the pipeline costs them
+     * @return The total capture time in milliseconds
+     */
+    public long getCaptureMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(captureNanos.get());
+    }
+
+    /**
+     * Gets a one-line summary of what the pipeline wrote
+     * @return The summary
+     */
+    public String getSummary() {
+        return "Artifacts: " + written.get() + " files, " + diskUsed.get() / 1024 + " KB in " + dir
+                + ", " + overBudget.get() + " skipped over the disk budget, " + failed.get() + " failed, "
+                + getCaptureMillis() + " ms on test threads";
+    }
+
+    /**
+     * Queues one artifact, waiting for a free slot when the queue is full
+     */
+    private void submit(File target, String fileName, Supplier<byte[]> content) {
+        slots.acquireUninterruptibly();
+        try {
+            executor.execute(() -> {
+                try {
+                    write(new File(target, fileName), content.get());
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    System.err.println("Could not write artifact " + fileName + ": " + e.getMessage());
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            failed.incrementAndGet();
+        }
+    }
+
+    private void write(File file, byte[] data) {
+        if (!reserve(data.length)) {
+            overBudget.incrementAndGet();
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            Files.write(file.toPath(), data);
+            written.incrementAndGet();
+        } catch (IOException e) {
+            diskUsed.addAndGet(-data.length);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Claims disk budget for a file, failing if it would take the run over budget
+     */
+    private boolean reserve(long bytes) {
+        while (true) {
+            long used = diskUsed.get();
+            if (used + bytes > diskBudgetBytes) {
+                return false;
+            }
+            if (diskUsed.compareAndSet(used, used + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Fetches one raw artifact, leaving it out when the session cannot provide it
+     */
+    private static <T> T fetch(Supplier<T> source) {
+        try {
+            return source.get();
+        } catch (WebDriverException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private static byte[] encode(List<LogEntry> entries) {
+        StringBuilder text = new StringBuilder();
+        for (LogEntry entry : entries) {
+            text.append(entry.getTimestamp()).append(' ').append(entry.getLevel()).append(' ')
+                    .append(entry.getMessage()).append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,129 @@
+package com.abhi.appium.artifacts;
+
+import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.utils.SessionScope;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * ScreenshotBuffer class keeps the last few screenshots of a session in memory
+ * Frames are raw PNG bytes and only reach disk when a failure drains the buffer,
+ * so a passing test pays for the screenshot calls but never for encoding or writes
+ */
+public class ScreenshotBuffer {
+
+    private final WebDriver driver;
+    private final int capacity;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+
+    /**
+     * Constructor that creates a buffer for one driver
+     * @param driver The driver to take screenshots with
+     * @param capacity The number of frames to keep, 0 to keep none
+     */
+    public ScreenshotBuffer(WebDriver driver, int capacity) {
+        this.driver = driver;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the buffer shared by everything using the given driver
+     * It lives in the driver's SessionScope and is dropped when the session is quit
+     * @param driver The driver whose screenshots are buffered
+     * @return The buffer for that driver
+     */
+    public static ScreenshotBuffer forDriver(WebDriver driver) {
+        return SessionScope.get(driver, ScreenshotBuffer.class,
+                d -> new ScreenshotBuffer(d, ConfigManager.getArtifactScreenshotBuffer()));
+    }
+
+    /**
+     * Drops the frames a driver's buffer holds, call it when a test starts on a (pooled) session
+     * so a failure only shows the screens of its own test
+     * @param driver The driver being leased
+     */
+    public static void discardFrames(WebDriver driver) {
+        ScreenshotBuffer buffer = SessionScope.peek(driver, ScreenshotBuffer.class);
+        if (buffer != null) {
+            buffer.drain();
+        }
+    }
+
+    /**
+     * Checks if frames are kept at all
+     * @return true if the capacity is above zero
+     */
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * Takes a screenshot and keeps it, dropping the oldest frame when full
+     * A failed screenshot is ignored, the buffer is best effort
+     * @param label What the screen shows, usually the step that just ran
+     */
+    public void capture(String label) {
+        if (!isEnabled()) {
+            return;
+        }
+        byte[] png;
+        try {
+            png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        } catch (WebDriverException e) {
+            return;
+        }
+        synchronized (frames) {
+            if (frames.size() == capacity) {
+                frames.removeFirst();
+            }
+            frames.addLast(new Frame(label, System.currentTimeMillis(), png));
+        }
+    }
+
+    /**
+     * Removes and returns the kept frames, oldest first
+     * @return The frames captured since the last drain
+     */
+    public List<Frame> drain() {
+        synchronized (frames) {
+            List<Frame> drained = new ArrayList<>(frames);
+            frames.clear();
+            return drained;
+        }
+    }
+
+    /**
+     * One buffered screenshot
+     */
+    public static final class Frame {
+
+        private final String label;
+        private final long timestamp;
+        private final byte[] png;
+
+        Frame(String label, long timestamp, byte[] png) {
+            this.label = label;
+            this.timestamp = timestamp;
+            this.png = png;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public byte[] getPng() {
+            return png;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.abhi.appium.base;
+
+import com.abhi.appium.config.ConfigManager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * ApkInstallManager class skips APK installs when the device already has the same build
+ * The APK is hashed once per file version and the hash installed on each device is kept in a
+ * state file; sessions on a device with the current hash are created without "appium:app"
+ * and get their app data cleared instead of a full push and install
+ * Clearing or installing kills the app the session launched, so it is relaunched afterwards
+ */
+public class ApkInstallManager {
+
+    private final File stateFile;
+    private final Properties installedHashes = new Properties();
+    // Hashes are shared by every manager and by getAppBuildId, an APK is read once per version
+    private static final Map<String, String> HASHES = new HashMap<>();
+    private int installs;
+    private int skips;
+
+    /**
+     * Constructor that loads the per-device install state
+     * @param stateFile The file that remembers which APK hash each device has
+     */
+    public ApkInstallManager(File stateFile) {
+        this.stateFile = stateFile;
+        if (stateFile.exists()) {
+            try (InputStream input = new FileInputStream(stateFile)) {
+                installedHashes.load(input);
+            } catch (IOException e) {
+                System.out.println("Install cache could not be read, installing everywhere: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Checks if a device needs the APK pushed and installed
+     * @param udid The device udid
+     * @param apkPath The APK to install
+     * @return true if the device's installed hash is unknown or differs from the APK
+     */
+    public synchronized boolean needsInstall(String udid, String apkPath) {
+        String hash = hashApk(apkPath);
+        return hash == null || !hash.equals(installedHashes.getProperty(udid));
+    }
+
+    /**
+     * Finishes session setup once the session exists
+     * If the install was skipped, the app is verified (and installed if it went missing) and
+     * its data is reset, then it is brought back to the foreground; if the session installed
+     * the APK, the new hash is recorded
+     * @param udid The device udid
+     * @param apkPath The APK the session was meant to run
+     * @param appPackage The app package
+     * @param installer Performs the device operations
+     * @param installedBySession true if the session was created with "appium:app"
+     * @param clearData true to clear app data when the install was skipped
+     */
+    public synchronized void afterSessionStart(String udid, String apkPath, String appPackage,
+                                               AppInstaller installer, boolean installedBySession, boolean clearData) {
+        if (installedBySession) {
+            installs++;
+            record(udid, hashApk(apkPath));
+            return;
+        }
+        if (!installer.isInstalled(appPackage)) {
+            System.out.println("ℹ️ " + appPackage + " missing on " + udid + " despite cache, installing");
+            installer.install(apkPath);
+            installs++;
+            record(udid, hashApk(apkPath));
+            installer.activate(appPackage);
+            return;
+        }
+        skips++;
+        if (clearData) {
+            installer.clearData(appPackage);
+            installer.activate(appPackage);
+        }
+    }
+
+    /**
+     * Forgets what is installed on a device so the next session installs again
+     * @param udid The device udid
+     */
+    public synchronized void invalidate(String udid) {
+        installedHashes.remove(udid);
+        save();
+    }
+
+    /**
+     * Gets the APK hash recorded for every device
+     * @return A sorted copy of udid to hash
+     */
+    public synchronized Map<String, String> getState() {
+        Map<String, String> state = new TreeMap<>();
+        for (String udid : installedHashes.stringPropertyNames()) {
+            state.put(udid, installedHashes.getProperty(udid));
+        }
+        return state;
+    }
+
+    public synchronized int getInstallCount() {
+        return installs;
+    }
+
+    public synchronized int getSkipCount() {
+        return skips;
+    }
+
+    /**
+     * Gets a short id of the configured APK's build, for caches and history that only hold for one build
+     * Falls back to app.version when the APK can't be read from here, e.g. a path on a remote host
+     * @return The first 12 hex digits of the APK hash, or the configured app version
+     */
+    public static String getAppBuildId() {
+        String hash = hash(ConfigManager.getAppPath());
+        return hash != null ? hash.substring(0, 12) : ConfigManager.getAppVersion();
+    }
+
+    /**
+     * Hashes an APK, reusing the previous hash while its size and modification time are unchanged
+     * @param apkPath The APK path
+     * @return The SHA-256 hex digest, or null if the file can't be read
+     */
+    public String hashApk(String apkPath) {
+        return hash(apkPath);
+    }
+
+    private static synchronized String hash(String apkPath) {
+        File apk = new File(apkPath);
+        if (!apk.isFile()) {
+            return null;
+        }
+        String version = apk.getAbsolutePath() + "|" + apk.length() + "|" + apk.lastModified();
+        String cached = HASHES.get(version);
+        if (cached != null) {
+            return cached;
+        }
+        try (InputStream input = new FileInputStream(apk)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            HASHES.put(version, hex.toString());
+            return hex.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            System.out.println("APK could not be hashed, installing: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void record(String udid, String hash) {
+        if (hash == null) {
+            return;
+        }
+        installedHashes.setProperty(udid, hash);
+        save();
+    }
+
+    private void save() {
+        File directory = stateFile.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            System.out.println("Install cache directory could not be created: " + directory);
+            return;
+        }
+        try (OutputStream output = new FileOutputStream(stateFile)) {
+            installedHashes.store(output, "APK hash installed per device udid");
+        } catch (IOException e) {
+            System.out.println("Install cache could not be written: " + e.getMessage());
+        }
+    }
+}
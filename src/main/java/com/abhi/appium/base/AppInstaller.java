@@ -0,0 +1,33 @@
+package com.abhi.appium.base;
+
+/**
+ * AppInstaller interface is the small set of device operations the install cache needs
+ * A driver-backed implementation is used in real runs and a fake one in tests
+ */
+public interface AppInstaller {
+
+    /**
+     * Checks if the app is installed on the device
+     * @param appPackage The app package
+     * @return true if it is installed
+     */
+    boolean isInstalled(String appPackage);
+
+    /**
+     * Installs (or reinstalls) an APK
+     * @param apkPath The APK path as seen by the Appium server
+     */
+    void install(String apkPath);
+
+    /**
+     * Clears the app's data so it starts like a fresh install
+     * @param appPackage The app package
+     */
+    void clearData(String appPackage);
+
+    /**
+     * Brings the app to the foreground, launching it if it isn't running
+     * @param appPackage The app package
+     */
+    void activate(String appPackage);
+}
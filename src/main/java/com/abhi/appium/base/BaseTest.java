@@ -1,9 +1,19 @@
 package com.abhi.appium.base;
 
+import com.abhi.appium.artifacts.ArtifactPipeline;
+import com.abhi.appium.artifacts.ScreenshotBuffer;
 import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.metrics.ResourceSampler;
+import com.abhi.appium.recording.CommandRecorder;
+import com.abhi.appium.server.ServerPool;
+import com.abhi.appium.transport.HttpTransport;
+import com.abhi.appium.utils.ImplicitWaits;
+import com.abhi.appium.utils.SessionScope;
 import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.remote.AppiumCommandExecutor;
 import org.openqa.selenium.remote.DesiredCapabilities;
 
+import java.io.File;
 import java.net.URL;
 import java.time.Duration;
 
@@ -13,30 +23,130 @@ import java.time.Duration;
  */
 public class BaseTest {
 
+    private static final TestDurationHistory DURATIONS =
+            new TestDurationHistory(new File(ConfigManager.getPerfHistoryDir(), "test-durations.properties"));
+    private static final DeviceScheduler SCHEDULER = new DeviceScheduler(DeviceRegistry.fromConfig(),
+            ConfigManager.getDeviceLeaseTimeout(), ConfigManager.getDurationAwareScheduling()
+                    ? device -> DURATIONS.getSpeedFactor(device.getName()) : null);
+    private static final ApkInstallManager INSTALLS =
+            new ApkInstallManager(new File(ConfigManager.getPerfHistoryDir(), "install-cache.properties"));
+
+    /**
+     * Driver of the most recent setUp call
+     * Only safe when tests run sequentially, use getDriver() for parallel runs
+     */
     protected AndroidDriver driver;
 
     /**
      * Sets up the Android driver before each test method
-     * Configures all necessary capabilities for the Slice app using ConfigManager
+     * Leases a free device, then a pooled session on it when session reuse is enabled
+     * With managed servers, the device's server is checked (and restarted if it hung) first
      */
     public void setUp() {
+        setUp(ConfigManager.getSessionResetStrategy());
+    }
+
+    /**
+     * Sets up the Android driver, resetting a reused session with the given strategy
+     * @param resetStrategy "clear", "restart" or "none", see session.reset.strategy
+     */
+    public void setUp(String resetStrategy) {
+        Device device = SCHEDULER.acquire();
+        try {
+            if (ConfigManager.getServerManaged()) {
+                ServerPool servers = ServerPool.getInstance();
+                int restarts = servers.getRestartCount(device.getName());
+                servers.ensureHealthy(device);
+                if (servers.getRestartCount(device.getName()) > restarts) {
+                    // Sessions kept for reuse died with the old server
+                    SessionPool.getInstance().discardIdle(device.getName());
+                }
+            }
+            AndroidDriver newDriver;
+            if (ConfigManager.getSessionReuse()) {
+                newDriver = SessionPool.getInstance().lease(device.getName(), () -> createDriver(device), resetStrategy);
+            } else {
+                newDriver = createDriver(device);
+            }
+            // A pooled session still holds the previous test's screenshots
+            ScreenshotBuffer.discardFrames(newDriver);
+            DriverManager.set(newDriver, device);
+            driver = newDriver;
+            if (ConfigManager.getSamplerEnabled()) {
+                ResourceSampler.start(newDriver, device.getName());
+            }
+        } catch (RuntimeException e) {
+            SCHEDULER.release(device);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the driver owned by the current test thread
+     * @return The driver leased in setUp
+     */
+    public AndroidDriver getDriver() {
+        return DriverManager.getDriver();
+    }
+
+    /**
+     * Creates a new Android driver session on the given device
+     * Configures all necessary capabilities for the Slice app using ConfigManager
+     * The APK is only pushed when the install cache says the device has a different build
+     * @param device The device to open the session on
+     * @return The new driver instance
+     */
+    protected AndroidDriver createDriver(Device device) {
         try {
+            String appPath = ConfigManager.getAppPath();
+            boolean install = !ConfigManager.getInstallCacheEnabled() || INSTALLS.needsInstall(device.getUdid(), appPath);
+
             DesiredCapabilities caps = new DesiredCapabilities();
             caps.setCapability("platformName", ConfigManager.getPlatformName());
             caps.setCapability("appium:automationName", ConfigManager.getAutomationName());
-            caps.setCapability("appium:deviceName", ConfigManager.getDeviceName());
-            caps.setCapability("appium:app", ConfigManager.getAppPath());
+            caps.setCapability("appium:deviceName", device.getName());
+            caps.setCapability("appium:udid", device.getUdid());
+            caps.setCapability("appium:systemPort", device.getSystemPort());
+            if (install) {
+                caps.setCapability("appium:app", appPath);
+            }
             caps.setCapability("appium:appPackage", ConfigManager.getAppPackage());
             caps.setCapability("appium:appActivity", ConfigManager.getAppActivity());
             caps.setCapability("appium:autoGrantPermissions", ConfigManager.getAutoGrantPermissions());
-            caps.setCapability("appium:noReset", ConfigManager.getNoReset());
+            // With the install skipped, app data is reset by the install cache instead of by Appium
+            caps.setCapability("appium:noReset", install ? ConfigManager.getNoReset() : true);
             caps.setCapability("appium:newCommandTimeout", ConfigManager.getNewCommandTimeout());
             caps.setCapability("appium:ensureWebviewsHavePages", true);
             caps.setCapability("appium:nativeWebScreenshot", true);
             caps.setCapability("appium:connectHardwareKeyboard", true);
 
-            driver = new AndroidDriver(new URL(ConfigManager.getServerUrl()), caps);
-            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(ConfigManager.getImplicitWait()));
+            URL serverUrl = new URL(ConfigManager.getServerManaged()
+                    ? ServerPool.getInstance().getUrl(device.getName()) : device.getServerUrl());
+            CommandRecorder recorder = ConfigManager.getRecordingEnabled()
+                    ? CommandRecorder.start(new File(ConfigManager.getRecordingDir()), device.getName()) : null;
+            AppiumCommandExecutor executor = recorder != null
+                    ? HttpTransport.commandExecutor(serverUrl, recorder) : HttpTransport.commandExecutor(serverUrl);
+            AndroidDriver newDriver;
+            try {
+                newDriver = ConfigManager.getDriverInstrumentationEnabled()
+                        ? new InstrumentedAndroidDriver(executor, caps)
+                        : new AndroidDriver(executor, caps);
+            } catch (RuntimeException e) {
+                if (recorder != null) {
+                    recorder.close();
+                }
+                throw e;
+            }
+            if (recorder != null) {
+                // The command log belongs to this session and is closed when the session is quit
+                SessionScope.put(newDriver, CommandRecorder.class, recorder);
+            }
+            ImplicitWaits.set(newDriver, Duration.ofSeconds(ConfigManager.getImplicitWait()));
+            if (ConfigManager.getInstallCacheEnabled()) {
+                INSTALLS.afterSessionStart(device.getUdid(), appPath, ConfigManager.getAppPackage(),
+                        new DriverAppInstaller(newDriver), install, !ConfigManager.getNoReset());
+            }
+            return newDriver;
         } catch (Exception e) {
             throw new RuntimeException("BaseTest setup failed: " + e.getMessage(), e);
         }
@@ -44,11 +154,54 @@ public class BaseTest {
 
     /**
      * Cleans up the driver after each test method
-     * Ensures the app is closed and resources are freed
+     * Pooled sessions are handed back for reuse, otherwise the app is closed and resources are freed,
+     * and the device is released for the next waiting thread
      */
     public void tearDown() {
-        if (driver != null) {
-            driver.quit();
+        AndroidDriver currentDriver = DriverManager.getDriver();
+        Device device = DriverManager.getDevice();
+        DriverManager.clear();
+        if (currentDriver == null) {
+            return;
+        }
+        ResourceSampler.stop(currentDriver);
+        try {
+            if (ConfigManager.getSessionReuse()) {
+                SessionPool.getInstance().release(device.getName(), currentDriver);
+            } else {
+                SessionScope.quit(currentDriver);
+            }
+        } finally {
+            SCHEDULER.release(device);
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Quits all pooled sessions, stops managed servers and prints the session reuse report
+     * Call this once at suite end
+     */
+    public static void shutdownSessions() {
+        SessionPool.getInstance().shutdown();
+        ServerPool.shutdownShared();
+        CommandRecorder.closeAll();
+        ArtifactPipeline.closeShared();
+        System.out.println("📦 Install cache: " + INSTALLS.getInstallCount() + " installs, "
+                + INSTALLS.getSkipCount() + " skipped, state " + INSTALLS.getState());
+    }
+
+    /**
+     * Gets the test duration history the scheduler plans from
+     * @return The history shared by all tests
+     */
+    public static TestDurationHistory getDurationHistory() {
+        return DURATIONS;
+    }
+
+    /**
+     * Gets the APK install cache so its state can be inspected
+     * @return The install manager shared by all sessions
+     */
+    public static ApkInstallManager getInstallManager() {
+        return INSTALLS;
+    }
+}
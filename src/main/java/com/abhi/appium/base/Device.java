@@ -0,0 +1,48 @@
+package com.abhi.appium.base;
+
+/**
+ * Device class describes one device in the farm
+ * Holds everything needed to open a session on it: udid, UiAutomator2 system port and server URL
+ */
+public class Device {
+
+    private final String name;
+    private final String udid;
+    private final int systemPort;
+    private final String serverUrl;
+
+    /**
+     * Constructor that creates a device description
+     * @param name The device name used as the pool key
+     * @param udid The device udid as reported by adb
+     * @param systemPort The UiAutomator2 system port reserved for this device
+     * @param serverUrl The Appium server URL that drives this device
+     */
+    public Device(String name, String udid, int systemPort, String serverUrl) {
+        this.name = name;
+        this.udid = udid;
+        this.systemPort = systemPort;
+        this.serverUrl = serverUrl;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUdid() {
+        return udid;
+    }
+
+    public int getSystemPort() {
+        return systemPort;
+    }
+
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (udid=" + udid + ", systemPort=" + systemPort + ", server=" + serverUrl + ")";
+    }
+}
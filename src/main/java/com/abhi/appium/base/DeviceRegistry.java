@@ -0,0 +1,51 @@
+package com.abhi.appium.base;
+
+import com.abhi.appium.config.ConfigManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DeviceRegistry class holds the list of devices available to the test run
+ * Devices are read from the "devices" property with per-device overrides in config.properties
+ */
+public class DeviceRegistry {
+
+    private final List<Device> devices;
+
+    /**
+     * Constructor that creates a registry from an explicit device list
+     * @param devices The devices available to the run
+     */
+    public DeviceRegistry(List<Device> devices) {
+        if (devices.isEmpty()) {
+            throw new IllegalArgumentException("Device registry needs at least one device");
+        }
+        this.devices = Collections.unmodifiableList(new ArrayList<>(devices));
+    }
+
+    /**
+     * Builds the registry from config.properties
+     * @return A registry with one entry per configured device
+     */
+    public static DeviceRegistry fromConfig() {
+        List<Device> devices = new ArrayList<>();
+        for (String name : ConfigManager.getDevices()) {
+            devices.add(new Device(
+                    name,
+                    ConfigManager.getDeviceUdid(name),
+                    ConfigManager.getDeviceSystemPort(name, devices.size()),
+                    ConfigManager.getDeviceServerUrl(name)));
+        }
+        return new DeviceRegistry(devices);
+    }
+
+    public List<Device> getDevices() {
+        return devices;
+    }
+
+    public int size() {
+        return devices.size();
+    }
+}
@@ -0,0 +1,98 @@
+package com.abhi.appium.base;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * DeviceScheduler class leases devices to TestNG worker threads
+ * Each device is held by at most one thread at a time, and threads block until a device is free
+ * Threads take the next test as soon as any device frees up, so faster devices naturally run
+ * more tests; when several devices are free the preferred (e.g. fastest) one is leased first
+ */
+public class DeviceScheduler {
+
+    private final BlockingQueue<FreeDevice> freeDevices;
+    private final List<Device> devices;
+    private final ToDoubleFunction<Device> preference;
+    private final long leaseTimeoutSeconds;
+
+    /**
+     * Constructor that makes every device in the registry available for leasing
+     * @param registry The devices to schedule
+     * @param leaseTimeoutSeconds How long a thread waits for a free device before failing
+     */
+    public DeviceScheduler(DeviceRegistry registry, long leaseTimeoutSeconds) {
+        this(registry, leaseTimeoutSeconds, null);
+    }
+
+    /**
+     * Constructor that leases free devices in order of preference
+     * The preference is read once when a device is queued, at start and on each release, so a
+     * value that changes while the device waits (e.g. a speed factor) can't reorder the queue
+     * @param registry The devices to schedule
+     * @param leaseTimeoutSeconds How long a thread waits for a free device before failing
+     * @param preference Ranks free devices, lowest first; null keeps registry order
+     */
+    public DeviceScheduler(DeviceRegistry registry, long leaseTimeoutSeconds, ToDoubleFunction<Device> preference) {
+        this.devices = registry.getDevices();
+        this.preference = preference;
+        this.leaseTimeoutSeconds = leaseTimeoutSeconds;
+        this.freeDevices = new PriorityBlockingQueue<>(Math.max(1, devices.size()),
+                Comparator.comparingDouble((FreeDevice free) -> free.rank).thenComparingInt(free -> free.order));
+        for (Device device : devices) {
+            release(device);
+        }
+    }
+
+    /**
+     * Leases a free device, waiting until one is released if all are busy
+     * @return The leased device
+     */
+    public Device acquire() {
+        try {
+            FreeDevice free = freeDevices.poll(leaseTimeoutSeconds, TimeUnit.SECONDS);
+            if (free == null) {
+                throw new IllegalStateException("No device became free within " + leaseTimeoutSeconds + " s");
+            }
+            return free.device;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a device", e);
+        }
+    }
+
+    /**
+     * Returns a device so another thread can lease it
+     * @param device The device to release
+     */
+    public void release(Device device) {
+        if (device != null) {
+            double rank = preference == null ? 0 : preference.applyAsDouble(device);
+            freeDevices.offer(new FreeDevice(device, rank, devices.indexOf(device)));
+        }
+    }
+
+    public int getFreeCount() {
+        return freeDevices.size();
+    }
+
+    /**
+     * A queued device with its preference as it was when the device was queued
+     */
+    private static final class FreeDevice {
+
+        private final Device device;
+        private final double rank;
+        private final int order;
+
+        private FreeDevice(Device device, double rank, int order) {
+            this.device = device;
+            this.rank = rank;
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.abhi.appium.base;
+
+import io.appium.java_client.android.AndroidDriver;
+
+import java.util.Map;
+
+/**
+ * DriverAppInstaller class performs install cache operations through an Appium session
+ */
+public class DriverAppInstaller implements AppInstaller {
+
+    private final AndroidDriver driver;
+
+    /**
+     * Constructor that wraps a live session
+     * @param driver The Android driver instance
+     */
+    public DriverAppInstaller(AndroidDriver driver) {
+        this.driver = driver;
+    }
+
+    @Override
+    public boolean isInstalled(String appPackage) {
+        return driver.isAppInstalled(appPackage);
+    }
+
+    @Override
+    public void install(String apkPath) {
+        driver.installApp(apkPath);
+    }
+
+    @Override
+    public void clearData(String appPackage) {
+        driver.terminateApp(appPackage);
+        driver.executeScript("mobile: clearApp", Map.of("appId", appPackage));
+    }
+
+    @Override
+    public void activate(String appPackage) {
+        driver.activateApp(appPackage);
+    }
+}
@@ -0,0 +1,42 @@
+package com.abhi.appium.base;
+
+import io.appium.java_client.android.AndroidDriver;
+
+/**
+ * DriverManager class holds the driver and device owned by the current thread
+ * This lets test methods run in parallel without sharing a driver field
+ */
+public final class DriverManager {
+
+    private static final ThreadLocal<AndroidDriver> DRIVER = new ThreadLocal<>();
+    private static final ThreadLocal<Device> DEVICE = new ThreadLocal<>();
+
+    private DriverManager() {
+    }
+
+    /**
+     * Binds a driver and its device to the current thread
+     * @param driver The driver for this thread
+     * @param device The device the driver runs on
+     */
+    public static void set(AndroidDriver driver, Device device) {
+        DRIVER.set(driver);
+        DEVICE.set(device);
+    }
+
+    public static AndroidDriver getDriver() {
+        return DRIVER.get();
+    }
+
+    public static Device getDevice() {
+        return DEVICE.get();
+    }
+
+    /**
+     * Unbinds the driver and device from the current thread
+     */
+    public static void clear() {
+        DRIVER.remove();
+        DEVICE.remove();
+    }
+}
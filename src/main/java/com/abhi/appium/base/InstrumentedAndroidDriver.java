@@ -0,0 +1,42 @@
+package com.abhi.appium.base;
+
+import com.abhi.appium.metrics.DriverCallMetrics;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.remote.CommandPayload;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.Response;
+
+/**
+ * InstrumentedAndroidDriver class is an AndroidDriver that times every command it executes
+ * Driver and element calls (find, click, sendKeys, isDisplayed, getPageSource...) all pass
+ * through execute, so each one lands in DriverCallMetrics with its locator strategy
+ * Tests keep using it as a plain AndroidDriver; with instrumentation off BaseTest creates
+ * a plain AndroidDriver instead, so there is no cost at all
+ */
+public class InstrumentedAndroidDriver extends AndroidDriver {
+
+    /**
+     * Constructor that starts an instrumented session
+     * @param executor The command executor for the server
+     * @param capabilities The session capabilities
+     */
+    public InstrumentedAndroidDriver(HttpCommandExecutor executor, Capabilities capabilities) {
+        super(executor, capabilities);
+    }
+
+    @Override
+    protected Response execute(CommandPayload payload) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Response response = super.execute(payload);
+            failed = false;
+            return response;
+        } finally {
+            Object using = payload.getParameters().get("using");
+            DriverCallMetrics.record(payload.getName(), using == null ? "" : using.toString(),
+                    System.nanoTime() - start, failed);
+        }
+    }
+}
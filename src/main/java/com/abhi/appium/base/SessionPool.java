@@ -0,0 +1,210 @@
+package com.abhi.appium.base;
+
+import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.utils.SessionScope;
+import com.abhi.appium.utils.WaitUtils;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.appmanagement.ApplicationState;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * SessionPool class keeps Appium sessions alive between test methods
+ * Tests lease a health-checked session instead of creating a new one every time,
+ * and sessions are only quit at suite end or when a health check fails
+ */
+public class SessionPool {
+
+    private static final SessionPool INSTANCE = new SessionPool();
+
+    private final Map<String, Deque<AndroidDriver>> idleSessions = new ConcurrentHashMap<>();
+    private final Set<AndroidDriver> allSessions = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger reused = new AtomicInteger();
+    private final AtomicInteger discarded = new AtomicInteger();
+    private final AtomicLong creationNanos = new AtomicLong();
+
+    private SessionPool() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::quitAll, "session-pool-shutdown"));
+    }
+
+    /**
+     * Gets the shared session pool
+     * @return The pool instance
+     */
+    public static SessionPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Leases a live session for the given key, creating one only when no healthy idle session exists
+     * @param key The pool key (usually the device name)
+     * @param factory Creates a brand new session when needed
+     * @return A ready-to-use driver
+     */
+    public AndroidDriver lease(String key, Supplier<AndroidDriver> factory) {
+        return lease(key, factory, ConfigManager.getSessionResetStrategy());
+    }
+
+    /**
+     * Leases a live session, resetting a reused one with the given strategy instead of the configured one
+     * @param key The pool key (usually the device name)
+     * @param factory Creates a brand new session when needed
+     * @param resetStrategy "clear", "restart" or "none"
+     * @return A ready-to-use driver
+     */
+    public AndroidDriver lease(String key, Supplier<AndroidDriver> factory, String resetStrategy) {
+        Deque<AndroidDriver> idle = idleSessions.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>());
+        AndroidDriver driver;
+        while ((driver = idle.pollFirst()) != null) {
+            if (isHealthy(driver) && resetAppState(driver, resetStrategy)) {
+                reused.incrementAndGet();
+                return driver;
+            }
+            discard(driver);
+        }
+
+        long start = System.nanoTime();
+        driver = factory.get();
+        creationNanos.addAndGet(System.nanoTime() - start);
+        created.incrementAndGet();
+        allSessions.add(driver);
+        return driver;
+    }
+
+    /**
+     * Returns a session to the pool so the next test can reuse it
+     * @param key The pool key the session was leased with
+     * @param driver The driver to return
+     */
+    public void release(String key, AndroidDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        idleSessions.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>()).offerFirst(driver);
+    }
+
+    /**
+     * Removes a session from the pool and quits it
+     * @param driver The driver to discard
+     */
+    public void discard(AndroidDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        allSessions.remove(driver);
+        discarded.incrementAndGet();
+        try {
+            SessionScope.quit(driver);
+        } catch (Exception e) {
+            System.out.println("ℹ️ Discarded session was already gone: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Quits the idle sessions of one key, e.g. after the server they ran on was restarted
+     * @param key The pool key (usually the device name)
+     */
+    public void discardIdle(String key) {
+        Deque<AndroidDriver> idle = idleSessions.get(key);
+        if (idle == null) {
+            return;
+        }
+        AndroidDriver driver;
+        while ((driver = idle.pollFirst()) != null) {
+            discard(driver);
+        }
+    }
+
+    /**
+     * Quits every pooled session and prints the session reuse report
+     * Call this once at suite end
+     */
+    public void shutdown() {
+        quitAll();
+        System.out.println(getReport());
+    }
+
+    /**
+     * Builds a one-line report of session creation time saved by reuse
+     * @return The report text
+     */
+    public String getReport() {
+        int createdCount = created.get();
+        long avgCreationMs = createdCount == 0 ? 0 : creationNanos.get() / createdCount / 1_000_000;
+        return "♻️ Session pool: created " + createdCount
+                + ", reused " + reused.get()
+                + ", discarded " + discarded.get()
+                + ", avg creation " + avgCreationMs + " ms"
+                + ", estimated creation time saved: " + (avgCreationMs * reused.get()) + " ms";
+    }
+
+    public int getCreatedCount() {
+        return created.get();
+    }
+
+    public int getReusedCount() {
+        return reused.get();
+    }
+
+    private void quitAll() {
+        for (AndroidDriver driver : allSessions) {
+            try {
+                SessionScope.quit(driver);
+            } catch (Exception e) {
+                System.out.println("ℹ️ Session already closed: " + e.getMessage());
+            }
+        }
+        allSessions.clear();
+        idleSessions.clear();
+    }
+
+    /**
+     * Checks that the session still answers and the app under test is installed
+     */
+    private boolean isHealthy(AndroidDriver driver) {
+        try {
+            if (driver.getSessionId() == null) {
+                return false;
+            }
+            return driver.queryAppState(ConfigManager.getAppPackage()) != ApplicationState.NOT_INSTALLED;
+        } catch (Exception e) {
+            System.out.println("⚠️ Pooled session failed health check: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Resets the app on a session
+     * "clear" wipes app data, "restart" only relaunches the app, "none" leaves it as is
+     * @param driver The session
+     * @param strategy The reset strategy
+     * @return true if the app was reset, false if the session could not do it
+     */
+    public boolean resetAppState(AndroidDriver driver, String strategy) {
+        String appPackage = ConfigManager.getAppPackage();
+        try {
+            if ("none".equalsIgnoreCase(strategy)) {
+                return true;
+            }
+            driver.terminateApp(appPackage);
+            if ("clear".equalsIgnoreCase(strategy)) {
+                driver.executeScript("mobile: clearApp", Map.of("appId", appPackage));
+            }
+            driver.activateApp(appPackage);
+            WaitUtils.forDriver(driver).screenChanged();
+            return true;
+        } catch (Exception e) {
+            System.out.println("⚠️ App reset failed on pooled session: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.abhi.appium.base;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ShardPlanner class orders tests longest-first and plans their spread across devices
+ * Each test goes to the device that would finish it earliest given its speed factor
+ * (longest processing time first), which keeps a long test from becoming the tail;
+ * the plan's makespan is reported against the ideal of perfectly divisible work
+ */
+public class ShardPlanner {
+
+    private final TestDurationHistory history;
+
+    /**
+     * Constructor that plans from the given history
+     * @param history The test durations and device speeds
+     */
+    public ShardPlanner(TestDurationHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Orders tests longest expected duration first, unknown tests counting as the longest
+     * @param testIds The tests to order
+     * @return The tests in scheduling order
+     */
+    public List<String> order(List<String> testIds) {
+        List<String> ordered = new ArrayList<>(testIds);
+        ordered.sort(Comparator.comparingLong((String test) -> history.getExpectedMillisOrLongest(test, testIds))
+                .reversed());
+        return ordered;
+    }
+
+    /**
+     * Plans which device runs which test
+     * @param testIds The tests to run
+     * @param devices The device names to spread them over
+     * @return The plan
+     */
+    public Plan plan(List<String> testIds, List<String> devices) {
+        Map<String, List<String>> assignments = new LinkedHashMap<>();
+        Map<String, Long> finishMillis = new LinkedHashMap<>();
+        for (String device : devices) {
+            assignments.put(device, new ArrayList<>());
+            finishMillis.put(device, 0L);
+        }
+        long totalWork = 0;
+        for (String test : order(testIds)) {
+            long expected = history.getExpectedMillisOrLongest(test, testIds);
+            totalWork += expected;
+            String best = null;
+            long bestFinish = Long.MAX_VALUE;
+            for (String device : devices) {
+                long finish = finishMillis.get(device) + Math.round(expected * history.getSpeedFactor(device));
+                if (finish < bestFinish) {
+                    best = device;
+                    bestFinish = finish;
+                }
+            }
+            if (best != null) {
+                assignments.get(best).add(test);
+                finishMillis.put(best, bestFinish);
+            }
+        }
+        long makespan = finishMillis.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        double capacity = 0;
+        for (String device : devices) {
+            capacity += 1 / history.getSpeedFactor(device);
+        }
+        long ideal = capacity == 0 ? 0 : Math.round(totalWork / capacity);
+        return new Plan(assignments, makespan, ideal);
+    }
+
+    /**
+     * Planned assignment of tests to devices
+     */
+    public static final class Plan {
+
+        private final Map<String, List<String>> assignments;
+        private final long makespanMillis;
+        private final long idealMillis;
+
+        Plan(Map<String, List<String>> assignments, long makespanMillis, long idealMillis) {
+            this.assignments = Collections.unmodifiableMap(assignments);
+            this.makespanMillis = makespanMillis;
+            this.idealMillis = idealMillis;
+        }
+
+        public Map<String, List<String>> getAssignments() {
+            return assignments;
+        }
+
+        /**
+         * Gets when the last device is expected to finish
+         * @return The planned makespan in milliseconds
+         */
+        public long getMakespanMillis() {
+            return makespanMillis;
+        }
+
+        /**
+         * Gets the makespan if the work could be split perfectly in proportion to device speed
+         * @return The ideal makespan in milliseconds
+         */
+        public long getIdealMillis() {
+            return idealMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "planned makespan " + makespanMillis + " ms, ideal " + idealMillis + " ms, " + assignments;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.abhi.appium.base;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Properties;
+
+/**
+ * TestDurationHistory class remembers how long each test takes and how fast each device is
+ * Durations are kept normalized to a reference device (speed 1.0) as moving averages, and a
+ * device's speed is how much longer than expected its tests take, so a test measured on a
+ * slow device still plans correctly for a fast one
+ */
+public class TestDurationHistory {
+
+    private static final String TEST_PREFIX = "test.";
+    private static final String DEVICE_PREFIX = "device.";
+    private static final double SMOOTHING = 0.3;
+
+    private final File historyFile;
+    private final Properties history = new Properties();
+
+    /**
+     * Constructor that loads the saved history
+     * @param historyFile The file durations and device speeds are kept in
+     */
+    public TestDurationHistory(File historyFile) {
+        this.historyFile = historyFile;
+        if (historyFile.exists()) {
+            try (InputStream input = new FileInputStream(historyFile)) {
+                history.load(input);
+            } catch (IOException e) {
+                System.out.println("Test duration history could not be read, starting fresh: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets a test's expected duration on a speed 1.0 device
+     * @param testId The test id (class and method name)
+     * @return The expected milliseconds, or -1 if the test never ran
+     */
+    public synchronized long getExpectedMillis(String testId) {
+        String value = history.getProperty(TEST_PREFIX + testId);
+        return value == null ? -1 : (long) Double.parseDouble(value);
+    }
+
+    /**
+     * Gets the expected duration of a test, treating unknown tests as the longest known one
+     * New tests are scheduled first, so a long new test cannot become the tail of the run
+     * @param testId The test id
+     * @param knownTests The tests being scheduled together
+     * @return The expected milliseconds
+     */
+    public synchronized long getExpectedMillisOrLongest(String testId, Collection<String> knownTests) {
+        long expected = getExpectedMillis(testId);
+        if (expected >= 0) {
+            return expected;
+        }
+        long longest = 0;
+        for (String other : knownTests) {
+            longest = Math.max(longest, getExpectedMillis(other));
+        }
+        return longest;
+    }
+
+    /**
+     * Gets how slow a device is compared with the reference
+     * @param device The device name
+     * @return The factor test durations are multiplied by on this device, 1.0 if unknown
+     */
+    public synchronized double getSpeedFactor(String device) {
+        String value = history.getProperty(DEVICE_PREFIX + device);
+        return value == null ? 1.0 : Double.parseDouble(value);
+    }
+
+    /**
+     * Records one test run, updating the test's expected duration and the device's speed
+     * @param testId The test id
+     * @param device The device it ran on
+     * @param millis How long it took
+     */
+    public synchronized void record(String testId, String device, long millis) {
+        double speed = getSpeedFactor(device);
+        long expected = getExpectedMillis(testId);
+        if (expected > 0) {
+            double ratio = millis / (double) expected;
+            history.setProperty(DEVICE_PREFIX + device, String.valueOf(smooth(speed, ratio)));
+        }
+        double normalized = millis / speed;
+        history.setProperty(TEST_PREFIX + testId,
+                String.valueOf(expected < 0 ? normalized : smooth(expected, normalized)));
+    }
+
+    /**
+     * Writes the history back to its file
+     */
+    public synchronized void save() {
+        File directory = historyFile.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            System.out.println("Test duration history directory could not be created: " + directory);
+            return;
+        }
+        try (OutputStream output = new FileOutputStream(historyFile)) {
+            history.store(output, "Test durations in ms on a speed 1.0 device, and device speed factors");
+        } catch (IOException e) {
+            System.out.println("Test duration history could not be written: " + e.getMessage());
+        }
+    }
+
+    private static double smooth(double previous, double sample) {
+        return previous + SMOOTHING * (sample - previous);
+    }
+}
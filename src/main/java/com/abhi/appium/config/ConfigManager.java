@@ -2,6 +2,8 @@ package com.abhi.appium.config;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -21,8 +23,9 @@ public class ConfigManager {
     private static final String DEFAULT_APP_PATH = "/Users/abhinav/Downloads/appAndroid.apk";
     private static final String DEFAULT_APP_PACKAGE = "indwin.c3.shareapp.test";
     private static final String DEFAULT_APP_ACTIVITY = "com.slice.android.main.SingleActivity";
-    private static final int DEFAULT_IMPLICIT_WAIT = 10;
+    private static final int DEFAULT_IMPLICIT_WAIT = 0;
     private static final int DEFAULT_EXPLICIT_WAIT = 15;
+    private static final int DEFAULT_SYSTEM_PORT = 8200;
 
     static {
         loadProperties();
@@ -44,12 +47,13 @@ public class ConfigManager {
 
     /**
      * Gets a property value, returning the default if not found
+     * A JVM system property with the same key (e.g. -Dexplicit.wait=5) overrides the file
      * @param key The property key
      * @param defaultValue The default value to return if key not found
      * @return The property value or default
      */
     private static String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        return System.getProperty(key, properties.getProperty(key, defaultValue));
     }
 
     /**
@@ -59,7 +63,7 @@ public class ConfigManager {
      * @return The property value as integer or default
      */
     private static int getIntProperty(String key, int defaultValue) {
-        String value = properties.getProperty(key);
+        String value = getProperty(key, null);
         if (value != null) {
             try {
                 return Integer.parseInt(value);
@@ -70,6 +74,24 @@ public class ConfigManager {
         return defaultValue;
     }
 
+    /**
+     * Gets a decimal property value, returning the default if not found
+     * @param key The property key
+     * @param defaultValue The default value to return if key not found
+     * @return The property value as double or default
+     */
+    private static double getDoubleProperty(String key, double defaultValue) {
+        String value = getProperty(key, null);
+        if (value != null) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid decimal value for " + key + ", using default: " + defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     // Configuration getter methods
     public static String getServerUrl() {
         return getProperty("appium.server.url", DEFAULT_SERVER_URL);
@@ -118,4 +140,285 @@ public class ConfigManager {
     public static int getNewCommandTimeout() {
         return getIntProperty("new.command.timeout", 3600);
     }
-} 
\ No newline at end of file
+
+    public static boolean getSessionReuse() {
+        return Boolean.parseBoolean(getProperty("session.reuse", "true"));
+    }
+
+    public static String getSessionResetStrategy() {
+        return getProperty("session.reset.strategy", "clear");
+    }
+
+    public static List<String> getDevices() {
+        List<String> devices = new ArrayList<>();
+        for (String name : getProperty("devices", getDeviceName()).split(",")) {
+            if (!name.trim().isEmpty()) {
+                devices.add(name.trim());
+            }
+        }
+        return devices;
+    }
+
+    public static String getDeviceUdid(String device) {
+        return getProperty("device." + device + ".udid", device);
+    }
+
+    public static int getDeviceSystemPort(String device, int index) {
+        return getIntProperty("device." + device + ".system.port", DEFAULT_SYSTEM_PORT + index);
+    }
+
+    public static String getDeviceServerUrl(String device) {
+        return getProperty("device." + device + ".server.url", getServerUrl());
+    }
+
+    public static int getDeviceLeaseTimeout() {
+        return getIntProperty("device.lease.timeout", 600);
+    }
+
+    public static long getWaitPollMinMillis() {
+        return getIntProperty("wait.poll.min.ms", 50);
+    }
+
+    public static long getWaitPollMaxMillis() {
+        return getIntProperty("wait.poll.max.ms", 500);
+    }
+
+    public static long getTransitionTimeoutMillis() {
+        return getIntProperty("flow.transition.timeout.ms", 10000);
+    }
+
+    public static int getFlowStepRetries() {
+        return getIntProperty("flow.step.retries", 1);
+    }
+
+    public static long getFlowRetryBackoffMillis() {
+        return getIntProperty("flow.retry.backoff.ms", 500);
+    }
+
+    public static long getSnapshotMaxAgeMillis() {
+        return getIntProperty("snapshot.max.age.ms", 1000);
+    }
+
+    public static String getAppVersion() {
+        return getProperty("app.version", "unknown");
+    }
+
+    public static String getPerfHistoryDir() {
+        return getProperty("perf.history.dir", "perf-history");
+    }
+
+    public static boolean getLocatorOptimizerEnabled() {
+        return Boolean.parseBoolean(getProperty("locator.optimizer.enabled", "true"));
+    }
+
+    public static long getLocatorOptimizerBudgetMillis() {
+        return getIntProperty("locator.optimizer.budget.ms", 3000);
+    }
+
+    public static String getPerfReportDir() {
+        return getProperty("perf.report.dir", "target/perf-reports");
+    }
+
+    public static boolean getLoginFastPath() {
+        return Boolean.parseBoolean(getProperty("login.fast.path", "true"));
+    }
+
+    public static long getOptionalElementBudgetMillis() {
+        return getIntProperty("optional.element.budget.ms", 300);
+    }
+
+    public static boolean getInterruptWatcherEnabled() {
+        return Boolean.parseBoolean(getProperty("interrupt.watcher.enabled", "true"));
+    }
+
+    public static long getInterruptWatcherPollMillis() {
+        return getIntProperty("interrupt.watcher.poll.ms", 250);
+    }
+
+    public static boolean getInstallCacheEnabled() {
+        return Boolean.parseBoolean(getProperty("install.cache.enabled", "true"));
+    }
+
+    public static boolean getRecordingEnabled() {
+        return Boolean.parseBoolean(getProperty("recording.enabled", "false"));
+    }
+
+    public static String getRecordingDir() {
+        return getProperty("recording.dir", "perf-history/recordings");
+    }
+
+    public static boolean getLoginBatchEnabled() {
+        return Boolean.parseBoolean(getProperty("login.batch.enabled", "false"));
+    }
+
+    public static boolean getArtifactsEnabled() {
+        return Boolean.parseBoolean(getProperty("artifacts.enabled", "true"));
+    }
+
+    public static String getArtifactsDir() {
+        return getProperty("artifacts.dir", "target/artifacts");
+    }
+
+    public static int getArtifactThreads() {
+        return getIntProperty("artifacts.threads", 2);
+    }
+
+    public static int getArtifactQueueSize() {
+        return getIntProperty("artifacts.queue.size", 32);
+    }
+
+    public static long getArtifactDiskBudgetBytes() {
+        return getIntProperty("artifacts.disk.budget.mb", 200) * 1024L * 1024L;
+    }
+
+    public static int getArtifactScreenshotBuffer() {
+        return getIntProperty("artifacts.screenshot.buffer", 0);
+    }
+
+    public static long getTransportConnectTimeoutMillis() {
+        return getIntProperty("transport.connect.timeout.ms", 10000);
+    }
+
+    public static long getTransportCommandTimeoutMillis() {
+        return getIntProperty("transport.command.timeout.ms", 60000);
+    }
+
+    public static long getTransportLongCommandTimeoutMillis() {
+        return getIntProperty("transport.long.command.timeout.ms", 600000);
+    }
+
+    public static String getTransportHttpVersion() {
+        return getProperty("transport.http.version", "HTTP_1_1");
+    }
+
+    public static int getTransportKeepAliveSeconds() {
+        return getIntProperty("transport.keepalive.seconds", 300);
+    }
+
+    public static int getTransportPoolSize() {
+        return getIntProperty("transport.pool.size", 0);
+    }
+
+    public static boolean getDriverInstrumentationEnabled() {
+        return Boolean.parseBoolean(getProperty("driver.instrumentation.enabled", "false"));
+    }
+
+    public static boolean getDurationAwareScheduling() {
+        return Boolean.parseBoolean(getProperty("scheduling.duration.aware", "true"));
+    }
+
+    public static int getBenchmarkIterations() {
+        return getIntProperty("benchmark.iterations", 5);
+    }
+
+    public static int getBenchmarkWarmupIterations() {
+        return getIntProperty("benchmark.warmup.iterations", 1);
+    }
+
+    public static double getBenchmarkRegressionThresholdPercent() {
+        return getDoubleProperty("benchmark.regression.threshold.pct", 10);
+    }
+
+    public static double getBenchmarkSignificance() {
+        return getDoubleProperty("benchmark.significance", 0.05);
+    }
+
+    public static int getBenchmarkBaselineRuns() {
+        return getIntProperty("benchmark.baseline.runs", 5);
+    }
+
+    public static String getBenchmarkBaselineVersion() {
+        String version = getProperty("benchmark.baseline.version", "");
+        return version.isEmpty() ? null : version;
+    }
+
+    public static boolean getSamplerEnabled() {
+        return Boolean.parseBoolean(getProperty("sampler.enabled", "false"));
+    }
+
+    public static long getSamplerIntervalMillis() {
+        return getIntProperty("sampler.interval.ms", 1000);
+    }
+
+    public static boolean getSamplerGfxInfo() {
+        return Boolean.parseBoolean(getProperty("sampler.gfxinfo", "false"));
+    }
+
+    public static boolean getServerManaged() {
+        return Boolean.parseBoolean(getProperty("server.managed", "false"));
+    }
+
+    public static String getServerCommand() {
+        return getProperty("server.command", "appium");
+    }
+
+    public static List<String> getServerArgs() {
+        List<String> args = new ArrayList<>();
+        for (String arg : getProperty("server.args", "").split("\\s+")) {
+            if (!arg.isEmpty()) {
+                args.add(arg);
+            }
+        }
+        return args;
+    }
+
+    public static int getServerBasePort() {
+        return getIntProperty("server.port.base", 4723);
+    }
+
+    public static long getServerStartTimeoutMillis() {
+        return getIntProperty("server.start.timeout.ms", 60000);
+    }
+
+    public static int getServerHealthTimeoutMillis() {
+        return getIntProperty("server.health.timeout.ms", 3000);
+    }
+
+    public static String getDefaultPhoneNumber() {
+        return getProperty("default.phone.number", "8278650784");
+    }
+
+    public static String getDefaultOtp() {
+        return getProperty("default.otp", "0000");
+    }
+
+    public static String getDefaultMpin() {
+        return getProperty("default.mpin", "2580");
+    }
+
+    public static String getLoadAccountsFile() {
+        return getProperty("load.accounts.file", "test-data/accounts.csv");
+    }
+
+    public static int getLoadWorkers() {
+        return getIntProperty("load.workers", 0);
+    }
+
+    public static long getLoadMaxAccounts() {
+        return getIntProperty("load.max.accounts", 0);
+    }
+
+    public static double getLoadTargetPerMinute() {
+        return getDoubleProperty("load.target.per.minute", 0);
+    }
+
+    public static double getLoadRampUpSeconds() {
+        return getDoubleProperty("load.rampup.seconds", 0);
+    }
+
+    public static int getLoadReportIntervalSeconds() {
+        return getIntProperty("load.report.interval.seconds", 10);
+    }
+
+    public static double getLoadMaxErrorPercent() {
+        return getDoubleProperty("load.max.error.pct", 5);
+    }
+
+    public static boolean getSettingsProfilesEnabled() {
+        return Boolean.parseBoolean(getProperty("settings.profiles.enabled", "true"));
+    }
+
+    public static String getSettingsProfileValue(String profile, String setting) {
+        return getProperty("settings.profile." + profile + "." + setting, null);
+    }
+}
@@ -0,0 +1,106 @@
+package com.abhi.appium.flows;
+
+import com.abhi.appium.utils.Locators;
+import org.openqa.selenium.By;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * BatchStep class is one page-object action that can run inside a server-side batch
+ * It carries both the plan entry the batch script interprets on the server and the
+ * page method to run client-side when the batch falls back to step-by-step execution
+ */
+public class BatchStep {
+
+    private final String name;
+    private final String pageMethod;
+    private final Map<String, Object> plan = new LinkedHashMap<>();
+    private Runnable fallback;
+
+    private BatchStep(String name, String pageMethod, String op, By locator, long timeoutMillis, Runnable fallback) {
+        String[] parameters = Locators.parameters(locator);
+        if (parameters == null) {
+            throw new IllegalArgumentException("Locator can't be sent to a batch script: " + locator);
+        }
+        this.name = name;
+        this.pageMethod = pageMethod;
+        this.fallback = fallback;
+        plan.put("name", name);
+        plan.put("op", op);
+        plan.put("using", parameters[0]);
+        plan.put("value", parameters[1]);
+        plan.put("timeoutMs", timeoutMillis);
+    }
+
+    /**
+     * Waits for an element and clicks it
+     */
+    public static BatchStep click(String name, String pageMethod, By locator, long timeoutMillis, Runnable fallback) {
+        return new BatchStep(name, pageMethod, "click", locator, timeoutMillis, fallback);
+    }
+
+    /**
+     * Clicks an element if it shows up within the budget, otherwise moves on
+     */
+    public static BatchStep clickIfPresent(String name, String pageMethod, By locator, long budgetMillis, Runnable fallback) {
+        return new BatchStep(name, pageMethod, "clickIfPresent", locator, budgetMillis, fallback);
+    }
+
+    /**
+     * Waits for an element and types into it, optionally clicking it afterwards
+     */
+    public static BatchStep sendKeys(String name, String pageMethod, By locator, String text, boolean clickAfter,
+                                     long timeoutMillis, Runnable fallback) {
+        BatchStep step = new BatchStep(name, pageMethod, "sendKeys", locator, timeoutMillis, fallback);
+        step.plan.put("text", text);
+        step.plan.put("clickAfter", clickAfter);
+        return step;
+    }
+
+    /**
+     * Waits for an element to be present
+     */
+    public static BatchStep await(String name, String pageMethod, By locator, long timeoutMillis, Runnable fallback) {
+        return new BatchStep(name, pageMethod, "await", locator, timeoutMillis, fallback);
+    }
+
+    /**
+     * Waits for an input to be focused and empty (or showing only its hint)
+     */
+    public static BatchStep awaitReadyInput(String name, String pageMethod, By locator, long timeoutMillis, Runnable fallback) {
+        return new BatchStep(name, pageMethod, "awaitReadyInput", locator, timeoutMillis, fallback);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPageMethod() {
+        return pageMethod;
+    }
+
+    public Runnable getFallback() {
+        return fallback;
+    }
+
+    /**
+     * Replaces the client-side fallback, e.g. with a flow engine step that adds retries
+     * @param fallback The action to run if the batch stops at or before this step
+     */
+    void setFallback(Runnable fallback) {
+        this.fallback = fallback;
+    }
+
+    public long getTimeoutMillis() {
+        return (Long) plan.get("timeoutMs");
+    }
+
+    /**
+     * Gets the plan entry sent to the batch script
+     * @return The step as a JSON-ready map
+     */
+    public Map<String, Object> toPlan() {
+        return plan;
+    }
+}
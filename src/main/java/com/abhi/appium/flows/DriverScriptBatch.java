@@ -0,0 +1,281 @@
+package com.abhi.appium.flows;
+
+import com.abhi.appium.metrics.FlowMetrics;
+import com.abhi.appium.utils.SessionLock;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.driverscripts.ScriptOptions;
+import io.appium.java_client.driverscripts.ScriptType;
+import io.appium.java_client.driverscripts.ScriptValue;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * DriverScriptBatch class runs a sequence of page-object steps on the Appium server in one call
+ * The steps are compiled into a webdriverio driver script (executeDriverScript), so their
+ * finds, polls, clicks and key input cost one client round trip instead of one each
+ * If the batch fails part way, the remaining steps run client-side from the first failed step;
+ * if the call itself fails (e.g. the script timed out), how far the server got is unknown, so the
+ * screen is probed again and the steps continue from the one it shows. Only a server that
+ * doesn't know the execute-driver command makes the session fall back for good
+ */
+public class DriverScriptBatch {
+
+    private static final String SCRIPT_RESOURCE = "/scripts/batch.js";
+    private static final String SCRIPT_TEMPLATE = loadTemplate();
+    private static final Json JSON = new Json();
+    private static final Set<AndroidDriver> UNSUPPORTED = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+    private static final AtomicLong TOTAL_SAVED_ROUND_TRIPS = new AtomicLong();
+
+    private final AndroidDriver driver;
+    private final String flow;
+    private final String device;
+    private final List<BatchStep> steps = new ArrayList<>();
+    private IntSupplier resumeProbe = () -> 0;
+    private long savedRoundTrips;
+    private int batchedSteps;
+
+    /**
+     * Constructor that creates an empty batch
+     * @param driver The driver to run the batch with
+     * @param flow The flow name used for step metrics
+     * @param device The device name used for step metrics
+     */
+    public DriverScriptBatch(AndroidDriver driver, String flow, String device) {
+        this.driver = driver;
+        this.flow = flow;
+        this.device = device;
+    }
+
+    /**
+     * Adds a step to the end of the batch
+     * @param step The step to add
+     * @return This batch, for chaining
+     */
+    public DriverScriptBatch add(BatchStep step) {
+        steps.add(step);
+        return this;
+    }
+
+    /**
+     * Sets how to find where to continue when the batch call fails without telling how far it got
+     * @param resumeProbe Probes the screen and gives the index of the first step still to run
+     * @return This batch, for chaining
+     */
+    public DriverScriptBatch resumeProbe(IntSupplier resumeProbe) {
+        this.resumeProbe = resumeProbe;
+        return this;
+    }
+
+    /**
+     * Runs the batch, falling back to client-side steps from the first step that failed
+     * Fallback steps throw like normal steps, so a step that fails both ways fails the flow
+     */
+    public void run() {
+        int firstClientStep = 0;
+        if (!steps.isEmpty() && !UNSUPPORTED.contains(driver)) {
+            firstClientStep = runOnServer();
+        }
+        for (int i = firstClientStep; i < steps.size(); i++) {
+            steps.get(i).getFallback().run();
+        }
+    }
+
+    /**
+     * Gets the client round trips this batch avoided: server-side commands minus the batch call
+     * @return Saved round trips
+     */
+    public long getSavedRoundTrips() {
+        return savedRoundTrips;
+    }
+
+    /**
+     * Gets how many steps completed on the server
+     * @return Batched step count
+     */
+    public int getBatchedSteps() {
+        return batchedSteps;
+    }
+
+    /**
+     * Gets the round trips saved by every batch in this run
+     * @return Saved round trips
+     */
+    public static long getTotalSavedRoundTrips() {
+        return TOTAL_SAVED_ROUND_TRIPS.get();
+    }
+
+    /**
+     * Builds the driver script for the current steps
+     * @return The webdriverio script source
+     */
+    public String toScript() {
+        List<Map<String, Object>> plan = new ArrayList<>();
+        for (BatchStep step : steps) {
+            plan.add(step.toPlan());
+        }
+        return SCRIPT_TEMPLATE.replace("PLAN;", JSON.toJson(plan).replace('\n', ' ') + ";");
+    }
+
+    /**
+     * Runs the steps on the server and records each completed step
+     * @return The index of the first step that still has to run client-side
+     */
+    private int runOnServer() {
+        long timeoutMillis = 0;
+        for (BatchStep step : steps) {
+            timeoutMillis += step.getTimeoutMillis();
+        }
+        ScriptOptions options = new ScriptOptions().withScriptType(ScriptType.WEBDRIVERIO).withTimeout(timeoutMillis);
+        String script = toScript();
+        long start = System.nanoTime();
+        ServerResult result;
+        try {
+            ScriptValue value = SessionLock.call(driver, () -> driver.executeDriverScript(script, options));
+            result = ServerResult.parse(value.getResult());
+        } catch (UnsupportedCommandException e) {
+            UNSUPPORTED.add(driver);
+            System.out.println("ℹ️ Server can't run driver scripts, running steps one by one: " + firstLine(e.getMessage()));
+            return 0;
+        } catch (RuntimeException e) {
+            return resumeAfterLostBatch(e);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        int completed = Math.min(result.getCompletedSteps(), steps.size());
+        for (int i = 0; i < completed; i++) {
+            BatchStep step = steps.get(i);
+            FlowMetrics.recordStep(flow, step.getName(), step.getPageMethod(), device, 0,
+                    result.steps.get(i).millis * 1_000_000, "batched");
+        }
+        if (completed < steps.size() && completed < result.steps.size()) {
+            StepOutcome failed = result.steps.get(completed);
+            System.out.println("ℹ️ Batch step " + failed.name + " failed on the server ("
+                    + failed.error + "), continuing step by step");
+        }
+        long commands = result.getCommands();
+        batchedSteps += completed;
+        savedRoundTrips += commands - 1;
+        TOTAL_SAVED_ROUND_TRIPS.addAndGet(commands - 1);
+        System.out.println("📦 Batch ran " + completed + "/" + steps.size() + " steps server-side in "
+                + elapsedNanos / 1_000_000 + " ms: " + commands + " commands in 1 round trip");
+        return completed;
+    }
+
+    /**
+     * Finds where to continue after a batch call that failed without results
+     * Steps before the one the screen shows are counted as batched: the server did them
+     */
+    private int resumeAfterLostBatch(RuntimeException e) {
+        int resumeAt;
+        try {
+            resumeAt = Math.max(0, Math.min(steps.size(), resumeProbe.getAsInt()));
+        } catch (RuntimeException probeError) {
+            resumeAt = 0;
+        }
+        System.out.println("ℹ️ Batch call failed (" + firstLine(e.getMessage()) + "), the screen shows "
+                + (resumeAt < steps.size() ? "step " + steps.get(resumeAt).getName() : "every step done")
+                + ", continuing step by step");
+        batchedSteps += resumeAt;
+        return resumeAt;
+    }
+
+    private static String firstLine(String message) {
+        return String.valueOf(message).split("\n")[0];
+    }
+
+    /**
+     * What the batch script returned: each step's outcome in order, and the commands it sent
+     */
+    static final class ServerResult {
+
+        private final List<StepOutcome> steps;
+        private final long commands;
+
+        private ServerResult(List<StepOutcome> steps, long commands) {
+            this.steps = steps;
+            this.commands = commands;
+        }
+
+        /**
+         * Reads the script's return value, checking its shape rather than trusting it
+         * @param value The decoded script result
+         * @return The parsed result
+         * @throws IllegalStateException if the value isn't what batch.js returns
+         */
+        static ServerResult parse(Object value) {
+            if (!(value instanceof Map)) {
+                throw new IllegalStateException("Batch script returned " + value);
+            }
+            Map<?, ?> result = (Map<?, ?>) value;
+            if (!(result.get("results") instanceof List) || !(result.get("commands") instanceof Number)) {
+                throw new IllegalStateException("Batch script result has no results or commands: " + value);
+            }
+            List<StepOutcome> outcomes = new ArrayList<>();
+            for (Object entry : (List<?>) result.get("results")) {
+                if (!(entry instanceof Map)) {
+                    throw new IllegalStateException("Batch step result is not an object: " + entry);
+                }
+                Map<?, ?> step = (Map<?, ?>) entry;
+                Object ms = step.get("ms");
+                outcomes.add(new StepOutcome(String.valueOf(step.get("name")), Boolean.TRUE.equals(step.get("ok")),
+                        ms instanceof Number ? ((Number) ms).longValue() : 0, step.get("error")));
+            }
+            return new ServerResult(outcomes, ((Number) result.get("commands")).longValue());
+        }
+
+        int getCompletedSteps() {
+            int completed = 0;
+            while (completed < steps.size() && steps.get(completed).ok) {
+                completed++;
+            }
+            return completed;
+        }
+
+        long getCommands() {
+            return commands;
+        }
+    }
+
+    /**
+     * One step's outcome on the server
+     */
+    private static final class StepOutcome {
+
+        private final String name;
+        private final boolean ok;
+        private final long millis;
+        private final Object error;
+
+        StepOutcome(String name, boolean ok, long millis, Object error) {
+            this.name = name;
+            this.ok = ok;
+            this.millis = millis;
+            this.error = error;
+        }
+    }
+
+    private static String loadTemplate() {
+        try (InputStream input = DriverScriptBatch.class.getResourceAsStream(SCRIPT_RESOURCE)) {
+            if (input == null) {
+                throw new IllegalStateException("Missing batch script " + SCRIPT_RESOURCE);
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
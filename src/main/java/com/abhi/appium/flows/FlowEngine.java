@@ -0,0 +1,400 @@
+package com.abhi.appium.flows;
+
+import com.abhi.appium.artifacts.ScreenshotBuffer;
+import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.metrics.ResourceSampler;
+import com.abhi.appium.metrics.SettingsProfileMetrics;
+import com.abhi.appium.metrics.StepTimer;
+import com.abhi.appium.transport.CommandTimeoutException;
+import com.abhi.appium.utils.AdaptiveWait;
+import com.abhi.appium.utils.DriverSettings;
+import com.abhi.appium.utils.SettingsProfile;
+import com.abhi.appium.utils.WaitUtils;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/**
+ * FlowEngine class runs a flow declared as a list of FlowSteps
+ * A transient failure (a stale element, or a command lost in transport) retries only the
+ * failing step, a lost command only once the step is known not to have gone through or is
+ * safe to repeat; a step that runs out of retries fails the run, and resume() later continues
+ * from the step after the last passed checkpoint instead of starting the flow over
+ * A step that already ran in this flow runs its retry hook before running again, so a resumed
+ * step starts from the same state as a retried one (e.g. an empty input)
+ * In batch mode, consecutive steps with a server-side form run as one DriverScriptBatch
+ * Each step runs under its driver settings profile, and the server's own settings are put back when the run ends
+ */
+public class FlowEngine {
+
+    private final AndroidDriver driver;
+    private final String flow;
+    private final StepTimer timer;
+    private final ScreenshotBuffer screenshots;
+    private final DriverSettings settings;
+    private final List<FlowStep> steps = new ArrayList<>();
+    private final List<FlowStepResult> results = new ArrayList<>();
+    private final Set<Integer> attempted = new HashSet<>();
+    private final long retryBackoffMillis = ConfigManager.getFlowRetryBackoffMillis();
+    private final String device;
+    private boolean batchMode;
+    private IntSupplier resumeProbe;
+    private int checkpoint;
+    private String failedStep;
+
+    /**
+     * Constructor that creates an engine for one flow run
+     * @param driver The driver the steps use
+     * @param flow The flow name used for step metrics
+     * @param device The device name used for step metrics
+     */
+    public FlowEngine(AndroidDriver driver, String flow, String device) {
+        this.driver = driver;
+        this.flow = flow;
+        this.device = device;
+        this.timer = new StepTimer(flow, device);
+        this.screenshots = ScreenshotBuffer.forDriver(driver);
+        this.settings = DriverSettings.forDriver(driver);
+    }
+
+    /**
+     * Adds a step to the end of the flow
+     * @param step The step to add
+     * @return This engine, for chaining
+     */
+    public FlowEngine step(FlowStep step) {
+        steps.add(step);
+        return this;
+    }
+
+    /**
+     * Runs steps that have a server-side form as batches
+     * @param batchMode true to batch consecutive batchable steps
+     * @return This engine, for chaining
+     */
+    public FlowEngine batchMode(boolean batchMode) {
+        this.batchMode = batchMode;
+        return this;
+    }
+
+    /**
+     * Sets how to find the step the screen is at when a batch call or a step's command is lost
+     * without telling how far it got
+     * @param resumeProbe Probes the screen and gives the index of the first step still to run
+     * @return This engine, for chaining
+     */
+    public FlowEngine resumeProbe(IntSupplier resumeProbe) {
+        this.resumeProbe = resumeProbe;
+        return this;
+    }
+
+    /**
+     * Runs the flow from the first step
+     * @return true if every step passed or was skipped
+     */
+    public boolean run() {
+        checkpoint = 0;
+        results.clear();
+        attempted.clear();
+        return runFrom(0);
+    }
+
+    /**
+     * Continues a failed run from the step after the last passed checkpoint
+     * @return true if the remaining steps passed or were skipped
+     */
+    public boolean resume() {
+        if (failedStep == null) {
+            return true;
+        }
+        System.out.println("⏯️ Resuming " + flow + " from step " + (checkpoint < steps.size()
+                ? steps.get(checkpoint).getName() : "end") + " after " + failedStep + " failed");
+        return runFrom(checkpoint);
+    }
+
+    /**
+     * Gets each step's outcome, in the order the steps ran
+     * @return The step results
+     */
+    public List<FlowStepResult> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Gets the step that failed the last run
+     * @return The step name, or null if the last run passed
+     */
+    public String getFailedStep() {
+        return failedStep;
+    }
+
+    private boolean runFrom(int start) {
+        failedStep = null;
+        int index = start;
+        try {
+            while (index < steps.size()) {
+                int batchEnd = batchMode ? batchEnd(index) : index;
+                if (batchEnd > index + 1) {
+                    runBatch(index, batchEnd);
+                    index = batchEnd;
+                } else {
+                    execute(index);
+                    index++;
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("Flow " + flow + " failed at " + failedStep + ": " + e.getMessage());
+            return false;
+        } finally {
+            restoreSettings();
+        }
+    }
+
+    /**
+     * Puts back the server's own settings, keeping a failed run's error if the session is gone
+     */
+    private void restoreSettings() {
+        try {
+            settings.restore();
+        } catch (WebDriverException e) {
+            System.out.println("ℹ️ Driver settings could not be restored after " + flow + ": " + firstLine(e.getMessage()));
+        }
+    }
+
+    /**
+     * Finds the end of the run of batchable steps starting at an index
+     * Steps whose precondition fails are skipped inside the batch rather than ending it
+     */
+    private int batchEnd(int start) {
+        int end = start;
+        while (end < steps.size() && steps.get(end).hasBatchForm()) {
+            end++;
+        }
+        return end;
+    }
+
+    private void runBatch(int start, int end) {
+        DriverScriptBatch batch = new DriverScriptBatch(driver, flow, device);
+        List<Integer> batched = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            FlowStep step = steps.get(i);
+            if (!step.shouldRun()) {
+                results.add(new FlowStepResult(step.getName(), FlowStepResult.Outcome.SKIPPED, 0, 0, null));
+                continue;
+            }
+            int index = i;
+            BatchStep batchStep = step.toBatchStep();
+            batchStep.setFallback(() -> execute(index));
+            batch.add(batchStep);
+            batched.add(i);
+            // The server may have half-done a step that then falls back, so its retry hook runs first
+            attempted.add(i);
+        }
+        if (resumeProbe != null) {
+            batch.resumeProbe(() -> {
+                int first = resumeProbe.getAsInt();
+                int position = 0;
+                while (position < batched.size() && batched.get(position) < first) {
+                    position++;
+                }
+                return position;
+            });
+        }
+        // Steps that fall back record their own results while the batch runs
+        int position = results.size();
+        try {
+            settings.use(commonSettings(batched));
+            batch.run();
+        } finally {
+            List<FlowStepResult> batchedResults = new ArrayList<>();
+            for (int i = 0; i < batch.getBatchedSteps(); i++) {
+                FlowStep step = steps.get(batched.get(i));
+                batchedResults.add(new FlowStepResult(step.getName(), FlowStepResult.Outcome.BATCHED, 1, 0, null));
+                if (step.isCheckpoint()) {
+                    checkpoint = batched.get(i) + 1;
+                }
+            }
+            results.addAll(position, batchedResults);
+            // The server changed the screen without the client seeing it
+            WaitUtils.forDriver(driver).screenChanged();
+        }
+    }
+
+    /**
+     * Gets the profile the batched steps share, or DEFAULT when they differ
+     */
+    private SettingsProfile commonSettings(List<Integer> batched) {
+        SettingsProfile common = null;
+        for (int index : batched) {
+            SettingsProfile profile = steps.get(index).getSettings();
+            if (common != null && common != profile) {
+                return SettingsProfile.DEFAULT;
+            }
+            common = profile;
+        }
+        return common == null ? SettingsProfile.DEFAULT : common;
+    }
+
+    /**
+     * Runs one step with its retry policy
+     * @param index The step index
+     */
+    private void execute(int index) {
+        FlowStep step = steps.get(index);
+        if (!step.shouldRun()) {
+            results.add(new FlowStepResult(step.getName(), FlowStepResult.Outcome.SKIPPED, 0, 0, null));
+            return;
+        }
+        // Background resource samples taken meanwhile are tagged with this step
+        ResourceSampler.mark(driver, step.getName(), true);
+        try {
+            runWithRetries(index, step);
+        } finally {
+            ResourceSampler.mark(driver, step.getName(), false);
+        }
+    }
+
+    private void runWithRetries(int index, FlowStep step) {
+        long start = System.nanoTime();
+        int attempts = 0;
+        // A resumed step may have typed or half-done its work before the run failed
+        if (!attempted.add(index) && step.getOnRetry() != null) {
+            step.getOnRetry().run();
+        }
+        while (true) {
+            attempts++;
+            try {
+                timer.run(step.getName(), step.getPageMethod(), () -> {
+                    settings.use(step.getSettings());
+                    step.getAction().run();
+                    if (step.getPostcondition() != null) {
+                        new AdaptiveWait(driver, step.getTimeout())
+                                .until("postcondition:" + step.getName(), d -> step.getPostcondition().getAsBoolean());
+                    }
+                });
+                passed(index, step, start, attempts);
+                return;
+            } catch (Exception e) {
+                boolean lostInTransport = isTransportError(e);
+                if (attempts > step.getRetries() || !isTransient(e) || (lostInTransport && !canRepeat(step))) {
+                    failedStep = step.getName();
+                    results.add(new FlowStepResult(step.getName(), FlowStepResult.Outcome.FAILED,
+                            attempts, elapsedMillis(start), e.getClass().getSimpleName()));
+                    throw new IllegalStateException("Step " + step.getName() + " failed after "
+                            + attempts + " attempt(s): " + firstLine(e.getMessage()), e);
+                }
+                // The client gave up on the command, but the server may have run it anyway
+                if (lostInTransport && wentThrough(index, step)) {
+                    System.out.println("ℹ️ Step " + step.getName() + " went through despite "
+                            + e.getClass().getSimpleName() + ", not sending it again");
+                    passed(index, step, start, attempts);
+                    return;
+                }
+                System.out.println("🔁 Retrying step " + step.getName() + " after " + e.getClass().getSimpleName()
+                        + ": " + firstLine(e.getMessage()));
+                if (step.getOnRetry() != null) {
+                    step.getOnRetry().run();
+                }
+                sleep(retryBackoffMillis);
+            }
+        }
+    }
+
+    /**
+     * Records a passed step and moves the checkpoint past it
+     */
+    private void passed(int index, FlowStep step, long start, int attempts) {
+        results.add(new FlowStepResult(step.getName(), attempts == 1
+                ? FlowStepResult.Outcome.PASSED : FlowStepResult.Outcome.PASSED_AFTER_RETRY,
+                attempts, elapsedMillis(start), null));
+        SettingsProfileMetrics.recordStep(step.getName(), settings.getEffectiveName(), System.nanoTime() - start);
+        if (step.isCheckpoint()) {
+            checkpoint = index + 1;
+        }
+        // Kept in memory only, a failure artifact shows the screens leading up to it
+        screenshots.capture(step.getName());
+    }
+
+    /**
+     * Checks if a step can be sent again after its command was lost in transport
+     * It can if it resets its own state (a retry hook), or if the engine can tell it already went
+     * through, from its postcondition or from the resume probe; a bare click could land twice
+     */
+    private boolean canRepeat(FlowStep step) {
+        return step.getOnRetry() != null || step.getPostcondition() != null || resumeProbe != null;
+    }
+
+    /**
+     * Checks once, without waiting, whether a step whose command was lost took effect anyway
+     * A step with a retry hook is reset and sent again rather than checked
+     */
+    private boolean wentThrough(int index, FlowStep step) {
+        try {
+            if (step.getPostcondition() != null) {
+                return step.getPostcondition().getAsBoolean();
+            }
+            if (step.getOnRetry() != null) {
+                return false;
+            }
+            return resumeProbe.getAsInt() > index;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks if a failure is worth retrying in the same session
+     * Stale elements and commands lost in transport are; a missing element or a wait that timed
+     * out already used the step's whole timeout and would only fail the same way again
+     * A lost command is only retried on steps that can be repeated safely, see canRepeat
+     */
+    static boolean isTransient(Exception e) {
+        return e instanceof StaleElementReferenceException || isTransportError(e);
+    }
+
+    /**
+     * Checks if a command was lost between client and server, so it may or may not have run
+     */
+    static boolean isTransportError(Exception e) {
+        if (e instanceof CommandTimeoutException || e instanceof UnreachableBrowserException) {
+            return true;
+        }
+        if (!(e instanceof WebDriverException)) {
+            return false;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof UncheckedIOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String firstLine(String message) {
+        return message == null ? "" : message.split("\n")[0];
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
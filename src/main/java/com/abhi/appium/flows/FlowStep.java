@@ -0,0 +1,191 @@
+package com.abhi.appium.flows;
+
+import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.metrics.StepTimer;
+import com.abhi.appium.utils.SettingsProfile;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * FlowStep class declares one step of a flow for the FlowEngine
+ * A step has a precondition (the step is skipped when it is false), an action, an optional
+ * postcondition that must hold within the step timeout, and a retry policy for transient failures
+ */
+public class FlowStep {
+
+    private final String name;
+    private String pageMethod;
+    private BooleanSupplier precondition = () -> true;
+    private StepTimer.StepAction action = () -> { };
+    private BooleanSupplier postcondition;
+    private Duration timeout = Duration.ofMillis(ConfigManager.getTransitionTimeoutMillis());
+    private int retries = ConfigManager.getFlowStepRetries();
+    private Runnable onRetry;
+    private boolean checkpoint;
+    private Function<String, BatchStep> batchForm;
+    private SettingsProfile settings = SettingsProfile.DEFAULT;
+
+    private FlowStep(String name) {
+        this.name = name;
+        this.pageMethod = name;
+    }
+
+    /**
+     * Starts declaring a step
+     * @param name The step name used in logs and step reports, e.g. "02-dls-button"
+     * @return The new step
+     */
+    public static FlowStep named(String name) {
+        return new FlowStep(name);
+    }
+
+    /**
+     * Sets the page object method the step calls, for step reports
+     * @param pageMethod e.g. "LoginPage.clickDlsButton"
+     * @return This step, for chaining
+     */
+    public FlowStep calls(String pageMethod) {
+        this.pageMethod = pageMethod;
+        return this;
+    }
+
+    /**
+     * Runs the step only when the precondition holds, checked once when the step is reached
+     * @param precondition The condition
+     * @return This step, for chaining
+     */
+    public FlowStep when(BooleanSupplier precondition) {
+        this.precondition = precondition;
+        return this;
+    }
+
+    /**
+     * Sets what the step does
+     * @param action The step body
+     * @return This step, for chaining
+     */
+    public FlowStep action(StepTimer.StepAction action) {
+        this.action = action;
+        return this;
+    }
+
+    /**
+     * Requires a condition to hold after the action, polled until the step timeout
+     * @param postcondition The condition
+     * @return This step, for chaining
+     */
+    public FlowStep verify(BooleanSupplier postcondition) {
+        this.postcondition = postcondition;
+        return this;
+    }
+
+    /**
+     * Sets how long the postcondition may take to hold
+     * @param timeout The step timeout
+     * @return This step, for chaining
+     */
+    public FlowStep timeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Sets how many times a transient failure is retried
+     * @param retries Retries after the first attempt, 0 for none
+     * @return This step, for chaining
+     */
+    public FlowStep retries(int retries) {
+        this.retries = retries;
+        return this;
+    }
+
+    /**
+     * Sets what to undo before a retry, e.g. clearing half-typed input
+     * @param onRetry The clean-up to run
+     * @return This step, for chaining
+     */
+    public FlowStep onRetry(Runnable onRetry) {
+        this.onRetry = onRetry;
+        return this;
+    }
+
+    /**
+     * Marks the step as a checkpoint: once it passes, a resumed flow starts after it
+     * @return This step, for chaining
+     */
+    public FlowStep checkpoint() {
+        this.checkpoint = true;
+        return this;
+    }
+
+    /**
+     * Gives the step a server-side form, so the engine can batch it with its neighbours
+     * @param batchForm Builds the batch step from the step name
+     * @return This step, for chaining
+     */
+    public FlowStep batch(Function<String, BatchStep> batchForm) {
+        this.batchForm = batchForm;
+        return this;
+    }
+
+    /**
+     * Runs the step under a driver settings profile, e.g. a short idle wait on an animated screen
+     * Consecutive steps on the same profile share one switch; the server's values are back after the flow
+     * @param settings The profile
+     * @return This step, for chaining
+     */
+    public FlowStep settings(SettingsProfile settings) {
+        this.settings = settings;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    String getPageMethod() {
+        return pageMethod;
+    }
+
+    boolean shouldRun() {
+        return precondition.getAsBoolean();
+    }
+
+    StepTimer.StepAction getAction() {
+        return action;
+    }
+
+    BooleanSupplier getPostcondition() {
+        return postcondition;
+    }
+
+    Duration getTimeout() {
+        return timeout;
+    }
+
+    int getRetries() {
+        return retries;
+    }
+
+    Runnable getOnRetry() {
+        return onRetry;
+    }
+
+    boolean isCheckpoint() {
+        return checkpoint;
+    }
+
+    SettingsProfile getSettings() {
+        return settings;
+    }
+
+    boolean hasBatchForm() {
+        return batchForm != null;
+    }
+
+    BatchStep toBatchStep() {
+        return batchForm == null ? null : batchForm.apply(name);
+    }
+}
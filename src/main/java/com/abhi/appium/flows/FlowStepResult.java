@@ -0,0 +1,66 @@
+package com.abhi.appium.flows;
+
+/**
+ * FlowStepResult class is the outcome of one step in one flow run
+ */
+public class FlowStepResult {
+
+    /**
+     * Outcome enum lists how a step ended
+     */
+    public enum Outcome {
+        PASSED,
+        PASSED_AFTER_RETRY,
+        BATCHED,
+        SKIPPED,
+        FAILED
+    }
+
+    private final String step;
+    private final Outcome outcome;
+    private final int attempts;
+    private final long millis;
+    private final String error;
+
+    /**
+     * Constructor that creates a step result
+     * @param step The step name
+     * @param outcome How the step ended
+     * @param attempts How many times the action ran
+     * @param millis Time spent on the step across all attempts
+     * @param error The last error message, or null
+     */
+    public FlowStepResult(String step, Outcome outcome, int attempts, long millis, String error) {
+        this.step = step;
+        this.outcome = outcome;
+        this.attempts = attempts;
+        this.millis = millis;
+        this.error = error;
+    }
+
+    public String getStep() {
+        return step;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return step + " " + outcome + " (" + attempts + (attempts == 1 ? " attempt, " : " attempts, ") + millis + " ms)"
+                + (error != null ? " " + error : "");
+    }
+}
@@ -1,23 +1,83 @@
 package com.abhi.appium.flows;
 
+import com.abhi.appium.base.Device;
+import com.abhi.appium.base.DriverManager;
+import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.metrics.FlowMetrics;
+import com.abhi.appium.metrics.WaitClock;
+import com.abhi.appium.pages.HomePage;
 import com.abhi.appium.pages.LoginPage;
+import com.abhi.appium.utils.InterruptWatcher;
 import io.appium.java_client.android.AndroidDriver;
-import org.openqa.selenium.WebElement;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * LoginFlow class orchestrates the complete login sequence
  * This combines multiple page actions to perform a full login flow
+ * The steps are declared once and run by the FlowEngine, which times each one, retries
+ * transient failures in place and lets a failed login resume from its last checkpoint
+ * With the interrupt watcher on, dialog steps are handled in the background as dialogs appear
+ * In batch mode steps 1-13 run on the Appium server in a single round trip
  */
 public class LoginFlow {
 
+    public static final String FLOW_NAME = "login";
+
+    private static final String DEFAULT_OTP = "0000";
+    private static final String DEFAULT_MPIN = "2580";
+
+    // Step 13's permission prompt only follows an OTP login, not an MPIN re-auth
+    private static final int OTP_SCREEN_FIRST_STEP = LoginState.OTP_SCREEN.getFirstStep();
+
+    private static final String ENTER_PHONE_STEP = "07-enter-phone";
+    private static final String ENTER_OTP_STEP = "10-enter-otp";
+
+    // The fixed sleep each transition used to be
+    private static final long REPLACED_SLEEP_MILLIS = 2000;
+
+    private final AndroidDriver driver;
     private final LoginPage loginPage;
+    private final TransitionWaiter transitionWaiter;
+    private final StepTransition otpScreenReady;
+    private final StepTransition mpinScreenReady;
+    private final String deviceName;
+    private final LoginStateProbe stateProbe;
+    private LoginState lastStartState = LoginState.UNKNOWN;
+    private FlowEngine lastRun;
+    private int first;
+    private boolean watchDialogs;
+    private InterruptWatcher watcher;
+    private boolean loginSuccess;
+    private boolean fastPath = ConfigManager.getLoginFastPath();
 
     /**
      * Constructor that initializes the login page
      * @param driver The Android driver instance
      */
     public LoginFlow(AndroidDriver driver) {
+        this.driver = driver;
         this.loginPage = new LoginPage(driver);
+        this.transitionWaiter = new TransitionWaiter(driver);
+        this.otpScreenReady = new StepTransition("otp-field-ready", loginPage::isOtpFieldReady, REPLACED_SLEEP_MILLIS);
+        this.mpinScreenReady = new StepTransition("mpin-field-present", loginPage::isMpinFieldPresent, REPLACED_SLEEP_MILLIS);
+        Device device = DriverManager.getDevice();
+        this.deviceName = device != null ? device.getName() : "unknown";
+        this.stateProbe = new LoginStateProbe(loginPage);
+    }
+
+    /**
+     * Turns the start-state probe on or off for this flow, overriding login.fast.path
+     * With it off every login starts at step 1, so a session that is already logged in fails
+     * instead of skipping to the avatar
+     * @param enabled false to always run the full login
+     * @return This flow, for chaining
+     */
+    public LoginFlow fastPath(boolean enabled) {
+        this.fastPath = enabled;
+        return this;
     }
 
     /**
@@ -27,64 +87,7 @@ public class LoginFlow {
      * @return true if login was successful, false otherwise
      */
     public boolean login(String phoneNumber) {
-        try {
-            // ⏱️ Start timer for performance measurement
-            long startTime = System.currentTimeMillis();
-
-            // Step 1: Handle system OK dialog (optional)
-            loginPage.clickSystemOkDialog();
-
-            // Step 2: Click DLS button to start login process
-            loginPage.clickDlsButton();
-
-            // Step 3: Click primary button to proceed
-            loginPage.clickPrimaryButton();
-
-            // Step 4: Allow first permission request
-            loginPage.allowPermissions();
-
-            // Step 5: Allow second permission request
-            loginPage.allowPermissions();
-
-            // Step 6: Click cancel from dialog
-            loginPage.clickCancelButton();
-
-            // Step 7: Enter mobile number
-            loginPage.enterPhoneNumber(phoneNumber);
-
-            // Step 8: Click on view element to proceed
-            loginPage.clickViewElement();
-
-            // Step 9: Wait for 2 seconds (as in original test)
-            Thread.sleep(2000);
-
-            // Step 10: Enter OTP code (using default "0000")
-            loginPage.enterOtp("0000");
-
-            // Step 11: Wait for 2 seconds (as in original test)
-            Thread.sleep(2000);
-
-            // Step 12: Enter MPIN (using default "2580")
-            loginPage.enterMpin("2580");
-
-            // Step 13: Allow final permission
-            loginPage.allowPermissions();
-
-            // Step 14: Verify successful login by checking for avatar
-            WebElement avatarImage = loginPage.waitForAvatarImage();
-            boolean loginSuccess = avatarImage.isDisplayed();
-
-            // ⏱️ Calculate and log duration
-            long endTime = System.currentTimeMillis();
-            long durationInMillis = endTime - startTime;
-            System.out.println("⏱️ App launch to avatar icon display took: " + durationInMillis + " ms");
-
-            return loginSuccess;
-
-        } catch (Exception e) {
-            System.err.println("Login flow failed: " + e.getMessage());
-            return false;
-        }
+        return login(phoneNumber, DEFAULT_OTP, DEFAULT_MPIN);
     }
 
     /**
@@ -95,63 +98,221 @@ public class LoginFlow {
      * @return true if login was successful, false otherwise
      */
     public boolean login(String phoneNumber, String otp, String mpin) {
-        try {
-            // ⏱️ Start timer for performance measurement
-            long startTime = System.currentTimeMillis();
-
-            // Step 1: Handle system OK dialog (optional)
-            loginPage.clickSystemOkDialog();
-
-            // Step 2: Click DLS button to start login process
-            loginPage.clickDlsButton();
-
-            // Step 3: Click primary button to proceed
-            loginPage.clickPrimaryButton();
-
-            // Step 4: Allow first permission request
-            loginPage.allowPermissions();
-
-            // Step 5: Allow second permission request
-            loginPage.allowPermissions();
-
-            // Step 6: Click cancel from dialog
-            loginPage.clickCancelButton();
+        lastRun = declareSteps(phoneNumber, otp, mpin);
+        return execute(lastRun::run);
+    }
 
-            // Step 7: Enter mobile number
-            loginPage.enterPhoneNumber(phoneNumber);
+    /**
+     * Continues the last failed login from its last checkpoint, keeping the session
+     * @return true if login was successful, false otherwise
+     */
+    public boolean resume() {
+        if (lastRun == null) {
+            return false;
+        }
+        if (watchDialogs) {
+            startWatcher();
+        }
+        return execute(lastRun::resume);
+    }
 
-            // Step 8: Click on view element to proceed
-            loginPage.clickViewElement();
+    /**
+     * Gets each step's outcome in the last login or resume
+     * @return The step results, empty before the first login
+     */
+    public List<FlowStepResult> getStepResults() {
+        return lastRun == null ? Collections.emptyList() : lastRun.getResults();
+    }
 
-            // Step 9: Wait for 2 seconds (as in original test)
-            Thread.sleep(2000);
+    /**
+     * Tells whether the last login or resume typed the phone number and the OTP itself
+     * A login that started past those steps (fast path) reached the avatar without them
+     * @return true if both steps ran and passed
+     */
+    public boolean submittedCredentials() {
+        boolean phone = false;
+        boolean otp = false;
+        for (FlowStepResult result : getStepResults()) {
+            boolean ran = result.getOutcome() == FlowStepResult.Outcome.PASSED
+                    || result.getOutcome() == FlowStepResult.Outcome.PASSED_AFTER_RETRY
+                    || result.getOutcome() == FlowStepResult.Outcome.BATCHED;
+            phone |= ran && result.getStep().equals(ENTER_PHONE_STEP);
+            otp |= ran && result.getStep().equals(ENTER_OTP_STEP);
+        }
+        return phone && otp;
+    }
 
-            // Step 10: Enter custom OTP code
-            loginPage.enterOtp(otp);
+    /**
+     * Declares the login steps
+     * Preconditions read the probed start state, so steps already done are skipped
+     */
+    private FlowEngine declareSteps(String phoneNumber, String otp, String mpin) {
+        boolean batch = ConfigManager.getLoginBatchEnabled();
+        // Dialog steps are left to the background watcher when it is enabled
+        // A batch holds the session for its whole run, so it handles dialogs itself
+        watchDialogs = ConfigManager.getInterruptWatcherEnabled() && !batch;
+
+        return new FlowEngine(driver, FLOW_NAME, deviceName).batchMode(batch)
+                .resumeProbe(this::reprobeState)
+                // Step 0: Probe the current screen and skip the steps that are already done
+                .step(FlowStep.named("00-probe-state").calls("LoginStateProbe.probe")
+                        .retries(0)
+                        .action(this::probeStartState))
+                // Step 1: Handle system OK dialog (optional)
+                .step(FlowStep.named("01-system-ok-dialog").calls("LoginPage.clickSystemOkDialog")
+                        .when(() -> first <= 1 && !watchDialogs)
+                        .action(loginPage::clickSystemOkDialog)
+                        .batch(loginPage::systemOkDialogStep))
+                // Step 2: Click DLS button to start login process
+                .step(FlowStep.named("02-dls-button").calls("LoginPage.clickDlsButton")
+                        .when(() -> first <= 2)
+                        .action(loginPage::clickDlsButton)
+                        .batch(loginPage::dlsButtonStep))
+                // Step 3: Click primary button to proceed
+                .step(FlowStep.named("03-primary-button").calls("LoginPage.clickPrimaryButton")
+                        .when(() -> first <= 3)
+                        .action(loginPage::clickPrimaryButton)
+                        .batch(loginPage::primaryButtonStep)
+                        .checkpoint())
+                // Step 4: Allow first permission request
+                .step(FlowStep.named("04-allow-permission").calls("LoginPage.allowPermissions")
+                        .when(() -> first <= 4 && !watchDialogs)
+                        .action(loginPage::allowPermissions)
+                        .batch(loginPage::allowPermissionsStep))
+                // Step 5: Allow second permission request
+                .step(FlowStep.named("05-allow-permission").calls("LoginPage.allowPermissions")
+                        .when(() -> first <= 5 && !watchDialogs)
+                        .action(loginPage::allowPermissions)
+                        .batch(loginPage::allowPermissionsStep))
+                // Step 6: Click cancel from dialog
+                .step(FlowStep.named("06-cancel-dialog").calls("LoginPage.clickCancelButton")
+                        .when(() -> first <= 6 && !watchDialogs)
+                        .action(loginPage::clickCancelButton)
+                        .batch(loginPage::cancelButtonStep)
+                        .checkpoint())
+                // Step 7: Enter mobile number
+                .step(FlowStep.named(ENTER_PHONE_STEP).calls("LoginPage.enterPhoneNumber")
+                        .when(() -> first <= 7)
+                        .action(() -> loginPage.enterPhoneNumber(phoneNumber))
+                        .onRetry(loginPage::clearMobileInput)
+                        .batch(name -> loginPage.enterPhoneNumberStep(name, phoneNumber)))
+                // Step 8: Click on view element to proceed
+                .step(FlowStep.named("08-view-element").calls("LoginPage.clickViewElement")
+                        .when(() -> first <= 8)
+                        .action(loginPage::clickViewElement)
+                        .batch(loginPage::viewElementStep))
+                // Step 9: Wait until the OTP field is focused and empty
+                .step(FlowStep.named("09-await-otp-screen").calls("LoginPage.isOtpFieldReady")
+                        .when(() -> first <= 9)
+                        .action(() -> transitionWaiter.await(otpScreenReady))
+                        .batch(loginPage::otpFieldReadyStep)
+                        .checkpoint())
+                // Step 10: Enter OTP code
+                .step(FlowStep.named(ENTER_OTP_STEP).calls("LoginPage.enterOtp")
+                        .when(() -> first <= 10)
+                        .action(() -> loginPage.enterOtp(otp))
+                        .onRetry(loginPage::clearOtpInput)
+                        .batch(name -> loginPage.enterOtpStep(name, otp)))
+                // Step 11: Wait until the MPIN field is present
+                .step(FlowStep.named("11-await-mpin-screen").calls("LoginPage.isMpinFieldPresent")
+                        .when(() -> first <= 11)
+                        .action(() -> transitionWaiter.await(mpinScreenReady))
+                        .batch(loginPage::mpinFieldPresentStep)
+                        .checkpoint())
+                // Step 12: Enter MPIN
+                .step(FlowStep.named("12-enter-mpin").calls("LoginPage.enterMpin")
+                        .when(() -> first <= 12)
+                        .action(() -> loginPage.enterMpin(mpin))
+                        .onRetry(loginPage::clearMpinInput)
+                        .batch(name -> loginPage.enterMpinStep(name, mpin))
+                        .checkpoint())
+                // Step 13: Allow final permission (only shown after a fresh OTP login)
+                .step(FlowStep.named("13-allow-permission").calls("LoginPage.allowPermissions")
+                        .when(() -> first <= OTP_SCREEN_FIRST_STEP && !watchDialogs)
+                        .action(loginPage::allowPermissions)
+                        .batch(loginPage::allowPermissionsStep))
+                // Step 14: Verify successful login by checking for avatar
+                // The avatar lookup is an explicit wait, which bounds the step
+                .step(FlowStep.named("14-avatar-displayed").calls("LoginPage.waitForAvatarImageDisplayed")
+                        .settings(HomePage.SETTINGS)
+                        .action(() -> loginSuccess = loginPage.waitForAvatarImageDisplayed()));
+    }
 
-            // Step 11: Wait for 2 seconds (as in original test)
-            Thread.sleep(2000);
+    /**
+     * Probes the start state, then starts the interrupt watcher if dialogs are left to it
+     */
+    private void probeStartState() {
+        LoginState startState = fastPath ? stateProbe.probe() : LoginState.FRESH_INSTALL;
+        lastStartState = startState;
+        first = startState.getFirstStep();
+        System.out.println("🔎 Login state: " + startState + " (probe " + stateProbe.getLastProbeMillis()
+                + " ms), starting at step " + first);
+        FlowMetrics.recordStep(FLOW_NAME, "path", "LoginStateProbe.probe", deviceName, 0, 0, startState.name());
+        if (watchDialogs) {
+            startWatcher();
+        }
+    }
 
-            // Step 12: Enter custom MPIN
-            loginPage.enterMpin(mpin);
+    /**
+     * Probes the screen again after a batch or a step's lost command left it unclear how far the login got
+     * @return The first step still to run, which is also the step index
+     */
+    private int reprobeState() {
+        LoginState state = stateProbe.probe();
+        first = state.getFirstStep();
+        System.out.println("🔎 Login state after a lost command: " + state + ", continuing at step " + first);
+        return first;
+    }
 
-            // Step 13: Allow final permission
-            loginPage.allowPermissions();
+    private void startWatcher() {
+        watcher = loginPage.registerInterruptDialogs(
+                new InterruptWatcher(driver, ConfigManager.getInterruptWatcherPollMillis())).start();
+    }
 
-            // Step 14: Verify successful login by checking for avatar
-            WebElement avatarImage = loginPage.waitForAvatarImage();
-            boolean loginSuccess = avatarImage.isDisplayed();
+    /**
+     * Runs or resumes the declared steps, timing the whole login
+     * @param run The engine call to make
+     * @return true if every step ran and the avatar was displayed
+     */
+    private boolean execute(BooleanSupplier run) {
+        // ⏱️ Start timer for performance measurement
+        long startTime = System.nanoTime();
+        long waitedBefore = WaitClock.total();
+        long savedBefore = transitionWaiter.getSavedMillis();
+        String outcome = "failed";
+        loginSuccess = false;
+        try {
+            if (!run.getAsBoolean()) {
+                return false;
+            }
 
             // ⏱️ Calculate and log duration
-            long endTime = System.currentTimeMillis();
-            long durationInMillis = endTime - startTime;
+            long durationInMillis = (System.nanoTime() - startTime) / 1_000_000;
             System.out.println("⏱️ App launch to avatar icon display took: " + durationInMillis + " ms");
+            System.out.println("⏱️ Step transitions saved " + (transitionWaiter.getSavedMillis() - savedBefore)
+                    + " ms compared with fixed sleeps");
 
+            outcome = loginSuccess ? "ok" : "not-logged-in";
             return loginSuccess;
-
-        } catch (Exception e) {
-            System.err.println("Login flow failed: " + e.getMessage());
-            return false;
+        } finally {
+            if (watcher != null) {
+                watcher.close();
+                watcher = null;
+            }
+            for (FlowStepResult result : getStepResults()) {
+                System.out.println("   " + result);
+            }
+            long elapsed = System.nanoTime() - startTime;
+            long waited = Math.min(elapsed, WaitClock.total() - waitedBefore);
+            FlowMetrics.recordStep(FLOW_NAME, "total", "LoginFlow.login", deviceName, waited, elapsed - waited, outcome);
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Gets the state the last login started from, which tells which path it took
+     * @return The probed start state
+     */
+    public LoginState getLastStartState() {
+        return lastStartState;
+    }
+}
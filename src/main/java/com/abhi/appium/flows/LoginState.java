@@ -0,0 +1,28 @@
+package com.abhi.appium.flows;
+
+/**
+ * LoginState enum lists the screens a login can start from
+ * Each state knows the first login step that still has to run
+ */
+public enum LoginState {
+
+    LOGGED_IN_HOME(14),
+    MPIN_REAUTH(12),
+    OTP_SCREEN(10),
+    FRESH_INSTALL(1),
+    UNKNOWN(1);
+
+    private final int firstStep;
+
+    LoginState(int firstStep) {
+        this.firstStep = firstStep;
+    }
+
+    /**
+     * Gets the first login step to run from this state
+     * @return The step number, 1 meaning the full flow
+     */
+    public int getFirstStep() {
+        return firstStep;
+    }
+}
@@ -0,0 +1,60 @@
+package com.abhi.appium.flows;
+
+import com.abhi.appium.pages.LoginPage;
+import com.abhi.appium.utils.PageSnapshot;
+
+/**
+ * LoginStateProbe class classifies the current screen with a single page source fetch
+ * This lets the login flow skip the steps that are already done
+ */
+public class LoginStateProbe {
+
+    private final LoginPage loginPage;
+    private long lastProbeMillis;
+
+    /**
+     * Constructor that creates a probe for the login screens
+     * @param loginPage The login page whose locators the probe checks
+     */
+    public LoginStateProbe(LoginPage loginPage) {
+        this.loginPage = loginPage;
+    }
+
+    /**
+     * Classifies the current screen
+     * Checks run from the most specific screen to the least, all against one snapshot
+     * @return The detected login state
+     */
+    public LoginState probe() {
+        long start = System.nanoTime();
+        try {
+            PageSnapshot screen = loginPage.captureScreen();
+            if (loginPage.hasMpinField(screen)) {
+                return LoginState.MPIN_REAUTH;
+            }
+            if (loginPage.hasOnboardingEntry(screen)) {
+                return LoginState.FRESH_INSTALL;
+            }
+            if (loginPage.hasOtpFieldReady(screen)) {
+                return LoginState.OTP_SCREEN;
+            }
+            if (loginPage.hasHomeAvatar(screen)) {
+                return LoginState.LOGGED_IN_HOME;
+            }
+            return LoginState.UNKNOWN;
+        } catch (Exception e) {
+            System.out.println("ℹ️ Login state probe failed, running full login: " + e.getMessage());
+            return LoginState.UNKNOWN;
+        } finally {
+            lastProbeMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+
+    /**
+     * Gets how long the last probe took
+     * @return Probe duration in ms
+     */
+    public long getLastProbeMillis() {
+        return lastProbeMillis;
+    }
+}
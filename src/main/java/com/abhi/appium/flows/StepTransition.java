@@ -0,0 +1,38 @@
+package com.abhi.appium.flows;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * StepTransition class describes the screen state a flow step waits for before it runs
+ * Replaces a fixed sleep with a condition, such as "OTP field focused and empty"
+ */
+public class StepTransition {
+
+    private final String name;
+    private final BooleanSupplier screenReady;
+    private final long replacedSleepMillis;
+
+    /**
+     * Constructor that creates a transition condition
+     * @param name A short name used in logs and wait stats
+     * @param screenReady Returns true once the screen is in the expected state
+     * @param replacedSleepMillis The fixed sleep this transition replaces, used to report time saved
+     */
+    public StepTransition(String name, BooleanSupplier screenReady, long replacedSleepMillis) {
+        this.name = name;
+        this.screenReady = screenReady;
+        this.replacedSleepMillis = replacedSleepMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isScreenReady() {
+        return screenReady.getAsBoolean();
+    }
+
+    public long getReplacedSleepMillis() {
+        return replacedSleepMillis;
+    }
+}
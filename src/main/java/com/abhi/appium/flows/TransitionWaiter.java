@@ -0,0 +1,65 @@
+package com.abhi.appium.flows;
+
+import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.utils.AdaptiveWait;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.TimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TransitionWaiter class moves a flow to its next step as soon as the expected screen state is seen
+ * Waits are capped by a configurable ceiling, after which the flow moves on and lets
+ * the next step's own element wait decide
+ */
+public class TransitionWaiter {
+
+    private static final AtomicLong TOTAL_SAVED_MILLIS = new AtomicLong();
+
+    private final AdaptiveWait wait;
+    private long savedMillis;
+
+    /**
+     * Constructor that creates a waiter with the configured transition ceiling
+     * @param driver The Android driver instance
+     */
+    public TransitionWaiter(AndroidDriver driver) {
+        this.wait = new AdaptiveWait(driver, Duration.ofMillis(ConfigManager.getTransitionTimeoutMillis()));
+    }
+
+    /**
+     * Waits until the transition's screen state is reached or the ceiling passes
+     * @param transition The transition to wait for
+     * @return Milliseconds spent waiting
+     */
+    public long await(StepTransition transition) {
+        long start = System.nanoTime();
+        try {
+            wait.until("transition:" + transition.getName(), driver -> transition.isScreenReady());
+        } catch (TimeoutException e) {
+            System.out.println("ℹ️ Transition '" + transition.getName() + "' not seen within ceiling, continuing...");
+        }
+        long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+        long saved = transition.getReplacedSleepMillis() - waitedMillis;
+        savedMillis += saved;
+        TOTAL_SAVED_MILLIS.addAndGet(saved);
+        return waitedMillis;
+    }
+
+    /**
+     * Gets the time saved by this waiter compared with the fixed sleeps it replaced
+     * @return Saved milliseconds (negative if the transitions took longer than the sleeps)
+     */
+    public long getSavedMillis() {
+        return savedMillis;
+    }
+
+    /**
+     * Gets the time saved by all waiters in this run
+     * @return Saved milliseconds across every flow
+     */
+    public static long getTotalSavedMillis() {
+        return TOTAL_SAVED_MILLIS.get();
+    }
+}
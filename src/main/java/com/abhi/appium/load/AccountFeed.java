@@ -0,0 +1,110 @@
+package com.abhi.appium.load;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * AccountFeed class streams account records from a CSV file, one line at a time
+ * Columns are phone,otp,mpin; otp and mpin may be left empty to use the defaults. Blank lines,
+ * lines starting with # and a header row starting with "phone" are skipped. Workers share one
+ * feed, so only the records being logged in with are ever held in memory
+ */
+public class AccountFeed implements AutoCloseable {
+
+    private final BufferedReader reader;
+    private final String defaultOtp;
+    private final String defaultMpin;
+    private final long maxRecords;
+    private long lineNumber;
+    private long served;
+    private long skipped;
+
+    /**
+     * Constructor that reads records from any reader
+     * @param reader The CSV text
+     * @param defaultOtp The OTP for records without one
+     * @param defaultMpin The MPIN for records without one
+     * @param maxRecords The most records to hand out, 0 for all
+     */
+    public AccountFeed(Reader reader, String defaultOtp, String defaultMpin, long maxRecords) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.defaultOtp = defaultOtp;
+        this.defaultMpin = defaultMpin;
+        this.maxRecords = maxRecords;
+    }
+
+    /**
+     * Opens a feed on a CSV file
+     * @param file The accounts file
+     * @param defaultOtp The OTP for records without one
+     * @param defaultMpin The MPIN for records without one
+     * @param maxRecords The most records to hand out, 0 for all
+     * @return The feed
+     * @throws IOException If the file cannot be opened
+     */
+    public static AccountFeed open(File file, String defaultOtp, String defaultMpin, long maxRecords) throws IOException {
+        return new AccountFeed(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8), defaultOtp, defaultMpin,
+                maxRecords);
+    }
+
+    /**
+     * Reads the next account
+     * @return The record, or null when the file or the record limit is exhausted
+     */
+    public synchronized AccountRecord next() {
+        if (maxRecords > 0 && served >= maxRecords) {
+            return null;
+        }
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")
+                        || (lineNumber == 1 && trimmed.toLowerCase().startsWith("phone"))) {
+                    continue;
+                }
+                String[] columns = trimmed.split(",", -1);
+                String phone = columns[0].trim();
+                if (phone.isEmpty()) {
+                    skipped++;
+                    continue;
+                }
+                served++;
+                return new AccountRecord(lineNumber, phone, column(columns, 1, defaultOtp), column(columns, 2, defaultMpin));
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read accounts at line " + lineNumber, e);
+        }
+    }
+
+    public synchronized long getServedCount() {
+        return served;
+    }
+
+    /**
+     * Gets the number of lines without a phone number
+     * @return The skipped line count
+     */
+    public synchronized long getSkippedCount() {
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String column(String[] columns, int index, String fallback) {
+        if (index >= columns.length || columns[index].trim().isEmpty()) {
+            return fallback;
+        }
+        return columns[index].trim();
+    }
+}
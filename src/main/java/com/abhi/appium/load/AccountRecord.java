@@ -0,0 +1,47 @@
+package com.abhi.appium.load;
+
+/**
+ * AccountRecord class is one test account to log in with
+ */
+public class AccountRecord {
+
+    private final long line;
+    private final String phoneNumber;
+    private final String otp;
+    private final String mpin;
+
+    /**
+     * Constructor that creates an account record
+     * @param line The CSV line it was read from, for error reports
+     * @param phoneNumber The phone number to log in with
+     * @param otp The OTP code
+     * @param mpin The MPIN
+     */
+    public AccountRecord(long line, String phoneNumber, String otp, String mpin) {
+        this.line = line;
+        this.phoneNumber = phoneNumber;
+        this.otp = otp;
+        this.mpin = mpin;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public String getOtp() {
+        return otp;
+    }
+
+    public String getMpin() {
+        return mpin;
+    }
+
+    @Override
+    public String toString() {
+        return "line " + line + " (" + phoneNumber + ")";
+    }
+}
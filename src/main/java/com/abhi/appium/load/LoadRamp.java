@@ -0,0 +1,69 @@
+package com.abhi.appium.load;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoadRamp class paces login starts to a target rate, reached gradually over a ramp-up period
+ * The rate rises linearly from zero, so the k-th start is due at sqrt(2 * ramp * k / rate) during
+ * the ramp and at evenly spaced times after it. Starts are handed out in order, so a slow worker
+ * never lets the others run ahead of the schedule
+ */
+public class LoadRamp {
+
+    private final double perSecond;
+    private final double rampSeconds;
+    private long startNanos;
+    private long issued;
+
+    /**
+     * Constructor that creates a ramp
+     * @param perMinute The target logins started per minute, 0 for no limit
+     * @param rampSeconds How long it takes to reach the target rate, 0 to start at it
+     */
+    public LoadRamp(double perMinute, double rampSeconds) {
+        this.perSecond = perMinute / 60.0;
+        this.rampSeconds = rampSeconds;
+    }
+
+    /**
+     * Starts the schedule's clock, called once when the load run begins
+     */
+    public synchronized void start() {
+        startNanos = System.nanoTime();
+        issued = 0;
+    }
+
+    /**
+     * Waits until the next login may start
+     * @throws InterruptedException If the worker is interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        long due;
+        synchronized (this) {
+            if (perSecond <= 0) {
+                return;
+            }
+            due = startNanos + dueNanos(issued++);
+        }
+        long waitNanos = due - System.nanoTime();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Gets when a start is due, measured from the start of the run
+     * @param index The start's position, 0 for the first
+     * @return The offset in nanoseconds
+     */
+    long dueNanos(long index) {
+        double rampStarts = perSecond * rampSeconds / 2;
+        double seconds;
+        if (index < rampStarts) {
+            seconds = Math.sqrt(2 * rampSeconds * index / perSecond);
+        } else {
+            seconds = rampSeconds + (index - rampStarts) / perSecond;
+        }
+        return (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,125 @@
+package com.abhi.appium.load;
+
+import com.abhi.appium.metrics.LatencyHistogram;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LoadStats class aggregates a login load run while it is going
+ * Workers record from many threads without waiting on each other, except for the short lock
+ * on the one-minute window that the current logins per minute is read from
+ */
+public class LoadStats {
+
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final LatencyHistogram successLatency = new LatencyHistogram();
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final Deque<Long> recentCompletions = new ArrayDeque<>();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Records a login that reached the home screen
+     * @param nanos How long the login took
+     */
+    public void recordSuccess(long nanos) {
+        successLatency.record(nanos);
+        successes.incrementAndGet();
+        complete();
+    }
+
+    /**
+     * Records a failed login
+     * @param category What went wrong, e.g. the failed step or the exception type
+     */
+    public void recordFailure(String category) {
+        failures.incrementAndGet();
+        errors.computeIfAbsent(category, c -> new LongAdder()).increment();
+        complete();
+    }
+
+    public long getSuccessCount() {
+        return successes.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Gets the failures by category
+     * @return A sorted copy of category to count
+     */
+    public Map<String, Long> getErrorBreakdown() {
+        Map<String, Long> breakdown = new TreeMap<>();
+        errors.forEach((category, count) -> breakdown.put(category, count.sum()));
+        return breakdown;
+    }
+
+    /**
+     * Gets the latency of successful logins at a percentile
+     * @param percentile The percentile, e.g. 50, 90 or 99
+     * @return The latency in ms
+     */
+    public double getPercentileMillis(double percentile) {
+        return successLatency.getPercentileMillis(percentile);
+    }
+
+    /**
+     * Gets the logins (passed or failed) completed in the last minute, scaled up while the run is younger
+     * @return The current logins per minute
+     */
+    public double getCurrentPerMinute() {
+        long now = System.nanoTime();
+        int completed;
+        synchronized (recentCompletions) {
+            trim(now);
+            completed = recentCompletions.size();
+        }
+        long window = Math.min(WINDOW_NANOS, now - startNanos);
+        return window <= 0 ? 0 : completed * (double) WINDOW_NANOS / window;
+    }
+
+    /**
+     * Gets the logins completed per minute since the run started
+     * @return The average logins per minute
+     */
+    public double getAveragePerMinute() {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed <= 0 ? 0 : (successes.get() + failures.get()) * (double) WINDOW_NANOS / elapsed;
+    }
+
+    /**
+     * Builds a one-line progress report
+     * @return The report text
+     */
+    public String progressLine() {
+        return String.format("🚦 Login load: %d ok, %d failed, %.1f/min now (%.1f/min avg), p50 %.0f ms, p90 %.0f ms, "
+                        + "p99 %.0f ms, errors %s",
+                successes.get(), failures.get(), getCurrentPerMinute(), getAveragePerMinute(),
+                getPercentileMillis(50), getPercentileMillis(90), getPercentileMillis(99), getErrorBreakdown());
+    }
+
+    private void complete() {
+        long now = System.nanoTime();
+        synchronized (recentCompletions) {
+            recentCompletions.addLast(now);
+            trim(now);
+        }
+    }
+
+    private void trim(long now) {
+        while (!recentCompletions.isEmpty() && now - recentCompletions.peekFirst() > WINDOW_NANOS) {
+            recentCompletions.removeFirst();
+        }
+    }
+}
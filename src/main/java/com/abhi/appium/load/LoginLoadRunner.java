@@ -0,0 +1,112 @@
+package com.abhi.appium.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * LoginLoadRunner class fans account records out over parallel login workers
+ * Each worker thread pulls the next record from the shared feed, waits for its start slot from
+ * the ramp, prepares its session and logs in, until the feed runs dry. Only the login itself is
+ * timed. A background thread prints the running stats
+ * at a fixed interval, so throughput and errors are visible while the run is in progress
+ */
+public class LoginLoadRunner {
+
+    private final AccountFeed feed;
+    private final LoadRamp ramp;
+    private final int workers;
+    private final long reportIntervalMillis;
+    private final LoadStats stats = new LoadStats();
+
+    /**
+     * Constructor that creates a runner
+     * @param feed The accounts to log in with
+     * @param ramp Paces the login starts
+     * @param workers The number of parallel workers, usually one per device
+     * @param reportIntervalMillis How often to print progress, 0 for never
+     */
+    public LoginLoadRunner(AccountFeed feed, LoadRamp ramp, int workers, long reportIntervalMillis) {
+        this.feed = feed;
+        this.ramp = ramp;
+        this.workers = workers;
+        this.reportIntervalMillis = reportIntervalMillis;
+    }
+
+    /**
+     * Runs the load until every record is used, each worker thread creating its own LoginWorker
+     * @param workerFactory Creates a worker; called on the worker's own thread
+     * @return The final stats
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     */
+    public LoadStats run(Supplier<LoginWorker> workerFactory) throws InterruptedException {
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "login-load-report");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (reportIntervalMillis > 0) {
+            reporter.scheduleAtFixedRate(() -> System.out.println(stats.progressLine()),
+                    reportIntervalMillis, reportIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        ramp.start();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(() -> work(workerFactory), "login-load-" + (i + 1));
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } finally {
+            reporter.shutdownNow();
+            System.out.println(stats.progressLine());
+        }
+        return stats;
+    }
+
+    public LoadStats getStats() {
+        return stats;
+    }
+
+    private void work(Supplier<LoginWorker> workerFactory) {
+        LoginWorker worker;
+        try {
+            worker = workerFactory.get();
+        } catch (RuntimeException e) {
+            // Without a session this thread adds no load, the other workers carry on
+            System.err.println("Login load worker could not start: " + e.getMessage());
+            return;
+        }
+        try {
+            AccountRecord account;
+            while ((account = feed.next()) != null) {
+                ramp.acquire();
+                try {
+                    worker.prepare();
+                    long start = System.nanoTime();
+                    String failure = worker.login(account);
+                    if (failure == null) {
+                        stats.recordSuccess(System.nanoTime() - start);
+                    } else {
+                        stats.recordFailure(failure);
+                    }
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    System.err.println("Login for " + account + " failed: " + e.getMessage());
+                    stats.recordFailure(e.getClass().getSimpleName());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            worker.close();
+        }
+    }
+}
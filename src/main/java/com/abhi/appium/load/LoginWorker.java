@@ -0,0 +1,31 @@
+package com.abhi.appium.load;
+
+/**
+ * LoginWorker interface logs in with one account at a time on one device session
+ * Each load worker thread gets its own instance and closes it when the feed runs dry
+ */
+public interface LoginWorker extends AutoCloseable {
+
+    /**
+     * Gets a logged-out session ready before the timed login starts
+     * @throws Exception If no session could be prepared
+     */
+    default void prepare() throws Exception {
+    }
+
+    /**
+     * Logs in with an account, leaving the session ready for the next one
+     * @param account The account to log in with
+     * @return null if this call logged in with the account's own credentials, otherwise a short failure
+     *         category such as the failed step
+     * @throws Exception If the login broke in a way the worker could not classify
+     */
+    String login(AccountRecord account) throws Exception;
+
+    /**
+     * Releases the worker's session, called once when its thread is done
+     */
+    @Override
+    default void close() {
+    }
+}
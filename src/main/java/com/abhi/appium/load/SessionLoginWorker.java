@@ -0,0 +1,69 @@
+package com.abhi.appium.load;
+
+import com.abhi.appium.base.BaseTest;
+import com.abhi.appium.base.SessionPool;
+import com.abhi.appium.flows.FlowStepResult;
+import com.abhi.appium.flows.LoginFlow;
+
+/**
+ * SessionLoginWorker class logs in with LoginFlow on a device leased through BaseTest
+ * Every login leases a device and session before it starts and hands them back after, so the
+ * device scheduler spreads the workers over all devices. Whatever session.reset.strategy says,
+ * the app's data is cleared before each login and the fast path is off, and a login only counts
+ * when it typed the account's phone number and OTP itself; otherwise a session still logged in
+ * as an earlier account would pass without touching the backend
+ */
+public class SessionLoginWorker implements LoginWorker {
+
+    private final BaseTest base;
+    private boolean leased;
+
+    /**
+     * Constructor that creates a worker leasing through the given test
+     * @param base The test whose device scheduler and session pool are used
+     */
+    public SessionLoginWorker(BaseTest base) {
+        this.base = base;
+    }
+
+    @Override
+    public void prepare() {
+        // Reused or new, the session is cleared below
+        base.setUp("none");
+        leased = true;
+        if (!SessionPool.getInstance().resetAppState(base.getDriver(), "clear")) {
+            release();
+            throw new IllegalStateException("App data could not be cleared before the login");
+        }
+    }
+
+    @Override
+    public String login(AccountRecord account) {
+        try {
+            LoginFlow loginFlow = new LoginFlow(base.getDriver()).fastPath(false);
+            if (loginFlow.login(account.getPhoneNumber(), account.getOtp(), account.getMpin())) {
+                return loginFlow.submittedCredentials() ? null : "credentials-not-submitted";
+            }
+            for (FlowStepResult result : loginFlow.getStepResults()) {
+                if (result.getOutcome() == FlowStepResult.Outcome.FAILED) {
+                    return result.getStep() + " " + result.getError();
+                }
+            }
+            return "not-logged-in";
+        } finally {
+            release();
+        }
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+
+    private void release() {
+        if (leased) {
+            leased = false;
+            base.tearDown();
+        }
+    }
+}
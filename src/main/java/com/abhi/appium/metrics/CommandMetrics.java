@@ -0,0 +1,113 @@
+package com.abhi.appium.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CommandMetrics class aggregates driver command round trips across all sessions
+ * Commands are keyed by method and path template (e.g. "POST /session/:sessionId/element"),
+ * and requests that likely opened a new connection are counted to show connection reuse
+ */
+public final class CommandMetrics {
+
+    private static final Map<String, LatencyHistogram> COMMANDS = new ConcurrentHashMap<>();
+    private static final LongAdder REQUESTS = new LongAdder();
+    private static final LongAdder NEW_CONNECTIONS = new LongAdder();
+    private static final LongAdder TIMEOUTS = new LongAdder();
+
+    private CommandMetrics() {
+    }
+
+    /**
+     * Records one command round trip
+     * @param command The command key
+     * @param nanos The round trip time
+     * @param newConnection true if the request likely had to open a connection
+     */
+    public static void recordCommand(String command, long nanos, boolean newConnection) {
+        COMMANDS.computeIfAbsent(command, k -> new LatencyHistogram()).record(nanos);
+        REQUESTS.increment();
+        if (newConnection) {
+            NEW_CONNECTIONS.increment();
+        }
+    }
+
+    /**
+     * Records a command abandoned at its timeout
+     */
+    public static void recordTimeout() {
+        TIMEOUTS.increment();
+    }
+
+    /**
+     * Gets the round trips of one command
+     * @param command The command key
+     * @return The histogram, or null if the command never ran
+     */
+    public static LatencyHistogram get(String command) {
+        return COMMANDS.get(command);
+    }
+
+    public static long getRequestCount() {
+        return REQUESTS.sum();
+    }
+
+    public static long getNewConnectionCount() {
+        return NEW_CONNECTIONS.sum();
+    }
+
+    public static long getTimeoutCount() {
+        return TIMEOUTS.sum();
+    }
+
+    /**
+     * Gets the share of requests sent over an already open connection
+     * @return The reuse ratio between 0 and 1
+     */
+    public static double getConnectionReuseRatio() {
+        long requests = REQUESTS.sum();
+        return requests == 0 ? 0 : 1 - (double) NEW_CONNECTIONS.sum() / requests;
+    }
+
+    /**
+     * Writes command-timings.csv into a directory and prints the transport summary
+     * @param directory The report directory
+     */
+    public static void exportReport(File directory) {
+        if (COMMANDS.isEmpty()) {
+            return;
+        }
+        System.out.println(String.format(Locale.ROOT,
+                "🔌 Transport: %d requests, %d new connections (%.1f%% reused), %d timed out",
+                getRequestCount(), getNewConnectionCount(), getConnectionReuseRatio() * 100, getTimeoutCount()));
+        if (!directory.exists() && !directory.mkdirs()) {
+            System.out.println("Report directory could not be created: " + directory);
+            return;
+        }
+        File file = new File(directory, "command-timings.csv");
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.println("command,count,mean_ms,p50_ms,p95_ms,p99_ms,max_ms");
+            for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(COMMANDS).entrySet()) {
+                LatencyHistogram rtt = entry.getValue();
+                out.println(String.join(",", entry.getKey(), String.valueOf(rtt.getCount()),
+                        format(rtt.getMeanMillis()), format(rtt.getPercentileMillis(50)),
+                        format(rtt.getPercentileMillis(95)), format(rtt.getPercentileMillis(99)),
+                        format(rtt.getMaxMillis())));
+            }
+            System.out.println("📊 Command timing report written to " + file.getAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("Command timing report could not be written: " + e.getMessage());
+        }
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.2f", millis);
+    }
+}
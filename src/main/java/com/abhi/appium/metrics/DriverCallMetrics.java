@@ -0,0 +1,117 @@
+package com.abhi.appium.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DriverCallMetrics class is the shared registry of per-command driver call stats
+ * Find commands are kept per locator strategy, which shows when UiAutomator lookups dominate
+ */
+public final class DriverCallMetrics {
+
+    private static final Map<String, DriverCallStats> CALLS = new ConcurrentHashMap<>();
+
+    private DriverCallMetrics() {
+    }
+
+    /**
+     * Records one driver call
+     * @param command The driver command name
+     * @param strategy The locator strategy for find commands, otherwise empty
+     * @param nanos The call duration
+     * @param failed true if the call threw
+     */
+    public static void record(String command, String strategy, long nanos, boolean failed) {
+        CALLS.computeIfAbsent(command + "|" + strategy, k -> new DriverCallStats(command, strategy)).record(nanos, failed);
+    }
+
+    /**
+     * Gets a snapshot of every command called so far
+     * @return The snapshots, most total time first
+     */
+    public static List<DriverCallStats.Snapshot> snapshot() {
+        List<DriverCallStats.Snapshot> snapshots = new ArrayList<>();
+        for (DriverCallStats stats : CALLS.values()) {
+            snapshots.add(stats.snapshot());
+        }
+        snapshots.sort(Comparator.comparingDouble(DriverCallStats.Snapshot::getTotalMillis).reversed());
+        return snapshots;
+    }
+
+    /**
+     * Gets the snapshot of one command
+     * @param command The driver command name
+     * @param strategy The locator strategy for find commands, otherwise empty
+     * @return The snapshot, or null if the command was never called
+     */
+    public static DriverCallStats.Snapshot snapshot(String command, String strategy) {
+        DriverCallStats stats = CALLS.get(command + "|" + strategy);
+        return stats == null ? null : stats.snapshot();
+    }
+
+    /**
+     * Builds a printable report of every command and the find time per locator strategy
+     * @return The report text
+     */
+    public static String report() {
+        List<DriverCallStats.Snapshot> snapshots = snapshot();
+        StringBuilder report = new StringBuilder("🔬 Driver calls:");
+        Map<String, Double> findMillis = new TreeMap<>();
+        double totalFindMillis = 0;
+        for (DriverCallStats.Snapshot call : snapshots) {
+            report.append(System.lineSeparator()).append("   ").append(call);
+            if (!call.getStrategy().isEmpty()) {
+                findMillis.merge(call.getStrategy(), call.getTotalMillis(), Double::sum);
+                totalFindMillis += call.getTotalMillis();
+            }
+        }
+        if (totalFindMillis > 0) {
+            report.append(System.lineSeparator()).append("   Find time by locator strategy:");
+            for (Map.Entry<String, Double> strategy : findMillis.entrySet()) {
+                report.append(System.lineSeparator()).append(String.format(Locale.ROOT, "      %s: %.0f ms (%.0f%%)",
+                        strategy.getKey(), strategy.getValue(), strategy.getValue() * 100 / totalFindMillis));
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Writes driver-calls.csv into a directory
+     * @param directory The report directory
+     */
+    public static void exportReport(File directory) {
+        if (CALLS.isEmpty()) {
+            return;
+        }
+        if (!directory.exists() && !directory.mkdirs()) {
+            System.out.println("Report directory could not be created: " + directory);
+            return;
+        }
+        File file = new File(directory, "driver-calls.csv");
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.println("command,strategy,calls,failures,mean_ms,p95_ms,max_ms,total_ms");
+            for (DriverCallStats.Snapshot call : snapshot()) {
+                out.println(String.join(",", call.getCommand(), call.getStrategy(),
+                        String.valueOf(call.getCalls()), String.valueOf(call.getFailures()),
+                        format(call.getMeanMillis()), format(call.getP95Millis()), format(call.getMaxMillis()),
+                        format(call.getTotalMillis())));
+            }
+            System.out.println("📊 Driver call report written to " + file.getAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("Driver call report could not be written: " + e.getMessage());
+        }
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.2f", millis);
+    }
+}
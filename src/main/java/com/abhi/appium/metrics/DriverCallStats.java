@@ -0,0 +1,117 @@
+package com.abhi.appium.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DriverCallStats class aggregates every call of one driver command
+ * Counters are LongAdders and the histogram is lock-free, so parallel sessions never contend
+ */
+public class DriverCallStats {
+
+    private final String command;
+    private final String strategy;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * Constructor that creates empty stats for a command
+     * @param command The driver command name (e.g. "findElement", "clickElement")
+     * @param strategy The locator strategy for find commands, otherwise empty
+     */
+    public DriverCallStats(String command, String strategy) {
+        this.command = command;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Records one call
+     * @param nanos The call duration
+     * @param failed true if the call threw
+     */
+    public void record(long nanos, boolean failed) {
+        calls.increment();
+        if (failed) {
+            failures.increment();
+        }
+        latency.record(nanos);
+    }
+
+    /**
+     * Takes a consistent-enough copy of the current numbers
+     * @return The snapshot
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(command, strategy, calls.sum(), failures.sum(), latency.getMeanMillis(),
+                latency.getPercentileMillis(95), latency.getMaxMillis());
+    }
+
+    /**
+     * Immutable numbers of one command at the time of the snapshot
+     */
+    public static final class Snapshot {
+
+        private final String command;
+        private final String strategy;
+        private final long calls;
+        private final long failures;
+        private final double meanMillis;
+        private final double p95Millis;
+        private final double maxMillis;
+
+        Snapshot(String command, String strategy, long calls, long failures,
+                 double meanMillis, double p95Millis, double maxMillis) {
+            this.command = command;
+            this.strategy = strategy;
+            this.calls = calls;
+            this.failures = failures;
+            this.meanMillis = meanMillis;
+            this.p95Millis = p95Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public String getStrategy() {
+            return strategy;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public double getMeanMillis() {
+            return meanMillis;
+        }
+
+        public double getP95Millis() {
+            return p95Millis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+
+        /**
+         * Gets the time spent in this command across all calls
+         * @return calls times mean latency, in milliseconds
+         */
+        public double getTotalMillis() {
+            return calls * meanMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s%s: %d calls, %d failed, mean %.1f ms, p95 %.1f ms, max %.1f ms",
+                    command, strategy.isEmpty() ? "" : " [" + strategy + "]", calls, failures,
+                    meanMillis, p95Millis, maxMillis);
+        }
+    }
+}
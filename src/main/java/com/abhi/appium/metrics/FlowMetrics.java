@@ -0,0 +1,146 @@
+package com.abhi.appium.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * FlowMetrics class aggregates step timings across runs and devices
+ * Steps are kept both across all devices ("all") and per device, and exported as
+ * p50/p90/p99 JSON and CSV reports at suite end
+ */
+public final class FlowMetrics {
+
+    private static final String ALL_DEVICES = "all";
+
+    private static final Map<String, StepStats> STEPS = new ConcurrentHashMap<>();
+
+    private FlowMetrics() {
+    }
+
+    /**
+     * Records one step span
+     * @param flow The flow name
+     * @param step The step name
+     * @param pageMethod The page object method the step ran
+     * @param device The device it ran on
+     * @param waitNanos Time spent waiting
+     * @param actNanos Time spent acting
+     * @param outcome "ok" or the failure type
+     */
+    public static void recordStep(String flow, String step, String pageMethod, String device,
+                                  long waitNanos, long actNanos, String outcome) {
+        statsFor(flow, step, pageMethod, ALL_DEVICES).record(waitNanos, actNanos, outcome);
+        statsFor(flow, step, pageMethod, device).record(waitNanos, actNanos, outcome);
+    }
+
+    /**
+     * Gets the aggregated stats of one step
+     * @param flow The flow name
+     * @param step The step name
+     * @param device The device name, or "all"
+     * @return The stats, or null if the step never ran
+     */
+    public static StepStats get(String flow, String step, String device) {
+        return STEPS.get(key(flow, step, device));
+    }
+
+    /**
+     * Writes step-timings.json and step-timings.csv into a directory
+     * @param directory The report directory
+     */
+    public static void exportReports(File directory) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            System.out.println("Report directory could not be created: " + directory);
+            return;
+        }
+        Map<String, StepStats> sorted = new TreeMap<>(STEPS);
+        try {
+            writeCsv(new File(directory, "step-timings.csv"), sorted);
+            writeJson(new File(directory, "step-timings.json"), sorted);
+            System.out.println("📊 Step timing reports written to " + directory.getAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("Step timing reports could not be written: " + e.getMessage());
+        }
+    }
+
+    private static StepStats statsFor(String flow, String step, String pageMethod, String device) {
+        return STEPS.computeIfAbsent(key(flow, step, device), k -> new StepStats(step, pageMethod));
+    }
+
+    private static String key(String flow, String step, String device) {
+        return flow + "|" + device + "|" + step;
+    }
+
+    private static void writeCsv(File file, Map<String, StepStats> steps) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.println("flow,device,step,page_method,count,p50_ms,p90_ms,p99_ms,max_ms,wait_p50_ms,act_p50_ms,outcomes");
+            for (Map.Entry<String, StepStats> entry : steps.entrySet()) {
+                String[] key = entry.getKey().split("\\|", 3);
+                StepStats stats = entry.getValue();
+                LatencyHistogram total = stats.getTotal();
+                out.println(String.join(",", key[0], key[1], key[2], stats.getPageMethod(),
+                        String.valueOf(total.getCount()),
+                        format(total.getPercentileMillis(50)),
+                        format(total.getPercentileMillis(90)),
+                        format(total.getPercentileMillis(99)),
+                        format(total.getMaxMillis()),
+                        format(stats.getWaiting().getPercentileMillis(50)),
+                        format(stats.getActing().getPercentileMillis(50)),
+                        outcomesCsv(stats)));
+            }
+        }
+    }
+
+    private static void writeJson(File file, Map<String, StepStats> steps) throws IOException {
+        List<String> entries = new ArrayList<>();
+        for (Map.Entry<String, StepStats> entry : steps.entrySet()) {
+            String[] key = entry.getKey().split("\\|", 3);
+            StepStats stats = entry.getValue();
+            LatencyHistogram total = stats.getTotal();
+            entries.add("  {\"flow\": \"" + key[0] + "\", \"device\": \"" + key[1] + "\", \"step\": \"" + key[2] + "\""
+                    + ", \"pageMethod\": \"" + stats.getPageMethod() + "\""
+                    + ", \"count\": " + total.getCount()
+                    + ", \"p50Ms\": " + format(total.getPercentileMillis(50))
+                    + ", \"p90Ms\": " + format(total.getPercentileMillis(90))
+                    + ", \"p99Ms\": " + format(total.getPercentileMillis(99))
+                    + ", \"maxMs\": " + format(total.getMaxMillis())
+                    + ", \"waitP50Ms\": " + format(stats.getWaiting().getPercentileMillis(50))
+                    + ", \"actP50Ms\": " + format(stats.getActing().getPercentileMillis(50))
+                    + ", \"outcomes\": {" + outcomesJson(stats) + "}}");
+        }
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.println("[");
+            out.println(String.join("," + System.lineSeparator(), entries));
+            out.println("]");
+        }
+    }
+
+    private static String outcomesCsv(StepStats stats) {
+        List<String> parts = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> outcome : new TreeMap<>(stats.getOutcomes()).entrySet()) {
+            parts.add(outcome.getKey() + "=" + outcome.getValue().sum());
+        }
+        return String.join(";", parts);
+    }
+
+    private static String outcomesJson(StepStats stats) {
+        List<String> parts = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> outcome : new TreeMap<>(stats.getOutcomes()).entrySet()) {
+            parts.add("\"" + outcome.getKey() + "\": " + outcome.getValue().sum());
+        }
+        return String.join(", ", parts);
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.1f", millis);
+    }
+}
@@ -0,0 +1,116 @@
+package com.abhi.appium.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * LaunchHistory class keeps every benchmark launch sample in a CSV file between runs
+ * Samples are keyed by app build and device, and the baseline for a run is the samples
+ * of the latest earlier runs on the same device and variant
+ */
+public class LaunchHistory {
+
+    private static final String HEADER = "run_id,timestamp,app_version,device,variant,iteration,millis";
+
+    private final File file;
+
+    /**
+     * Constructor that uses the given history file
+     * @param file The CSV file, created on first append
+     */
+    public LaunchHistory(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Appends samples to the history
+     * @param samples The samples of one run
+     */
+    public synchronized void append(List<LaunchSample> samples) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null) {
+            Files.createDirectories(directory.toPath());
+        }
+        boolean newFile = !file.exists();
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (newFile) {
+                out.write(HEADER + System.lineSeparator());
+            }
+            for (LaunchSample sample : samples) {
+                out.write(String.join(",", sample.getRunId(), String.valueOf(sample.getTimestamp()),
+                        clean(sample.getAppVersion()), clean(sample.getDevice()), sample.getVariant(),
+                        String.valueOf(sample.getIteration()), String.valueOf(sample.getMillis()))
+                        + System.lineSeparator());
+            }
+        }
+    }
+
+    /**
+     * Reads every sample in the history
+     * @return The samples in the order they were appended
+     */
+    public synchronized List<LaunchSample> load() throws IOException {
+        List<LaunchSample> samples = new ArrayList<>();
+        if (!file.exists()) {
+            return samples;
+        }
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            String[] fields = line.split(",");
+            if (fields.length != 7 || line.equals(HEADER)) {
+                continue;
+            }
+            try {
+                samples.add(new LaunchSample(fields[0], Long.parseLong(fields[1]), fields[2], fields[3], fields[4],
+                        Integer.parseInt(fields[5]), Long.parseLong(fields[6])));
+            } catch (NumberFormatException e) {
+                // A line cut short by an interrupted run, skip it
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Gets the baseline samples for a run
+     * @param device The device name
+     * @param variant "cold" or "warm"
+     * @param excludeRunId The current run, which is never its own baseline
+     * @param appVersion Only use this build as the baseline, or null for any build
+     * @param maxRuns How many of the latest matching runs to use
+     * @return The baseline launch times in milliseconds
+     */
+    public List<Long> baseline(String device, String variant, String excludeRunId, String appVersion, int maxRuns)
+            throws IOException {
+        List<LaunchSample> matching = new ArrayList<>();
+        Set<String> runs = new LinkedHashSet<>();
+        for (LaunchSample sample : load()) {
+            if (sample.getDevice().equals(clean(device)) && sample.getVariant().equals(variant)
+                    && !sample.getRunId().equals(excludeRunId)
+                    && (appVersion == null || sample.getAppVersion().equals(clean(appVersion)))) {
+                matching.add(sample);
+                runs.add(sample.getRunId());
+            }
+        }
+        List<String> latestRuns = new ArrayList<>(runs);
+        latestRuns = latestRuns.subList(Math.max(0, latestRuns.size() - maxRuns), latestRuns.size());
+        List<Long> baseline = new ArrayList<>();
+        for (LaunchSample sample : matching) {
+            if (latestRuns.contains(sample.getRunId())) {
+                baseline.add(sample.getMillis());
+            }
+        }
+        return baseline;
+    }
+
+    private static String clean(String value) {
+        return value.replace(',', '_');
+    }
+}
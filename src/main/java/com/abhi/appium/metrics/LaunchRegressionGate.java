@@ -0,0 +1,151 @@
+package com.abhi.appium.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * LaunchRegressionGate class decides if a benchmark run's launch times regressed against the baseline
+ * A run regresses when its p50 or p90 is more than the threshold above the baseline's and a
+ * one-sided Mann-Whitney U test says the run is slower with the configured significance,
+ * so a single noisy launch cannot fail the suite on its own
+ */
+public class LaunchRegressionGate {
+
+    private final double thresholdPercent;
+    private final double significance;
+
+    /**
+     * Constructor that creates a gate
+     * @param thresholdPercent How far p50 or p90 may rise, in percent, before it counts
+     * @param significance The largest p-value accepted as a real slowdown
+     */
+    public LaunchRegressionGate(double thresholdPercent, double significance) {
+        this.thresholdPercent = thresholdPercent;
+        this.significance = significance;
+    }
+
+    /**
+     * Compares a run against its baseline
+     * @param baseline The baseline launch times
+     * @param current The run's launch times
+     * @return The verdict
+     */
+    public Verdict compare(List<Long> baseline, List<Long> current) {
+        if (baseline.isEmpty() || current.isEmpty()) {
+            return new Verdict(false, "no baseline yet, " + current.size() + " samples stored as the first one");
+        }
+        double baseP50 = percentile(baseline, 50);
+        double baseP90 = percentile(baseline, 90);
+        double p50 = percentile(current, 50);
+        double p90 = percentile(current, 90);
+        double p50Change = change(baseP50, p50);
+        double p90Change = change(baseP90, p90);
+        double pValue = mannWhitneyGreater(current, baseline);
+        boolean regression = (p50Change > thresholdPercent || p90Change > thresholdPercent) && pValue < significance;
+        String summary = String.format(Locale.ROOT,
+                "p50 %.0f ms vs %.0f ms (%+.1f%%), p90 %.0f ms vs %.0f ms (%+.1f%%), p=%.3f, threshold %.0f%%",
+                p50, baseP50, p50Change, p90, baseP90, p90Change, pValue, thresholdPercent);
+        return new Verdict(regression, summary);
+    }
+
+    /**
+     * Gets a nearest-rank percentile
+     * @param values The values
+     * @param percentile The percentile, 0 to 100
+     * @return The percentile value
+     */
+    static double percentile(List<Long> values, double percentile) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+    }
+
+    private static double change(double base, double value) {
+        return base == 0 ? 0 : (value - base) * 100 / base;
+    }
+
+    /**
+     * One-sided Mann-Whitney U test that the first sample tends to be larger than the second
+     * Uses the normal approximation with tied values given their average rank
+     * @return The p-value
+     */
+    static double mannWhitneyGreater(List<Long> first, List<Long> second) {
+        int n1 = first.size();
+        int n2 = second.size();
+        List<long[]> all = new ArrayList<>();
+        for (long value : first) {
+            all.add(new long[] {value, 1});
+        }
+        for (long value : second) {
+            all.add(new long[] {value, 2});
+        }
+        all.sort((a, b) -> Long.compare(a[0], b[0]));
+        double firstRankSum = 0;
+        int i = 0;
+        while (i < all.size()) {
+            int j = i;
+            while (j + 1 < all.size() && all.get(j + 1)[0] == all.get(i)[0]) {
+                j++;
+            }
+            double averageRank = (i + j) / 2.0 + 1;
+            for (int k = i; k <= j; k++) {
+                if (all.get(k)[1] == 1) {
+                    firstRankSum += averageRank;
+                }
+            }
+            i = j + 1;
+        }
+        double u = firstRankSum - n1 * (n1 + 1) / 2.0;
+        double mean = n1 * n2 / 2.0;
+        double sd = Math.sqrt(n1 * n2 * (n1 + n2 + 1) / 12.0);
+        if (sd == 0) {
+            return 1;
+        }
+        return 1 - normalCdf((u - mean) / sd);
+    }
+
+    private static double normalCdf(double z) {
+        return 0.5 * (1 + erf(z / Math.sqrt(2)));
+    }
+
+    /**
+     * Abramowitz and Stegun 7.1.26, accurate to about 1e-7
+     */
+    private static double erf(double x) {
+        double sign = Math.signum(x);
+        double t = 1 / (1 + 0.3275911 * Math.abs(x));
+        double y = 1 - ((((1.061405429 * t - 1.453152027) * t + 1.421413741) * t - 0.284496736) * t + 0.254829592)
+                * t * Math.exp(-x * x);
+        return sign * y;
+    }
+
+    /**
+     * Outcome of comparing a run against its baseline
+     */
+    public static final class Verdict {
+
+        private final boolean regression;
+        private final String summary;
+
+        Verdict(boolean regression, String summary) {
+            this.regression = regression;
+            this.summary = summary;
+        }
+
+        public boolean isRegression() {
+            return regression;
+        }
+
+        public String getSummary() {
+            return summary;
+        }
+
+        @Override
+        public String toString() {
+            return (regression ? "REGRESSION: " : "ok: ") + summary;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.abhi.appium.metrics;
+
+/**
+ * LaunchSample class is one measured app launch to avatar display
+ */
+public class LaunchSample {
+
+    private final String runId;
+    private final long timestamp;
+    private final String appVersion;
+    private final String device;
+    private final String variant;
+    private final int iteration;
+    private final long millis;
+
+    /**
+     * Constructor that creates a sample
+     * @param runId The benchmark run the sample belongs to
+     * @param timestamp When it was measured, epoch milliseconds
+     * @param appVersion The app build
+     * @param device The device name
+     * @param variant "cold" or "warm"
+     * @param iteration The measured iteration, warm-ups not counted
+     * @param millis Launch to avatar display
+     */
+    public LaunchSample(String runId, long timestamp, String appVersion, String device, String variant,
+                        int iteration, long millis) {
+        this.runId = runId;
+        this.timestamp = timestamp;
+        this.appVersion = appVersion;
+        this.device = device;
+        this.variant = variant;
+        this.iteration = iteration;
+        this.millis = millis;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getAppVersion() {
+        return appVersion;
+    }
+
+    public String getDevice() {
+        return device;
+    }
+
+    public String getVariant() {
+        return variant;
+    }
+
+    public int getIteration() {
+        return iteration;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+}
@@ -0,0 +1,484 @@
+package com.abhi.appium.metrics;
+
+import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.utils.SessionScope;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ResourceSampler class polls the app's CPU, memory and frame stats in the background during a test
+ * Samples are taken on a daemon thread with a fixed delay, so a slow sample delays the next one
+ * instead of piling up, and the test thread never waits on it. Flow steps mark their start and
+ * end, and each sample row carries the step that was running, which lines a CPU or memory spike
+ * up with the step that caused it
+ * Samples go over the test's own session, as UiAutomator2 allows one session per device and the
+ * device is not always reachable over adb from the machine running the tests. They do not take the
+ * session lock, but the server still answers them between the test's own commands, so a test
+ * command that arrives mid-sample waits for it. That is why sampling is opt-in (sampler.enabled):
+ * the summary reports the share of the run the session spent on samples, keep the interval well
+ * above a sample's round trip so that share stays small
+ * A metric is only dropped after the server answers that it is unsupported, or after several
+ * reads in a row failed; a single slow or failed read just leaves its columns empty
+ */
+public class ResourceSampler implements AutoCloseable {
+
+    private static final String HEADER = "t_ms,kind,step,cpu_user,cpu_kernel,pss_kb,native_heap_kb,frames,janky_frames";
+    private static final int DATA_READ_TIMEOUT_SECONDS = 5;
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+    private static final Pattern TOTAL_FRAMES = Pattern.compile("Total frames rendered: (\\d+)");
+    private static final Pattern JANKY_FRAMES = Pattern.compile("Janky frames: (\\d+)");
+
+    private final AndroidDriver driver;
+    private final String packageName;
+    private final long intervalMillis;
+    private final File output;
+    private final Queue<String> marks = new ConcurrentLinkedQueue<>();
+    private final Map<String, StepPeak> peaks = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private final Metric cpuMetric = new Metric("cpuinfo");
+    private final Metric memoryMetric = new Metric("memoryinfo");
+    private final Metric gfxMetric = new Metric("gfxinfo");
+
+    private volatile String activeStep = "";
+    private ScheduledExecutorService executor;
+    private BufferedWriter writer;
+    private long startNanos;
+    private long stopNanos;
+    private long sampleNanos;
+    private long maxSampleNanos;
+    private int samples;
+
+    /**
+     * Constructor that creates a sampler for one session
+     * @param driver The driver to sample through
+     * @param packageName The app package to sample
+     * @param intervalMillis The pause between the end of one sample and the start of the next
+     * @param gfxInfo true to also read frame stats, which needs adb shell (relaxed security)
+     * @param output The time-series file to write
+     */
+    public ResourceSampler(AndroidDriver driver, String packageName, long intervalMillis, boolean gfxInfo, File output) {
+        this.driver = driver;
+        this.packageName = packageName;
+        this.intervalMillis = intervalMillis;
+        this.gfxMetric.available = gfxInfo;
+        this.output = output;
+    }
+
+    /**
+     * Starts a sampler for a driver, configured from config.properties
+     * Its file goes under the report directory, named after the device and start time
+     * @param driver The driver to sample through
+     * @param device The device name
+     * @return The started sampler
+     */
+    public static ResourceSampler start(AndroidDriver driver, String device) {
+        File output = new File(new File(ConfigManager.getPerfReportDir(), "resources"),
+                device.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + System.currentTimeMillis() + ".csv");
+        ResourceSampler sampler = new ResourceSampler(driver, ConfigManager.getAppPackage(),
+                ConfigManager.getSamplerIntervalMillis(), ConfigManager.getSamplerGfxInfo(), output).start();
+        ResourceSampler previous = SessionScope.put(driver, ResourceSampler.class, sampler);
+        if (previous != null) {
+            previous.close();
+        }
+        return sampler;
+    }
+
+    /**
+     * Stops the driver's sampler, if it has one, and prints its per-step peaks
+     * @param driver The driver being released
+     */
+    public static void stop(AndroidDriver driver) {
+        ResourceSampler sampler = SessionScope.remove(driver, ResourceSampler.class);
+        if (sampler != null) {
+            sampler.close();
+            System.out.println("📈 " + sampler.getSummary());
+        }
+    }
+
+    /**
+     * Marks a step boundary for the driver's sampler, doing nothing when it has none
+     * Only queues the mark, the sampler thread writes it
+     * @param driver The driver the step runs on
+     * @param step The step name
+     * @param starting true at the start of the step, false at its end
+     */
+    public static void mark(AndroidDriver driver, String step, boolean starting) {
+        ResourceSampler sampler = SessionScope.peek(driver, ResourceSampler.class);
+        if (sampler != null) {
+            sampler.mark(step, starting);
+        }
+    }
+
+    /**
+     * Starts sampling on a background thread
+     * @return This sampler, for try-with-resources
+     */
+    public ResourceSampler start() {
+        try {
+            File directory = output.getAbsoluteFile().getParentFile();
+            if (directory != null && !directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Could not create " + directory);
+            }
+            writer = new BufferedWriter(new FileWriter(output));
+            writer.write("# package=" + packageName + " interval_ms=" + intervalMillis
+                    + " start=" + System.currentTimeMillis() + "\n" + HEADER + "\n");
+        } catch (IOException e) {
+            System.out.println("Resource samples could not be written: " + e.getMessage());
+            writer = null;
+        }
+        startNanos = System.nanoTime();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resource-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::tick, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * Marks a step boundary
+     * @param step The step name
+     * @param starting true at the start of the step, false at its end
+     */
+    public void mark(String step, boolean starting) {
+        activeStep = starting ? step : "";
+        marks.add(elapsedMillis() + "," + (starting ? "start" : "end") + "," + step + ",,,,,,");
+    }
+
+    /**
+     * Stops sampling, waits for an in-flight sample and closes the file
+     */
+    @Override
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(DATA_READ_TIMEOUT_SECONDS * 2L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+        synchronized (this) {
+            stopNanos = System.nanoTime();
+        }
+        if (writer != null) {
+            try {
+                writeMarks();
+                writer.close();
+            } catch (IOException e) {
+                System.out.println("Resource samples could not be written: " + e.getMessage());
+            }
+            writer = null;
+        }
+    }
+
+    /**
+     * Gets the highest CPU and memory seen while each step ran
+     * @return The peaks by step, in the order the steps were first sampled
+     */
+    public Map<String, StepPeak> getStepPeaks() {
+        synchronized (peaks) {
+            return new LinkedHashMap<>(peaks);
+        }
+    }
+
+    public synchronized int getSampleCount() {
+        return samples;
+    }
+
+    public File getOutput() {
+        return output;
+    }
+
+    /**
+     * Gets the share of the run the session spent answering samples, which the test's commands
+     * may have waited on
+     * @return The percentage of wall time since start
+     */
+    public synchronized double getSessionSharePercent() {
+        long elapsed = (stopNanos == 0 ? System.nanoTime() : stopNanos) - startNanos;
+        return elapsed <= 0 ? 0 : 100.0 * sampleNanos / elapsed;
+    }
+
+    /**
+     * Gets whether a metric is still being read
+     * @param dataType "cpuinfo", "memoryinfo" or "gfxinfo"
+     * @return false once the metric was dropped, or for gfxinfo when it was not requested
+     */
+    public boolean isSampling(String dataType) {
+        for (Metric metric : new Metric[] {cpuMetric, memoryMetric, gfxMetric}) {
+            if (metric.dataType.equals(dataType)) {
+                return metric.available;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets a short report of the sampler's cost and the per-step peaks
+     * @return The summary
+     */
+    public synchronized String getSummary() {
+        StringBuilder summary = new StringBuilder("Resources: " + samples + " samples in " + output
+                + ", " + (samples == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(sampleNanos) / samples) + " ms per sample"
+                + " (max " + TimeUnit.NANOSECONDS.toMillis(maxSampleNanos) + " ms), session busy with samples "
+                + String.format(Locale.ROOT, "%.1f", getSessionSharePercent()) + "% of the run");
+        getStepPeaks().forEach((step, peak) -> summary.append("\n   ").append(step).append(' ').append(peak));
+        return summary.toString();
+    }
+
+    /**
+     * Takes one sample and writes it with the marks queued since the last one
+     */
+    private void tick() {
+        long start = System.nanoTime();
+        String step = activeStep;
+        long t = elapsedMillis();
+        // Marks queued so far come before this sample, marks made while it runs come after
+        List<String> earlierMarks = new ArrayList<>();
+        for (String mark; (mark = marks.poll()) != null; ) {
+            earlierMarks.add(mark);
+        }
+        double[] cpu = cpuMetric.available ? read(cpuMetric, "user", "kernel") : null;
+        double[] memory = memoryMetric.available ? read(memoryMetric, "totalPss", "nativeHeapAllocatedSize") : null;
+        long[] frames = gfxMetric.available ? readFrames() : null;
+        long took = System.nanoTime() - start;
+        synchronized (this) {
+            // Failed reads held the session too
+            sampleNanos += took;
+            maxSampleNanos = Math.max(maxSampleNanos, took);
+            if (cpu == null && memory == null && frames == null) {
+                marks.addAll(earlierMarks);
+                return;
+            }
+            samples++;
+        }
+        if (!step.isEmpty()) {
+            synchronized (peaks) {
+                peaks.computeIfAbsent(step, s -> new StepPeak()).add(cpu, memory);
+            }
+        }
+        if (writer == null) {
+            return;
+        }
+        try {
+            for (String mark : earlierMarks) {
+                writer.write(mark + "\n");
+            }
+            writer.write(t + ",sample," + step
+                    + "," + (cpu == null ? "," : format(cpu[0]) + "," + format(cpu[1]))
+                    + "," + (memory == null ? "," : format(memory[0]) + "," + format(memory[1]))
+                    + "," + (frames == null ? "," : frames[0] + "," + frames[1]) + "\n");
+            writer.flush();
+        } catch (IOException e) {
+            System.out.println("Resource samples could not be written, sampling continues unsaved: " + e.getMessage());
+            writer = null;
+        }
+    }
+
+    private void writeMarks() throws IOException {
+        String mark;
+        while ((mark = marks.poll()) != null) {
+            writer.write(mark + "\n");
+        }
+    }
+
+    /**
+     * Reads named columns of one performance data type
+     * @return The values in column order, or null when this read failed
+     */
+    private double[] read(Metric metric, String... columns) {
+        List<List<Object>> rows;
+        try {
+            rows = driver.getPerformanceData(packageName, metric.dataType, DATA_READ_TIMEOUT_SECONDS);
+        } catch (WebDriverException e) {
+            metric.failed(e);
+            return null;
+        }
+        if (rows == null || rows.size() < 2) {
+            metric.failed(null);
+            return null;
+        }
+        metric.succeeded();
+        double[] values = new double[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            int column = rows.get(0).indexOf(columns[i]);
+            values[i] = column < 0 || column >= rows.get(1).size() ? Double.NaN : parse(rows.get(1).get(column));
+        }
+        return values;
+    }
+
+    /**
+     * Reads the app's cumulative rendered and janky frame counts from dumpsys gfxinfo
+     * @return The two counters, or null when adb shell is not allowed
+     */
+    private long[] readFrames() {
+        Object result;
+        try {
+            Map<String, Object> args = new LinkedHashMap<>();
+            args.put("command", "dumpsys");
+            args.put("args", Arrays.asList("gfxinfo", packageName));
+            result = driver.executeScript("mobile: shell", args);
+        } catch (WebDriverException e) {
+            gfxMetric.failed(e);
+            return null;
+        }
+        String text = String.valueOf(result);
+        Matcher total = TOTAL_FRAMES.matcher(text);
+        Matcher janky = JANKY_FRAMES.matcher(text);
+        if (!total.find() || !janky.find()) {
+            gfxMetric.failed(null);
+            return null;
+        }
+        gfxMetric.succeeded();
+        return new long[] {Long.parseLong(total.group(1)), Long.parseLong(janky.group(1))};
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static double parse(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            return value == null ? Double.NaN : Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "";
+        }
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static String firstLine(String message) {
+        return message == null ? "" : message.split("\n")[0];
+    }
+
+    /**
+     * Read state of one metric, dropped once the server says it is unsupported or after
+     * MAX_CONSECUTIVE_FAILURES failed reads in a row
+     */
+    private static final class Metric {
+
+        private final String dataType;
+        private volatile boolean available = true;
+        private int failures;
+
+        Metric(String dataType) {
+            this.dataType = dataType;
+        }
+
+        void succeeded() {
+            failures = 0;
+        }
+
+        /**
+         * Counts a failed read
+         * @param e The server's error, null when the answer could not be parsed
+         */
+        void failed(WebDriverException e) {
+            failures++;
+            String reason = e == null ? "unreadable answer" : firstLine(e.getMessage());
+            if (isUnsupported(e)) {
+                available = false;
+                System.out.println("Resource sampler stops reading " + dataType + ", unsupported: " + reason);
+            } else if (failures >= MAX_CONSECUTIVE_FAILURES) {
+                available = false;
+                System.out.println("Resource sampler stops reading " + dataType + " after " + failures
+                        + " failed reads: " + reason);
+            }
+        }
+
+        /**
+         * Tells an answer that will never change (unknown command, unknown data type, adb shell
+         * not allowed) from one that may work on the next read
+         */
+        private static boolean isUnsupported(WebDriverException e) {
+            if (e instanceof UnsupportedCommandException || e instanceof InvalidArgumentException) {
+                return true;
+            }
+            String message = e == null ? null : e.getMessage();
+            return message != null && (message.contains("adb_shell") || message.contains("not supported"));
+        }
+    }
+
+    /**
+     * Highest CPU and memory seen while one step ran
+     */
+    public static final class StepPeak {
+
+        private int samples;
+        private double maxCpuPercent = Double.NaN;
+        private double maxPssKb = Double.NaN;
+
+        void add(double[] cpu, double[] memory) {
+            samples++;
+            if (cpu != null) {
+                maxCpuPercent = max(maxCpuPercent, cpu[0] + cpu[1]);
+            }
+            if (memory != null) {
+                maxPssKb = max(maxPssKb, memory[0]);
+            }
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        /**
+         * Gets the highest user plus kernel CPU
+         * @return The percentage, NaN if CPU was not sampled
+         */
+        public double getMaxCpuPercent() {
+            return maxCpuPercent;
+        }
+
+        /**
+         * Gets the highest total PSS
+         * @return The kilobytes, NaN if memory was not sampled
+         */
+        public double getMaxPssKb() {
+            return maxPssKb;
+        }
+
+        private static double max(double current, double value) {
+            return Double.isNaN(current) ? value : Math.max(current, value);
+        }
+
+        @Override
+        public String toString() {
+            return "cpu max " + format(maxCpuPercent) + "%, pss max " + format(maxPssKb / 1024) + " MB ("
+                    + samples + " samples)";
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.abhi.appium.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SettingsProfileMetrics class aggregates step durations by the driver settings profile they ran under
+ * Comparing a step's row across runs with a profile on and off (settings.profiles.enabled) shows
+ * what the profile saves; the setSettings calls the profiles cost are counted alongside
+ */
+public final class SettingsProfileMetrics {
+
+    private static final Map<String, LatencyHistogram> STEPS = new ConcurrentHashMap<>();
+    private static final LatencyHistogram SET_SETTINGS = new LatencyHistogram();
+    private static final LongAdder CACHED_SWITCHES = new LongAdder();
+
+    private SettingsProfileMetrics() {
+    }
+
+    /**
+     * Records one passed step
+     * @param step The step name
+     * @param profile The profile the step ran under
+     * @param nanos The step duration, including any settings switch
+     */
+    public static void recordStep(String step, String profile, long nanos) {
+        STEPS.computeIfAbsent(step + "," + profile, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Records one setSettings round trip
+     * @param nanos The round trip time
+     */
+    public static void recordSetSettings(long nanos) {
+        SET_SETTINGS.record(nanos);
+    }
+
+    /**
+     * Records a profile switch that needed no setSettings call
+     */
+    public static void recordCachedSwitch() {
+        CACHED_SWITCHES.increment();
+    }
+
+    /**
+     * Gets the durations of one step under one profile
+     * @param step The step name
+     * @param profile The profile name
+     * @return The histogram, or null if the step never passed under that profile
+     */
+    public static LatencyHistogram get(String step, String profile) {
+        return STEPS.get(step + "," + profile);
+    }
+
+    public static long getSetSettingsCount() {
+        return SET_SETTINGS.getCount();
+    }
+
+    public static long getCachedSwitchCount() {
+        return CACHED_SWITCHES.sum();
+    }
+
+    /**
+     * Writes settings-profiles.csv into a directory and prints the setSettings summary
+     * @param directory The report directory
+     */
+    public static void exportReport(File directory) {
+        if (STEPS.isEmpty()) {
+            return;
+        }
+        System.out.println(String.format(Locale.ROOT,
+                "⚙️ Settings profiles: %d setSettings calls (%.1f ms in total), %d switches already applied",
+                getSetSettingsCount(), SET_SETTINGS.getMeanMillis() * getSetSettingsCount(), getCachedSwitchCount()));
+        if (!directory.exists() && !directory.mkdirs()) {
+            System.out.println("Report directory could not be created: " + directory);
+            return;
+        }
+        File file = new File(directory, "settings-profiles.csv");
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.println("step,profile,count,mean_ms,p50_ms,p90_ms,max_ms");
+            for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(STEPS).entrySet()) {
+                LatencyHistogram duration = entry.getValue();
+                out.println(String.join(",", entry.getKey(), String.valueOf(duration.getCount()),
+                        format(duration.getMeanMillis()), format(duration.getPercentileMillis(50)),
+                        format(duration.getPercentileMillis(90)), format(duration.getMaxMillis())));
+            }
+            System.out.println("📊 Settings profile report written to " + file.getAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("Settings profile report could not be written: " + e.getMessage());
+        }
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.2f", millis);
+    }
+}
@@ -0,0 +1,66 @@
+package com.abhi.appium.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StepStats class aggregates every run of one flow step
+ * Holds histograms for total, waiting and acting time plus a count per outcome
+ */
+public class StepStats {
+
+    private final String step;
+    private final String pageMethod;
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final LatencyHistogram waiting = new LatencyHistogram();
+    private final LatencyHistogram acting = new LatencyHistogram();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor that creates empty stats for a step
+     * @param step The step name
+     * @param pageMethod The page object method the step runs
+     */
+    public StepStats(String step, String pageMethod) {
+        this.step = step;
+        this.pageMethod = pageMethod;
+    }
+
+    /**
+     * Records one run of the step
+     * @param waitNanos Time spent waiting for elements or screens
+     * @param actNanos Time spent on everything else
+     * @param outcome "ok" or the failure type
+     */
+    public void record(long waitNanos, long actNanos, String outcome) {
+        total.record(waitNanos + actNanos);
+        waiting.record(waitNanos);
+        acting.record(actNanos);
+        outcomes.computeIfAbsent(outcome, o -> new LongAdder()).increment();
+    }
+
+    public String getStep() {
+        return step;
+    }
+
+    public String getPageMethod() {
+        return pageMethod;
+    }
+
+    public LatencyHistogram getTotal() {
+        return total;
+    }
+
+    public LatencyHistogram getWaiting() {
+        return waiting;
+    }
+
+    public LatencyHistogram getActing() {
+        return acting;
+    }
+
+    public Map<String, LongAdder> getOutcomes() {
+        return outcomes;
+    }
+}
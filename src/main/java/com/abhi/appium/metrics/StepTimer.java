@@ -0,0 +1,71 @@
+package com.abhi.appium.metrics;
+
+/**
+ * StepTimer class times the steps of one flow run
+ * Each step becomes a span with its waiting and acting time and outcome, recorded into FlowMetrics
+ */
+public class StepTimer {
+
+    /**
+     * StepAction interface is a step that doesn't return a value
+     */
+    public interface StepAction {
+        void run() throws Exception;
+    }
+
+    /**
+     * StepCall interface is a step that returns a value
+     */
+    public interface StepCall<T> {
+        T call() throws Exception;
+    }
+
+    private final String flow;
+    private final String device;
+
+    /**
+     * Constructor that creates a timer for one flow on one device
+     * @param flow The flow name, e.g. "login"
+     * @param device The device the flow runs on
+     */
+    public StepTimer(String flow, String device) {
+        this.flow = flow;
+        this.device = device;
+    }
+
+    /**
+     * Runs and times a step
+     * @param step The step name
+     * @param pageMethod The page object method the step calls
+     * @param action The step body
+     */
+    public void run(String step, String pageMethod, StepAction action) throws Exception {
+        call(step, pageMethod, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs and times a step that returns a value
+     * @param step The step name
+     * @param pageMethod The page object method the step calls
+     * @param call The step body
+     * @return The step's value
+     */
+    public <T> T call(String step, String pageMethod, StepCall<T> call) throws Exception {
+        long waitedBefore = WaitClock.total();
+        long start = System.nanoTime();
+        String outcome = "ok";
+        try {
+            return call.call();
+        } catch (Exception e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            long waited = Math.min(elapsed, WaitClock.total() - waitedBefore);
+            FlowMetrics.recordStep(flow, step, pageMethod, device, waited, elapsed - waited, outcome);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.abhi.appium.metrics;
+
+/**
+ * WaitClock class accumulates time the current thread spends waiting for elements or screens
+ * Step timing reads it before and after a step to split waiting from acting
+ */
+public final class WaitClock {
+
+    private static final ThreadLocal<long[]> WAITED_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private WaitClock() {
+    }
+
+    /**
+     * Adds waiting time for the current thread
+     * @param nanos Time spent waiting
+     */
+    public static void add(long nanos) {
+        WAITED_NANOS.get()[0] += nanos;
+    }
+
+    /**
+     * Gets the total waiting time recorded on the current thread
+     * @return Waited nanoseconds since the thread started
+     */
+    public static long total() {
+        return WAITED_NANOS.get()[0];
+    }
+}
@@ -1,19 +1,29 @@
 package com.abhi.appium.pages;
 
+import com.abhi.appium.utils.DriverSettings;
+import com.abhi.appium.utils.LazyElement;
+import com.abhi.appium.utils.SettingsProfile;
 import com.abhi.appium.utils.WaitUtils;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.android.AndroidDriver;
 import org.openqa.selenium.By;
-import org.openqa.selenium.WebElement;
 
 /**
  * HomePage class contains all element locators and methods for the home screen
  * This demonstrates how to add new pages to the framework
+ * The home screen animates constantly, so its lookups run under a short server-side idle wait
  */
 public class HomePage {
 
-    private final AndroidDriver driver;
+    // The app never goes idle here, and WaitUtils polls client-side, so the server need not wait
+    // ignoreUnimportantViews stays off: it renumbers the ImageView instance(n) the avatar is found by
+    public static final SettingsProfile SETTINGS = SettingsProfile.named("home-screen")
+            .set("waitForIdleTimeout", 100)
+            .set("waitForSelectorTimeout", 0);
+
     private final WaitUtils waitUtils;
+    private final DriverSettings settings;
+    private final LazyElement welcomeMessage;
 
     // Element locators for the home screen
     private static final By AVATAR_IMAGE = AppiumBy.androidUIAutomator("new UiSelector().className(\"android.widget.ImageView\").instance(1)");
@@ -26,21 +36,18 @@ public class HomePage {
      * @param driver The Android driver instance
      */
     public HomePage(AndroidDriver driver) {
-        this.driver = driver;
-        this.waitUtils = new WaitUtils(driver);
+        this.waitUtils = WaitUtils.forDriver(driver);
+        this.settings = DriverSettings.forDriver(driver);
+        this.welcomeMessage = waitUtils.element(WELCOME_MESSAGE);
     }
 
     /**
      * Checks if the user is successfully logged in by verifying avatar presence
+     * Answered from one page source snapshot instead of separate find and isDisplayed calls
      * @return true if avatar is displayed, false otherwise
      */
     public boolean isUserLoggedIn() {
-        try {
-            WebElement avatar = waitUtils.waitForElement(AVATAR_IMAGE);
-            return avatar.isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return settings.call(SETTINGS, () -> waitUtils.waitForDisplayed(AVATAR_IMAGE));
     }
 
     /**
@@ -49,8 +56,7 @@ public class HomePage {
      */
     public String getWelcomeMessage() {
         try {
-            WebElement welcomeElement = waitUtils.waitForElement(WELCOME_MESSAGE);
-            return welcomeElement.getText();
+            return settings.call(SETTINGS, welcomeMessage::getText);
         } catch (Exception e) {
             return "Welcome message not found";
         }
@@ -60,14 +66,14 @@ public class HomePage {
      * Clicks the menu button to open the navigation menu
      */
     public void openMenu() {
-        waitUtils.waitAndClick(MENU_BUTTON);
+        settings.run(SETTINGS, () -> waitUtils.waitAndClick(MENU_BUTTON));
     }
 
     /**
      * Clicks the logout button to sign out
      */
     public void logout() {
-        waitUtils.waitAndClick(LOGOUT_BUTTON);
+        settings.run(SETTINGS, () -> waitUtils.waitAndClick(LOGOUT_BUTTON));
     }
 
     /**
@@ -1,5 +1,10 @@
 package com.abhi.appium.pages;
 
+import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.flows.BatchStep;
+import com.abhi.appium.utils.InterruptWatcher;
+import com.abhi.appium.utils.LazyElement;
+import com.abhi.appium.utils.PageSnapshot;
 import com.abhi.appium.utils.WaitUtils;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.android.AndroidDriver;
@@ -9,11 +14,16 @@ import org.openqa.selenium.WebElement;
 /**
  * LoginPage class contains all element locators and methods for the login screen
  * This follows the Page Object Model pattern to separate element locators from test logic
+ * Inputs are lazy elements, so typing into a field a readiness check just found, or clearing
+ * and refilling it on a retry, reuses the handle instead of finding it again
  */
 public class LoginPage {
 
-    private final AndroidDriver driver;
     private final WaitUtils waitUtils;
+    private final LazyElement mobileInput;
+    private final LazyElement otpInput;
+    private final LazyElement mpinInput;
+    private final LazyElement avatarImage;
 
     // Element locators for the login screen
     private static final By SYSTEM_OK_BUTTON = AppiumBy.id("android:id/button1");
@@ -22,6 +32,8 @@ public class LoginPage {
     private static final By PERMISSION_ALLOW_BUTTON = AppiumBy.id("com.android.permissioncontroller:id/permission_allow_button");
     private static final By CANCEL_BUTTON = AppiumBy.accessibilityId("Cancel");
     private static final By MOBILE_INPUT_FIELD = AppiumBy.className("android.widget.EditText");
+    // Prefix match: the link shows a countdown ("Resend OTP in 30s") until a code can be resent
+    private static final By OTP_RESEND_TEXT = AppiumBy.androidUIAutomator("new UiSelector().textStartsWith(\"Resend\")");
     private static final By VIEW_ELEMENT_INDEX_6 = AppiumBy.androidUIAutomator("new UiSelector().className(\"android.view.View\").instance(6)");
     private static final By MPIN_INPUT_FIELD = AppiumBy.accessibilityId("mpin_id_pin_input_field");
     private static final By AVATAR_IMAGE = AppiumBy.androidUIAutomator("new UiSelector().className(\"android.widget.ImageView\").instance(1)");
@@ -31,19 +43,23 @@ public class LoginPage {
      * @param driver The Android driver instance
      */
     public LoginPage(AndroidDriver driver) {
-        this.driver = driver;
-        this.waitUtils = new WaitUtils(driver);
+        this.waitUtils = WaitUtils.forDriver(driver);
+        // The phone and OTP screens share the input locator, their waits are learned apart
+        this.mobileInput = waitUtils.element("phone-entry", MOBILE_INPUT_FIELD);
+        this.otpInput = waitUtils.element("otp-entry", MOBILE_INPUT_FIELD);
+        this.mpinInput = waitUtils.element(MPIN_INPUT_FIELD);
+        this.avatarImage = waitUtils.element(AVATAR_IMAGE);
     }
 
     /**
      * Clicks the system OK dialog if it appears (optional step)
-     * This handles the case where a system dialog might appear
+     * This handles the case where a system dialog might appear, spending only the
+     * optional-element budget when it doesn't
      */
     public void clickSystemOkDialog() {
-        try {
-            waitUtils.waitAndClick(SYSTEM_OK_BUTTON);
+        if (waitUtils.clickIfPresent(SYSTEM_OK_BUTTON)) {
             System.out.println("✅ System OK dialog clicked");
-        } catch (Exception e) {
+        } else {
             System.out.println("ℹ️ System OK dialog not found, continuing...");
         }
     }
@@ -81,11 +97,37 @@ public class LoginPage {
      * @param phoneNumber The phone number to enter
      */
     public void enterPhoneNumber(String phoneNumber) {
-        WebElement mobileInput = waitUtils.waitForElement(MOBILE_INPUT_FIELD);
         mobileInput.sendKeys(phoneNumber);
         mobileInput.click();
     }
 
+    /**
+     * Clears the mobile number input so a retried entry starts from an empty field
+     */
+    public void clearMobileInput() {
+        clearInput(mobileInput);
+    }
+
+    /**
+     * Clears the OTP input so a retried entry starts from an empty field
+     */
+    public void clearOtpInput() {
+        clearInput(otpInput);
+    }
+
+    /**
+     * Clears the MPIN input so a retried entry starts from an empty field
+     */
+    public void clearMpinInput() {
+        clearInput(mpinInput);
+    }
+
+    private void clearInput(LazyElement input) {
+        if (input.findNow() != null) {
+            input.clear();
+        }
+    }
+
     /**
      * Clicks on the view element at index 6 to proceed
      */
@@ -98,16 +140,42 @@ public class LoginPage {
      * @param otp The OTP code to enter
      */
     public void enterOtp(String otp) {
-        WebElement otpInput = waitUtils.waitForElement(MOBILE_INPUT_FIELD);
         otpInput.sendKeys(otp);
     }
 
+    /**
+     * Checks if the OTP input is ready for typing: present, focused and empty
+     * An input showing only its hint counts as empty
+     * @return true if the OTP field can take input now
+     */
+    public boolean isOtpFieldReady() {
+        return waitUtils.callWithSessionLock(() -> {
+            WebElement input = otpInput.findNow();
+            if (input == null) {
+                return false;
+            }
+            if (!"true".equals(input.getAttribute("focused"))) {
+                return false;
+            }
+            String text = input.getText();
+            return text == null || text.isEmpty() || text.equals(input.getAttribute("hint"));
+        });
+    }
+
+    /**
+     * Checks if the MPIN input is present on screen
+     * @return true if the MPIN field is present
+     */
+    public boolean isMpinFieldPresent() {
+        return mpinInput.findNow() != null;
+    }
+
     /**
      * Enters the MPIN in the input field
      * @param mpin The MPIN to enter
      */
     public void enterMpin(String mpin) {
-        waitUtils.waitAndSendKeys(MPIN_INPUT_FIELD, mpin);
+        mpinInput.sendKeys(mpin);
     }
 
     /**
@@ -115,19 +183,206 @@ public class LoginPage {
      * @return The avatar WebElement if found
      */
     public WebElement waitForAvatarImage() {
-        return waitUtils.waitForElement(AVATAR_IMAGE);
+        return avatarImage.get();
+    }
+
+    /**
+     * Waits for the avatar image and checks it is displayed, the check sent under the session lock
+     * @return true if the avatar is displayed
+     */
+    public boolean waitForAvatarImageDisplayed() {
+        return avatarImage.isDisplayed();
     }
 
     /**
      * Checks if the avatar image is displayed (login success indicator)
+     * Answered from one page source snapshot instead of separate find and isDisplayed calls
      * @return true if avatar is displayed, false otherwise
      */
     public boolean isAvatarDisplayed() {
-        try {
-            WebElement avatar = waitUtils.waitForElement(AVATAR_IMAGE);
-            return avatar.isDisplayed();
-        } catch (Exception e) {
+        return waitUtils.waitForDisplayed(AVATAR_IMAGE);
+    }
+
+    /**
+     * Registers the login screen's interrupt dialogs with a background watcher
+     * @param watcher The watcher that will dismiss them
+     * @return The same watcher, for chaining
+     */
+    public InterruptWatcher registerInterruptDialogs(InterruptWatcher watcher) {
+        return watcher
+                .register("system-ok", SYSTEM_OK_BUTTON)
+                .register("permission-allow", PERMISSION_ALLOW_BUTTON)
+                .register("cancel-dialog", CANCEL_BUTTON);
+    }
+
+    /**
+     * Fetches one page source snapshot for screen-state checks
+     * @return The refreshed snapshot
+     */
+    public PageSnapshot captureScreen() {
+        return waitUtils.callWithSessionLock(() -> waitUtils.getSnapshot().refresh());
+    }
+
+    /**
+     * Checks a snapshot for the MPIN input (returning user re-authentication)
+     * @param screen The snapshot to check
+     * @return true if the MPIN field is on screen
+     */
+    public boolean hasMpinField(PageSnapshot screen) {
+        return Boolean.TRUE.equals(screen.isPresent(MPIN_INPUT_FIELD));
+    }
+
+    /**
+     * Checks a snapshot for the onboarding entry points shown before login starts
+     * @param screen The snapshot to check
+     * @return true if the system dialog, DLS button, primary button or a permission prompt is on screen
+     */
+    public boolean hasOnboardingEntry(PageSnapshot screen) {
+        return Boolean.TRUE.equals(screen.isPresent(SYSTEM_OK_BUTTON))
+                || Boolean.TRUE.equals(screen.isPresent(DLS_BUTTON))
+                || Boolean.TRUE.equals(screen.isPresent(PRIMARY_BUTTON))
+                || Boolean.TRUE.equals(screen.isPresent(PERMISSION_ALLOW_BUTTON));
+    }
+
+    /**
+     * Checks a snapshot for a focused, empty input (the OTP screen waiting for a code)
+     * The phone entry screen has the same input, so the OTP screen's resend link must be shown too
+     * @param screen The snapshot to check
+     * @return true if the resend link is shown and the first input is focused with no text other than its hint
+     */
+    public boolean hasOtpFieldReady(PageSnapshot screen) {
+        if (!Boolean.TRUE.equals(screen.isPresent(OTP_RESEND_TEXT))
+                || !Boolean.TRUE.equals(screen.isPresent(MOBILE_INPUT_FIELD))
+                || !"true".equals(screen.getAttribute(MOBILE_INPUT_FIELD, "focused"))) {
             return false;
         }
+        String text = screen.getAttribute(MOBILE_INPUT_FIELD, "text");
+        return text == null || text.isEmpty() || text.equals(screen.getAttribute(MOBILE_INPUT_FIELD, "hint"));
+    }
+
+    /**
+     * Checks a snapshot for the home screen avatar without any input on screen
+     * @param screen The snapshot to check
+     * @return true if the avatar is displayed and no input field is shown
+     */
+    public boolean hasHomeAvatar(PageSnapshot screen) {
+        return Boolean.TRUE.equals(screen.isDisplayed(AVATAR_IMAGE))
+                && !Boolean.TRUE.equals(screen.isPresent(MOBILE_INPUT_FIELD));
+    }
+
+    // Batch steps: the same actions as above, for server-side execution with DriverScriptBatch
+
+    /**
+     * Batch step for clickSystemOkDialog
+     * @param name The flow step name
+     * @return The batch step
+     */
+    public BatchStep systemOkDialogStep(String name) {
+        return BatchStep.clickIfPresent(name, "LoginPage.clickSystemOkDialog", SYSTEM_OK_BUTTON,
+                ConfigManager.getOptionalElementBudgetMillis(), this::clickSystemOkDialog);
+    }
+
+    /**
+     * Batch step for clickDlsButton
+     * @param name The flow step name
+     * @return The batch step
+     */
+    public BatchStep dlsButtonStep(String name) {
+        return BatchStep.click(name, "LoginPage.clickDlsButton", DLS_BUTTON, explicitWaitMillis(), this::clickDlsButton);
+    }
+
+    /**
+     * Batch step for clickPrimaryButton
+     * @param name The flow step name
+     * @return The batch step
+     */
+    public BatchStep primaryButtonStep(String name) {
+        return BatchStep.click(name, "LoginPage.clickPrimaryButton", PRIMARY_BUTTON, explicitWaitMillis(), this::clickPrimaryButton);
+    }
+
+    /**
+     * Batch step for allowPermissions
+     * @param name The flow step name
+     * @return The batch step
+     */
+    public BatchStep allowPermissionsStep(String name) {
+        return BatchStep.click(name, "LoginPage.allowPermissions", PERMISSION_ALLOW_BUTTON, explicitWaitMillis(), this::allowPermissions);
+    }
+
+    /**
+     * Batch step for clickCancelButton
+     * @param name The flow step name
+     * @return The batch step
+     */
+    public BatchStep cancelButtonStep(String name) {
+        return BatchStep.click(name, "LoginPage.clickCancelButton", CANCEL_BUTTON, explicitWaitMillis(), this::clickCancelButton);
+    }
+
+    /**
+     * Batch step for enterPhoneNumber
+     * @param name The flow step name
+     * @param phoneNumber The phone number to enter
+     * @return The batch step
+     */
+    public BatchStep enterPhoneNumberStep(String name, String phoneNumber) {
+        return BatchStep.sendKeys(name, "LoginPage.enterPhoneNumber", MOBILE_INPUT_FIELD, phoneNumber, true,
+                explicitWaitMillis(), () -> enterPhoneNumber(phoneNumber));
+    }
+
+    /**
+     * Batch step for clickViewElement
+     * @param name The flow step name
+     * @return The batch step
+     */
+    public BatchStep viewElementStep(String name) {
+        return BatchStep.click(name, "LoginPage.clickViewElement", VIEW_ELEMENT_INDEX_6, explicitWaitMillis(), this::clickViewElement);
+    }
+
+    /**
+     * Batch step that waits for the OTP input to be ready, like isOtpFieldReady
+     * @param name The flow step name
+     * The flow sets the client-side wait to run if the batch stops here
+     * @return The batch step
+     */
+    public BatchStep otpFieldReadyStep(String name) {
+        return BatchStep.awaitReadyInput(name, "LoginPage.isOtpFieldReady", MOBILE_INPUT_FIELD,
+                ConfigManager.getTransitionTimeoutMillis(), null);
+    }
+
+    /**
+     * Batch step for enterOtp
+     * @param name The flow step name
+     * @param otp The OTP code to enter
+     * @return The batch step
+     */
+    public BatchStep enterOtpStep(String name, String otp) {
+        return BatchStep.sendKeys(name, "LoginPage.enterOtp", MOBILE_INPUT_FIELD, otp, false,
+                explicitWaitMillis(), () -> enterOtp(otp));
+    }
+
+    /**
+     * Batch step that waits for the MPIN input, like isMpinFieldPresent
+     * @param name The flow step name
+     * The flow sets the client-side wait to run if the batch stops here
+     * @return The batch step
+     */
+    public BatchStep mpinFieldPresentStep(String name) {
+        return BatchStep.await(name, "LoginPage.isMpinFieldPresent", MPIN_INPUT_FIELD,
+                ConfigManager.getTransitionTimeoutMillis(), null);
+    }
+
+    /**
+     * Batch step for enterMpin
+     * @param name The flow step name
+     * @param mpin The MPIN to enter
+     * @return The batch step
+     */
+    public BatchStep enterMpinStep(String name, String mpin) {
+        return BatchStep.sendKeys(name, "LoginPage.enterMpin", MPIN_INPUT_FIELD, mpin, false,
+                explicitWaitMillis(), () -> enterMpin(mpin));
+    }
+
+    private static long explicitWaitMillis() {
+        return ConfigManager.getExplicitWait() * 1000L;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,106 @@
+package com.abhi.appium.recording;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CommandLogReader class reads a binary command log written by CommandLogWriter
+ * A record cut short by a crash ends the log instead of failing the read
+ */
+public class CommandLogReader {
+
+    private final long startEpochMillis;
+    private final List<CommandRecord> records;
+
+    private CommandLogReader(long startEpochMillis, List<CommandRecord> records) {
+        this.startEpochMillis = startEpochMillis;
+        this.records = records;
+    }
+
+    /**
+     * Reads a whole log
+     * @param file The log file
+     * @return The reader holding the log's records
+     */
+    public static CommandLogReader read(File file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != CommandLogWriter.MAGIC) {
+                throw new IOException("Not a command log: " + file);
+            }
+            int version = input.readUnsignedByte();
+            if (version != CommandLogWriter.VERSION) {
+                throw new IOException("Unsupported command log version " + version + ": " + file);
+            }
+            long startEpochMillis = input.readLong();
+            List<String> paths = new ArrayList<>();
+            List<CommandRecord> records = new ArrayList<>();
+            try {
+                while (true) {
+                    long offsetMicros;
+                    try {
+                        offsetMicros = readVarLong(input);
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    String method = CommandLogWriter.METHODS[input.readUnsignedByte()];
+                    int index = (int) readVarLong(input);
+                    if (index == paths.size()) {
+                        paths.add(readString(input));
+                    }
+                    String path = paths.get(index);
+                    String payload = readString(input);
+                    int status = (int) readVarLong(input);
+                    int requestBytes = (int) readVarLong(input);
+                    int responseBytes = (int) readVarLong(input);
+                    long latencyMicros = readVarLong(input);
+                    records.add(new CommandRecord(offsetMicros, method, path, payload,
+                            status, requestBytes, responseBytes, latencyMicros));
+                }
+            } catch (EOFException e) {
+                System.out.println("ℹ️ Command log ends in a partial record, ignoring it: " + file);
+            }
+            return new CommandLogReader(startEpochMillis, records);
+        }
+    }
+
+    /**
+     * Gets when the recording started
+     * @return Epoch milliseconds
+     */
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * Gets the records in the order they were sent
+     * @return The records
+     */
+    public List<CommandRecord> getRecords() {
+        return records;
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(input)];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarLong(DataInputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in command log");
+    }
+}
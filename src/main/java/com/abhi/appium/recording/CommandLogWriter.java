@@ -0,0 +1,115 @@
+package com.abhi.appium.recording;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CommandLogWriter class appends command records to a compact binary log
+ * Numbers are varint-encoded and repeated paths are written once and then referenced by index,
+ * so a typical command costs 8-16 bytes plus its payload summary
+ * Each record is flushed as it is written, so a crashed run still leaves a readable log
+ */
+public class CommandLogWriter implements AutoCloseable {
+
+    static final int MAGIC = 0x41434C47; // "ACLG"
+    static final int VERSION = 1;
+    static final String[] METHODS = {"GET", "POST", "DELETE"};
+
+    private final DataOutputStream output;
+    private final Map<String, Integer> pathIndex = new HashMap<>();
+    private final File file;
+    private long recordCount;
+
+    /**
+     * Constructor that creates a new log file and writes its header
+     * @param file The log file to create
+     */
+    public CommandLogWriter(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        this.file = file;
+        this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 8192));
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeLong(System.currentTimeMillis());
+        output.flush();
+    }
+
+    /**
+     * Appends one record
+     * @param record The command to append
+     */
+    public synchronized void write(CommandRecord record) throws IOException {
+        writeVarLong(record.getOffsetMicros());
+        output.writeByte(methodCode(record.getMethod()));
+        Integer index = pathIndex.get(record.getPath());
+        if (index == null) {
+            // A new path is written as the next index followed by its text
+            index = pathIndex.size();
+            pathIndex.put(record.getPath(), index);
+            writeVarLong(index);
+            writeString(record.getPath());
+        } else {
+            writeVarLong(index);
+        }
+        writeString(record.getPayload());
+        writeVarLong(record.getStatus());
+        writeVarLong(record.getRequestBytes());
+        writeVarLong(record.getResponseBytes());
+        writeVarLong(record.getLatencyMicros());
+        output.flush();
+        recordCount++;
+    }
+
+    /**
+     * Gets the log file being written
+     * @return The log file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the number of records written
+     * @return The record count
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        output.close();
+    }
+
+    private static int methodCode(String method) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equals(method)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported HTTP method: " + method);
+    }
+
+    private void writeString(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        output.write(bytes);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+}
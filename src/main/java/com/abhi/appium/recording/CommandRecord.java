@@ -0,0 +1,86 @@
+package com.abhi.appium.recording;
+
+/**
+ * CommandRecord class is one WebDriver command captured by the recorder
+ * Paths have the session id replaced by ":sessionId" so recordings can be replayed on a new session
+ */
+public class CommandRecord {
+
+    private final long offsetMicros;
+    private final String method;
+    private final String path;
+    private final String payload;
+    private final int status;
+    private final int requestBytes;
+    private final int responseBytes;
+    private final long latencyMicros;
+
+    /**
+     * Constructor that creates a record
+     * @param offsetMicros When the command was sent, relative to the start of the recording
+     * @param method The HTTP method
+     * @param path The endpoint path with the session id normalized
+     * @param payload The request body, truncated and with typed text masked
+     * @param status The HTTP status the server answered with
+     * @param requestBytes Size of the request body
+     * @param responseBytes Size of the response body
+     * @param latencyMicros Time from sending the request to receiving the response
+     */
+    public CommandRecord(long offsetMicros, String method, String path, String payload,
+                         int status, int requestBytes, int responseBytes, long latencyMicros) {
+        this.offsetMicros = offsetMicros;
+        this.method = method;
+        this.path = path;
+        this.payload = payload;
+        this.status = status;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+        this.latencyMicros = latencyMicros;
+    }
+
+    public long getOffsetMicros() {
+        return offsetMicros;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public int getRequestBytes() {
+        return requestBytes;
+    }
+
+    public int getResponseBytes() {
+        return responseBytes;
+    }
+
+    public long getLatencyMicros() {
+        return latencyMicros;
+    }
+
+    /**
+     * Gets the endpoint with element ids replaced, so commands can be grouped for reports
+     * @return e.g. "POST /session/:sessionId/element/:id/click"
+     */
+    public String getCommand() {
+        return method + " " + path.replaceAll("/element/[^/]+", "/element/:id");
+    }
+
+    @Override
+    public String toString() {
+        return String.format("+%d ms %s %d %d ms (%d B)", offsetMicros / 1000, getCommand(), status,
+                latencyMicros / 1000, responseBytes);
+    }
+}
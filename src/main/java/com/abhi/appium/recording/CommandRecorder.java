@@ -0,0 +1,150 @@
+package com.abhi.appium.recording;
+
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * CommandRecorder class captures every command a driver sends, as a Selenium HTTP filter
+ * Install it with HttpTransport.commandExecutor(url, recorder); each command's endpoint, payload summary,
+ * response size and server latency is appended to a binary command log
+ * Text typed into elements (phone numbers, OTPs, MPINs) and batch scripts are masked before they are written
+ */
+public class CommandRecorder implements Filter, AutoCloseable {
+
+    private static final int MAX_PAYLOAD_CHARS = 256;
+    private static final Pattern SESSION_ID = Pattern.compile("^/session/[^/]+");
+    private static final List<CommandRecorder> OPEN = new ArrayList<>();
+
+    private final CommandLogWriter writer;
+    private final long startNanos = System.nanoTime();
+    private volatile boolean failed;
+
+    /**
+     * Constructor that starts a new recording
+     * @param file The command log to create
+     */
+    public CommandRecorder(File file) throws IOException {
+        this.writer = new CommandLogWriter(file);
+        synchronized (OPEN) {
+            OPEN.add(this);
+        }
+    }
+
+    /**
+     * Starts a recording in a directory, named after the device and start time
+     * @param directory The recordings directory
+     * @param deviceName The device the session runs on
+     * @return The recorder
+     */
+    public static CommandRecorder start(File directory, String deviceName) throws IOException {
+        String name = deviceName.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + System.currentTimeMillis() + ".cmdlog";
+        return new CommandRecorder(new File(directory, name));
+    }
+
+    @Override
+    public HttpHandler apply(HttpHandler next) {
+        return request -> {
+            String payload = summarize(request);
+            int requestBytes = request.getContent().length();
+            long sentNanos = System.nanoTime();
+            HttpResponse response = next.execute(request);
+            long latencyMicros = (System.nanoTime() - sentNanos) / 1000;
+            record(new CommandRecord((sentNanos - startNanos) / 1000, request.getMethod().name(),
+                    SESSION_ID.matcher(request.getUri()).replaceFirst("/session/:sessionId"), payload,
+                    response.getStatus(), requestBytes, response.getContent().length(), latencyMicros));
+            return response;
+        };
+    }
+
+    /**
+     * Gets the log this recorder writes to
+     * @return The command log file
+     */
+    public File getFile() {
+        return writer.getFile();
+    }
+
+    /**
+     * Gets the number of commands recorded so far
+     * @return The record count
+     */
+    public long getRecordCount() {
+        return writer.getRecordCount();
+    }
+
+    /**
+     * Checks whether the recording is still open
+     * @return false once it was closed, with its session or at suite end
+     */
+    public boolean isOpen() {
+        synchronized (OPEN) {
+            return OPEN.contains(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (OPEN) {
+            OPEN.remove(this);
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.out.println("⚠️ Could not close command log " + getFile() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes every open recording, e.g. at suite end
+     */
+    public static void closeAll() {
+        List<CommandRecorder> recorders;
+        synchronized (OPEN) {
+            recorders = new ArrayList<>(OPEN);
+        }
+        for (CommandRecorder recorder : recorders) {
+            System.out.println("🎙️ Recorded " + recorder.getRecordCount() + " commands to " + recorder.getFile());
+            recorder.close();
+        }
+    }
+
+    /**
+     * Writes a record; a failing disk stops the recording but never fails the command
+     */
+    private void record(CommandRecord record) {
+        if (failed) {
+            return;
+        }
+        try {
+            writer.write(record);
+        } catch (IOException e) {
+            failed = true;
+            System.out.println("⚠️ Command recording stopped, could not write " + getFile() + ": " + e.getMessage());
+        }
+    }
+
+    private static String summarize(HttpRequest request) {
+        if (request.getUri().endsWith("/value")) {
+            return "{\"text\":\"***\"}";
+        }
+        if (request.getUri().endsWith("/appium/execute_driver")) {
+            // Batch scripts carry typed text too
+            return "{\"script\":\"***\"}";
+        }
+        String body = Contents.string(request);
+        if (request.getUri().equals("/session")) {
+            // The new-session payload is kept whole so a replay can start an equivalent session
+            return body;
+        }
+        return body.length() <= MAX_PAYLOAD_CHARS ? body : body.substring(0, MAX_PAYLOAD_CHARS);
+    }
+}
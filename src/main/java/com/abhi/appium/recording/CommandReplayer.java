@@ -0,0 +1,184 @@
+package com.abhi.appium.recording;
+
+import com.abhi.appium.stub.StubAppiumServer;
+import org.openqa.selenium.json.Json;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CommandReplayer class replays a command log against a stub server with the original timing
+ * Each command is sent at its recorded offset and the stub answers after the recorded server
+ * latency, so a slow session's timeline can be reproduced and compared offline
+ * Responses are not checked: commands on elements the stub doesn't script simply fail fast
+ *
+ * Usage: java -cp ... com.abhi.appium.recording.CommandReplayer recording.cmdlog [--fast]
+ */
+public class CommandReplayer {
+
+    private static final Json JSON = new Json();
+
+    private final StubAppiumServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final boolean originalTiming;
+
+    /**
+     * Constructor that creates a replayer for a running stub
+     * @param server The stub to replay against
+     * @param originalTiming true to keep the recorded gaps and latencies, false to replay back to back
+     */
+    public CommandReplayer(StubAppiumServer server, boolean originalTiming) {
+        this.server = server;
+        this.originalTiming = originalTiming;
+    }
+
+    /**
+     * Replays the records in order
+     * @param records The recorded commands
+     * @return The replay report comparing recorded and replayed latencies
+     */
+    public ReplayReport replay(List<CommandRecord> records) throws IOException, InterruptedException {
+        ReplayReport report = new ReplayReport();
+        String sessionId = null;
+        long startNanos = System.nanoTime();
+        for (CommandRecord record : records) {
+            if (originalTiming) {
+                long dueMicros = record.getOffsetMicros() - (System.nanoTime() - startNanos) / 1000;
+                if (dueMicros > 1000) {
+                    Thread.sleep(dueMicros / 1000);
+                }
+                server.latency(record.getLatencyMicros() / 1000);
+            }
+            boolean newSession = record.getMethod().equals("POST") && record.getPath().equals("/session");
+            if (sessionId == null && !newSession) {
+                sessionId = startSession("{\"capabilities\":{}}");
+            }
+            long sentNanos = System.nanoTime();
+            if (newSession) {
+                sessionId = startSession(record.getPayload());
+            } else {
+                send(record.getMethod(), record.getPath().replace(":sessionId", sessionId), record.getPayload());
+            }
+            report.add(record, (System.nanoTime() - sentNanos) / 1000);
+        }
+        server.latency(0);
+        report.replayMicros = (System.nanoTime() - startNanos) / 1000;
+        return report;
+    }
+
+    private String startSession(String payload) throws IOException, InterruptedException {
+        HttpResponse<String> response = send("POST", "/session", payload);
+        Map<String, Object> body = JSON.toType(response.body(), Json.MAP_TYPE);
+        Object value = body.get("value");
+        return value instanceof Map ? String.valueOf(((Map<?, ?>) value).get("sessionId")) : "replay";
+    }
+
+    private HttpResponse<String> send(String method, String path, String payload) throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher body = payload.isEmpty()
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(payload);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.getUrl() + path))
+                .header("Content-Type", "application/json; charset=utf-8")
+                .method(method, body)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Replays a command log from the command line and prints the report
+     * @param args The command log path, and --fast to replay without the original timing
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: CommandReplayer <recording.cmdlog> [--fast]");
+            System.exit(2);
+        }
+        CommandLogReader log = CommandLogReader.read(new File(args[0]));
+        boolean fast = args.length > 1 && args[1].equals("--fast");
+        try (StubAppiumServer server = new StubAppiumServer(0).start()) {
+            System.out.println(new CommandReplayer(server, !fast).replay(log.getRecords()));
+        }
+    }
+
+    /**
+     * ReplayReport class compares the recorded timeline with the replayed one
+     */
+    public static class ReplayReport {
+
+        private final Map<String, long[]> byCommand = new LinkedHashMap<>();
+        private final List<CommandRecord> records = new ArrayList<>();
+        private long recordedMicros;
+        private long replayMicros;
+
+        private void add(CommandRecord record, long replayLatencyMicros) {
+            records.add(record);
+            long[] totals = byCommand.computeIfAbsent(record.getCommand(), c -> new long[3]);
+            totals[0]++;
+            totals[1] += record.getLatencyMicros();
+            totals[2] += replayLatencyMicros;
+            recordedMicros = Math.max(recordedMicros, record.getOffsetMicros() + record.getLatencyMicros());
+        }
+
+        /**
+         * Gets the number of commands replayed
+         * @return The command count
+         */
+        public int getCommandCount() {
+            return records.size();
+        }
+
+        /**
+         * Gets the recorded session's length, first command to last response
+         * @return Duration in ms
+         */
+        public long getRecordedMillis() {
+            return recordedMicros / 1000;
+        }
+
+        /**
+         * Gets how long the replay took
+         * @return Duration in ms
+         */
+        public long getReplayMillis() {
+            return replayMicros / 1000;
+        }
+
+        /**
+         * Gets the commands with the highest recorded latency
+         * @param limit How many to return
+         * @return The slowest records, slowest first
+         */
+        public List<CommandRecord> getSlowest(int limit) {
+            List<CommandRecord> sorted = new ArrayList<>(records);
+            sorted.sort(Comparator.comparingLong(CommandRecord::getLatencyMicros).reversed());
+            return sorted.subList(0, Math.min(limit, sorted.size()));
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append("🎙️ Replayed ").append(records.size()).append(" commands: recorded ")
+                    .append(getRecordedMillis()).append(" ms, replayed ").append(getReplayMillis()).append(" ms\n");
+            report.append(String.format("%-60s %6s %14s %14s%n", "command", "count", "recorded ms", "replayed ms"));
+            for (Map.Entry<String, long[]> entry : byCommand.entrySet()) {
+                long[] totals = entry.getValue();
+                report.append(String.format("%-60s %6d %14d %14d%n", entry.getKey(), totals[0],
+                        totals[1] / 1000, totals[2] / 1000));
+            }
+            report.append("Slowest commands:\n");
+            for (CommandRecord record : getSlowest(5)) {
+                report.append("  ").append(record).append('\n');
+            }
+            return report.toString();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.abhi.appium.server;
+
+import com.abhi.appium.base.Device;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AppiumServerLauncher class starts real Appium servers with the appium command line
+ * Each server logs to its own file, named after the device, in the given log directory
+ */
+public class AppiumServerLauncher implements ServerLauncher {
+
+    private static final long STOP_TIMEOUT_SECONDS = 10;
+
+    private final String command;
+    private final List<String> extraArgs;
+    private final File logDir;
+
+    /**
+     * Constructor that creates a launcher
+     * @param command The appium executable, e.g. "appium" or a full path to appium.cmd
+     * @param extraArgs Extra arguments for every server, e.g. --relaxed-security
+     * @param logDir The directory server logs are written to
+     */
+    public AppiumServerLauncher(String command, List<String> extraArgs, File logDir) {
+        this.command = command;
+        this.extraArgs = new ArrayList<>(extraArgs);
+        this.logDir = logDir;
+    }
+
+    @Override
+    public ServerProcess launch(Device device, int port) throws IOException {
+        if (!logDir.exists() && !logDir.mkdirs()) {
+            throw new IOException("Could not create server log directory " + logDir);
+        }
+        File log = new File(logDir, "appium-" + device.getName().replaceAll("[^A-Za-z0-9._-]", "_") + ".log");
+        List<String> commandLine = new ArrayList<>(Arrays.asList(command,
+                "--address", "127.0.0.1", "--port", String.valueOf(port), "--base-path", "/", "--log-no-colors"));
+        commandLine.addAll(extraArgs);
+        Process process = new ProcessBuilder(commandLine)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log))
+                .start();
+        return new ServerProcess() {
+            @Override
+            public boolean isAlive() {
+                return process.isAlive();
+            }
+
+            @Override
+            public void stop() {
+                process.destroy();
+                try {
+                    if (!process.waitFor(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                        process.destroyForcibly().waitFor(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    }
+                } catch (InterruptedException e) {
+                    process.destroyForcibly();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+}
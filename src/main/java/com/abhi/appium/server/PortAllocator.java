@@ -0,0 +1,65 @@
+package com.abhi.appium.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * PortAllocator class hands out free local ports for servers, starting from a base port
+ * A port is skipped if this run already gave it out or something else is listening on it
+ */
+public class PortAllocator {
+
+    private static final int MAX_PORT = 65535;
+
+    private final int basePort;
+    private final Set<Integer> allocated = new HashSet<>();
+
+    /**
+     * Constructor that allocates upwards from a base port
+     * @param basePort The first port to try
+     */
+    public PortAllocator(int basePort) {
+        this.basePort = basePort;
+    }
+
+    /**
+     * Allocates the lowest free port at or above the base port
+     * @return The port
+     */
+    public synchronized int allocate() {
+        for (int port = basePort; port <= MAX_PORT; port++) {
+            if (!allocated.contains(port) && isFree(port)) {
+                allocated.add(port);
+                return port;
+            }
+        }
+        throw new IllegalStateException("No free port at or above " + basePort);
+    }
+
+    /**
+     * Gives a port back so a later allocation may reuse it
+     * @param port The port
+     */
+    public synchronized void release(int port) {
+        allocated.remove(port);
+    }
+
+    /**
+     * Checks if nothing is listening on a local port
+     * @param port The port
+     * @return true if the port could be bound
+     */
+    public static boolean isFree(int port) {
+        try (ServerSocket socket = new ServerSocket()) {
+            socket.setReuseAddress(true);
+            socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.abhi.appium.server;
+
+import com.abhi.appium.base.Device;
+
+import java.io.IOException;
+
+/**
+ * ServerLauncher interface starts one Appium server process for a device
+ * The pool only needs a process it can check and stop, so tests can plug in a fake server
+ */
+public interface ServerLauncher {
+
+    /**
+     * Starts a server for a device listening on the given port
+     * The server may still be starting when this returns, the pool waits for it to answer
+     * @param device The device the server will drive
+     * @param port The port to listen on
+     * @return The running process
+     * @throws IOException If the process could not be started
+     */
+    ServerProcess launch(Device device, int port) throws IOException;
+}
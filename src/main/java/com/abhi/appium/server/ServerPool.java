@@ -0,0 +1,268 @@
+package com.abhi.appium.server;
+
+import com.abhi.appium.base.Device;
+import com.abhi.appium.config.ConfigManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ServerPool class runs one Appium server per device on its own port
+ * A device's server is started the first time the device is leased and health-checked on every
+ * later lease; a server that exited or stops answering /status is restarted on the same port while
+ * the other devices' servers keep running. Servers are stopped at suite end or JVM exit
+ */
+public class ServerPool {
+
+    private static final long READY_POLL_MILLIS = 200;
+
+    private static ServerPool shared;
+
+    private final ServerLauncher launcher;
+    private final PortAllocator ports;
+    private final long startTimeoutMillis;
+    private final int healthTimeoutMillis;
+    private final Map<String, ManagedServer> servers = new ConcurrentHashMap<>();
+    private final AtomicInteger starts = new AtomicInteger();
+    private final AtomicInteger restarts = new AtomicInteger();
+
+    /**
+     * Constructor that creates an empty pool
+     * @param launcher Starts the server processes
+     * @param ports Hands out the servers' ports
+     * @param startTimeoutMillis How long a new server may take to answer /status
+     * @param healthTimeoutMillis How long a health check waits for /status
+     */
+    public ServerPool(ServerLauncher launcher, PortAllocator ports, long startTimeoutMillis, int healthTimeoutMillis) {
+        this.launcher = launcher;
+        this.ports = ports;
+        this.startTimeoutMillis = startTimeoutMillis;
+        this.healthTimeoutMillis = healthTimeoutMillis;
+    }
+
+    /**
+     * Gets the pool shared by the run, launching real Appium servers configured from config.properties
+     * @return The shared pool
+     */
+    public static synchronized ServerPool getInstance() {
+        if (shared == null) {
+            ServerLauncher launcher = new AppiumServerLauncher(ConfigManager.getServerCommand(),
+                    ConfigManager.getServerArgs(), new File(ConfigManager.getPerfReportDir(), "server-logs"));
+            ServerPool pool = new ServerPool(launcher, new PortAllocator(ConfigManager.getServerBasePort()),
+                    ConfigManager.getServerStartTimeoutMillis(), ConfigManager.getServerHealthTimeoutMillis());
+            Runtime.getRuntime().addShutdownHook(new Thread(pool::stopAll, "server-pool-shutdown"));
+            shared = pool;
+        }
+        return shared;
+    }
+
+    /**
+     * Stops the shared pool's servers and prints its report
+     * Call this once at suite end, after the sessions on them are quit
+     */
+    public static synchronized void shutdownShared() {
+        if (shared != null) {
+            shared.shutdown();
+            shared = null;
+        }
+    }
+
+    /**
+     * Makes sure a device has a running, answering server, starting or restarting it if needed
+     * @param device The device about to be used
+     * @return The server URL
+     */
+    public String ensureHealthy(Device device) {
+        ManagedServer server = servers.computeIfAbsent(device.getName(), name -> new ManagedServer(device));
+        synchronized (server) {
+            if (server.process == null) {
+                start(server, ports.allocate());
+            } else if (!isHealthy(server)) {
+                restart(server);
+            }
+            return server.getUrl();
+        }
+    }
+
+    /**
+     * Checks a device's server without restarting it
+     * @param deviceName The device name
+     * @return true if its server is running and answers /status
+     */
+    public boolean isHealthy(String deviceName) {
+        ManagedServer server = servers.get(deviceName);
+        if (server == null) {
+            return false;
+        }
+        synchronized (server) {
+            return server.process != null && isHealthy(server);
+        }
+    }
+
+    /**
+     * Gets the URL of a device's server
+     * @param deviceName The device name
+     * @return The URL, or null if the device has no server yet
+     */
+    public String getUrl(String deviceName) {
+        ManagedServer server = servers.get(deviceName);
+        if (server == null) {
+            return null;
+        }
+        synchronized (server) {
+            return server.process == null ? null : server.getUrl();
+        }
+    }
+
+    /**
+     * Gets how often a device's server was restarted
+     * @param deviceName The device name
+     * @return The restart count
+     */
+    public int getRestartCount(String deviceName) {
+        ManagedServer server = servers.get(deviceName);
+        if (server == null) {
+            return 0;
+        }
+        synchronized (server) {
+            return server.restarts;
+        }
+    }
+
+    /**
+     * Stops every server and prints the pool report
+     */
+    public void shutdown() {
+        stopAll();
+        System.out.println(getReport());
+    }
+
+    /**
+     * Builds a one-line report of server starts and restarts
+     * @return The report text
+     */
+    public String getReport() {
+        return "🖥️ Server pool: " + servers.size() + " servers, " + starts.get() + " starts, "
+                + restarts.get() + " restarts";
+    }
+
+    private void start(ManagedServer server, int port) {
+        server.port = port;
+        try {
+            server.process = launcher.launch(server.device, port);
+        } catch (IOException e) {
+            ports.release(port);
+            server.process = null;
+            throw new IllegalStateException("Could not start Appium server for " + server.device.getName()
+                    + ": " + e.getMessage(), e);
+        }
+        starts.incrementAndGet();
+        long deadline = System.currentTimeMillis() + startTimeoutMillis;
+        while (!isHealthy(server)) {
+            if (!server.process.isAlive() || System.currentTimeMillis() >= deadline) {
+                stop(server);
+                throw new IllegalStateException("Appium server for " + server.device.getName()
+                        + " did not start on port " + port + " within " + startTimeoutMillis + " ms");
+            }
+            try {
+                Thread.sleep(READY_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while starting Appium server", e);
+            }
+        }
+        System.out.println("🖥️ Appium server for " + server.device.getName() + " ready at " + server.getUrl());
+    }
+
+    /**
+     * Replaces an unhealthy server, keeping its port (and URL) unless the old process still holds it
+     */
+    private void restart(ManagedServer server) {
+        System.out.println("⚠️ Appium server for " + server.device.getName() + " at " + server.getUrl()
+                + " is not answering, restarting it");
+        int port = server.port;
+        server.process.stop();
+        server.process = null;
+        if (!PortAllocator.isFree(port)) {
+            ports.release(port);
+            port = ports.allocate();
+        }
+        server.restarts++;
+        restarts.incrementAndGet();
+        start(server, port);
+    }
+
+    private void stop(ManagedServer server) {
+        if (server.process != null) {
+            server.process.stop();
+            server.process = null;
+            ports.release(server.port);
+        }
+    }
+
+    private void stopAll() {
+        for (ManagedServer server : servers.values()) {
+            synchronized (server) {
+                try {
+                    stop(server);
+                } catch (RuntimeException e) {
+                    System.out.println("ℹ️ Appium server for " + server.device.getName() + " did not stop cleanly: "
+                            + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the process runs and /status answers with 200 within the health timeout
+     */
+    private boolean isHealthy(ManagedServer server) {
+        if (!server.process.isAlive()) {
+            return false;
+        }
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(server.getUrl() + "/status").openConnection();
+            connection.setConnectTimeout(healthTimeoutMillis);
+            connection.setReadTimeout(healthTimeoutMillis);
+            int status = connection.getResponseCode();
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (body != null) {
+                    body.readAllBytes();
+                }
+            }
+            return status == HttpURLConnection.HTTP_OK;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * One device's server
+     */
+    private static final class ManagedServer {
+
+        private final Device device;
+        private ServerProcess process;
+        private int port;
+        private int restarts;
+
+        ManagedServer(Device device) {
+            this.device = device;
+        }
+
+        String getUrl() {
+            return "http://127.0.0.1:" + port;
+        }
+    }
+}
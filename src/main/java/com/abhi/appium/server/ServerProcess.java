@@ -0,0 +1,19 @@
+package com.abhi.appium.server;
+
+/**
+ * ServerProcess interface is a running Appium server as the pool sees it
+ */
+public interface ServerProcess {
+
+    /**
+     * Checks if the process is still running
+     * A running process can still be hung, the pool also checks that it answers
+     * @return true if the process has not exited
+     */
+    boolean isAlive();
+
+    /**
+     * Stops the process, forcibly if it does not exit in time
+     */
+    void stop();
+}
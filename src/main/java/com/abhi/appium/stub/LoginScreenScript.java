@@ -0,0 +1,57 @@
+package com.abhi.appium.stub;
+
+import com.abhi.appium.config.ConfigManager;
+
+/**
+ * LoginScreenScript class scripts the stub server to behave like the app's login screens
+ * Dialogs, the phone/OTP input, the MPIN field and the home avatar appear in the same order
+ * and with similar delays as on a device, so LoginFlow can run end to end against the stub
+ */
+public final class LoginScreenScript {
+
+    private static final String ID = "id";
+    private static final String ACCESSIBILITY_ID = "accessibility id";
+    private static final String CLASS_NAME = "class name";
+    private static final String UI_AUTOMATOR = "-android uiautomator";
+
+    private static final String DLS_BUTTON = ConfigManager.getAppPackage() + ":id/dls_button_label";
+    private static final String VIEW_ELEMENT_INDEX_6 = "new UiSelector().className(\"android.view.View\").instance(6)";
+    private static final String OTP_RESEND_TEXT = "new UiSelector().textStartsWith(\"Resend\")";
+    private static final String AVATAR_IMAGE = "new UiSelector().className(\"android.widget.ImageView\").instance(1)";
+
+    private LoginScreenScript() {
+    }
+
+    /**
+     * Scripts a fresh-install login, every screen appearing after the given delay
+     * @param server The stub server to script
+     * @param screenDelayMillis How long each screen takes to appear after the previous action
+     * @return The same server, for chaining
+     */
+    public static StubAppiumServer apply(StubAppiumServer server, long screenDelayMillis) {
+        server.element(ID, "android:id/button1").removedWhenClicked();
+        server.element(ID, DLS_BUTTON).removedWhenClicked();
+        server.element(ACCESSIBILITY_ID, "primaryButton")
+                .after(ID, DLS_BUTTON).appearsAfter(screenDelayMillis).removedWhenClicked();
+        // Two permission prompts during onboarding and one after the MPIN
+        server.element(ID, "com.android.permissioncontroller:id/permission_allow_button")
+                .after(ACCESSIBILITY_ID, "primaryButton").appearsAfter(screenDelayMillis).removedAfterClicks(3);
+        server.element(ACCESSIBILITY_ID, "Cancel")
+                .after(ACCESSIBILITY_ID, "primaryButton").appearsAfter(screenDelayMillis).removedWhenClicked();
+        server.element(CLASS_NAME, "android.widget.EditText")
+                .after(ACCESSIBILITY_ID, "primaryButton").appearsAfter(screenDelayMillis)
+                .attribute("focused", "true").attribute("hint", "");
+        // Proceeding from the phone number shows the OTP screen with an empty input
+        server.element(UI_AUTOMATOR, VIEW_ELEMENT_INDEX_6)
+                .after(CLASS_NAME, "android.widget.EditText").removedWhenClicked()
+                .clearsTextOf(CLASS_NAME, "android.widget.EditText");
+        server.element(UI_AUTOMATOR, OTP_RESEND_TEXT)
+                .after(UI_AUTOMATOR, VIEW_ELEMENT_INDEX_6)
+                .attribute("class", "android.widget.TextView").attribute("text", "Resend OTP in 30s");
+        server.element(ACCESSIBILITY_ID, "mpin_id_pin_input_field")
+                .after(UI_AUTOMATOR, VIEW_ELEMENT_INDEX_6).appearsAfter(screenDelayMillis);
+        server.element(UI_AUTOMATOR, AVATAR_IMAGE)
+                .after(ACCESSIBILITY_ID, "mpin_id_pin_input_field").appearsAfter(screenDelayMillis);
+        return server;
+    }
+}
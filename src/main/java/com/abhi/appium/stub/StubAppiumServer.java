@@ -0,0 +1,645 @@
+package com.abhi.appium.stub;
+
+import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.transport.HttpTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.DesiredCapabilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StubAppiumServer class is a lightweight in-process W3C WebDriver/Appium server
+ * It serves a scripted screen (elements appear after set delays or interactions) with
+ * optional injected latency, so the framework can run and be benchmarked without a device
+ */
+public class StubAppiumServer implements AutoCloseable {
+
+    private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    private static final Json JSON = new Json();
+    // A 1x1 transparent PNG, enough for screenshot calls to succeed
+    private static final String BLANK_PNG_BASE64 =
+            "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, StubElement> elements = new LinkedHashMap<>();
+    private final Map<String, Long> interactions = new ConcurrentHashMap<>();
+    private final Map<String, String> texts = new ConcurrentHashMap<>();
+    private final Map<String, Integer> clickCounts = new ConcurrentHashMap<>();
+    private final Map<String, Object> settings = new ConcurrentHashMap<>();
+    private final AtomicInteger sessionCounter = new AtomicInteger();
+    private final AtomicInteger screenGeneration = new AtomicInteger();
+    private final AtomicLong commandCount = new AtomicLong();
+    private final AtomicInteger performanceDataErrors = new AtomicInteger();
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicLong> commandsByName = new ConcurrentHashMap<>();
+    private volatile long latencyMillis;
+    private volatile boolean driverScripts = true;
+    private volatile boolean driverScriptsLoseResults;
+    private volatile boolean adbShell = true;
+    private volatile long screenStartNanos = System.nanoTime();
+    // Answered by queryAppState: 1 not running, 4 running in foreground
+    private volatile int appState = 4;
+
+    /**
+     * Constructor that binds the stub to a local port
+     * @param port The port to listen on, 0 for any free port
+     */
+    public StubAppiumServer(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-appium-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        // UiAutomator2's defaults for the settings the framework changes
+        settings.put("waitForIdleTimeout", 10000);
+        settings.put("waitForSelectorTimeout", 10000);
+        settings.put("ignoreUnimportantViews", false);
+    }
+
+    /**
+     * Starts serving requests
+     * @return This server, for chaining
+     */
+    public StubAppiumServer start() {
+        server.start();
+        return this;
+    }
+
+    /**
+     * Stops the server
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Gets the URL to pass to AndroidDriver
+     * @return The server URL
+     */
+    public URL getUrl() {
+        try {
+            return new URL("http://127.0.0.1:" + server.getAddress().getPort());
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Starts a session against the stub with the framework's usual capabilities
+     * @return A driver connected to this server
+     */
+    public AndroidDriver newDriver() {
+        DesiredCapabilities caps = new DesiredCapabilities();
+        caps.setCapability("platformName", ConfigManager.getPlatformName());
+        caps.setCapability("appium:automationName", ConfigManager.getAutomationName());
+        caps.setCapability("appium:deviceName", "stub");
+        caps.setCapability("appium:appPackage", ConfigManager.getAppPackage());
+        caps.setCapability("appium:appActivity", ConfigManager.getAppActivity());
+        caps.setCapability("appium:noReset", true);
+        return new AndroidDriver(HttpTransport.commandExecutor(getUrl()), caps);
+    }
+
+    /**
+     * Adds latency to every command, like a remote server or slow device would
+     * @param millis Delay per command
+     * @return This server, for chaining
+     */
+    public StubAppiumServer latency(long millis) {
+        this.latencyMillis = millis;
+        return this;
+    }
+
+    /**
+     * Turns executeDriverScript support on or off, like installing the execute-driver plugin
+     * @param enabled false to answer driver scripts with "unknown command"
+     * @return This server, for chaining
+     */
+    public StubAppiumServer driverScripts(boolean enabled) {
+        this.driverScripts = enabled;
+        return this;
+    }
+
+    /**
+     * Makes driver scripts run their steps and then fail, like a script that timed out after acting
+     * @param loseResults true to answer driver scripts with an error once their steps ran
+     * @return This server, for chaining
+     */
+    public StubAppiumServer driverScriptsLoseResults(boolean loseResults) {
+        this.driverScriptsLoseResults = loseResults;
+        return this;
+    }
+
+    /**
+     * Turns mobile: shell on or off, like starting the server with or without relaxed security
+     * @param enabled false to refuse dumpsys gfxinfo too
+     * @return This server, for chaining
+     */
+    public StubAppiumServer adbShell(boolean enabled) {
+        this.adbShell = enabled;
+        return this;
+    }
+
+    /**
+     * Makes the next performance data reads fail, like a dumpsys that timed out on a busy device
+     * @param count How many reads fail before the server answers again
+     * @return This server, for chaining
+     */
+    public StubAppiumServer failPerformanceData(int count) {
+        performanceDataErrors.set(count);
+        return this;
+    }
+
+    /**
+     * Scripts an element on the screen
+     * @param using The locator strategy the element is found with, e.g. "id"
+     * @param value The locator value
+     * @return The element script, to set its appearance and attributes
+     */
+    public synchronized StubElement element(String using, String value) {
+        StubElement element = new StubElement("stub-" + (elements.size() + 1), using, value);
+        elements.put(element.getKey(), element);
+        return element;
+    }
+
+    /**
+     * Puts the screen back to its initial state, as if the app was relaunched
+     */
+    public void resetScreen() {
+        interactions.clear();
+        texts.clear();
+        clickCounts.clear();
+        screenGeneration.incrementAndGet();
+        screenStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Gets the number of commands served
+     * @return The command count
+     */
+    public long getCommandCount() {
+        return commandCount.get();
+    }
+
+    /**
+     * Gets the number of client connections commands arrived on, which shows connection reuse
+     * @return The number of distinct client sockets seen
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Gets the number of commands served per command name
+     * @return A copy of command name to count
+     */
+    public Map<String, Long> getCommandCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        commandsByName.forEach((name, count) -> counts.put(name, count.get()));
+        return counts;
+    }
+
+    static String key(String using, String value) {
+        return using + "=" + value;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+            Map<String, Object> body = readBody(exchange);
+            commandCount.incrementAndGet();
+            connections.add(exchange.getRemoteAddress());
+            Object value = route(method, path, body);
+            if (value instanceof StubError) {
+                StubError error = (StubError) value;
+                respond(exchange, error.status, Map.of("value", Map.of(
+                        "error", error.error, "message", error.message, "stacktrace", "")));
+            } else {
+                Map<String, Object> response = new HashMap<>();
+                response.put("value", value);
+                respond(exchange, 200, response);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            respond(exchange, 500, Map.of("value", Map.of(
+                    "error", "unknown error", "message", String.valueOf(e.getMessage()), "stacktrace", "")));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Object route(String method, String[] path, Map<String, Object> body) throws InterruptedException {
+        if (path.length == 1 && path[0].equals("status")) {
+            count("status");
+            return Map.of("ready", true, "message", "stub appium server");
+        }
+        if (path.length == 1 && path[0].equals("session") && method.equals("POST")) {
+            count("newSession");
+            resetScreen();
+            appState = 4;
+            return newSession(body);
+        }
+        if (path.length < 2 || !path[0].equals("session")) {
+            count("unknown");
+            return null;
+        }
+        String command = path.length == 2 ? method.equals("DELETE") ? "deleteSession" : "getSession" : path[2];
+        switch (command) {
+            case "element":
+                if (path.length == 3) {
+                    count("findElement");
+                    return findElement(body);
+                }
+                return elementCommand(path, body);
+            case "elements":
+                count("findElements");
+                return findElements(body);
+            case "source":
+                count("getPageSource");
+                return pageSource();
+            case "execute":
+                count("executeScript");
+                return executeScript(body);
+            case "screenshot":
+                count("screenshot");
+                return BLANK_PNG_BASE64;
+            case "appium":
+                return appiumCommand(method, path, body);
+            case "se":
+                count("getLog");
+                return List.of(Map.of("timestamp", System.currentTimeMillis(), "level", "INFO",
+                        "message", "I/stub: " + body.getOrDefault("type", "logcat") + " after " + commandCount.get() + " commands"));
+            default:
+                count(command);
+                return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object newSession(Map<String, Object> body) {
+        Map<String, Object> capabilities = new HashMap<>();
+        Object requested = body.get("capabilities");
+        if (requested instanceof Map) {
+            Object alwaysMatch = ((Map<String, Object>) requested).get("alwaysMatch");
+            if (alwaysMatch instanceof Map) {
+                capabilities.putAll((Map<String, Object>) alwaysMatch);
+            }
+        }
+        capabilities.putIfAbsent("platformName", "Android");
+        capabilities.putIfAbsent("appium:automationName", "UiAutomator2");
+        return Map.of("sessionId", "stub-session-" + sessionCounter.incrementAndGet(), "capabilities", capabilities);
+    }
+
+    private Object findElement(Map<String, Object> body) {
+        String locator = key(String.valueOf(body.get("using")), String.valueOf(body.get("value")));
+        StubElement element = visibleElement(locator);
+        return element == null ? StubError.noSuchElement(locator) : reference(element);
+    }
+
+    private Object findElements(Map<String, Object> body) {
+        String locator = key(String.valueOf(body.get("using")), String.valueOf(body.get("value")));
+        StubElement element = visibleElement(locator);
+        return element == null ? Collections.emptyList() : List.of(reference(element));
+    }
+
+    private Object elementCommand(String[] path, Map<String, Object> body) {
+        String[] reference = path[3].split("@", 2);
+        StubElement element = byId(reference[0]);
+        String action = path.length > 4 ? path[4] : "";
+        count("element/" + action);
+        if (element == null) {
+            return StubError.noSuchElement(path[3]);
+        }
+        // Like UiAutomator2, a handle to a node that has left the screen or predates a relaunch is stale
+        boolean sameScreen = reference.length == 2 && reference[1].equals(String.valueOf(screenGeneration.get()));
+        if (!sameScreen || !isVisible(element)) {
+            return StubError.staleElement(path[3]);
+        }
+        switch (action) {
+            case "click":
+                click(element);
+                return null;
+            case "value":
+                Object text = body.get("text");
+                type(element, text == null ? "" : String.valueOf(text));
+                return null;
+            case "clear":
+                texts.remove(element.getKey());
+                return null;
+            case "displayed":
+                return !"false".equals(element.getAttributes().get("displayed"));
+            case "enabled":
+                return !"false".equals(element.getAttributes().get("enabled"));
+            case "text":
+                return text(element);
+            case "attribute":
+                return attribute(element, path.length > 5 ? path[5] : "");
+            case "rect":
+                return Map.of("x", 0, "y", 0, "width", 100, "height", 100);
+            default:
+                return null;
+        }
+    }
+
+    private Object appiumCommand(String method, String[] path, Map<String, Object> body)
+            throws InterruptedException {
+        String command = String.join("/", Arrays.copyOfRange(path, 3, path.length));
+        count("appium/" + command);
+        switch (command) {
+            case "settings":
+                if (method.equals("POST") && body.get("settings") instanceof Map) {
+                    ((Map<?, ?>) body.get("settings")).forEach((k, v) -> settings.put(String.valueOf(k), v));
+                }
+                return new HashMap<>(settings);
+            case "execute_driver":
+                if (!driverScripts) {
+                    return new StubError(404, "unknown command", "The execute-driver plugin is not installed");
+                }
+                Object result = StubDriverScript.run(this, String.valueOf(body.get("script")));
+                return driverScriptsLoseResults
+                        ? new StubError(500, "script timeout", "Driver script timed out")
+                        : result;
+            case "device/app_state":
+                return appState;
+            case "device/app_installed":
+                return true;
+            case "device/terminate_app":
+                resetScreen();
+                appState = 1;
+                return true;
+            case "device/activate_app":
+                appState = 4;
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private Object executeScript(Map<String, Object> body) {
+        String script = String.valueOf(body.get("script"));
+        switch (script) {
+            case "mobile: queryAppState":
+                return appState;
+            case "mobile: isAppInstalled":
+                return true;
+            case "mobile: terminateApp":
+                appState = 1;
+                return true;
+            case "mobile: clearApp":
+                // pm clear kills the app's process, nothing relaunches it
+                resetScreen();
+                appState = 1;
+                return null;
+            case "mobile: activateApp":
+                appState = 4;
+                return null;
+            case "mobile: getPerformanceDataTypes":
+                return Arrays.asList("cpuinfo", "memoryinfo", "batteryinfo", "networkinfo");
+            case "mobile: getPerformanceData":
+                return performanceData(String.valueOf(scriptArgs(body).get("dataType")));
+            case "mobile: shell":
+                return shell(scriptArgs(body));
+            default:
+                return null;
+        }
+    }
+
+    private static Map<?, ?> scriptArgs(Map<String, Object> body) {
+        Object args = body.get("args");
+        if (args instanceof List && !((List<?>) args).isEmpty() && ((List<?>) args).get(0) instanceof Map) {
+            return (Map<?, ?>) ((List<?>) args).get(0);
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Answers a performance data query with synthetic values that move with the command count
+     * Rows follow UiAutomator2: a header row of names, then a row of values as strings
+     */
+    private Object performanceData(String dataType) {
+        if (performanceDataErrors.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+            return new StubError(500, "unknown error", "Error executing adbExec: dumpsys timed out");
+        }
+        long n = commandCount.get();
+        switch (dataType) {
+            case "cpuinfo":
+                return Arrays.asList(Arrays.asList("user", "kernel"),
+                        Arrays.asList(String.valueOf(10 + n % 7 * 3), String.valueOf(2 + n % 3)));
+            case "memoryinfo":
+                return Arrays.asList(Arrays.asList("totalPrivateDirty", "totalPss", "nativeHeapAllocatedSize"),
+                        Arrays.asList(String.valueOf(90_000 + n * 50), String.valueOf(150_000 + n * 100),
+                                String.valueOf(40_000 + n * 20)));
+            default:
+                return new StubError(400, "invalid argument", "No performance data of type " + dataType);
+        }
+    }
+
+    /**
+     * Answers dumpsys gfxinfo with synthetic frame counters, other shell commands are refused
+     * like a server started without relaxed security
+     */
+    private Object shell(Map<?, ?> args) {
+        Object shellArgs = args.get("args");
+        if (adbShell && "dumpsys".equals(args.get("command")) && shellArgs instanceof List
+                && ((List<?>) shellArgs).contains("gfxinfo")) {
+            long n = commandCount.get();
+            return "Graphics info for pid 4242 [" + ConfigManager.getAppPackage() + "]\n"
+                    + "Total frames rendered: " + n * 5 + "\n"
+                    + "Janky frames: " + n + " (20.00%)\n";
+        }
+        return new StubError(403, "unknown error", "Potentially insecure feature 'adb_shell' has not been enabled");
+    }
+
+    Object attribute(StubElement element, String name) {
+        if (name.equals("text")) {
+            return text(element);
+        }
+        return element.getAttributes().get(name);
+    }
+
+    /**
+     * Gets an element's text: what was typed into it, else its scripted "text" attribute (a label)
+     */
+    private String text(StubElement element) {
+        return texts.getOrDefault(element.getKey(), element.getAttributes().getOrDefault("text", ""));
+    }
+
+    private String pageSource() {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><hierarchy rotation=\"0\">");
+        Map<String, Integer> classCounts = new HashMap<>();
+        for (StubElement element : snapshotElements()) {
+            if (!isVisible(element)) {
+                continue;
+            }
+            String className = element.getAttributes().getOrDefault("class", "android.view.View");
+            // UiSelector instance(n) locators need n earlier nodes of the same class in the source
+            int seen = classCounts.getOrDefault(className, 0);
+            for (; seen < element.getInstance(); seen++) {
+                xml.append('<').append(className).append(" class=\"").append(className)
+                        .append("\" displayed=\"true\" bounds=\"[0,0][1,1]\"/>");
+            }
+            classCounts.put(className, seen + 1);
+            xml.append('<').append(className);
+            for (Map.Entry<String, String> attribute : element.getAttributes().entrySet()) {
+                if (attribute.getKey().equals("text")) {
+                    continue;
+                }
+                xml.append(' ').append(attribute.getKey()).append("=\"").append(escape(attribute.getValue())).append('"');
+            }
+            if (!element.getAttributes().containsKey("class")) {
+                xml.append(" class=\"").append(className).append('"');
+            }
+            xml.append(" text=\"").append(escape(text(element))).append("\"/>");
+        }
+        return xml.append("</hierarchy>").toString();
+    }
+
+    void click(StubElement element) {
+        interact(element);
+        int clicks = clickCounts.merge(element.getKey(), 1, Integer::sum);
+        if (element.getClicksToRemove() > 0 && clicks >= element.getClicksToRemove()) {
+            interactions.put("removed:" + element.getKey(), System.nanoTime());
+        }
+        for (String other : element.getClearsTextOf()) {
+            texts.remove(other);
+        }
+    }
+
+    void type(StubElement element, String text) {
+        texts.merge(element.getKey(), text, String::concat);
+        interact(element);
+    }
+
+    StubElement findVisible(String using, String value) {
+        return visibleElement(key(using, value));
+    }
+
+    private void interact(StubElement element) {
+        interactions.putIfAbsent(element.getKey(), System.nanoTime());
+    }
+
+    private StubElement visibleElement(String locator) {
+        StubElement element;
+        synchronized (this) {
+            element = elements.get(locator);
+        }
+        return element != null && isVisible(element) ? element : null;
+    }
+
+    private boolean isVisible(StubElement element) {
+        if (interactions.containsKey("removed:" + element.getKey())) {
+            return false;
+        }
+        long since = screenStartNanos;
+        if (element.getTrigger() != null) {
+            Long triggered = interactions.get(element.getTrigger());
+            if (triggered == null) {
+                return false;
+            }
+            since = triggered;
+        }
+        return (System.nanoTime() - since) / 1_000_000 >= element.getAppearAfterMillis();
+    }
+
+    private synchronized List<StubElement> snapshotElements() {
+        return new ArrayList<>(elements.values());
+    }
+
+    private synchronized StubElement byId(String id) {
+        for (StubElement element : elements.values()) {
+            if (element.getId().equals(id)) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private Map<String, Object> reference(StubElement element) {
+        String id = element.getId() + "@" + screenGeneration.get();
+        return Map.of(ELEMENT_KEY, id, "ELEMENT", id);
+    }
+
+    private void count(String command) {
+        commandsByName.computeIfAbsent(command, c -> new AtomicLong()).incrementAndGet();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream input = exchange.getRequestBody()) {
+            String text = new String(input.readAllBytes(), StandardCharsets.UTF_8).trim();
+            if (text.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            Object parsed = JSON.toType(text, Json.MAP_TYPE);
+            return parsed instanceof Map ? (Map<String, Object>) parsed : Collections.emptyMap();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object payload) throws IOException {
+        byte[] bytes = JSON.toJson(payload).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /**
+     * StubError class marks a command that should answer with a W3C error
+     */
+    private static class StubError {
+        final int status;
+        final String error;
+        final String message;
+
+        StubError(int status, String error, String message) {
+            this.status = status;
+            this.error = error;
+            this.message = message;
+        }
+
+        static StubError noSuchElement(String locator) {
+            return new StubError(404, "no such element", "An element could not be located: " + locator);
+        }
+
+        static StubError staleElement(String id) {
+            return new StubError(404, "stale element reference", "The element '" + id + "' is no longer attached to the screen");
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.abhi.appium.stub;
+
+import org.openqa.selenium.json.Json;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StubDriverScript class answers executeDriverScript calls made by DriverScriptBatch
+ * The stub can't run webdriverio, so it reads the step plan embedded in the batch script
+ * and runs the same steps against its scripted screen, with no per-command latency
+ */
+final class StubDriverScript {
+
+    private static final Json JSON = new Json();
+    private static final String PLAN_PREFIX = "const plan = ";
+    private static final long POLL_MILLIS = 100;
+
+    private StubDriverScript() {
+    }
+
+    /**
+     * Runs the plan in a batch script
+     * @param server The stub whose screen the steps act on
+     * @param script The driver script source
+     * @return The execute_driver response value: the script result and empty logs
+     */
+    @SuppressWarnings("unchecked")
+    static Object run(StubAppiumServer server, String script) throws InterruptedException {
+        int start = script.indexOf(PLAN_PREFIX);
+        if (start < 0) {
+            throw new IllegalArgumentException("The stub only runs DriverScriptBatch scripts");
+        }
+        int end = script.indexOf(";\n", start);
+        List<Map<String, Object>> plan = JSON.toType(script.substring(start + PLAN_PREFIX.length(), end), List.class);
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        long[] commands = {0};
+        for (Map<String, Object> step : plan) {
+            long stepStart = System.currentTimeMillis();
+            String error = null;
+            try {
+                runStep(server, step, commands);
+            } catch (IllegalStateException e) {
+                error = e.getMessage();
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("name", step.get("name"));
+            result.put("ok", error == null);
+            result.put("ms", System.currentTimeMillis() - stepStart);
+            result.put("error", error);
+            results.add(result);
+            if (error != null) {
+                break;
+            }
+        }
+        Map<String, Object> value = new HashMap<>();
+        value.put("result", Map.of("results", results, "commands", commands[0]));
+        value.put("logs", Map.of("log", List.of(), "warn", List.of(), "error", List.of()));
+        return value;
+    }
+
+    private static void runStep(StubAppiumServer server, Map<String, Object> step, long[] commands)
+            throws InterruptedException {
+        String op = String.valueOf(step.get("op"));
+        String using = String.valueOf(step.get("using"));
+        String value = String.valueOf(step.get("value"));
+        long timeoutMillis = ((Number) step.get("timeoutMs")).longValue();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        StubElement element;
+        while (true) {
+            commands[0]++;
+            element = server.findVisible(using, value);
+            if (element != null || System.currentTimeMillis() >= deadline) {
+                break;
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+        if (element == null) {
+            if (op.equals("clickIfPresent")) {
+                return;
+            }
+            throw new IllegalStateException("Element not found: " + using + "=" + value);
+        }
+        switch (op) {
+            case "click":
+            case "clickIfPresent":
+                commands[0]++;
+                server.click(element);
+                break;
+            case "sendKeys":
+                commands[0]++;
+                server.type(element, String.valueOf(step.get("text")));
+                if (Boolean.TRUE.equals(step.get("clickAfter"))) {
+                    commands[0]++;
+                    server.click(element);
+                }
+                break;
+            case "awaitReadyInput":
+                while (true) {
+                    commands[0] += 3;
+                    Object text = server.attribute(element, "text");
+                    boolean empty = text == null || "".equals(text) || text.equals(server.attribute(element, "hint"));
+                    if ("true".equals(server.attribute(element, "focused")) && empty) {
+                        break;
+                    }
+                    if (System.currentTimeMillis() >= deadline) {
+                        throw new IllegalStateException("Input not ready: " + using + "=" + value);
+                    }
+                    Thread.sleep(POLL_MILLIS);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.abhi.appium.stub;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * StubElement class scripts one element of the stub server's screen
+ * An element appears a fixed delay after session start, or after another element was
+ * interacted with, and can vanish when clicked, like a dialog button
+ */
+public class StubElement {
+
+    private static final Pattern UI_SELECTOR_CLASS = Pattern.compile("className\\(\"([^\"]+)\"\\)");
+    private static final Pattern UI_SELECTOR_INSTANCE = Pattern.compile("instance\\((\\d+)\\)");
+
+    private final String id;
+    private final String using;
+    private final String value;
+    private final Map<String, String> attributes = new LinkedHashMap<>();
+    private final List<String> clearsTextOf = new ArrayList<>();
+    private long appearAfterMillis;
+    private String trigger;
+    private int clicksToRemove;
+    private int instance;
+
+    StubElement(String id, String using, String value) {
+        this.id = id;
+        this.using = using;
+        this.value = value;
+        attributes.put("displayed", "true");
+        attributes.put("enabled", "true");
+        attributes.put("bounds", "[0,0][100,100]");
+        switch (using) {
+            case "id":
+                attributes.put("resource-id", value);
+                break;
+            case "accessibility id":
+                attributes.put("content-desc", value);
+                break;
+            case "class name":
+                attributes.put("class", value);
+                break;
+            case "-android uiautomator":
+                Matcher className = UI_SELECTOR_CLASS.matcher(value);
+                if (className.find()) {
+                    attributes.put("class", className.group(1));
+                }
+                Matcher instanceNumber = UI_SELECTOR_INSTANCE.matcher(value);
+                if (instanceNumber.find()) {
+                    instance = Integer.parseInt(instanceNumber.group(1));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Makes the element appear some time after its trigger (session start by default)
+     * @param millis The appearance delay
+     * @return This element, for chaining
+     */
+    public StubElement appearsAfter(long millis) {
+        this.appearAfterMillis = millis;
+        return this;
+    }
+
+    /**
+     * Makes the element's delay count from the first click or key input on another element
+     * @param triggerUsing The other element's locator strategy
+     * @param triggerValue The other element's locator value
+     * @return This element, for chaining
+     */
+    public StubElement after(String triggerUsing, String triggerValue) {
+        this.trigger = StubAppiumServer.key(triggerUsing, triggerValue);
+        return this;
+    }
+
+    /**
+     * Removes the element once it has been clicked
+     * @return This element, for chaining
+     */
+    public StubElement removedWhenClicked() {
+        return removedAfterClicks(1);
+    }
+
+    /**
+     * Removes the element after it has been clicked a number of times, like a dialog shown repeatedly
+     * @param clicks The number of clicks after which the element is gone
+     * @return This element, for chaining
+     */
+    public StubElement removedAfterClicks(int clicks) {
+        this.clicksToRemove = clicks;
+        return this;
+    }
+
+    /**
+     * Sets an attribute returned by getAttribute and shown in the page source
+     * @param name The attribute name
+     * @param attributeValue The attribute value
+     * @return This element, for chaining
+     */
+    public StubElement attribute(String name, String attributeValue) {
+        attributes.put(name, attributeValue);
+        return this;
+    }
+
+    /**
+     * Clears another element's text when this one is clicked, like moving to a new screen
+     * @param otherUsing The other element's locator strategy
+     * @param otherValue The other element's locator value
+     * @return This element, for chaining
+     */
+    public StubElement clearsTextOf(String otherUsing, String otherValue) {
+        clearsTextOf.add(StubAppiumServer.key(otherUsing, otherValue));
+        return this;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getKey() {
+        return StubAppiumServer.key(using, value);
+    }
+
+    long getAppearAfterMillis() {
+        return appearAfterMillis;
+    }
+
+    String getTrigger() {
+        return trigger;
+    }
+
+    int getClicksToRemove() {
+        return clicksToRemove;
+    }
+
+    int getInstance() {
+        return instance;
+    }
+
+    Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    List<String> getClearsTextOf() {
+        return clearsTextOf;
+    }
+}
@@ -0,0 +1,80 @@
+package com.abhi.appium.transport;
+
+import com.abhi.appium.metrics.CommandMetrics;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+
+import java.time.Duration;
+
+/**
+ * CommandClient class sends a session's commands over two clients with different read timeouts
+ * A client has a single read timeout, so ordinary commands go through one built with the command
+ * timeout and session creation, installs and batches through one built with the long timeout;
+ * a hung find or click then fails in seconds without a thread of its own
+ */
+class CommandClient implements HttpClient {
+
+    private final HttpClient commands;
+    private final HttpClient longCommands;
+    private final Duration commandTimeout;
+
+    /**
+     * Constructor that creates the client
+     * @param commands The client ordinary commands are sent with
+     * @param longCommands The client long-running commands are sent with
+     * @param commandTimeout The read timeout of the ordinary commands' client
+     */
+    CommandClient(HttpClient commands, HttpClient longCommands, Duration commandTimeout) {
+        this.commands = commands;
+        this.longCommands = longCommands;
+        this.commandTimeout = commandTimeout;
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) {
+        if (isLongRunning(request)) {
+            return longCommands.execute(request);
+        }
+        try {
+            return commands.execute(request);
+        } catch (TimeoutException e) {
+            CommandMetrics.recordTimeout();
+            throw new CommandTimeoutException(CommandKeys.of(request) + " got no response within "
+                    + commandTimeout.toMillis() + " ms", e);
+        }
+    }
+
+    @Override
+    public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+        return commands.openSocket(request, listener);
+    }
+
+    @Override
+    public void close() {
+        try {
+            commands.close();
+        } finally {
+            longCommands.close();
+        }
+    }
+
+    /**
+     * Checks if a command may take as long as the long-command read timeout
+     * These are session creation and deletion, app installs and server-side batches
+     */
+    static boolean isLongRunning(HttpRequest request) {
+        String uri = request.getUri();
+        if (uri.equals("/session") || (request.getMethod() == HttpMethod.DELETE && uri.matches("/session/[^/]+"))) {
+            return true;
+        }
+        if (uri.endsWith("/appium/device/install_app") || uri.endsWith("/appium/execute_driver")) {
+            return true;
+        }
+        return uri.endsWith("/execute/sync") && Contents.string(request).contains("\"mobile: installApp\"");
+    }
+}
@@ -0,0 +1,23 @@
+package com.abhi.appium.transport;
+
+import org.openqa.selenium.remote.http.HttpRequest;
+
+import java.util.regex.Pattern;
+
+/**
+ * CommandKeys class turns a WebDriver request into a stable command key
+ * Session and element ids are replaced so the same command from any session shares one key
+ */
+final class CommandKeys {
+
+    private static final Pattern SESSION_ID = Pattern.compile("^/session/[^/]+");
+    private static final Pattern ELEMENT_ID = Pattern.compile("/element/[^/]+");
+
+    private CommandKeys() {
+    }
+
+    static String of(HttpRequest request) {
+        String path = SESSION_ID.matcher(request.getUri()).replaceFirst("/session/:sessionId");
+        return request.getMethod().name() + " " + ELEMENT_ID.matcher(path).replaceAll("/element/:id");
+    }
+}
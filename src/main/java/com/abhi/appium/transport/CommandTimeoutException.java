@@ -0,0 +1,30 @@
+package com.abhi.appium.transport;
+
+import org.openqa.selenium.TimeoutException;
+
+/**
+ * CommandTimeoutException class is a command the server didn't answer within the command timeout
+ * Unlike a wait's TimeoutException it says nothing about the screen, so a retry may well succeed;
+ * only the client gave up, though, and the server may still have run the command
+ */
+public class CommandTimeoutException extends TimeoutException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor that creates the exception
+     * @param message Which command timed out and after how long
+     */
+    public CommandTimeoutException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructor that creates the exception from the client's own timeout
+     * @param message Which command timed out and after how long
+     * @param cause The client's timeout
+     */
+    public CommandTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,91 @@
+package com.abhi.appium.transport;
+
+import com.abhi.appium.config.ConfigManager;
+import io.appium.java_client.AppiumClientConfig;
+import io.appium.java_client.MobileCommand;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpClient;
+
+import java.net.URL;
+import java.time.Duration;
+
+/**
+ * HttpTransport class builds the command executor every driver session uses
+ * Connections are kept alive and pooled by the JDK client; ordinary commands get a short
+ * read timeout while session creation and installs go through a client with a long one, and every round trip
+ * is recorded in CommandMetrics
+ */
+public final class HttpTransport {
+
+    private static boolean poolConfigured;
+
+    private HttpTransport() {
+    }
+
+    /**
+     * Builds a command executor for a server using the transport.* settings
+     * @param serverUrl The Appium server URL
+     * @param filters More filters to run on every command, innermost last
+     * @return The command executor, to start a driver with
+     */
+    public static AppiumCommandExecutor commandExecutor(URL serverUrl, Filter... filters) {
+        return commandExecutor(serverUrl, Duration.ofMillis(ConfigManager.getTransportCommandTimeoutMillis()),
+                Duration.ofMillis(ConfigManager.getTransportLongCommandTimeoutMillis()), filters);
+    }
+
+    /**
+     * Builds a command executor for a server with the given read timeouts
+     * The executor sends commands through a CommandClient, which holds a client per read timeout;
+     * each client gets its own filter chain, so extra filters such as the command recorder have to
+     * be passed in here rather than added to a config afterwards
+     * @param serverUrl The Appium server URL
+     * @param commandTimeout The read timeout of ordinary commands
+     * @param longCommandTimeout The read timeout of session creation, installs and batches
+     * @param filters More filters to run on every command, innermost last
+     * @return The command executor, to start a driver with
+     */
+    public static AppiumCommandExecutor commandExecutor(URL serverUrl, Duration commandTimeout,
+                                                        Duration longCommandTimeout, Filter... filters) {
+        configureConnectionPool();
+        // Appium speaks HTTP/1.1; asking for HTTP/2 only adds an upgrade attempt to the first request
+        AppiumClientConfig config = AppiumClientConfig.fromClientConfig(AppiumClientConfig.defaultConfig()
+                .version(ConfigManager.getTransportHttpVersion()))
+                .baseUrl(serverUrl)
+                .connectionTimeout(Duration.ofMillis(ConfigManager.getTransportConnectTimeoutMillis()))
+                .readTimeout(commandTimeout);
+        Duration longTimeout = longCommandTimeout.compareTo(commandTimeout) > 0 ? longCommandTimeout : commandTimeout;
+        HttpClient.Factory clients = HttpClient.Factory.createDefault();
+        HttpClient.Factory factory = clientConfig -> new CommandClient(
+                clients.createClient(clientConfig.withFilter(chain(filters))),
+                clients.createClient(clientConfig.readTimeout(longTimeout).withFilter(chain(filters))),
+                commandTimeout);
+        return new AppiumCommandExecutor(MobileCommand.commandRepository, null, factory, config);
+    }
+
+    private static Filter chain(Filter... filters) {
+        // Each client keeps its own connections, so each gets its own metrics filter
+        Filter chain = new TransportMetricsFilter(ConfigManager.getTransportKeepAliveSeconds() * 1000L);
+        for (Filter filter : filters) {
+            chain = chain.andThen(filter);
+        }
+        return chain;
+    }
+
+    /**
+     * Sets the JDK client's keep-alive and pool size before the first client is created
+     * The JDK reads these once, so values already given on the command line win
+     */
+    private static synchronized void configureConnectionPool() {
+        if (poolConfigured) {
+            return;
+        }
+        poolConfigured = true;
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout", String.valueOf(ConfigManager.getTransportKeepAliveSeconds()));
+        }
+        if (System.getProperty("jdk.httpclient.connectionPoolSize") == null) {
+            System.setProperty("jdk.httpclient.connectionPoolSize", String.valueOf(ConfigManager.getTransportPoolSize()));
+        }
+    }
+}
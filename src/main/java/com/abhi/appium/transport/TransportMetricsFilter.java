@@ -0,0 +1,66 @@
+package com.abhi.appium.transport;
+
+import com.abhi.appium.metrics.CommandMetrics;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TransportMetricsFilter class records each command's round trip into CommandMetrics
+ * The JDK HTTP client does not report connection events, so a request counts as opening a
+ * connection when the client had none open: the first request, one sent alongside another
+ * in-flight request, or one sent after the connection sat idle past the keep-alive timeout
+ */
+public class TransportMetricsFilter implements Filter {
+
+    private final long keepAliveNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicLong lastResponseNanos = new AtomicLong();
+
+    /**
+     * Constructor that creates the filter for one client
+     * @param keepAliveMillis How long the client keeps an idle connection open
+     */
+    public TransportMetricsFilter(long keepAliveMillis) {
+        this.keepAliveNanos = keepAliveMillis * 1_000_000;
+    }
+
+    @Override
+    public HttpHandler apply(HttpHandler next) {
+        return request -> {
+            long sentNanos = System.nanoTime();
+            boolean newConnection = claimConnection(sentNanos);
+            try {
+                HttpResponse response = next.execute(request);
+                CommandMetrics.recordCommand(CommandKeys.of(request), System.nanoTime() - sentNanos, newConnection);
+                return response;
+            } finally {
+                lastResponseNanos.set(System.nanoTime());
+                inFlight.decrementAndGet();
+            }
+        };
+    }
+
+    private boolean claimConnection(long nowNanos) {
+        int busy = inFlight.incrementAndGet();
+        long last = lastResponseNanos.get();
+        if (last != 0 && nowNanos - last > keepAliveNanos) {
+            // Idle connections were closed, only this one will be open
+            openConnections.set(1);
+            return true;
+        }
+        while (true) {
+            int open = openConnections.get();
+            if (busy <= open) {
+                return false;
+            }
+            if (openConnections.compareAndSet(open, busy)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.abhi.appium.utils;
+
+import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.metrics.WaitClock;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * AdaptiveWait class polls a condition on an adaptive schedule instead of a fixed 500 ms interval
+ * Polls fast around the latency each locator usually needs, backs off after that,
+ * and switches implicit waits off while polling so every check is a single round trip
+ * Each poll holds the session lock; sleeps between polls leave it free for background helpers
+ */
+public class AdaptiveWait {
+
+    private static final double BACKOFF_FACTOR = 1.5;
+
+    private final WebDriver driver;
+    private final long timeoutMillis;
+    private final long minPollMillis;
+    private final long maxPollMillis;
+
+    /**
+     * Constructor that creates a wait with the configured poll bounds
+     * @param driver The driver to poll with
+     * @param timeout The overall ceiling for each wait
+     */
+    public AdaptiveWait(WebDriver driver, Duration timeout) {
+        this(driver, timeout, ConfigManager.getWaitPollMinMillis(), ConfigManager.getWaitPollMaxMillis());
+    }
+
+    /**
+     * Constructor that creates a wait with explicit poll bounds
+     * @param driver The driver to poll with
+     * @param timeout The overall ceiling for each wait
+     * @param minPollMillis Shortest gap between polls
+     * @param maxPollMillis Longest gap between polls once backed off
+     */
+    public AdaptiveWait(WebDriver driver, Duration timeout, long minPollMillis, long maxPollMillis) {
+        this.driver = driver;
+        this.timeoutMillis = timeout.toMillis();
+        this.minPollMillis = minPollMillis;
+        this.maxPollMillis = maxPollMillis;
+    }
+
+    /**
+     * Waits until the condition returns a non-null, non-false value
+     * @param key The locator or state name used to learn and report latency
+     * @param condition The condition to evaluate on each poll
+     * @return The condition's value
+     */
+    public <T> T until(String key, Function<WebDriver, T> condition) {
+        return until(key, condition, timeoutMillis);
+    }
+
+    /**
+     * Waits until the condition returns a non-null, non-false value, with a shorter ceiling
+     * @param key The locator or state name used to learn and report latency
+     * @param condition The condition to evaluate on each poll
+     * @param timeoutMillis The ceiling for this wait, capped at the wait's own timeout
+     * @return The condition's value
+     */
+    public <T> T until(String key, Function<WebDriver, T> condition, long timeoutMillis) {
+        timeoutMillis = Math.min(timeoutMillis, this.timeoutMillis);
+        LocatorStats stats = WaitStats.forKey(key);
+        long expected = stats.getExpectedLatencyMillis();
+        Duration previousImplicitWait = ImplicitWaits.get(driver);
+        ImplicitWaits.set(driver, Duration.ZERO);
+
+        long start = System.nanoTime();
+        long interval = minPollMillis;
+        RuntimeException lastError = null;
+        try {
+            while (true) {
+                try {
+                    T value = SessionLock.call(driver, () -> condition.apply(driver));
+                    if (value != null && !Boolean.FALSE.equals(value)) {
+                        stats.recordHit(elapsedMillis(start));
+                        return value;
+                    }
+                } catch (NotFoundException | StaleElementReferenceException e) {
+                    lastError = e;
+                }
+
+                long elapsed = elapsedMillis(start);
+                if (elapsed >= timeoutMillis) {
+                    stats.recordMiss();
+                    throw new TimeoutException("Condition " + key + " not met after " + elapsed + " ms", lastError);
+                }
+
+                long delay;
+                if (expected > 0 && elapsed < expected * 7 / 10) {
+                    // Nothing to see yet, skip ahead towards the usual appearance time, but never
+                    // further than one backed-off poll in case this screen is faster than usual
+                    delay = Math.min(maxPollMillis, expected * 7 / 10 - elapsed);
+                } else if (expected > 0 && elapsed < expected * 2) {
+                    // Inside the usual appearance window, poll as fast as allowed
+                    delay = minPollMillis;
+                } else {
+                    delay = interval;
+                    interval = Math.min(maxPollMillis, (long) (interval * BACKOFF_FACTOR));
+                }
+                sleep(Math.min(delay, timeoutMillis - elapsed));
+            }
+        } finally {
+            WaitClock.add(System.nanoTime() - start);
+            if (previousImplicitWait != null) {
+                ImplicitWaits.set(driver, previousImplicitWait);
+            }
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(Math.max(0, millis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting", e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.abhi.appium.utils;
+
+import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.metrics.SettingsProfileMetrics;
+import io.appium.java_client.HasSettings;
+import org.openqa.selenium.WebDriver;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * DriverSettings class switches a session between SettingsProfiles with as few setSettings calls as possible
+ * It remembers what the server was last sent and sends only the settings that differ, so
+ * consecutive steps on the same profile cost nothing and a switch costs one call. The server's
+ * own values are read once, before the first change, and are what DEFAULT switches back to
+ */
+public class DriverSettings {
+
+    private final WebDriver driver;
+    private final boolean enabled;
+    private final Map<String, Object> applied = new HashMap<>();
+    private final Map<String, Object> baseline = new HashMap<>();
+    private Map<String, Object> serverValues;
+    private SettingsProfile active = SettingsProfile.DEFAULT;
+    private int setCalls;
+    private int cachedSwitches;
+
+    /**
+     * Constructor that creates the settings cache for a driver
+     * @param driver The driver, which must implement HasSettings for profiles to take effect
+     * @param enabled false to only track the active profile without sending anything
+     */
+    public DriverSettings(WebDriver driver, boolean enabled) {
+        this.driver = driver;
+        this.enabled = enabled && driver instanceof HasSettings;
+    }
+
+    /**
+     * Gets the shared settings cache for a driver so every page and flow sees what was sent
+     * It lives in the driver's SessionScope and is dropped when the session is quit
+     * @param driver The driver instance
+     * @return The settings cache for that driver
+     */
+    public static DriverSettings forDriver(WebDriver driver) {
+        return SessionScope.get(driver, DriverSettings.class,
+                d -> new DriverSettings(d, ConfigManager.getSettingsProfilesEnabled()));
+    }
+
+    /**
+     * Makes a profile the active one, sending only the settings the server doesn't already have
+     * Settings of the previous profile that the new one doesn't mention go back to the server's values
+     * @param profile The profile to switch to, DEFAULT for the server's own settings
+     * @return The profile that was active before
+     */
+    public synchronized SettingsProfile use(SettingsProfile profile) {
+        SettingsProfile previous = active;
+        active = profile;
+        if (!enabled) {
+            return previous;
+        }
+        Map<String, Object> target = new HashMap<>(baseline);
+        for (Map.Entry<String, Object> setting : profile.getSettings().entrySet()) {
+            if (!baseline.containsKey(setting.getKey())) {
+                baseline.put(setting.getKey(), serverValue(setting.getKey()));
+            }
+            target.put(setting.getKey(), setting.getValue());
+        }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> setting : target.entrySet()) {
+            // A setting the server never reported cannot be restored, so it is left as it is
+            if (setting.getValue() != null && !same(applied.get(setting.getKey()), setting.getValue())) {
+                changes.put(setting.getKey(), setting.getValue());
+            }
+        }
+        if (changes.isEmpty()) {
+            cachedSwitches++;
+            SettingsProfileMetrics.recordCachedSwitch();
+            return previous;
+        }
+        long start = System.nanoTime();
+        SessionLock.run(driver, () -> ((HasSettings) driver).setSettings(changes));
+        SettingsProfileMetrics.recordSetSettings(System.nanoTime() - start);
+        applied.putAll(changes);
+        setCalls++;
+        return previous;
+    }
+
+    /**
+     * Runs an action with a profile active, switching back to the previous profile afterwards
+     * @param profile The profile the action needs
+     * @param action The commands to send
+     * @return The action's result
+     */
+    public <T> T call(SettingsProfile profile, Supplier<T> action) {
+        SettingsProfile previous = use(profile);
+        try {
+            return action.get();
+        } finally {
+            use(previous);
+        }
+    }
+
+    /**
+     * Runs an action that returns nothing with a profile active
+     * @param profile The profile the action needs
+     * @param action The commands to send
+     */
+    public void run(SettingsProfile profile, Runnable action) {
+        call(profile, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Puts back the server's own values for every setting a profile changed
+     */
+    public void restore() {
+        use(SettingsProfile.DEFAULT);
+    }
+
+    /**
+     * Gets the active profile
+     * @return The profile, DEFAULT when none is active
+     */
+    public synchronized SettingsProfile getActive() {
+        return active;
+    }
+
+    /**
+     * Gets the name steps are reported under, which is "default" while profiles are switched off
+     * @return The effective profile name
+     */
+    public synchronized String getEffectiveName() {
+        return enabled ? active.getName() : SettingsProfile.DEFAULT.getName();
+    }
+
+    public synchronized int getSetCallCount() {
+        return setCalls;
+    }
+
+    public synchronized int getCachedSwitchCount() {
+        return cachedSwitches;
+    }
+
+    /**
+     * Reads a setting's value on the server, fetching all settings once on first use
+     */
+    private Object serverValue(String setting) {
+        if (serverValues == null) {
+            serverValues = SessionLock.call(driver, () -> ((HasSettings) driver).getSettings());
+            applied.putAll(serverValues);
+        }
+        return serverValues.get(setting);
+    }
+
+    /**
+     * Compares setting values, treating numbers of different types (JSON gives Long) as equal by value
+     */
+    private static boolean same(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return ((Number) a).doubleValue() == ((Number) b).doubleValue();
+        }
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,42 @@
+package com.abhi.appium.utils;
+
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * ImplicitWaits class remembers the implicit wait last sent to each driver
+ * This lets callers switch implicit waits off and back on without sending redundant commands
+ */
+public final class ImplicitWaits {
+
+    private static final Map<WebDriver, Duration> CURRENT = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ImplicitWaits() {
+    }
+
+    /**
+     * Sets the implicit wait, skipping the server call when it is already set to that value
+     * @param driver The driver to configure
+     * @param timeout The implicit wait to use
+     */
+    public static void set(WebDriver driver, Duration timeout) {
+        if (timeout.equals(CURRENT.get(driver))) {
+            return;
+        }
+        driver.manage().timeouts().implicitlyWait(timeout);
+        CURRENT.put(driver, timeout);
+    }
+
+    /**
+     * Gets the implicit wait last set through this class
+     * @param driver The driver to look up
+     * @return The known implicit wait, or null if it was never set here
+     */
+    public static Duration get(WebDriver driver) {
+        return CURRENT.get(driver);
+    }
+}
@@ -0,0 +1,158 @@
+package com.abhi.appium.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * InterruptWatcher class handles interrupt dialogs in the background while a flow runs
+ * Registered dialogs (permission prompts, system OK, cancel) are dismissed as they appear,
+ * so the flow doesn't have to wait for dialogs that may never come
+ * The watcher only acts while the session lock is free, so it never races the test thread
+ */
+public class InterruptWatcher implements AutoCloseable {
+
+    private final WebDriver driver;
+    private final long pollMillis;
+    private final ReentrantLock sessionLock;
+    private final Map<String, By> interrupts = new LinkedHashMap<>();
+    private final List<String> interceptions = Collections.synchronizedList(new ArrayList<>());
+    private ScheduledExecutorService executor;
+    private long startNanos;
+
+    /**
+     * Constructor that creates a watcher for a session
+     * @param driver The driver the flow is using
+     * @param pollMillis How often to look for interrupt dialogs
+     */
+    public InterruptWatcher(WebDriver driver, long pollMillis) {
+        this.driver = driver;
+        this.pollMillis = pollMillis;
+        this.sessionLock = SessionLock.forDriver(driver);
+    }
+
+    /**
+     * Registers a dialog button to click whenever it appears
+     * @param name A short name used in logs
+     * @param locator The button to click
+     * @return This watcher, for chaining
+     */
+    public InterruptWatcher register(String name, By locator) {
+        interrupts.put(name, locator);
+        return this;
+    }
+
+    /**
+     * Starts watching on a background thread
+     * @return This watcher, for try-with-resources
+     */
+    public InterruptWatcher start() {
+        startNanos = System.nanoTime();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "interrupt-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::tick, 0, pollMillis, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * Stops watching and waits for an in-flight check to finish
+     */
+    @Override
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Checks whether the watcher is still looking for dialogs
+     * @return false before start, after close, or once the session was found gone
+     */
+    public boolean isWatching() {
+        return executor != null && !executor.isShutdown();
+    }
+
+    /**
+     * Gets a log line for every dialog the watcher dismissed
+     * @return The interceptions in order
+     */
+    public List<String> getInterceptions() {
+        synchronized (interceptions) {
+            return new ArrayList<>(interceptions);
+        }
+    }
+
+    /**
+     * Gets how many times a dialog was dismissed
+     * @param name The registered dialog name
+     * @return The number of interceptions
+     */
+    public long countInterceptions(String name) {
+        synchronized (interceptions) {
+            return interceptions.stream().filter(line -> line.startsWith(name + " ")).count();
+        }
+    }
+
+    /**
+     * Checks for registered dialogs once, skipping the round if the test thread is busy
+     * One page source snapshot answers all supported locators
+     */
+    private void tick() {
+        if (!sessionLock.tryLock()) {
+            return;
+        }
+        try {
+            PageSnapshot snapshot = PageSnapshot.forDriver(driver).refresh();
+            for (Map.Entry<String, By> interrupt : interrupts.entrySet()) {
+                Boolean present = snapshot.isPresent(interrupt.getValue());
+                if (Boolean.FALSE.equals(present)) {
+                    continue;
+                }
+                long clickStart = System.nanoTime();
+                List<WebElement> buttons = driver.findElements(interrupt.getValue());
+                if (buttons.isEmpty()) {
+                    continue;
+                }
+                buttons.get(0).click();
+                // Handles the flow found before the dialog closed may belong to it, and the snapshot is stale
+                WaitUtils.forDriver(driver).screenChanged();
+                String line = interrupt.getKey() + " handled at +" + (clickStart - startNanos) / 1_000_000
+                        + " ms (took " + (System.nanoTime() - clickStart) / 1_000_000 + " ms)";
+                interceptions.add(line);
+                System.out.println("🛡️ Interrupt " + line);
+                // One dialog per round, the screen has changed underneath the snapshot
+                break;
+            }
+        } catch (NoSuchSessionException e) {
+            System.out.println("ℹ️ Interrupt watcher stopped, the session is gone");
+            executor.shutdown();
+            // This round's lookups may have put the helpers back after the quit dropped them
+            SessionScope.clear(driver);
+        } catch (Exception e) {
+            // The screen moved on between checks, try again next round
+            System.out.println("ℹ️ Interrupt check failed, retrying next round: " + e.getClass().getSimpleName());
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+}
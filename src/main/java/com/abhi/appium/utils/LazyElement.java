@@ -0,0 +1,200 @@
+package com.abhi.appium.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * LazyElement class stands in for a page object's declared locator
+ * The element is found on first use and its handle is kept while the screen epoch stays the
+ * same, so a page that types into a field it just waited for, or acts on it twice, skips the
+ * repeated find round trips. Clicks move the epoch on, since they may leave the screen; a
+ * handle that went stale anyway is found again and the action retried once
+ * Get instances from WaitUtils.element(), which shares them across pages on a driver
+ */
+public class LazyElement {
+
+    private static final int MAX_ACT_ATTEMPTS = 3;
+
+    private final WaitUtils waits;
+    private final String screen;
+    private final By locator;
+    private final AtomicInteger finds = new AtomicInteger();
+    private final AtomicInteger cacheHits = new AtomicInteger();
+    private final AtomicInteger staleRecoveries = new AtomicInteger();
+
+    private WebElement cached;
+    private long cachedEpoch;
+
+    LazyElement(WaitUtils waits, String screen, By locator) {
+        this.waits = waits;
+        this.screen = screen;
+        this.locator = locator;
+    }
+
+    /**
+     * Gets the element, waiting for it to be present unless a handle from this screen is cached
+     * @return The element handle
+     */
+    public WebElement get() {
+        synchronized (this) {
+            if (cached != null && cachedEpoch == waits.getScreenEpoch()) {
+                cacheHits.incrementAndGet();
+                return cached;
+            }
+        }
+        long epoch = waits.getScreenEpoch();
+        WebElement element = waits.waitForElement(screen, locator);
+        finds.incrementAndGet();
+        cache(element, epoch);
+        return element;
+    }
+
+    /**
+     * Looks for the element once without waiting, refreshing the cached handle
+     * Meant for polled checks; a later action on the same screen reuses what this found
+     * @return The element handle, or null if it is not on screen
+     */
+    public WebElement findNow() {
+        long epoch = waits.getScreenEpoch();
+        List<WebElement> found = SessionLock.call(waits.getDriver(), () -> waits.getDriver().findElements(locator));
+        finds.incrementAndGet();
+        WebElement element = found.isEmpty() ? null : found.get(0);
+        cache(element, epoch);
+        return element;
+    }
+
+    /**
+     * Clicks the element, then treats the screen as possibly changed
+     */
+    public void click() {
+        act(element -> {
+            element.click();
+            return null;
+        });
+        waits.screenChanged();
+    }
+
+    /**
+     * Types into the element
+     * @param text The text to send
+     */
+    public void sendKeys(CharSequence text) {
+        act(element -> {
+            element.sendKeys(text);
+            return null;
+        });
+        waits.invalidateSnapshot();
+    }
+
+    /**
+     * Clears the element's text
+     */
+    public void clear() {
+        act(element -> {
+            element.clear();
+            return null;
+        });
+        waits.invalidateSnapshot();
+    }
+
+    public String getText() {
+        return act(WebElement::getText);
+    }
+
+    public String getAttribute(String name) {
+        return act(element -> element.getAttribute(name));
+    }
+
+    public boolean isDisplayed() {
+        return act(WebElement::isDisplayed);
+    }
+
+    /**
+     * Drops the cached handle so the next use finds the element again
+     */
+    public synchronized void invalidate() {
+        cached = null;
+    }
+
+    public By getLocator() {
+        return locator;
+    }
+
+    public int getFindCount() {
+        return finds.get();
+    }
+
+    public int getCacheHitCount() {
+        return cacheHits.get();
+    }
+
+    public int getStaleRecoveryCount() {
+        return staleRecoveries.get();
+    }
+
+    /**
+     * Runs a command on the element under the session lock, finding it again once if it went stale
+     * Waits run without the lock so the interrupt watcher can clear dialogs meanwhile; if the
+     * screen changed before the lock was free, the element is looked up once under the lock, and
+     * if it is gone the lock is let go and the element waited for again
+     */
+    private <T> T act(Function<WebElement, T> command) {
+        AtomicReference<T> result = new AtomicReference<>();
+        for (int attempt = 1; !actOnce(get(), command, result); attempt++) {
+            if (attempt == MAX_ACT_ATTEMPTS) {
+                throw new NoSuchElementException(locator + " kept leaving the screen before it could be used");
+            }
+        }
+        return result.get();
+    }
+
+    /**
+     * Runs a command on a handle under the session lock, looking the element up once if the handle is out of date
+     * @return False if the element was not on screen, in which case the command did not run
+     */
+    private <T> boolean actOnce(WebElement found, Function<WebElement, T> command, AtomicReference<T> result) {
+        return SessionLock.call(waits.getDriver(), () -> {
+            WebElement element = isCached(found) ? found : findNow();
+            if (element == null) {
+                return false;
+            }
+            try {
+                result.set(command.apply(element));
+            } catch (StaleElementReferenceException e) {
+                staleRecoveries.incrementAndGet();
+                element = findNow();
+                if (element == null) {
+                    return false;
+                }
+                result.set(command.apply(element));
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Checks that a handle is still the cached one for the current screen
+     */
+    private synchronized boolean isCached(WebElement element) {
+        return cached == element && cachedEpoch == waits.getScreenEpoch();
+    }
+
+    /**
+     * Keeps a handle unless the screen changed while it was being found
+     */
+    private synchronized void cache(WebElement element, long epoch) {
+        if (epoch == waits.getScreenEpoch()) {
+            cached = element;
+            cachedEpoch = epoch;
+        } else {
+            cached = null;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.abhi.appium.utils;
+
+import com.abhi.appium.base.ApkInstallManager;
+import com.abhi.appium.config.ConfigManager;
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * LocatorOptimizer class learns cheap equivalents for slow locators
+ * When a class name, UiAutomator or xpath locator resolves, the element's resource-id and
+ * content-desc are checked against a page snapshot; if one of them uniquely identifies the
+ * same element on consistent runs, that strategy is used first from then on
+ * Learned mappings are persisted per app build (the APK hash) so later runs start fast
+ * A learned locator is only dropped when, once the original resolved, the screen shows it no
+ * longer identifies the element, or after it missed several times in a row; a single miss may
+ * just be a screen that wasn't done loading within the optimized budget
+ */
+public class LocatorOptimizer {
+
+    private static final String UNSTABLE = "unstable";
+    private static final int CONFIRMATIONS_NEEDED = 2;
+    private static final int FALLBACKS_TO_DEMOTE = 3;
+
+    private static LocatorOptimizer instance;
+
+    private final File cacheFile;
+    private final Properties learned = new Properties();
+    private final Map<String, String> candidates = new ConcurrentHashMap<>();
+    private final Map<String, Integer> confirmations = new ConcurrentHashMap<>();
+    private final Map<String, Integer> fallbacks = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor that loads learned mappings from a cache file
+     * @param cacheFile The file mappings are read from and written to
+     */
+    public LocatorOptimizer(File cacheFile) {
+        this.cacheFile = cacheFile;
+        if (cacheFile.exists()) {
+            try (InputStream input = new FileInputStream(cacheFile)) {
+                learned.load(input);
+            } catch (IOException e) {
+                System.out.println("Locator cache could not be read, starting empty: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets the optimizer for the configured app build
+     * @return The shared optimizer
+     */
+    public static synchronized LocatorOptimizer getInstance() {
+        if (instance == null) {
+            File cacheFile = new File(ConfigManager.getPerfHistoryDir(),
+                    "locator-cache-" + ApkInstallManager.getAppBuildId() + ".properties");
+            instance = new LocatorOptimizer(cacheFile);
+        }
+        return instance;
+    }
+
+    /**
+     * Checks if a locator uses a strategy worth optimizing
+     * @param locator The locator to check
+     * @return true for class name, UiAutomator and xpath locators
+     */
+    public static boolean isSlow(By locator) {
+        String strategy = Locators.strategy(locator);
+        return strategy.equals("class name") || strategy.equals("-android uiautomator") || strategy.equals("xpath");
+    }
+
+    /**
+     * Gets the learned cheap locator to try first
+     * @param original The locator as declared in the page object
+     * @return The cheap locator, or null if nothing reliable was learned
+     */
+    public By preferred(By original) {
+        String mapping = learned.getProperty(original.toString());
+        if (mapping == null || mapping.equals(UNSTABLE)) {
+            return null;
+        }
+        int separator = mapping.indexOf('|');
+        String strategy = mapping.substring(0, separator);
+        String value = mapping.substring(separator + 1);
+        return strategy.equals("id") ? AppiumBy.id(value) : AppiumBy.accessibilityId(value);
+    }
+
+    /**
+     * Records what a slow locator resolved to, learning a cheap equivalent after consistent observations
+     * @param driver The driver the element was found with
+     * @param original The slow locator that was used
+     * @param element The element it resolved to
+     */
+    public void recordResolution(WebDriver driver, By original, WebElement element) {
+        String key = original.toString();
+        if (!isSlow(original) || learned.containsKey(key)) {
+            return;
+        }
+        String candidate;
+        try {
+            candidate = SessionLock.call(driver, () -> findUniqueCandidate(driver, element));
+        } catch (Exception e) {
+            return;
+        }
+        if (candidate == null) {
+            markUnstable(key, "no unique resource-id or content-desc");
+            return;
+        }
+        String previous = candidates.putIfAbsent(key, candidate);
+        if (previous != null && !previous.equals(candidate)) {
+            markUnstable(key, "resolved to different elements (" + previous + " vs " + candidate + ")");
+            return;
+        }
+        if (confirmations.merge(key, 1, Integer::sum) >= CONFIRMATIONS_NEEDED) {
+            learned.setProperty(key, candidate);
+            System.out.println("⚡ Learned faster locator for " + key + " -> " + candidate);
+            save();
+        }
+    }
+
+    /**
+     * Records that the cheap locator missed but the original one resolved
+     * The screen is loaded now, so it is checked once more: the mapping is dropped if the cheap
+     * locator no longer identifies the element, or after FALLBACKS_TO_DEMOTE misses in a row
+     * @param driver The driver the element was found with
+     * @param original The locator as declared in the page object
+     * @param element The element the original locator resolved to
+     */
+    public void recordFallback(WebDriver driver, By original, WebElement element) {
+        String key = original.toString();
+        By preferred = preferred(original);
+        if (preferred == null) {
+            return;
+        }
+        Boolean stillMatches;
+        try {
+            stillMatches = SessionLock.call(driver, () -> isUniqueMatch(PageSnapshot.forDriver(driver).refresh(),
+                    preferred, element.getAttribute("bounds")));
+        } catch (Exception e) {
+            stillMatches = null;
+        }
+        if (Boolean.FALSE.equals(stillMatches)) {
+            markUnstable(key, "learned locator no longer matches the element on the loaded screen");
+            return;
+        }
+        int misses = fallbacks.merge(key, 1, Integer::sum);
+        if (misses >= FALLBACKS_TO_DEMOTE) {
+            markUnstable(key, "learned locator missed " + misses + " times in a row");
+        }
+    }
+
+    /**
+     * Records how long a resolution took, split by whether the learned locator was used
+     * @param original The locator as declared in the page object
+     * @param optimized true if the learned locator resolved the element
+     * @param latencyMillis Time the resolution took
+     */
+    public void recordLatency(By original, boolean optimized, long latencyMillis) {
+        if (optimized) {
+            fallbacks.remove(original.toString());
+        }
+        WaitStats.forKey("resolve " + (optimized ? "[optimized] " : "[original] ") + original).recordHit(latencyMillis);
+    }
+
+    /**
+     * Builds a printable report of learned mappings with latency before and after
+     * @return The report text
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder("⚡ Locator optimizer (" + cacheFile.getName() + "):");
+        for (String key : learned.stringPropertyNames()) {
+            LocatorStats before = WaitStats.forKey("resolve [original] " + key);
+            LocatorStats after = WaitStats.forKey("resolve [optimized] " + key);
+            report.append(System.lineSeparator()).append("   ").append(key)
+                    .append(" -> ").append(learned.getProperty(key))
+                    .append(", original mean ").append(before.getMeanLatencyMillis()).append(" ms (")
+                    .append(before.getHits()).append(")")
+                    .append(", optimized mean ").append(after.getMeanLatencyMillis()).append(" ms (")
+                    .append(after.getHits()).append(")");
+        }
+        return report.toString();
+    }
+
+    /**
+     * Picks the element's resource-id or content-desc if it matches only that element on screen
+     */
+    private String findUniqueCandidate(WebDriver driver, WebElement element) {
+        String bounds = element.getAttribute("bounds");
+        PageSnapshot snapshot = PageSnapshot.forDriver(driver).refresh();
+
+        String resourceId = element.getAttribute("resource-id");
+        if (isNotEmpty(resourceId) && isUniqueMatch(snapshot, AppiumBy.id(resourceId), bounds)) {
+            return "id|" + resourceId;
+        }
+        String contentDesc = element.getAttribute("content-desc");
+        if (isNotEmpty(contentDesc) && isUniqueMatch(snapshot, AppiumBy.accessibilityId(contentDesc), bounds)) {
+            return "accessibility id|" + contentDesc;
+        }
+        return null;
+    }
+
+    private static boolean isUniqueMatch(PageSnapshot snapshot, By candidate, String bounds) {
+        return snapshot.count(candidate) == 1 && bounds != null && bounds.equals(snapshot.getAttribute(candidate, "bounds"));
+    }
+
+    private static boolean isNotEmpty(String value) {
+        return value != null && !value.isEmpty() && !value.equals("null");
+    }
+
+    private void markUnstable(String key, String reason) {
+        if (UNSTABLE.equals(learned.getProperty(key))) {
+            return;
+        }
+        learned.setProperty(key, UNSTABLE);
+        System.out.println("ℹ️ Keeping original locator for " + key + ": " + reason);
+        save();
+    }
+
+    private synchronized void save() {
+        File directory = cacheFile.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            System.out.println("Locator cache directory could not be created: " + directory);
+            return;
+        }
+        try (OutputStream output = new FileOutputStream(cacheFile)) {
+            learned.store(output, "Learned locator mappings for one app build");
+        } catch (IOException e) {
+            System.out.println("Locator cache could not be written: " + e.getMessage());
+        }
+    }
+}
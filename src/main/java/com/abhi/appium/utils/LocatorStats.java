@@ -0,0 +1,91 @@
+package com.abhi.appium.utils;
+
+/**
+ * LocatorStats class tracks how one locator behaves across waits
+ * Keeps hit/miss counts and a moving average of how long the element took to appear
+ */
+public class LocatorStats {
+
+    private static final double SMOOTHING = 0.3;
+
+    private final String key;
+    private long hits;
+    private long misses;
+    private long totalLatencyMillis;
+    private long maxLatencyMillis;
+    private double averageLatencyMillis = -1;
+
+    /**
+     * Constructor that creates empty stats for a locator
+     * @param key The locator description
+     */
+    public LocatorStats(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Records a wait that found the element
+     * @param latencyMillis Time from wait start until the element appeared
+     */
+    public synchronized void recordHit(long latencyMillis) {
+        hits++;
+        totalLatencyMillis += latencyMillis;
+        maxLatencyMillis = Math.max(maxLatencyMillis, latencyMillis);
+        averageLatencyMillis = averageLatencyMillis < 0
+                ? latencyMillis
+                : SMOOTHING * latencyMillis + (1 - SMOOTHING) * averageLatencyMillis;
+    }
+
+    /**
+     * Records a wait that timed out
+     */
+    public synchronized void recordMiss() {
+        misses++;
+    }
+
+    /**
+     * Gets the learned typical appearance latency
+     * @return The smoothed latency in ms, or -1 if the element was never found yet
+     */
+    public synchronized long getExpectedLatencyMillis() {
+        return Math.round(averageLatencyMillis);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets how often waits on this locator found the element
+     * @return Share of hits in all waits, 0 if there were none
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public synchronized long getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    public synchronized long getMeanLatencyMillis() {
+        return hits == 0 ? 0 : totalLatencyMillis / hits;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return key + " -> hits=" + hits + ", misses=" + misses
+                + ", hit rate=" + Math.round(getHitRate() * 100) + "%"
+                + ", mean=" + getMeanLatencyMillis() + " ms"
+                + ", learned=" + getExpectedLatencyMillis() + " ms"
+                + ", max=" + maxLatencyMillis + " ms";
+    }
+}
@@ -0,0 +1,35 @@
+package com.abhi.appium.utils;
+
+import org.openqa.selenium.By;
+
+/**
+ * Locators class exposes the W3C strategy and value behind a By locator
+ */
+public final class Locators {
+
+    private Locators() {
+    }
+
+    /**
+     * Gets the strategy and value a locator sends to the server
+     * @param locator The locator, e.g. AppiumBy.id("...")
+     * @return A two element array of strategy and value, or null if the locator isn't remotable
+     */
+    public static String[] parameters(By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            return null;
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        return new String[] {parameters.using(), String.valueOf(parameters.value())};
+    }
+
+    /**
+     * Gets the strategy a locator uses
+     * @param locator The locator
+     * @return The strategy name, or "unknown" if the locator isn't remotable
+     */
+    public static String strategy(By locator) {
+        String[] parameters = parameters(locator);
+        return parameters == null ? "unknown" : parameters[0];
+    }
+}
@@ -0,0 +1,424 @@
+package com.abhi.appium.utils;
+
+import com.abhi.appium.config.ConfigManager;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PageSnapshot class resolves many locators from a single page source dump
+ * The hierarchy is fetched once, streamed into a small index by resource-id, content-desc
+ * and class (in document order, so UiSelector instance(n) works), and queried locally
+ * The snapshot is dropped after any mutating action or once it gets too old
+ */
+public class PageSnapshot {
+
+    private static final XMLInputFactory XML_FACTORY = newXmlFactory();
+
+    private static final Pattern UI_SELECTOR_PART = Pattern.compile("\\.?(\\w+)\\((?:\"((?:[^\"\\\\]|\\\\.)*)\"|(\\d+))\\)");
+
+    private final WebDriver driver;
+    private final long maxAgeMillis;
+
+    private final Map<String, List<Node>> byResourceId = new HashMap<>();
+    private final Map<String, List<Node>> byContentDesc = new HashMap<>();
+    private final Map<String, List<Node>> byClass = new HashMap<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private long loadedAtNanos;
+    private boolean loaded;
+
+    /**
+     * Constructor that creates an empty snapshot for a driver
+     * @param driver The driver to fetch page source with
+     * @param maxAgeMillis How long a fetched snapshot may be reused
+     */
+    public PageSnapshot(WebDriver driver, long maxAgeMillis) {
+        this.driver = driver;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Gets the shared snapshot for a driver so every page sees the same invalidations
+     * It lives in the driver's SessionScope and is dropped when the session is quit
+     * @param driver The driver instance
+     * @return The snapshot for that driver
+     */
+    public static PageSnapshot forDriver(WebDriver driver) {
+        return SessionScope.get(driver, PageSnapshot.class, d -> new PageSnapshot(d, ConfigManager.getSnapshotMaxAgeMillis()));
+    }
+
+    /**
+     * Fetches a fresh page source and rebuilds the index
+     * @return This snapshot, for chaining queries
+     */
+    public synchronized PageSnapshot refresh() {
+        load(driver.getPageSource());
+        return this;
+    }
+
+    /**
+     * Drops the current index so the next query fetches a new page source
+     * Call this after any action that can change the screen
+     */
+    public synchronized void invalidate() {
+        loaded = false;
+    }
+
+    /**
+     * Checks if a locator matches anything on screen
+     * @param locator The locator to check
+     * @return true or false, or null if the locator strategy can't be answered from a snapshot
+     */
+    public synchronized Boolean isPresent(By locator) {
+        if (!supports(locator)) {
+            return null;
+        }
+        return resolve(locator) != null;
+    }
+
+    /**
+     * Counts how many elements a locator matches
+     * @param locator An id, accessibility id or class name locator
+     * @return The number of matches, or -1 if the locator strategy can't be counted from a snapshot
+     */
+    public synchronized int count(By locator) {
+        String[] parameters = Locators.parameters(locator);
+        if (parameters == null) {
+            return -1;
+        }
+        ensureLoaded();
+        List<Node> matches;
+        switch (parameters[0]) {
+            case "id":
+                matches = resolveResourceId(parameters[1]);
+                break;
+            case "accessibility id":
+                matches = byContentDesc.get(parameters[1]);
+                break;
+            case "class name":
+                matches = byClass.get(parameters[1]);
+                break;
+            default:
+                return -1;
+        }
+        return matches == null ? 0 : matches.size();
+    }
+
+    /**
+     * Checks if a locator matches a displayed element
+     * @param locator The locator to check
+     * @return true or false, or null if the locator strategy can't be answered from a snapshot
+     */
+    public synchronized Boolean isDisplayed(By locator) {
+        if (!supports(locator)) {
+            return null;
+        }
+        Node node = resolve(locator);
+        return node != null && !"false".equals(node.displayed);
+    }
+
+    /**
+     * Reads an attribute of the element a locator matches
+     * @param locator The locator to resolve
+     * @param name The attribute name, e.g. "text" or "bounds"
+     * @return The attribute value, or null if nothing matched
+     */
+    public synchronized String getAttribute(By locator, String name) {
+        Node node = supports(locator) ? resolve(locator) : null;
+        return node == null ? null : node.attribute(name);
+    }
+
+    /**
+     * Checks if a locator can be answered from a snapshot without a server lookup
+     * @param locator The locator to check
+     * @return true for id, accessibility id, class name and simple UiSelector locators
+     */
+    public static boolean supports(By locator) {
+        String[] parameters = Locators.parameters(locator);
+        if (parameters == null) {
+            return false;
+        }
+        switch (parameters[0]) {
+            case "id":
+            case "accessibility id":
+            case "class name":
+                return true;
+            case "-android uiautomator":
+                return parseUiSelector(parameters[1]) != null;
+            default:
+                return false;
+        }
+    }
+
+    private Node resolve(By locator) {
+        ensureLoaded();
+        String[] parameters = Locators.parameters(locator);
+        String using = parameters[0];
+        String value = parameters[1];
+        switch (using) {
+            case "id":
+                return first(resolveResourceId(value));
+            case "accessibility id":
+                return first(byContentDesc.get(value));
+            case "class name":
+                return first(byClass.get(value));
+            default:
+                return resolveUiSelector(parseUiSelector(value));
+        }
+    }
+
+    private List<Node> resolveResourceId(String id) {
+        List<Node> exact = byResourceId.get(id);
+        if (exact != null || id.contains(":id/")) {
+            return exact;
+        }
+        // UiAutomator2 treats a bare id as belonging to the app package
+        for (Map.Entry<String, List<Node>> entry : byResourceId.entrySet()) {
+            if (entry.getKey().endsWith(":id/" + id)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private Node resolveUiSelector(Map<String, String> selector) {
+        int instance = Integer.parseInt(selector.getOrDefault("instance", "0"));
+        List<Node> candidates;
+        if (selector.containsKey("resourceId")) {
+            candidates = byResourceId.get(selector.get("resourceId"));
+        } else if (selector.containsKey("description")) {
+            candidates = byContentDesc.get(selector.get("description"));
+        } else if (selector.containsKey("className")) {
+            candidates = byClass.get(selector.get("className"));
+        } else {
+            candidates = nodes;
+        }
+        if (candidates == null) {
+            return null;
+        }
+        int seen = 0;
+        for (Node node : candidates) {
+            if (node.matches(selector)) {
+                if (seen == instance) {
+                    return node;
+                }
+                seen++;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses chains like new UiSelector().className("X").instance(1)
+     * @return The selector parts, or null if the selector uses anything else
+     */
+    private static Map<String, String> parseUiSelector(String selector) {
+        String trimmed = selector.trim();
+        if (!trimmed.startsWith("new UiSelector()")) {
+            return null;
+        }
+        String rest = trimmed.substring("new UiSelector()".length());
+        Map<String, String> parts = new HashMap<>();
+        Matcher matcher = UI_SELECTOR_PART.matcher(rest);
+        int position = 0;
+        while (matcher.find() && matcher.start() == position) {
+            String method = matcher.group(1);
+            String argument = matcher.group(2) != null ? matcher.group(2).replace("\\\"", "\"") : matcher.group(3);
+            if (!method.equals("className") && !method.equals("resourceId") && !method.equals("description")
+                    && !method.equals("text") && !method.equals("textStartsWith") && !method.equals("instance")) {
+                return null;
+            }
+            parts.put(method, argument);
+            position = matcher.end();
+        }
+        String remainder = rest.substring(position).trim();
+        return remainder.isEmpty() || remainder.equals(";") ? parts : null;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded || (System.nanoTime() - loadedAtNanos) / 1_000_000 > maxAgeMillis) {
+            refresh();
+        }
+    }
+
+    /**
+     * Creates the parser factory for page sources, which come from the server, so no DTDs or external entities
+     */
+    private static XMLInputFactory newXmlFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private void load(String pageSource) {
+        byResourceId.clear();
+        byContentDesc.clear();
+        byClass.clear();
+        nodes.clear();
+        try {
+            XMLStreamReader reader = XML_FACTORY.createXMLStreamReader(new StringReader(pageSource));
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && !"hierarchy".equals(reader.getLocalName())) {
+                        index(readNode(reader));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Could not parse page source: " + e.getMessage(), e);
+        }
+        loadedAtNanos = System.nanoTime();
+        loaded = true;
+    }
+
+    private static Node readNode(XMLStreamReader reader) {
+        Node node = new Node();
+        node.className = reader.getLocalName();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String value = reader.getAttributeValue(i);
+            switch (reader.getAttributeLocalName(i)) {
+                case "class":
+                    node.className = value;
+                    break;
+                case "resource-id":
+                    node.resourceId = value;
+                    break;
+                case "content-desc":
+                    node.contentDesc = value;
+                    break;
+                case "text":
+                    node.text = value;
+                    break;
+                case "displayed":
+                    node.displayed = value;
+                    break;
+                case "enabled":
+                    node.enabled = value;
+                    break;
+                case "focused":
+                    node.focused = value;
+                    break;
+                case "bounds":
+                    node.bounds = value;
+                    break;
+                case "hint":
+                    node.hint = value;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return node;
+    }
+
+    private void index(Node node) {
+        nodes.add(node);
+        addTo(byClass, node.className, node);
+        addTo(byResourceId, node.resourceId, node);
+        addTo(byContentDesc, node.contentDesc, node);
+    }
+
+    private static void addTo(Map<String, List<Node>> index, String key, Node node) {
+        if (key != null && !key.isEmpty()) {
+            index.computeIfAbsent(key, k -> new ArrayList<>(2)).add(node);
+        }
+    }
+
+    private static Node first(List<Node> matches) {
+        return matches == null || matches.isEmpty() ? null : matches.get(0);
+    }
+
+    /**
+     * Node class is one element of the hierarchy, holding only the attributes queries need
+     */
+    private static class Node {
+        String className;
+        String resourceId;
+        String contentDesc;
+        String text;
+        String displayed;
+        String enabled;
+        String focused;
+        String bounds;
+        String hint;
+
+        String attribute(String name) {
+            switch (name) {
+                case "class":
+                case "className":
+                    return className;
+                case "resource-id":
+                case "resourceId":
+                    return resourceId;
+                case "content-desc":
+                case "contentDescription":
+                    return contentDesc;
+                case "text":
+                    return text;
+                case "displayed":
+                    return displayed;
+                case "enabled":
+                    return enabled;
+                case "focused":
+                    return focused;
+                case "bounds":
+                    return bounds;
+                case "hint":
+                    return hint;
+                default:
+                    return null;
+            }
+        }
+
+        boolean matches(Map<String, String> selector) {
+            for (Map.Entry<String, String> part : selector.entrySet()) {
+                String expected = part.getValue();
+                switch (part.getKey()) {
+                    case "className":
+                        if (!expected.equals(className)) {
+                            return false;
+                        }
+                        break;
+                    case "resourceId":
+                        if (!expected.equals(resourceId)) {
+                            return false;
+                        }
+                        break;
+                    case "description":
+                        if (!expected.equals(contentDesc)) {
+                            return false;
+                        }
+                        break;
+                    case "text":
+                        if (!expected.equals(text)) {
+                            return false;
+                        }
+                        break;
+                    case "textStartsWith":
+                        // Case-insensitive, like UiSelector.textStartsWith on the device
+                        if (text == null || !text.regionMatches(true, 0, expected, 0, expected.length())) {
+                            return false;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.abhi.appium.utils;
+
+import org.openqa.selenium.WebDriver;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * SessionLock class gives each driver session one lock shared by every thread using it
+ * The test thread holds it for each poll and action, and background helpers such as the
+ * interrupt watcher only act while it is free, so they never send conflicting commands
+ */
+public final class SessionLock {
+
+    private static final Map<WebDriver, ReentrantLock> LOCKS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private SessionLock() {
+    }
+
+    /**
+     * Gets the lock for a driver session
+     * @param driver The driver instance
+     * @return The lock shared by every user of that session
+     */
+    public static ReentrantLock forDriver(WebDriver driver) {
+        synchronized (LOCKS) {
+            return LOCKS.computeIfAbsent(driver, d -> new ReentrantLock());
+        }
+    }
+
+    /**
+     * Runs an action while holding the session lock
+     * @param driver The driver instance
+     * @param action The commands to send
+     * @return The action's result
+     */
+    public static <T> T call(WebDriver driver, Supplier<T> action) {
+        ReentrantLock lock = forDriver(driver);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs an action that returns nothing while holding the session lock
+     * @param driver The driver instance
+     * @param action The commands to send
+     */
+    public static void run(WebDriver driver, Runnable action) {
+        call(driver, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,137 @@
+package com.abhi.appium.utils;
+
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * SessionScope class holds the per-session helpers (page snapshot, wait utils, settings cache...)
+ * shared by every page and flow on one driver
+ * The helpers keep a reference to their driver, so the scope is cleared explicitly when the
+ * session is quit, by quit() or by whoever quits the driver itself, instead of waiting for the
+ * driver to become unreachable
+ */
+public final class SessionScope {
+
+    private static final Map<WebDriver, Map<Class<?>, Object>> SCOPES = new ConcurrentHashMap<>();
+
+    private SessionScope() {
+    }
+
+    /**
+     * Gets a driver's helper of a type, creating it on first use
+     * The factory may itself get other helpers of the same driver
+     * @param driver The driver instance
+     * @param type The helper type, one helper per type and driver
+     * @param factory Creates the helper for the driver
+     * @return The driver's helper
+     */
+    public static <T> T get(WebDriver driver, Class<T> type, Function<WebDriver, T> factory) {
+        Map<Class<?>, Object> scope = SCOPES.computeIfAbsent(driver, d -> new HashMap<>());
+        synchronized (scope) {
+            T helper = type.cast(scope.get(type));
+            if (helper == null) {
+                helper = factory.apply(driver);
+                scope.put(type, helper);
+            }
+            return helper;
+        }
+    }
+
+    /**
+     * Gets a driver's helper of a type without creating it
+     * @param driver The driver instance
+     * @param type The helper type
+     * @return The helper, or null if the driver has none
+     */
+    public static <T> T peek(WebDriver driver, Class<T> type) {
+        Map<Class<?>, Object> scope = SCOPES.get(driver);
+        if (scope == null) {
+            return null;
+        }
+        synchronized (scope) {
+            return type.cast(scope.get(type));
+        }
+    }
+
+    /**
+     * Replaces a driver's helper of a type, e.g. one started per test
+     * @param driver The driver instance
+     * @param type The helper type
+     * @param helper The new helper
+     * @return The helper it replaced, or null
+     */
+    public static <T> T put(WebDriver driver, Class<T> type, T helper) {
+        Map<Class<?>, Object> scope = SCOPES.computeIfAbsent(driver, d -> new HashMap<>());
+        synchronized (scope) {
+            return type.cast(scope.put(type, helper));
+        }
+    }
+
+    /**
+     * Removes a driver's helper of a type
+     * @param driver The driver instance
+     * @param type The helper type
+     * @return The removed helper, or null if the driver had none
+     */
+    public static <T> T remove(WebDriver driver, Class<T> type) {
+        Map<Class<?>, Object> scope = SCOPES.get(driver);
+        if (scope == null) {
+            return null;
+        }
+        synchronized (scope) {
+            return type.cast(scope.remove(type));
+        }
+    }
+
+    /**
+     * Drops every helper of a driver, call it when the session is quit
+     * Helpers holding resources of their own (AutoCloseable, e.g. a command log) are closed
+     * @param driver The driver instance
+     */
+    public static void clear(WebDriver driver) {
+        Map<Class<?>, Object> scope = driver == null ? null : SCOPES.remove(driver);
+        if (scope == null) {
+            return;
+        }
+        List<Object> helpers;
+        synchronized (scope) {
+            helpers = new ArrayList<>(scope.values());
+        }
+        for (Object helper : helpers) {
+            if (helper instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) helper).close();
+                } catch (Exception e) {
+                    System.out.println("⚠️ Could not close " + helper.getClass().getSimpleName() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Quits a session and drops its helpers, even when the quit fails
+     * The quit holds the session lock, so a background helper's command is never cut off by it
+     * @param driver The driver to quit
+     */
+    public static void quit(WebDriver driver) {
+        try {
+            SessionLock.run(driver, driver::quit);
+        } finally {
+            clear(driver);
+        }
+    }
+
+    /**
+     * Gets the number of sessions that have helpers
+     * @return The count, which should drop back as sessions are quit
+     */
+    public static int size() {
+        return SCOPES.size();
+    }
+}
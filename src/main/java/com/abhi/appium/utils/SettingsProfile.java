@@ -0,0 +1,73 @@
+package com.abhi.appium.utils;
+
+import com.abhi.appium.config.ConfigManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SettingsProfile class names a set of UiAutomator2 driver settings for a group of steps
+ * e.g. a shorter waitForIdleTimeout on a screen whose animations never let the app go idle
+ * Any value can be overridden from config.properties as settings.profile.&lt;name&gt;.&lt;setting&gt;,
+ * so profiles can be tuned from the settings-profiles report without a code change
+ */
+public final class SettingsProfile {
+
+    /**
+     * The server's own settings, as they were before any profile was applied
+     */
+    public static final SettingsProfile DEFAULT = new SettingsProfile("default");
+
+    private final String name;
+    private final Map<String, Object> settings = new LinkedHashMap<>();
+
+    private SettingsProfile(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Starts declaring a profile
+     * @param name The profile name used in step reports and config overrides, e.g. "home-screen"
+     * @return The new profile
+     */
+    public static SettingsProfile named(String name) {
+        return new SettingsProfile(name);
+    }
+
+    /**
+     * Sets one driver setting, unless config.properties overrides it for this profile
+     * @param setting The UiAutomator2 setting name, e.g. "waitForIdleTimeout"
+     * @param value The value to use while the profile is active
+     * @return This profile, for chaining
+     */
+    public SettingsProfile set(String setting, Object value) {
+        String override = ConfigManager.getSettingsProfileValue(name, setting);
+        settings.put(setting, override != null ? parse(override) : value);
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Object> getSettings() {
+        return Collections.unmodifiableMap(settings);
+    }
+
+    @Override
+    public String toString() {
+        return name + settings;
+    }
+
+    private static Object parse(String value) {
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+}
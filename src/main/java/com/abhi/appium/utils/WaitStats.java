@@ -0,0 +1,50 @@
+package com.abhi.appium.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WaitStats class is the shared registry of per-locator wait statistics
+ * Stats are shared by all pages and threads so learned latencies carry across tests
+ */
+public final class WaitStats {
+
+    private static final Map<String, LocatorStats> STATS = new ConcurrentHashMap<>();
+
+    private WaitStats() {
+    }
+
+    /**
+     * Gets the stats for a locator, creating them on first use
+     * @param key The locator description
+     * @return The stats for that locator
+     */
+    public static LocatorStats forKey(String key) {
+        return STATS.computeIfAbsent(key, LocatorStats::new);
+    }
+
+    /**
+     * Gets a snapshot of all tracked locators
+     * @return The stats, slowest mean latency first
+     */
+    public static List<LocatorStats> all() {
+        List<LocatorStats> all = new ArrayList<>(STATS.values());
+        all.sort(Comparator.comparingLong(LocatorStats::getMeanLatencyMillis).reversed());
+        return all;
+    }
+
+    /**
+     * Builds a printable report of every tracked locator
+     * @return The report text
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder("⏳ Wait stats per locator:");
+        for (LocatorStats stats : all()) {
+            report.append(System.lineSeparator()).append("   ").append(stats);
+        }
+        return report.toString();
+    }
+}
@@ -1,35 +1,102 @@
 package com.abhi.appium.utils;
 
+import com.abhi.appium.config.ConfigManager;
 import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * WaitUtils class provides common wait operations for Appium tests
  * This helps avoid code duplication and makes tests more readable
+ * All waits go through AdaptiveWait, so per-locator stats are available from WaitStats
+ * Pages share one instance per driver, along with its lazy elements and screen epoch; it lives in
+ * the driver's SessionScope, so quitting the session releases the lazy element handles too
  */
 public class WaitUtils {
 
-    private final WebDriverWait wait;
+    private final WebDriver driver;
+    private final AdaptiveWait wait;
+    private final AdaptiveWait optimizedWait;
+    private final PageSnapshot snapshot;
+    private final Map<String, LazyElement> elements = new ConcurrentHashMap<>();
+    private final AtomicLong screenEpoch = new AtomicLong();
 
     /**
-     * Constructor that creates a WebDriverWait with default timeout
+     * Constructor that creates a wait with the configured explicit timeout
      * @param driver The Android driver instance
      */
     public WaitUtils(org.openqa.selenium.WebDriver driver) {
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(15));
+        this(driver, ConfigManager.getExplicitWait());
     }
 
     /**
-     * Constructor that creates a WebDriverWait with custom timeout
+     * Constructor that creates a wait with custom timeout
      * @param driver The Android driver instance
      * @param timeoutInSeconds Custom timeout in seconds
      */
     public WaitUtils(org.openqa.selenium.WebDriver driver, int timeoutInSeconds) {
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutInSeconds));
+        this.driver = driver;
+        this.wait = new AdaptiveWait(driver, Duration.ofSeconds(timeoutInSeconds));
+        this.optimizedWait = new AdaptiveWait(driver, Duration.ofMillis(ConfigManager.getLocatorOptimizerBudgetMillis()));
+        this.snapshot = PageSnapshot.forDriver(driver);
+    }
+
+    /**
+     * Gets the wait utilities shared by every page using the given driver
+     * @param driver The driver instance
+     * @return The shared instance, with the configured explicit timeout
+     */
+    public static WaitUtils forDriver(WebDriver driver) {
+        return SessionScope.get(driver, WaitUtils.class, WaitUtils::new);
+    }
+
+    /**
+     * Gets the lazy element for a declared locator, shared by every page on this driver
+     * @param locator The element locator
+     * @return The lazy element, which finds the element on first use
+     */
+    public LazyElement element(By locator) {
+        return element("", locator);
+    }
+
+    /**
+     * Gets the lazy element for a locator on one screen, for locators several screens share
+     * Its waits learn their latency under the screen's own key, so one screen's appearance
+     * time doesn't shape the polling on another
+     * @param screen The screen name, e.g. "otp-entry"
+     * @param locator The element locator
+     * @return The lazy element, which finds the element on first use
+     */
+    public LazyElement element(String screen, By locator) {
+        return elements.computeIfAbsent(statsKey(screen, locator), k -> new LazyElement(this, screen, locator));
+    }
+
+    /**
+     * Gets the current screen epoch, which changes whenever the screen may have changed
+     * @return The epoch
+     */
+    public long getScreenEpoch() {
+        return screenEpoch.get();
+    }
+
+    /**
+     * Records that an action may have moved to another screen
+     * Cached element handles are found again on next use and the snapshot is dropped
+     */
+    public void screenChanged() {
+        screenEpoch.incrementAndGet();
+        snapshot.invalidate();
     }
 
     /**
@@ -37,7 +104,10 @@ public class WaitUtils {
      * @param locator The element locator
      */
     public void waitAndClick(By locator) {
-        wait.until(ExpectedConditions.elementToBeClickable(locator)).click();
+        long epoch = screenEpoch.get();
+        WebElement element = resolve("", locator, ExpectedConditions::elementToBeClickable);
+        SessionLock.run(driver, () -> current(epoch, locator, element).click());
+        screenChanged();
     }
 
     /**
@@ -46,7 +116,17 @@ public class WaitUtils {
      * @return The found WebElement
      */
     public WebElement waitForElement(By locator) {
-        return wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+        return waitForElement("", locator);
+    }
+
+    /**
+     * Waits for an element on a given screen to be present and returns it
+     * @param screen The screen name the wait's latency is learned under, empty for the locator alone
+     * @param locator The element locator
+     * @return The found WebElement
+     */
+    public WebElement waitForElement(String screen, By locator) {
+        return resolve(screen, locator, ExpectedConditions::presenceOfElementLocated);
     }
 
     /**
@@ -55,8 +135,10 @@ public class WaitUtils {
      * @param text The text to send
      */
     public void waitAndSendKeys(By locator, String text) {
-        WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(locator));
-        element.sendKeys(text);
+        long epoch = screenEpoch.get();
+        WebElement element = resolve("", locator, ExpectedConditions::presenceOfElementLocated);
+        SessionLock.run(driver, () -> current(epoch, locator, element).sendKeys(text));
+        snapshot.invalidate();
     }
 
     /**
@@ -65,6 +147,154 @@ public class WaitUtils {
      * @return The clickable WebElement
      */
     public WebElement waitForClickable(By locator) {
-        return wait.until(ExpectedConditions.elementToBeClickable(locator));
+        return resolve("", locator, ExpectedConditions::elementToBeClickable);
+    }
+
+    /**
+     * Clicks an element only if it shows up within the configured optional budget
+     * @param locator The element locator
+     * @return true if the element appeared and was clicked, false if it was absent
+     */
+    public boolean clickIfPresent(By locator) {
+        return clickIfPresent(locator, ConfigManager.getOptionalElementBudgetMillis());
+    }
+
+    /**
+     * Clicks an element only if it shows up within a small budget
+     * Presence is checked with non-throwing findElements and implicit waits off, so an absent
+     * element costs a few round trips; if the element has been seen before and usually shows up
+     * well within the budget, the wait is cut to half again its learned appearance time
+     * @param locator The element locator
+     * @param budgetMillis The longest to look for the element, never exceeded
+     * @return true if the element appeared and was clicked, false if it was absent
+     */
+    public boolean clickIfPresent(By locator, long budgetMillis) {
+        String key = "optional " + locator;
+        LocatorStats stats = WaitStats.forKey(key);
+        long learned = stats.getExpectedLatencyMillis();
+        long budget = learned < 0 ? budgetMillis : Math.min(budgetMillis, learned * 3 / 2);
+        long epoch = screenEpoch.get();
+        WebElement element;
+        try {
+            element = wait.until(key, d -> {
+                List<WebElement> found = d.findElements(locator);
+                return found.isEmpty() ? null : found.get(0);
+            }, budget);
+        } catch (TimeoutException e) {
+            return false;
+        }
+        SessionLock.run(driver, () -> current(epoch, locator, element).click());
+        screenChanged();
+        return true;
+    }
+
+    /**
+     * Gets a found element back for an action sent under the session lock
+     * The wait releases the lock between polls, so the interrupt watcher may have clicked a
+     * dialog since; the element is then found again, under the same lock as the action
+     * @param epoch The screen epoch from before the wait
+     * @param locator The element locator
+     * @param element The element the wait found
+     * @return The element to act on
+     */
+    private WebElement current(long epoch, By locator, WebElement element) {
+        return screenEpoch.get() == epoch ? element : driver.findElement(locator);
+    }
+
+    /**
+     * Waits for a condition on an element, trying the learned faster locator first
+     * Slow locators that resolve without a learned mapping are reported to the optimizer
+     * so it can learn one
+     * @param screen The screen the wait's latency is learned under, empty for the locator alone
+     * @param locator The element locator as declared in the page object
+     * @param conditionFor Builds the condition for a given locator
+     * @return The element the condition returned
+     */
+    private WebElement resolve(String screen, By locator, Function<By, ExpectedCondition<WebElement>> conditionFor) {
+        if (!ConfigManager.getLocatorOptimizerEnabled() || !LocatorOptimizer.isSlow(locator)) {
+            return wait.until(statsKey(screen, locator), conditionFor.apply(locator));
+        }
+        LocatorOptimizer optimizer = LocatorOptimizer.getInstance();
+        By preferred = optimizer.preferred(locator);
+        long start = System.nanoTime();
+        if (preferred != null) {
+            try {
+                WebElement element = optimizedWait.until(statsKey(screen, preferred), conditionFor.apply(preferred));
+                optimizer.recordLatency(locator, true, (System.nanoTime() - start) / 1_000_000);
+                return element;
+            } catch (TimeoutException e) {
+                start = System.nanoTime();
+            }
+        }
+        WebElement element = wait.until(statsKey(screen, locator), conditionFor.apply(locator));
+        optimizer.recordLatency(locator, false, (System.nanoTime() - start) / 1_000_000);
+        if (preferred != null) {
+            optimizer.recordFallback(driver, locator, element);
+        } else {
+            optimizer.recordResolution(driver, locator, element);
+        }
+        return element;
+    }
+
+    /**
+     * Waits for an element to be displayed, answering from page source snapshots
+     * Each poll is one page source fetch, and the first poll can reuse a fresh snapshot
+     * Falls back to a regular presence wait for locators a snapshot can't answer
+     * @param locator The element locator
+     * @return true if the element was displayed before the timeout, false otherwise
+     */
+    public boolean waitForDisplayed(By locator) {
+        try {
+            if (!PageSnapshot.supports(locator)) {
+                WebElement element = waitForElement(locator);
+                return SessionLock.call(driver, element::isDisplayed);
+            }
+            if (Boolean.TRUE.equals(SessionLock.call(driver, () -> snapshot.isDisplayed(locator)))) {
+                return true;
+            }
+            return wait.until(locator.toString(), driver -> snapshot.refresh().isDisplayed(locator));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gets the page source snapshot shared by all pages on this driver
+     * @return The snapshot
+     */
+    public PageSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Runs element actions done outside WaitUtils while holding the session lock
+     * @param action The commands to send
+     */
+    public void withSessionLock(Runnable action) {
+        SessionLock.run(driver, action);
+    }
+
+    /**
+     * Runs checks done outside WaitUtils while holding the session lock
+     * @param action The commands to send
+     * @return The action's result
+     */
+    public <T> T callWithSessionLock(Supplier<T> action) {
+        return SessionLock.call(driver, action);
+    }
+
+    /**
+     * Drops the current snapshot after an action done outside WaitUtils changed the screen
+     */
+    public void invalidateSnapshot() {
+        snapshot.invalidate();
+    }
+
+    WebDriver getDriver() {
+        return driver;
+    }
+
+    private static String statsKey(String screen, By locator) {
+        return screen.isEmpty() ? locator.toString() : screen + " " + locator;
     }
-} 
\ No newline at end of file
+}
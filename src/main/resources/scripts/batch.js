@@ -0,0 +1,68 @@
+// Runs a flow's steps on the Appium server in one round trip (executeDriverScript, webdriverio)
+// PLAN is replaced with the step list; every driver call below stays on the server
+const plan = PLAN;
+const ELEMENT = 'element-6066-11e4-a52e-4f735466cecf';
+const POLL_MS = 100;
+const sleep = (ms) => new Promise((resolve) => setTimeout(resolve, ms));
+const results = [];
+let commands = 0;
+
+async function find(step, timeoutMs) {
+  const end = Date.now() + timeoutMs;
+  while (true) {
+    commands++;
+    const found = await driver.findElements(step.using, step.value);
+    if (found.length > 0) {
+      return found[0][ELEMENT] || found[0].ELEMENT;
+    }
+    if (Date.now() >= end) {
+      return null;
+    }
+    await sleep(POLL_MS);
+  }
+}
+
+async function isReadyInput(id) {
+  commands += 3;
+  const focused = await driver.getElementAttribute(id, 'focused');
+  const text = await driver.getElementAttribute(id, 'text');
+  const hint = await driver.getElementAttribute(id, 'hint');
+  return focused === 'true' && (!text || text === hint);
+}
+
+for (const step of plan) {
+  const start = Date.now();
+  let error = null;
+  try {
+    const id = await find(step, step.timeoutMs);
+    if (id === null) {
+      if (step.op !== 'clickIfPresent') {
+        throw new Error('Element not found: ' + step.using + '=' + step.value);
+      }
+    } else if (step.op === 'click' || step.op === 'clickIfPresent') {
+      commands++;
+      await driver.elementClick(id);
+    } else if (step.op === 'sendKeys') {
+      commands++;
+      await driver.elementSendKeys(id, step.text);
+      if (step.clickAfter) {
+        commands++;
+        await driver.elementClick(id);
+      }
+    } else if (step.op === 'awaitReadyInput') {
+      while (!(await isReadyInput(id))) {
+        if (Date.now() - start >= step.timeoutMs) {
+          throw new Error('Input not ready: ' + step.using + '=' + step.value);
+        }
+        await sleep(POLL_MS);
+      }
+    }
+  } catch (e) {
+    error = e.message;
+  }
+  results.push({ name: step.name, ok: error === null, ms: Date.now() - start, error: error });
+  if (error !== null) {
+    break;
+  }
+}
+return { results: results, commands: commands };
@@ -0,0 +1,105 @@
+package com.abhi.appium.artifacts;
+
+import com.abhi.appium.stub.StubSessionTest;
+import com.abhi.appium.utils.SessionScope;
+import io.appium.java_client.android.AndroidDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * ArtifactPipelineTest class checks background artifact writes, the disk budget and the screenshot buffer
+ */
+public class ArtifactPipelineTest extends StubSessionTest {
+
+    private static String gunzip(File file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * A failure writes the screenshot, compressed page source and logcat once the queue drains
+     */
+    @Test
+    public void testFailureArtifactsAreWritten() throws Exception {
+        File dir = Files.createTempDirectory("artifacts").toFile();
+        try (ArtifactPipeline pipeline = new ArtifactPipeline(dir, 1, 2, 1024 * 1024)) {
+            AndroidDriver driver = driver();
+            File folder = pipeline.captureFailure(driver, "Suite.test failure", Collections.emptyList());
+            Assert.assertTrue(pipeline.flush(5000));
+
+            Assert.assertEquals(pipeline.getWrittenCount(), 3);
+            Assert.assertTrue(new File(folder, "screenshot.png").length() > 0);
+            Assert.assertTrue(gunzip(new File(folder, "page-source.xml.gz")).contains("<hierarchy"));
+            Assert.assertTrue(gunzip(new File(folder, "logcat.txt.gz")).contains("I/stub"));
+            Assert.assertFalse(folder.getName().contains(" "), "Folder names are sanitized");
+        }
+    }
+
+    /**
+     * Artifacts past the disk budget are skipped rather than written
+     */
+    @Test
+    public void testDiskBudgetSkipsArtifacts() throws Exception {
+        File dir = Files.createTempDirectory("artifacts").toFile();
+        try (ArtifactPipeline pipeline = new ArtifactPipeline(dir, 1, 2, 16)) {
+            AndroidDriver driver = driver();
+            pipeline.captureFailure(driver, "over-budget", Collections.emptyList());
+            Assert.assertTrue(pipeline.flush(5000));
+
+            Assert.assertEquals(pipeline.getWrittenCount(), 0);
+            Assert.assertEquals(pipeline.getOverBudgetCount(), 3);
+            Assert.assertEquals(pipeline.getDiskUsedBytes(), 0);
+        }
+    }
+
+    /**
+     * The buffer keeps only the newest frames, which a failure writes oldest first
+     */
+    @Test
+    public void testScreenshotBufferKeepsLastFrames() throws Exception {
+        File dir = Files.createTempDirectory("artifacts").toFile();
+        try (ArtifactPipeline pipeline = new ArtifactPipeline(dir, 1, 2, 1024 * 1024)) {
+            AndroidDriver driver = driver();
+            ScreenshotBuffer buffer = new ScreenshotBuffer(driver, 2);
+            buffer.capture("01-first");
+            buffer.capture("02-second");
+            buffer.capture("03-third");
+            List<ScreenshotBuffer.Frame> frames = buffer.drain();
+            Assert.assertEquals(frames.size(), 2);
+            Assert.assertEquals(frames.get(0).getLabel(), "02-second");
+            Assert.assertTrue(buffer.drain().isEmpty());
+
+            File folder = pipeline.captureFailure(driver, "buffered", frames);
+            Assert.assertTrue(pipeline.flush(5000));
+            Assert.assertTrue(new File(folder, "before-1-02-second.png").exists());
+            Assert.assertTrue(new File(folder, "before-2-03-third.png").exists());
+        }
+    }
+
+    /**
+     * A leased session starts without the previous test's frames, and quitting it drops its buffer
+     */
+    @Test
+    public void testSharedBufferIsScopedToTestAndSession() {
+        AndroidDriver driver = driver();
+        // The configured buffer is off, so one that keeps frames is put in the scope first
+        ScreenshotBuffer buffer = SessionScope.get(driver, ScreenshotBuffer.class, d -> new ScreenshotBuffer(d, 2));
+        Assert.assertSame(ScreenshotBuffer.forDriver(driver), buffer);
+        buffer.capture("01-previous-test");
+        ScreenshotBuffer.discardFrames(driver);
+        Assert.assertTrue(ScreenshotBuffer.forDriver(driver).drain().isEmpty(), "Frames of the last lease are gone");
+
+        SessionScope.quit(driver);
+        Assert.assertNull(SessionScope.peek(driver, ScreenshotBuffer.class));
+    }
+}
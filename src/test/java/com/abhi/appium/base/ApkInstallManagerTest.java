@@ -0,0 +1,119 @@
+package com.abhi.appium.base;
+
+import com.abhi.appium.stub.StubSessionTest;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.appmanagement.ApplicationState;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * ApkInstallManagerTest class checks install skipping with a fake device installer and on the stub server
+ */
+public class ApkInstallManagerTest extends StubSessionTest {
+
+    /**
+     * FakeInstaller class stands in for a device
+     */
+    private static class FakeInstaller implements AppInstaller {
+        final Set<String> installedPackages = new HashSet<>();
+        int installCalls;
+        int clearCalls;
+        boolean running = true;
+
+        @Override
+        public boolean isInstalled(String appPackage) {
+            return installedPackages.contains(appPackage);
+        }
+
+        @Override
+        public void install(String apkPath) {
+            installCalls++;
+            installedPackages.add("com.example.app");
+        }
+
+        @Override
+        public void clearData(String appPackage) {
+            clearCalls++;
+            running = false;
+        }
+
+        @Override
+        public void activate(String appPackage) {
+            running = true;
+        }
+    }
+
+    /**
+     * An unchanged APK is installed once, then later sessions only clear data
+     */
+    @Test
+    public void testUnchangedApkIsInstalledOnce() throws IOException {
+        File directory = Files.createTempDirectory("install-cache").toFile();
+        File apk = new File(directory, "app.apk");
+        Files.write(apk.toPath(), new byte[] {1, 2, 3});
+        File state = new File(directory, "install-cache.properties");
+        FakeInstaller device = new FakeInstaller();
+
+        ApkInstallManager manager = new ApkInstallManager(state);
+        Assert.assertTrue(manager.needsInstall("emulator-5554", apk.getPath()));
+        device.installedPackages.add("com.example.app");
+        manager.afterSessionStart("emulator-5554", apk.getPath(), "com.example.app", device, true, true);
+
+        ApkInstallManager nextRun = new ApkInstallManager(state);
+        Assert.assertFalse(nextRun.needsInstall("emulator-5554", apk.getPath()), "State should survive a restart");
+        Assert.assertTrue(nextRun.needsInstall("emulator-5556", apk.getPath()), "Other devices still need it");
+        nextRun.afterSessionStart("emulator-5554", apk.getPath(), "com.example.app", device, false, true);
+
+        Assert.assertEquals(device.installCalls, 0);
+        Assert.assertEquals(device.clearCalls, 1);
+        Assert.assertTrue(device.running, "The app is relaunched after its data is cleared");
+        Assert.assertEquals(nextRun.getSkipCount(), 1);
+        Assert.assertEquals(nextRun.getState().get("emulator-5554"), nextRun.hashApk(apk.getPath()));
+    }
+
+    /**
+     * A changed APK or an app removed behind the cache's back triggers a real install
+     */
+    @Test
+    public void testChangedOrMissingAppIsInstalled() throws IOException {
+        File directory = Files.createTempDirectory("install-cache").toFile();
+        File apk = new File(directory, "app.apk");
+        Files.write(apk.toPath(), new byte[] {1, 2, 3});
+        ApkInstallManager manager = new ApkInstallManager(new File(directory, "install-cache.properties"));
+        FakeInstaller device = new FakeInstaller();
+
+        manager.afterSessionStart("emulator-5554", apk.getPath(), "com.example.app", device, true, true);
+        manager.afterSessionStart("emulator-5554", apk.getPath(), "com.example.app", device, false, true);
+        Assert.assertEquals(device.installCalls, 1, "App was missing so it should be installed");
+
+        Files.write(apk.toPath(), new byte[] {4, 5, 6, 7});
+        Assert.assertTrue(manager.needsInstall("emulator-5554", apk.getPath()), "A new build needs installing");
+    }
+
+    /**
+     * A skipped install leaves the app the session launched in the foreground once its data is cleared
+     */
+    @Test
+    public void testAppIsInForegroundAfterClear() throws IOException {
+        File directory = Files.createTempDirectory("install-cache").toFile();
+        File apk = new File(directory, "app.apk");
+        Files.write(apk.toPath(), new byte[] {1, 2, 3});
+        ApkInstallManager manager = new ApkInstallManager(new File(directory, "install-cache.properties"));
+        AndroidDriver driver = driver();
+        DriverAppInstaller installer = new DriverAppInstaller(driver);
+        installer.clearData("com.example.app");
+        Assert.assertEquals(driver.queryAppState("com.example.app"), ApplicationState.NOT_RUNNING,
+                "Clearing data alone kills the app");
+
+        manager.afterSessionStart("stub", apk.getPath(), "com.example.app", installer, false, true);
+
+        Assert.assertEquals(manager.getSkipCount(), 1);
+        Assert.assertEquals(driver.queryAppState("com.example.app"), ApplicationState.RUNNING_IN_FOREGROUND);
+    }
+}
@@ -0,0 +1,159 @@
+package com.abhi.appium.base;
+
+import com.abhi.appium.stub.StubAppiumServer;
+import com.abhi.appium.utils.SessionScope;
+import io.appium.java_client.android.AndroidDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DeviceSchedulerTest class checks device leasing without needing real devices
+ * Each device points at its own stub server, and jobs send their commands to the stub of the device they leased
+ */
+public class DeviceSchedulerTest {
+
+    private static List<StubAppiumServer> startStubs(int count) throws IOException {
+        List<StubAppiumServer> stubs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            stubs.add(new StubAppiumServer(0).start());
+        }
+        return stubs;
+    }
+
+    private static DeviceRegistry registryOf(List<StubAppiumServer> stubs) {
+        List<Device> devices = new ArrayList<>();
+        for (int i = 0; i < stubs.size(); i++) {
+            devices.add(new Device("stub-" + i, "stub-" + i, 8200 + i, stubs.get(i).getUrl().toString()));
+        }
+        return new DeviceRegistry(devices);
+    }
+
+    private static void closeAll(List<StubAppiumServer> stubs) {
+        stubs.forEach(StubAppiumServer::close);
+    }
+
+    /**
+     * A device is never leased to two threads at the same time, and each job reaches its own device's server
+     */
+    @Test
+    public void testDeviceIsLeasedExclusively() throws Exception {
+        List<StubAppiumServer> stubs = startStubs(3);
+        Map<String, AndroidDriver> sessions = new ConcurrentHashMap<>();
+        try {
+            DeviceRegistry registry = registryOf(stubs);
+            for (int i = 0; i < stubs.size(); i++) {
+                sessions.put(registry.getDevices().get(i).getName(), stubs.get(i).newDriver());
+            }
+            DeviceScheduler scheduler = new DeviceScheduler(registry, 10);
+            Set<String> inUse = ConcurrentHashMap.newKeySet();
+            AtomicBoolean overlap = new AtomicBoolean(false);
+            long before = stubs.stream().mapToLong(StubAppiumServer::getCommandCount).sum();
+
+            ExecutorService workers = Executors.newFixedThreadPool(6);
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                results.add(workers.submit(() -> {
+                    Device device = scheduler.acquire();
+                    try {
+                        if (!inUse.add(device.getName())) {
+                            overlap.set(true);
+                        }
+                        sessions.get(device.getName()).getPageSource();
+                        inUse.remove(device.getName());
+                    } finally {
+                        scheduler.release(device);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            workers.shutdown();
+
+            Assert.assertFalse(overlap.get(), "Two threads held the same device");
+            Assert.assertEquals(scheduler.getFreeCount(), 3, "All devices should be free again");
+            Assert.assertEquals(stubs.stream().mapToLong(StubAppiumServer::getCommandCount).sum() - before, 30);
+        } finally {
+            sessions.values().forEach(SessionScope::quit);
+            closeAll(stubs);
+        }
+    }
+
+    /**
+     * Every device can be leased at once, and a thread waiting for a device gets the first one released
+     */
+    @Test
+    public void testWaitingThreadGetsTheReleasedDevice() throws Exception {
+        List<StubAppiumServer> stubs = startStubs(4);
+        ExecutorService workers = Executors.newFixedThreadPool(5);
+        try {
+            DeviceScheduler scheduler = new DeviceScheduler(registryOf(stubs), 10);
+            CyclicBarrier allLeased = new CyclicBarrier(4);
+            CountDownLatch done = new CountDownLatch(1);
+            BlockingQueue<Device> leased = new LinkedBlockingQueue<>();
+            for (int i = 0; i < 4; i++) {
+                workers.submit(() -> {
+                    Device device = scheduler.acquire();
+                    // Only passes if the four workers hold four devices at the same time
+                    allLeased.await(10, TimeUnit.SECONDS);
+                    leased.add(device);
+                    done.await(10, TimeUnit.SECONDS);
+                    return null;
+                });
+            }
+            Device first = leased.poll(10, TimeUnit.SECONDS);
+            for (int i = 1; i < 4; i++) {
+                Assert.assertNotNull(leased.poll(10, TimeUnit.SECONDS), "All four devices are leased together");
+            }
+            Future<Device> waiter = workers.submit(scheduler::acquire);
+
+            Assert.assertFalse(waiter.isDone(), "No device is free until one is released");
+            scheduler.release(first);
+            Assert.assertSame(waiter.get(10, TimeUnit.SECONDS), first);
+            done.countDown();
+        } finally {
+            workers.shutdownNow();
+            closeAll(stubs);
+        }
+    }
+
+    /**
+     * A device is ranked by its preference when it is queued, so later changes apply from its next release
+     */
+    @Test
+    public void testPreferenceIsReadWhenADeviceIsQueued() throws Exception {
+        List<StubAppiumServer> stubs = startStubs(3);
+        try {
+            Map<String, Double> speed = new ConcurrentHashMap<>(Map.of("stub-0", 2.0, "stub-1", 1.0, "stub-2", 3.0));
+            DeviceScheduler scheduler = new DeviceScheduler(registryOf(stubs), 10, device -> speed.get(device.getName()));
+            speed.put("stub-2", 0.5);
+            Assert.assertEquals(scheduler.acquire().getName(), "stub-1");
+
+            Device device = scheduler.acquire();
+            Assert.assertEquals(device.getName(), "stub-0");
+            speed.put("stub-0", 0.1);
+            scheduler.release(device);
+            Assert.assertEquals(scheduler.acquire().getName(), "stub-0", "Released with its new speed factor");
+            Assert.assertEquals(scheduler.acquire().getName(), "stub-2");
+        } finally {
+            closeAll(stubs);
+        }
+    }
+}
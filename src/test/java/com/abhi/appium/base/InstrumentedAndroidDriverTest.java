@@ -0,0 +1,57 @@
+package com.abhi.appium.base;
+
+import com.abhi.appium.metrics.DriverCallMetrics;
+import com.abhi.appium.metrics.DriverCallStats;
+import com.abhi.appium.stub.StubSessionTest;
+import com.abhi.appium.transport.HttpTransport;
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * InstrumentedAndroidDriverTest class checks that driver and element calls are counted per command and strategy
+ */
+public class InstrumentedAndroidDriverTest extends StubSessionTest {
+
+    private static long calls(String command, String strategy) {
+        DriverCallStats.Snapshot snapshot = DriverCallMetrics.snapshot(command, strategy);
+        return snapshot == null ? 0 : snapshot.getCalls();
+    }
+
+    private static long failures(String command, String strategy) {
+        DriverCallStats.Snapshot snapshot = DriverCallMetrics.snapshot(command, strategy);
+        return snapshot == null ? 0 : snapshot.getFailures();
+    }
+
+    /**
+     * Finds are split by locator strategy, element calls are counted and failed calls are marked
+     */
+    @Test
+    public void testCallsAreCountedPerCommandAndStrategy() throws Exception {
+        server().element("accessibility id", "button");
+        server().element("-android uiautomator", "new UiSelector().className(\"android.view.View\").instance(0)");
+        DesiredCapabilities caps = new DesiredCapabilities();
+        caps.setCapability("platformName", "Android");
+        caps.setCapability("appium:automationName", "UiAutomator2");
+        caps.setCapability("appium:deviceName", "stub");
+        InstrumentedAndroidDriver driver = useDriver(
+                new InstrumentedAndroidDriver(HttpTransport.commandExecutor(server().getUrl()), caps));
+        long accessibilityFinds = calls("findElement", "accessibility id");
+        long uiAutomatorFinds = calls("findElement", "-android uiautomator");
+        long clicks = calls("clickElement", "");
+        long failedFinds = failures("findElement", "id");
+
+        driver.findElement(AppiumBy.accessibilityId("button")).click();
+        driver.findElement(AppiumBy.androidUIAutomator(
+                "new UiSelector().className(\"android.view.View\").instance(0)"));
+        Assert.assertThrows(NoSuchElementException.class, () -> driver.findElement(AppiumBy.id("missing")));
+
+        Assert.assertEquals(calls("findElement", "accessibility id") - accessibilityFinds, 1);
+        Assert.assertEquals(calls("findElement", "-android uiautomator") - uiAutomatorFinds, 1);
+        Assert.assertEquals(calls("clickElement", "") - clicks, 1);
+        Assert.assertEquals(failures("findElement", "id") - failedFinds, 1);
+        Assert.assertTrue(DriverCallMetrics.report().contains("-android uiautomator"));
+    }
+}
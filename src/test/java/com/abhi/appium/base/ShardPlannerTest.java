@@ -0,0 +1,81 @@
+package com.abhi.appium.base;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ShardPlannerTest class checks longest-first ordering, speed-aware plans and the duration history
+ */
+public class ShardPlannerTest {
+
+    private static TestDurationHistory historyOf(long... millis) throws Exception {
+        TestDurationHistory history = new TestDurationHistory(
+                new File(Files.createTempDirectory("durations").toFile(), "test-durations.properties"));
+        for (int i = 0; i < millis.length; i++) {
+            history.record("T.t" + i, "reference", millis[i]);
+        }
+        return history;
+    }
+
+    /**
+     * Known tests run longest first, and a test without history counts as the longest
+     */
+    @Test
+    public void testLongestFirstWithUnknownTestsFirst() throws Exception {
+        ShardPlanner planner = new ShardPlanner(historyOf(100, 500, 300));
+        Assert.assertEquals(planner.order(Arrays.asList("T.t0", "T.t1", "T.t2", "T.new")),
+                Arrays.asList("T.t1", "T.new", "T.t2", "T.t0"));
+    }
+
+    /**
+     * Longest-first on equal devices reaches the ideal makespan where naive order would not
+     */
+    @Test
+    public void testPlanReachesIdealOnEqualDevices() throws Exception {
+        ShardPlanner planner = new ShardPlanner(historyOf(2, 3, 3, 4, 5, 7));
+        List<String> tests = Arrays.asList("T.t0", "T.t1", "T.t2", "T.t3", "T.t4", "T.t5");
+        ShardPlanner.Plan plan = planner.plan(tests, Arrays.asList("a", "b"));
+        Assert.assertEquals(plan.getIdealMillis(), 12);
+        Assert.assertEquals(plan.getMakespanMillis(), 12);
+    }
+
+    /**
+     * A device that runs tests twice as slowly gets about a third of the work
+     */
+    @Test
+    public void testSlowDeviceGetsLessWork() throws Exception {
+        TestDurationHistory history = historyOf(100, 100, 100, 100, 100, 100);
+        for (int i = 0; i < 20; i++) {
+            history.record("T.t0", "slow", 200);
+            history.record("T.t0", "reference", 100);
+        }
+        // Speeds are relative to each other, not to a fixed device
+        Assert.assertEquals(history.getSpeedFactor("slow") / history.getSpeedFactor("reference"), 2.0, 0.1);
+
+        List<String> tests = Arrays.asList("T.t0", "T.t1", "T.t2", "T.t3", "T.t4", "T.t5");
+        ShardPlanner.Plan plan = new ShardPlanner(history).plan(tests, Arrays.asList("reference", "slow"));
+        Assert.assertEquals(plan.getAssignments().get("slow").size(), 2);
+        Assert.assertEquals(plan.getAssignments().get("reference").size(), 4);
+        Assert.assertTrue(plan.getMakespanMillis() <= plan.getIdealMillis() * 1.2, plan.toString());
+    }
+
+    /**
+     * Saved durations and speeds are read back by the next run
+     */
+    @Test
+    public void testHistoryIsSaved() throws Exception {
+        File file = new File(Files.createTempDirectory("durations").toFile(), "test-durations.properties");
+        TestDurationHistory history = new TestDurationHistory(file);
+        history.record("T.login", "emulator-5554", 4200);
+        history.save();
+
+        TestDurationHistory reloaded = new TestDurationHistory(file);
+        Assert.assertEquals(reloaded.getExpectedMillis("T.login"), 4200);
+        Assert.assertEquals(reloaded.getExpectedMillis("T.unknown"), -1);
+    }
+}
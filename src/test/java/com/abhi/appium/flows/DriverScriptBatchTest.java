@@ -0,0 +1,168 @@
+package com.abhi.appium.flows;
+
+import com.abhi.appium.stub.StubSessionTest;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.json.Json;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DriverScriptBatchTest class checks server-side batches and their step-by-step fallback
+ */
+public class DriverScriptBatchTest extends StubSessionTest {
+
+    private static BatchStep click(String name, String accessibilityId, long timeoutMillis, List<String> fallbacks) {
+        return BatchStep.click(name, "Test.click", AppiumBy.accessibilityId(accessibilityId), timeoutMillis,
+                () -> fallbacks.add(name));
+    }
+
+    /**
+     * All steps run on the server in one round trip when the server supports driver scripts
+     */
+    @Test
+    public void testStepsRunServerSide() throws Exception {
+        server().element("accessibility id", "first");
+        server().element("accessibility id", "second").after("accessibility id", "first").appearsAfter(150);
+        server().element("id", "input").after("accessibility id", "second");
+        AndroidDriver driver = driver();
+        List<String> fallbacks = new ArrayList<>();
+        long commandsBefore = server().getCommandCount();
+        DriverScriptBatch batch = new DriverScriptBatch(driver, "batch-test", "stub")
+                .add(click("01-first", "first", 1000, fallbacks))
+                .add(click("02-second", "second", 1000, fallbacks))
+                .add(BatchStep.sendKeys("03-type", "Test.type", AppiumBy.id("input"), "42", false, 1000,
+                        () -> fallbacks.add("03-type")));
+        batch.run();
+
+        Assert.assertEquals(batch.getBatchedSteps(), 3);
+        Assert.assertTrue(fallbacks.isEmpty(), "No step should fall back: " + fallbacks);
+        Assert.assertEquals(server().getCommandCount() - commandsBefore, 1, "The batch is a single call");
+        Assert.assertTrue(batch.getSavedRoundTrips() >= 3, "Polls and actions should count as saved round trips");
+    }
+
+    /**
+     * A step that fails on the server continues client-side from that step
+     */
+    @Test
+    public void testFallbackFromFirstFailedStep() throws Exception {
+        server().element("accessibility id", "first");
+        AndroidDriver driver = driver();
+        List<String> fallbacks = new ArrayList<>();
+        DriverScriptBatch batch = new DriverScriptBatch(driver, "batch-test", "stub")
+                .add(click("01-first", "first", 1000, fallbacks))
+                .add(click("02-missing", "missing", 200, fallbacks))
+                .add(click("03-after", "first", 1000, fallbacks));
+        batch.run();
+
+        Assert.assertEquals(batch.getBatchedSteps(), 1);
+        Assert.assertEquals(fallbacks, List.of("02-missing", "03-after"));
+    }
+
+    /**
+     * Without driver script support every step runs client-side
+     */
+    @Test
+    public void testFallbackWhenServerCantRunScripts() throws Exception {
+        server().driverScripts(false);
+        server().element("accessibility id", "first");
+        AndroidDriver driver = driver();
+        List<String> fallbacks = new ArrayList<>();
+        new DriverScriptBatch(driver, "batch-test", "stub")
+                .add(click("01-first", "first", 1000, fallbacks))
+                .add(click("02-second", "first", 1000, fallbacks))
+                .run();
+
+        Assert.assertEquals(fallbacks, List.of("01-first", "02-second"));
+    }
+
+    /**
+     * A batch call that fails after acting continues from the step the screen shows, and the session keeps batching
+     */
+    @Test
+    public void testLostBatchResumesFromProbedStep() {
+        server().driverScriptsLoseResults(true);
+        server().element("accessibility id", "first");
+        server().element("accessibility id", "second");
+        AndroidDriver driver = driver();
+        List<String> fallbacks = new ArrayList<>();
+        DriverScriptBatch batch = new DriverScriptBatch(driver, "batch-test", "stub")
+                .add(click("01-first", "first", 1000, fallbacks))
+                .add(click("02-second", "second", 1000, fallbacks))
+                .add(click("03-third", "first", 1000, fallbacks))
+                .resumeProbe(() -> 2);
+        batch.run();
+
+        Assert.assertEquals(fallbacks, List.of("03-third"), "Steps the screen shows as done aren't repeated");
+        Assert.assertEquals(batch.getBatchedSteps(), 2);
+
+        long before = server().getCommandCounts().getOrDefault("appium/execute_driver", 0L);
+        new DriverScriptBatch(driver, "batch-test", "stub").add(click("01-again", "first", 1000, fallbacks)).run();
+        Assert.assertEquals(server().getCommandCounts().get("appium/execute_driver") - before, 1L,
+                "Only an unknown command stops a session from batching");
+    }
+
+    /**
+     * Script results of the wrong shape are rejected instead of cast
+     */
+    @Test
+    public void testMalformedResultIsRejected() {
+        Assert.assertThrows(IllegalStateException.class, () -> DriverScriptBatch.ServerResult.parse(List.of()));
+        Assert.assertThrows(IllegalStateException.class,
+                () -> DriverScriptBatch.ServerResult.parse(Map.of("results", "none", "commands", 1)));
+    }
+
+    /**
+     * The real batch.js runs the plan against the stub, with a small W3C client standing in for webdriverio
+     */
+    @Test
+    public void testBatchScriptRunsUnderNode() throws Exception {
+        server().element("accessibility id", "first");
+        server().element("accessibility id", "second").after("accessibility id", "first").appearsAfter(150);
+        server().element("id", "input").after("accessibility id", "second");
+        AndroidDriver driver = driver();
+        DriverScriptBatch batch = new DriverScriptBatch(driver, "batch-test", "stub")
+                .add(click("01-first", "first", 1000, new ArrayList<>()))
+                .add(click("02-second", "second", 1000, new ArrayList<>()))
+                .add(BatchStep.sendKeys("03-type", "Test.type", AppiumBy.id("input"), "42", false, 1000, () -> { }));
+
+        String output = runNode(batch.toScript(), driver);
+        DriverScriptBatch.ServerResult result = DriverScriptBatch.ServerResult.parse(new Json().toType(output, Object.class));
+
+        Assert.assertEquals(result.getCompletedSteps(), 3, output);
+        Assert.assertTrue(result.getCommands() >= 4, "Polls and actions are counted: " + output);
+        Assert.assertEquals(driver.findElement(AppiumBy.id("input")).getText(), "42");
+    }
+
+    private String runNode(String script, AndroidDriver driver) throws IOException, InterruptedException {
+        String harness;
+        try (InputStream input = getClass().getResourceAsStream("/scripts/node-driver.js")) {
+            harness = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        File file = Files.createTempFile("batch", ".js").toFile();
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), harness.replace("\nSCRIPT\n", "\n" + script + "\n"));
+        Process node;
+        try {
+            node = new ProcessBuilder("node", file.getPath(), server().getUrl().toString(),
+                    driver.getSessionId().toString()).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        } catch (IOException e) {
+            throw new SkipException("node is not installed: " + e.getMessage());
+        }
+        String output = new String(node.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertTrue(node.waitFor(30, TimeUnit.SECONDS), "node did not finish");
+        Assert.assertEquals(node.exitValue(), 0, "batch.js failed: " + output);
+        return output.trim();
+    }
+}
@@ -0,0 +1,227 @@
+package com.abhi.appium.flows;
+
+import com.abhi.appium.stub.StubSessionTest;
+import io.appium.java_client.android.AndroidDriver;
+import com.abhi.appium.transport.CommandTimeoutException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FlowEngineTest class checks step retries, checkpoints and resume against the stub server
+ */
+public class FlowEngineTest extends StubSessionTest {
+
+    private static FlowStep counting(String name, AtomicInteger runs) {
+        return FlowStep.named(name).calls("Test." + name).retries(0).action(runs::incrementAndGet);
+    }
+
+    private static List<FlowStepResult.Outcome> outcomes(FlowEngine engine) {
+        List<FlowStepResult.Outcome> outcomes = new ArrayList<>();
+        for (FlowStepResult result : engine.getResults()) {
+            outcomes.add(result.getOutcome());
+        }
+        return outcomes;
+    }
+
+    /**
+     * A transient failure retries only the failing step, after its retry hook
+     */
+    @Test
+    public void testTransientFailureRetriesOnlyThatStep() throws Exception {
+        AndroidDriver driver = driver();
+        AtomicInteger firstRuns = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger retryHooks = new AtomicInteger();
+        FlowEngine engine = new FlowEngine(driver, "engine-test", "stub")
+                .step(counting("01-first", firstRuns))
+                .step(FlowStep.named("02-flaky").calls("Test.flaky").retries(1)
+                        .onRetry(retryHooks::incrementAndGet)
+                        .action(() -> {
+                            if (attempts.incrementAndGet() == 1) {
+                                throw new StaleElementReferenceException("stale");
+                            }
+                        }));
+
+        Assert.assertTrue(engine.run());
+        Assert.assertEquals(firstRuns.get(), 1);
+        Assert.assertEquals(attempts.get(), 2);
+        Assert.assertEquals(retryHooks.get(), 1);
+        Assert.assertEquals(outcomes(engine), List.of(FlowStepResult.Outcome.PASSED,
+                FlowStepResult.Outcome.PASSED_AFTER_RETRY));
+    }
+
+    /**
+     * Non-WebDriver errors fail the step straight away
+     */
+    @Test
+    public void testNonTransientFailureIsNotRetried() throws Exception {
+        AndroidDriver driver = driver();
+        AtomicInteger attempts = new AtomicInteger();
+        FlowEngine engine = new FlowEngine(driver, "engine-test", "stub")
+                .step(FlowStep.named("01-broken").calls("Test.broken").retries(3)
+                        .action(() -> {
+                            attempts.incrementAndGet();
+                            throw new IllegalArgumentException("bad input");
+                        }));
+
+        Assert.assertFalse(engine.run());
+        Assert.assertEquals(attempts.get(), 1);
+        Assert.assertEquals(engine.getFailedStep(), "01-broken");
+    }
+
+    /**
+     * Resume continues after the last passed checkpoint without rerunning earlier steps
+     */
+    @Test
+    public void testResumeFromCheckpoint() throws Exception {
+        AndroidDriver driver = driver();
+        AtomicInteger firstRuns = new AtomicInteger();
+        AtomicInteger secondRuns = new AtomicInteger();
+        AtomicInteger thirdRuns = new AtomicInteger();
+        AtomicInteger skippedRuns = new AtomicInteger();
+        FlowEngine engine = new FlowEngine(driver, "engine-test", "stub")
+                .step(counting("01-first", firstRuns))
+                .step(counting("02-checkpoint", secondRuns).checkpoint())
+                .step(FlowStep.named("03-fails-once").calls("Test.failsOnce").retries(0)
+                        .action(() -> {
+                            if (thirdRuns.incrementAndGet() == 1) {
+                                throw new IllegalStateException("screen not ready");
+                            }
+                        }))
+                .step(counting("04-skipped", skippedRuns).when(() -> false));
+
+        Assert.assertFalse(engine.run());
+        Assert.assertEquals(engine.getFailedStep(), "03-fails-once");
+
+        Assert.assertTrue(engine.resume());
+        Assert.assertNull(engine.getFailedStep());
+        Assert.assertEquals(firstRuns.get(), 1);
+        Assert.assertEquals(secondRuns.get(), 1);
+        Assert.assertEquals(thirdRuns.get(), 2);
+        Assert.assertEquals(skippedRuns.get(), 0);
+        Assert.assertEquals(outcomes(engine), List.of(FlowStepResult.Outcome.PASSED,
+                FlowStepResult.Outcome.PASSED, FlowStepResult.Outcome.FAILED,
+                FlowStepResult.Outcome.PASSED, FlowStepResult.Outcome.SKIPPED));
+    }
+
+    /**
+     * A missing element or an expired wait fails at once, while stale elements and lost commands are retried
+     */
+    @Test
+    public void testOnlyStaleOrTransportErrorsAreRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        FlowEngine engine = new FlowEngine(driver(), "engine-test", "stub")
+                .step(FlowStep.named("01-missing").calls("Test.missing").retries(2)
+                        .action(() -> {
+                            attempts.incrementAndGet();
+                            throw new TimeoutException("Expected condition failed");
+                        }));
+
+        Assert.assertFalse(engine.run());
+        Assert.assertEquals(attempts.get(), 1);
+
+        Assert.assertFalse(FlowEngine.isTransient(new NoSuchElementException("missing")));
+        Assert.assertTrue(FlowEngine.isTransient(new StaleElementReferenceException("stale")));
+        Assert.assertTrue(FlowEngine.isTransient(new CommandTimeoutException("no response")));
+        Assert.assertTrue(FlowEngine.isTransient(new WebDriverException(new ConnectException("refused"))));
+    }
+
+    /**
+     * A click whose command was lost may have landed, so a step that can't tell isn't sent again
+     */
+    @Test
+    public void testLostCommandIsNotResentOnABareStep() {
+        AtomicInteger clicks = new AtomicInteger();
+        FlowEngine engine = new FlowEngine(driver(), "engine-test", "stub")
+                .step(FlowStep.named("01-click").calls("Test.click").retries(2)
+                        .action(() -> {
+                            clicks.incrementAndGet();
+                            throw new CommandTimeoutException("no response");
+                        }));
+
+        Assert.assertFalse(engine.run());
+        Assert.assertEquals(clicks.get(), 1);
+    }
+
+    /**
+     * A lost command that went through is taken as done, by the step's postcondition or the resume probe
+     */
+    @Test
+    public void testLostCommandThatWentThroughIsNotResent() {
+        AtomicInteger clicks = new AtomicInteger();
+        AtomicInteger probedClicks = new AtomicInteger();
+        FlowEngine engine = new FlowEngine(driver(), "engine-test", "stub")
+                .step(FlowStep.named("01-verified").calls("Test.verified").retries(1)
+                        .verify(() -> clicks.get() > 0)
+                        .action(() -> {
+                            clicks.incrementAndGet();
+                            throw new CommandTimeoutException("no response");
+                        }));
+        Assert.assertTrue(engine.run());
+        Assert.assertEquals(clicks.get(), 1);
+
+        engine = new FlowEngine(driver(), "engine-test", "stub")
+                .resumeProbe(() -> probedClicks.get() > 0 ? 1 : 0)
+                .step(FlowStep.named("01-probed").calls("Test.probed").retries(1)
+                        .action(() -> {
+                            probedClicks.incrementAndGet();
+                            throw new WebDriverException(new ConnectException("reset"));
+                        }));
+        Assert.assertTrue(engine.run());
+        Assert.assertEquals(probedClicks.get(), 1);
+        Assert.assertEquals(outcomes(engine), List.of(FlowStepResult.Outcome.PASSED));
+    }
+
+    /**
+     * A lost command the resume probe shows didn't go through is sent again
+     */
+    @Test
+    public void testLostCommandThatDidNotLandIsResent() {
+        AtomicInteger attempts = new AtomicInteger();
+        FlowEngine engine = new FlowEngine(driver(), "engine-test", "stub")
+                .resumeProbe(() -> 0)
+                .step(FlowStep.named("01-click").calls("Test.click").retries(1)
+                        .action(() -> {
+                            if (attempts.incrementAndGet() == 1) {
+                                throw new CommandTimeoutException("no response");
+                            }
+                        }));
+
+        Assert.assertTrue(engine.run());
+        Assert.assertEquals(attempts.get(), 2);
+        Assert.assertEquals(outcomes(engine), List.of(FlowStepResult.Outcome.PASSED_AFTER_RETRY));
+    }
+
+    /**
+     * A step run again on resume undoes its earlier attempt first, so input isn't typed twice
+     */
+    @Test
+    public void testResumedStepRunsItsRetryHook() {
+        StringBuilder field = new StringBuilder();
+        AtomicInteger verifyRuns = new AtomicInteger();
+        FlowEngine engine = new FlowEngine(driver(), "engine-test", "stub")
+                .step(counting("01-checkpoint", new AtomicInteger()).checkpoint())
+                .step(FlowStep.named("02-type").calls("Test.type").retries(0)
+                        .onRetry(() -> field.setLength(0))
+                        .action(() -> field.append("9999999999")))
+                .step(FlowStep.named("03-next-screen").calls("Test.next").retries(0)
+                        .action(() -> {
+                            if (verifyRuns.incrementAndGet() == 1) {
+                                throw new IllegalStateException("screen not ready");
+                            }
+                        }));
+
+        Assert.assertFalse(engine.run());
+        Assert.assertTrue(engine.resume());
+        Assert.assertEquals(field.toString(), "9999999999");
+    }
+}
@@ -0,0 +1,112 @@
+package com.abhi.appium.listeners;
+
+import com.abhi.appium.base.BaseTest;
+import com.abhi.appium.base.Device;
+import com.abhi.appium.base.DeviceRegistry;
+import com.abhi.appium.base.DriverManager;
+import com.abhi.appium.base.ShardPlanner;
+import com.abhi.appium.base.TestDurationHistory;
+import com.abhi.appium.config.ConfigManager;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DurationAwareScheduler class hands TestNG the test methods longest-first and learns their durations
+ * Worker threads lease whichever device frees up next, so with the longest tests started first
+ * the short ones fill in the gaps at the end instead of a long one running alone as the tail
+ * At suite end the actual makespan is reported against the plan and the ideal
+ */
+public class DurationAwareScheduler implements IMethodInterceptor, IInvokedMethodListener, ISuiteListener {
+
+    private static final String LOCAL = "local";
+
+    private final Map<String, AtomicLong> busyMillis = new ConcurrentHashMap<>();
+    private final List<ShardPlanner.Plan> plans = new ArrayList<>();
+    private long suiteStart;
+
+    @Override
+    public void onStart(ISuite suite) {
+        suiteStart = System.currentTimeMillis();
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!ConfigManager.getDurationAwareScheduling()) {
+            return methods;
+        }
+        Map<String, List<IMethodInstance>> byTest = new LinkedHashMap<>();
+        for (IMethodInstance method : methods) {
+            byTest.computeIfAbsent(testId(method.getMethod().getRealClass(), method.getMethod().getMethodName()),
+                    id -> new ArrayList<>()).add(method);
+        }
+        ShardPlanner planner = new ShardPlanner(BaseTest.getDurationHistory());
+        List<String> testIds = new ArrayList<>(byTest.keySet());
+        List<IMethodInstance> ordered = new ArrayList<>();
+        for (String testId : planner.order(testIds)) {
+            ordered.addAll(byTest.get(testId));
+        }
+        List<String> devices = new ArrayList<>();
+        for (Device device : DeviceRegistry.fromConfig().getDevices()) {
+            devices.add(device.getName());
+        }
+        ShardPlanner.Plan plan = planner.plan(testIds, devices);
+        synchronized (plans) {
+            plans.add(plan);
+        }
+        System.out.println("🗓️ " + context.getName() + ": " + plan);
+        return ordered;
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        // Runs before @AfterMethod, so the test's device is still bound to this thread
+        Device device = DriverManager.getDevice();
+        String deviceName = device != null ? device.getName() : LOCAL;
+        long millis = result.getEndMillis() - result.getStartMillis();
+        busyMillis.computeIfAbsent(deviceName, d -> new AtomicLong()).addAndGet(millis);
+        if (result.getStatus() == ITestResult.SUCCESS) {
+            BaseTest.getDurationHistory().record(testId(result.getTestClass().getRealClass(),
+                    result.getMethod().getMethodName()), deviceName, millis);
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        TestDurationHistory history = BaseTest.getDurationHistory();
+        history.save();
+        long makespan = System.currentTimeMillis() - suiteStart;
+        StringBuilder report = new StringBuilder("🗓️ Schedule: actual makespan " + makespan + " ms");
+        synchronized (plans) {
+            for (ShardPlanner.Plan plan : plans) {
+                report.append(", planned ").append(plan.getMakespanMillis()).append(" ms (ideal ")
+                        .append(plan.getIdealMillis()).append(" ms)");
+            }
+        }
+        for (Map.Entry<String, AtomicLong> device : busyMillis.entrySet()) {
+            report.append(System.lineSeparator()).append("   ").append(device.getKey()).append(": busy ")
+                    .append(device.getValue().get()).append(" ms, speed factor ")
+                    .append(String.format("%.2f", history.getSpeedFactor(device.getKey())));
+        }
+        System.out.println(report);
+    }
+
+    private static String testId(Class<?> testClass, String methodName) {
+        return testClass.getSimpleName() + "." + methodName;
+    }
+}
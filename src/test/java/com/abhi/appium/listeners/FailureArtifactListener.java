@@ -0,0 +1,33 @@
+package com.abhi.appium.listeners;
+
+import com.abhi.appium.artifacts.ArtifactPipeline;
+import com.abhi.appium.base.DriverManager;
+import com.abhi.appium.config.ConfigManager;
+import io.appium.java_client.android.AndroidDriver;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+
+import java.io.File;
+
+/**
+ * FailureArtifactListener class captures artifacts of a failed test before its session is torn down
+ * It runs right after the test method, ahead of @AfterMethod, on the test's own thread,
+ * so DriverManager still holds the failed test's driver
+ */
+public class FailureArtifactListener implements IInvokedMethodListener {
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        if (!method.isTestMethod() || result.getStatus() != ITestResult.FAILURE || !ConfigManager.getArtifactsEnabled()) {
+            return;
+        }
+        AndroidDriver driver = DriverManager.getDriver();
+        if (driver == null) {
+            return;
+        }
+        String name = result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName();
+        File folder = ArtifactPipeline.getInstance().captureFailure(driver, name);
+        System.out.println("🗂️ Failure artifacts for " + name + " are being written to " + folder);
+    }
+}
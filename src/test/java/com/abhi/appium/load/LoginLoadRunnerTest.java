@@ -0,0 +1,112 @@
+package com.abhi.appium.load;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LoginLoadRunnerTest class checks account streaming, fan-out over workers, pacing and the error breakdown
+ */
+public class LoginLoadRunnerTest {
+
+    private static String accounts(int count) {
+        StringBuilder csv = new StringBuilder("phone,otp,mpin\n# test accounts\n\n");
+        for (int i = 0; i < count; i++) {
+            csv.append(9000000000L + i).append(i % 2 == 0 ? ",1111,\n" : ",,\n");
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Header, comments and blank lines are skipped and missing columns fall back to the defaults
+     */
+    @Test
+    public void testFeedSkipsNonAccountLinesAndFillsDefaults() {
+        AccountFeed feed = new AccountFeed(new StringReader(accounts(2) + ",0000,2580\n"), "0000", "2580", 0);
+        AccountRecord first = feed.next();
+        Assert.assertEquals(first.getPhoneNumber(), "9000000000");
+        Assert.assertEquals(first.getOtp(), "1111");
+        Assert.assertEquals(first.getMpin(), "2580");
+        Assert.assertEquals(first.getLine(), 4);
+        AccountRecord second = feed.next();
+        Assert.assertEquals(second.getOtp(), "0000");
+        Assert.assertNull(feed.next());
+        Assert.assertEquals(feed.getSkippedCount(), 1);
+
+        AccountFeed limited = new AccountFeed(new StringReader(accounts(5)), "0000", "2580", 3);
+        int served = 0;
+        while (limited.next() != null) {
+            served++;
+        }
+        Assert.assertEquals(served, 3);
+    }
+
+    /**
+     * Every account is logged in with exactly once across the workers, and failures are broken down
+     */
+    @Test
+    public void testAccountsAreSpreadOverWorkers() throws Exception {
+        AccountFeed feed = new AccountFeed(new StringReader(accounts(40)), "0000", "2580", 0);
+        Set<String> phones = ConcurrentHashMap.newKeySet();
+        Map<String, AtomicInteger> perWorker = new ConcurrentHashMap<>();
+        AtomicInteger closed = new AtomicInteger();
+
+        LoadStats stats = new LoginLoadRunner(feed, new LoadRamp(0, 0), 4, 0).run(() -> new LoginWorker() {
+            @Override
+            public String login(AccountRecord account) throws Exception {
+                Assert.assertTrue(phones.add(account.getPhoneNumber()), "Account used twice: " + account);
+                perWorker.computeIfAbsent(Thread.currentThread().getName(), t -> new AtomicInteger()).incrementAndGet();
+                Thread.sleep(2);
+                long n = Long.parseLong(account.getPhoneNumber()) % 10;
+                if (n == 3) {
+                    return "07-enter-phone TimeoutException";
+                }
+                if (n == 7) {
+                    throw new IllegalStateException("session lost");
+                }
+                return null;
+            }
+
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        });
+
+        Assert.assertEquals(phones.size(), 40);
+        Assert.assertEquals(perWorker.size(), 4, "Every worker should have taken accounts: " + perWorker);
+        Assert.assertEquals(closed.get(), 4);
+        Assert.assertEquals(stats.getSuccessCount(), 32);
+        Assert.assertEquals(stats.getFailureCount(), 8);
+        Assert.assertEquals(stats.getErrorBreakdown(),
+                Map.of("07-enter-phone TimeoutException", 4L, "IllegalStateException", 4L));
+        Assert.assertTrue(stats.getPercentileMillis(50) >= 2, stats.progressLine());
+        Assert.assertTrue(stats.getCurrentPerMinute() > 0);
+    }
+
+    /**
+     * Starts follow the target rate after the ramp-up, and the ramp starts slower
+     */
+    @Test
+    public void testRampPacesStarts() throws Exception {
+        LoadRamp ramp = new LoadRamp(600, 2);
+        Assert.assertEquals(ramp.dueNanos(0), 0);
+        // 10 per second reached after 2 s, so the ramp holds 10 starts
+        Assert.assertEquals(ramp.dueNanos(10), TimeUnit.SECONDS.toNanos(2));
+        Assert.assertEquals(ramp.dueNanos(20), TimeUnit.SECONDS.toNanos(3));
+        Assert.assertTrue(ramp.dueNanos(1) > TimeUnit.MILLISECONDS.toNanos(100), "The first starts are spaced wider");
+
+        AccountFeed feed = new AccountFeed(new StringReader(accounts(10)), "0000", "2580", 0);
+        long start = System.nanoTime();
+        new LoginLoadRunner(feed, new LoadRamp(1200, 0), 3, 0).run(() -> account -> null);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // 20 per second: the 10th start is due 450 ms in
+        Assert.assertTrue(elapsedMillis >= 440, "Finished too early: " + elapsedMillis + " ms");
+    }
+}
@@ -0,0 +1,38 @@
+package com.abhi.appium.metrics;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * LatencyHistogramTest class checks percentile accuracy of the bucketed histogram
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Percentiles land within the bucket precision of the exact values
+     */
+    @Test
+    public void testPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+
+        Assert.assertEquals(histogram.getCount(), 1000);
+        Assert.assertEquals(histogram.getPercentileMillis(50), 500, 500 * 0.13);
+        Assert.assertEquals(histogram.getPercentileMillis(90), 900, 900 * 0.13);
+        Assert.assertEquals(histogram.getPercentileMillis(99), 990, 990 * 0.13);
+        Assert.assertEquals(histogram.getMaxMillis(), 1000.0, 0.001);
+        Assert.assertEquals(histogram.getMeanMillis(), 500.5, 0.001);
+    }
+
+    /**
+     * An empty histogram reports zeros instead of failing
+     */
+    @Test
+    public void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(histogram.getPercentileMillis(99), 0.0);
+        Assert.assertEquals(histogram.getMeanMillis(), 0.0);
+    }
+}
@@ -0,0 +1,65 @@
+package com.abhi.appium.metrics;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * LaunchRegressionGateTest class checks the launch history baseline and the regression verdicts
+ */
+public class LaunchRegressionGateTest {
+
+    private static final LaunchRegressionGate GATE = new LaunchRegressionGate(10, 0.05);
+
+    /**
+     * A clearly slower run regresses
+     */
+    @Test
+    public void testSlowerRunRegresses() {
+        List<Long> baseline = Arrays.asList(1000L, 1020L, 990L, 1010L, 1005L, 995L, 1015L, 1000L);
+        List<Long> current = Arrays.asList(1300L, 1280L, 1320L, 1290L, 1310L);
+        Assert.assertTrue(GATE.compare(baseline, current).isRegression());
+    }
+
+    /**
+     * One slow launch among normal ones moves p90 but is not significant
+     */
+    @Test
+    public void testSingleOutlierIsNotARegression() {
+        List<Long> baseline = Arrays.asList(1000L, 1020L, 990L, 1010L, 1005L, 995L, 1015L, 1000L);
+        List<Long> current = Arrays.asList(1000L, 1010L, 995L, 1900L, 1005L);
+        LaunchRegressionGate.Verdict verdict = GATE.compare(baseline, current);
+        Assert.assertFalse(verdict.isRegression(), verdict.toString());
+    }
+
+    /**
+     * Without a baseline the run is stored but never fails
+     */
+    @Test
+    public void testNoBaselineNeverFails() {
+        Assert.assertFalse(GATE.compare(Arrays.asList(), Arrays.asList(5000L)).isRegression());
+    }
+
+    /**
+     * The baseline uses the latest earlier runs of the same device and variant only
+     */
+    @Test
+    public void testBaselineFromLatestRuns() throws Exception {
+        LaunchHistory history = new LaunchHistory(new File(Files.createTempDirectory("launch").toFile(), "h.csv"));
+        history.append(Arrays.asList(
+                new LaunchSample("1", 1, "v1", "pixel", "cold", 1, 900),
+                new LaunchSample("2", 2, "v1", "pixel", "cold", 1, 1000),
+                new LaunchSample("2", 2, "v1", "pixel", "warm", 1, 400),
+                new LaunchSample("3", 3, "v2", "pixel", "cold", 1, 1100),
+                new LaunchSample("3", 3, "v2", "other", "cold", 1, 2000),
+                new LaunchSample("4", 4, "v2", "pixel", "cold", 1, 1200)));
+
+        Assert.assertEquals(history.baseline("pixel", "cold", "4", null, 2), Arrays.asList(1000L, 1100L));
+        Assert.assertEquals(history.baseline("pixel", "cold", "4", "v1", 5), Arrays.asList(900L, 1000L));
+        Assert.assertEquals(history.load().size(), 6);
+    }
+}
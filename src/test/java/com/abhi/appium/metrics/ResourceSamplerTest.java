@@ -0,0 +1,118 @@
+package com.abhi.appium.metrics;
+
+import com.abhi.appium.stub.StubSessionTest;
+import io.appium.java_client.android.AndroidDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * ResourceSamplerTest class checks that background samples are parsed, written and tagged with the running step
+ */
+public class ResourceSamplerTest extends StubSessionTest {
+
+    /**
+     * Samples taken during a step carry its name and the stub's synthetic CPU, memory and frame values
+     */
+    @Test
+    public void testSamplesAreTaggedWithTheRunningStep() throws Exception {
+        File output = Files.createTempDirectory("resources").resolve("stub.csv").toFile();
+        AndroidDriver driver = driver();
+        ResourceSampler sampler = new ResourceSampler(driver, "com.example.app", 20, true, output).start();
+        sampler.mark("01-open", true);
+        waitForSamples(sampler, 3);
+        sampler.mark("01-open", false);
+        sampler.close();
+
+        List<String> lines = Files.readAllLines(output.toPath());
+        Assert.assertTrue(lines.get(0).startsWith("# package=com.example.app"));
+        Assert.assertTrue(lines.get(1).startsWith("t_ms,kind,step"));
+        List<String> stepSamples = lines.stream().filter(line -> line.contains(",sample,01-open,"))
+                .collect(Collectors.toList());
+        Assert.assertFalse(stepSamples.isEmpty(), "Samples during the step should name it: " + lines);
+        String[] columns = stepSamples.get(0).split(",", -1);
+        Assert.assertEquals(columns.length, 9);
+        for (int i = 3; i < columns.length; i++) {
+            Assert.assertFalse(columns[i].isEmpty(), "Column " + i + " should be sampled: " + stepSamples.get(0));
+        }
+        Assert.assertTrue(lines.stream().anyMatch(line -> line.contains(",start,01-open,")));
+        Assert.assertTrue(lines.stream().anyMatch(line -> line.contains(",end,01-open,")));
+
+        ResourceSampler.StepPeak peak = sampler.getStepPeaks().get("01-open");
+        Assert.assertNotNull(peak);
+        Assert.assertTrue(peak.getMaxCpuPercent() >= 12, "User plus kernel CPU: " + peak);
+        Assert.assertTrue(peak.getMaxPssKb() >= 150_000, "Total PSS: " + peak);
+    }
+
+    /**
+     * Frame columns stay empty when gfxinfo is off, and samples outside any step add no peaks
+     */
+    @Test
+    public void testFramesAreOnlyReadWhenEnabled() throws Exception {
+        File output = Files.createTempDirectory("resources").resolve("stub.csv").toFile();
+        AndroidDriver driver = driver();
+        ResourceSampler sampler = new ResourceSampler(driver, "com.example.app", 20, false, output).start();
+        waitForSamples(sampler, 2);
+        sampler.close();
+
+        List<String> samples = Files.readAllLines(output.toPath()).stream()
+                .filter(line -> line.contains(",sample,")).collect(Collectors.toList());
+        Assert.assertFalse(samples.isEmpty());
+        for (String sample : samples) {
+            Assert.assertTrue(sample.endsWith(",,"), "Frames were not requested: " + sample);
+        }
+        Assert.assertTrue(sampler.getStepPeaks().isEmpty(), "No step was running");
+    }
+
+    /**
+     * A few failed reads leave gaps but keep the metric, an unsupported answer drops it at once
+     */
+    @Test
+    public void testMetricsSurviveTransientFailures() throws Exception {
+        File output = Files.createTempDirectory("resources").resolve("stub.csv").toFile();
+        AndroidDriver driver = driver();
+        // Two failed cycles, cpu and memory each fail twice, one short of the limit
+        server().failPerformanceData(4);
+        server().latency(5);
+        ResourceSampler sampler = new ResourceSampler(driver, "com.example.app", 20, false, output).start();
+        waitForSamples(sampler, 2);
+        Assert.assertTrue(sampler.isSampling("cpuinfo"));
+        Assert.assertTrue(sampler.isSampling("memoryinfo"));
+        sampler.close();
+
+        List<String> samples = Files.readAllLines(output.toPath()).stream()
+                .filter(line -> line.contains(",sample,")).collect(Collectors.toList());
+        Assert.assertFalse(samples.get(samples.size() - 1).split(",", -1)[3].isEmpty(), "CPU is read again: " + samples);
+        Assert.assertTrue(sampler.getSessionSharePercent() > 0, sampler.getSummary());
+        Assert.assertTrue(sampler.getSummary().contains("session busy with samples"), sampler.getSummary());
+    }
+
+    /**
+     * Frames are dropped on the first refusal when the server does not allow adb shell
+     */
+    @Test
+    public void testUnsupportedMetricIsDroppedAtOnce() throws Exception {
+        File output = Files.createTempDirectory("resources").resolve("stub.csv").toFile();
+        server().adbShell(false);
+        // One sample only, the next is due long after the test
+        ResourceSampler sampler = new ResourceSampler(driver(), "com.example.app", 10_000, true, output).start();
+        waitForSamples(sampler, 1);
+        sampler.close();
+
+        Assert.assertEquals(sampler.getSampleCount(), 1);
+        Assert.assertFalse(sampler.isSampling("gfxinfo"), "adb shell is refused for good");
+        Assert.assertTrue(sampler.isSampling("cpuinfo"));
+    }
+
+    private static void waitForSamples(ResourceSampler sampler, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (sampler.getSampleCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(sampler.getSampleCount() >= count, "Only " + sampler.getSampleCount() + " samples");
+    }
+}
@@ -0,0 +1,96 @@
+package com.abhi.appium.recording;
+
+import com.abhi.appium.stub.StubSessionTest;
+import com.abhi.appium.transport.HttpTransport;
+import com.abhi.appium.utils.SessionScope;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumClientConfig;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CommandRecorderTest class checks that driver traffic is recorded, read back and replayed
+ */
+public class CommandRecorderTest extends StubSessionTest {
+
+    /**
+     * A recorded session reads back in order, with typed text masked and the session id normalized
+     */
+    @Test
+    public void testRecordAndReplay() throws Exception {
+        File log = Files.createTempFile("commands", ".cmdlog").toFile();
+        log.deleteOnExit();
+        server().element("id", "input");
+        server().latency(20);
+        CommandRecorder recorder = new CommandRecorder(log);
+        DesiredCapabilities caps = new DesiredCapabilities();
+        caps.setCapability("platformName", "Android");
+        caps.setCapability("appium:automationName", "UiAutomator2");
+        AndroidDriver driver = new AndroidDriver(
+                AppiumClientConfig.defaultConfig().baseUrl(server().getUrl()).withFilter(recorder), caps);
+        driver.findElement(AppiumBy.id("input")).sendKeys("2580");
+        SessionScope.quit(driver);
+        recorder.close();
+
+        List<CommandRecord> records = CommandLogReader.read(log).getRecords();
+        Assert.assertEquals(records.get(0).getPath(), "/session");
+        Assert.assertTrue(records.stream().anyMatch(r -> r.getCommand().equals("POST /session/:sessionId/element")));
+        Assert.assertTrue(records.stream().noneMatch(r -> r.getPayload().contains("2580")), "Typed text must be masked");
+        Assert.assertTrue(records.get(1).getLatencyMicros() >= 20_000, "Server latency should be recorded");
+
+        server().latency(0);
+        CommandReplayer.ReplayReport report = new CommandReplayer(server(), true).replay(records);
+        Assert.assertEquals(report.getCommandCount(), records.size());
+        Assert.assertTrue(report.getReplayMillis() >= records.get(records.size() - 1).getOffsetMicros() / 1000,
+                "Replay should keep the original timing");
+    }
+
+    /**
+     * A session's command log is closed when the session is quit, not left open until suite end
+     */
+    @Test
+    public void testRecordingIsClosedWithItsSession() throws Exception {
+        File log = Files.createTempFile("session", ".cmdlog").toFile();
+        log.deleteOnExit();
+        CommandRecorder recorder = new CommandRecorder(log);
+        AndroidDriver driver = useDriver(new AndroidDriver(
+                HttpTransport.commandExecutor(server().getUrl(), recorder), new DesiredCapabilities(Map.of(
+                        "platformName", "Android", "appium:automationName", "UiAutomator2"))));
+        SessionScope.put(driver, CommandRecorder.class, recorder);
+        Assert.assertTrue(recorder.isOpen());
+
+        SessionScope.quit(driver);
+        Assert.assertFalse(recorder.isOpen());
+        List<CommandRecord> records = CommandLogReader.read(log).getRecords();
+        Assert.assertEquals(records.get(records.size() - 1).getCommand(), "DELETE /session/:sessionId",
+                "The quit itself is recorded before the log is closed");
+    }
+
+    /**
+     * A log cut off mid-record still reads up to the last complete record
+     */
+    @Test
+    public void testTruncatedLogReadsCompleteRecords() throws Exception {
+        File log = Files.createTempFile("truncated", ".cmdlog").toFile();
+        log.deleteOnExit();
+        try (CommandLogWriter writer = new CommandLogWriter(log)) {
+            writer.write(new CommandRecord(0, "POST", "/session", "{}", 200, 2, 100, 1500));
+            writer.write(new CommandRecord(2000, "GET", "/session/:sessionId/source", "", 200, 0, 4096, 80_000));
+        }
+        try (FileOutputStream append = new FileOutputStream(log, true)) {
+            append.write(new byte[] {(byte) 0x90, 0x4E, 1});
+        }
+        List<CommandRecord> records = CommandLogReader.read(log).getRecords();
+        Assert.assertEquals(records.size(), 2);
+        Assert.assertEquals(records.get(1).getLatencyMicros(), 80_000);
+        Assert.assertEquals(records.get(1).getResponseBytes(), 4096);
+    }
+}
@@ -0,0 +1,117 @@
+package com.abhi.appium.server;
+
+import com.abhi.appium.base.Device;
+import com.abhi.appium.stub.StubAppiumServer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ServerPoolTest class checks per-device servers, restarts of only the unhealthy one and clean shutdown
+ * The launcher starts stub servers in place of Appium processes
+ */
+public class ServerPoolTest {
+
+    /**
+     * Launches a stub server per call and remembers the latest one for each device
+     */
+    private static final class StubLauncher implements ServerLauncher {
+
+        final Map<String, StubProcess> latest = new ConcurrentHashMap<>();
+        final List<String> launches = new ArrayList<>();
+
+        @Override
+        public synchronized ServerProcess launch(Device device, int port) throws IOException {
+            StubProcess process = new StubProcess(new StubAppiumServer(port).start());
+            latest.put(device.getName(), process);
+            launches.add(device.getName() + ":" + port);
+            return process;
+        }
+    }
+
+    private static final class StubProcess implements ServerProcess {
+
+        final StubAppiumServer server;
+        volatile boolean alive = true;
+
+        StubProcess(StubAppiumServer server) {
+            this.server = server;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive;
+        }
+
+        @Override
+        public void stop() {
+            alive = false;
+            server.close();
+        }
+    }
+
+    private static Device device(String name) {
+        return new Device(name, name, 8200, "http://127.0.0.1:4723");
+    }
+
+    /**
+     * Each device gets its own port, and a hung server is restarted on it while the other keeps running
+     */
+    @Test
+    public void testOnlyTheHungServerIsRestarted() {
+        StubLauncher launcher = new StubLauncher();
+        ServerPool pool = new ServerPool(launcher, new PortAllocator(47230), 5000, 300);
+        Device first = device("pool-a");
+        Device second = device("pool-b");
+        try {
+            String firstUrl = pool.ensureHealthy(first);
+            String secondUrl = pool.ensureHealthy(second);
+            Assert.assertNotEquals(firstUrl, secondUrl);
+            Assert.assertEquals(pool.ensureHealthy(first), firstUrl, "A healthy server is left alone");
+            Assert.assertEquals(launcher.launches.size(), 2);
+
+            StubProcess hung = launcher.latest.get("pool-a");
+            StubProcess untouched = launcher.latest.get("pool-b");
+            hung.server.latency(2000);
+            Assert.assertFalse(pool.isHealthy("pool-a"));
+
+            Assert.assertEquals(pool.ensureHealthy(first), firstUrl, "The restarted server keeps its port");
+            Assert.assertEquals(pool.getRestartCount("pool-a"), 1);
+            Assert.assertFalse(hung.alive);
+            Assert.assertNotSame(launcher.latest.get("pool-a"), hung);
+
+            Assert.assertEquals(pool.ensureHealthy(second), secondUrl);
+            Assert.assertEquals(pool.getRestartCount("pool-b"), 0);
+            Assert.assertSame(launcher.latest.get("pool-b"), untouched);
+            Assert.assertTrue(untouched.alive);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A server process that exited is started again, and shutdown stops every server
+     */
+    @Test
+    public void testExitedServerIsRestartedAndShutdownStopsAll() {
+        StubLauncher launcher = new StubLauncher();
+        ServerPool pool = new ServerPool(launcher, new PortAllocator(47330), 5000, 300);
+        Device device = device("pool-c");
+        pool.ensureHealthy(device);
+        StubProcess exited = launcher.latest.get("pool-c");
+        exited.stop();
+
+        pool.ensureHealthy(device);
+        Assert.assertEquals(pool.getRestartCount("pool-c"), 1);
+        Assert.assertTrue(pool.isHealthy("pool-c"));
+
+        pool.shutdown();
+        Assert.assertFalse(launcher.latest.get("pool-c").alive);
+        Assert.assertNull(pool.getUrl("pool-c"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.abhi.appium.stub;
+
+import com.abhi.appium.flows.LoginFlow;
+import com.abhi.appium.flows.LoginState;
+import com.abhi.appium.flows.LoginStateProbe;
+import com.abhi.appium.pages.LoginPage;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.NoSuchElementException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * StubAppiumServerTest class runs the framework against the in-process stub server
+ * These need no device or Appium install, so they check the whole stack on every build
+ */
+public class StubAppiumServerTest extends StubSessionTest {
+
+    /**
+     * Scripted elements appear only after their delay and vanish when clicked
+     */
+    @Test
+    public void testScriptedElementLifecycle() throws Exception {
+        server().element("accessibility id", "later").appearsAfter(300).removedWhenClicked();
+        AndroidDriver driver = driver();
+        Assert.assertTrue(driver.findElements(AppiumBy.accessibilityId("later")).isEmpty());
+        Thread.sleep(350);
+        driver.findElement(AppiumBy.accessibilityId("later")).click();
+        Assert.assertThrows(NoSuchElementException.class,
+                () -> driver.findElement(AppiumBy.accessibilityId("later")));
+    }
+
+    /**
+     * The full login flow runs end to end against the scripted login screens
+     */
+    @Test
+    public void testLoginFlowAgainstStub() {
+        LoginScreenScript.apply(server(), 100);
+        LoginFlow loginFlow = new LoginFlow(driver());
+        Assert.assertTrue(loginFlow.login("9999999999"), "Login should reach the home avatar");
+        Assert.assertEquals(loginFlow.getLastStartState(), LoginState.FRESH_INSTALL);
+        Assert.assertTrue(loginFlow.submittedCredentials());
+        Assert.assertTrue(server().getCommandCount() > 0);
+    }
+
+    /**
+     * A session already on the home screen reaches the avatar without typing any credentials
+     */
+    @Test
+    public void testFastPathLoginSubmitsNoCredentials() {
+        server().element("-android uiautomator", "new UiSelector().className(\"android.widget.ImageView\").instance(1)");
+        LoginFlow loginFlow = new LoginFlow(driver()).fastPath(true);
+        Assert.assertTrue(loginFlow.login("9999999999"), "The avatar is already shown");
+        Assert.assertEquals(loginFlow.getLastStartState(), LoginState.LOGGED_IN_HOME);
+        Assert.assertFalse(loginFlow.submittedCredentials(), "Phone and OTP steps were skipped");
+    }
+
+    /**
+     * The phone entry screen's focused, empty input is not taken for the OTP screen
+     */
+    @Test
+    public void testPhoneEntryIsNotProbedAsOtpScreen() {
+        server().element("class name", "android.widget.EditText").attribute("focused", "true").attribute("hint", "");
+        server().element("-android uiautomator", "new UiSelector().textStartsWith(\"Resend\")")
+                .after("accessibility id", "proceed").attribute("class", "android.widget.TextView").attribute("text", "Resend OTP in 30s");
+        server().element("accessibility id", "proceed");
+        LoginStateProbe probe = new LoginStateProbe(new LoginPage(driver()));
+        Assert.assertEquals(probe.probe(), LoginState.UNKNOWN, "The phone entry screen runs the full login");
+
+        driver().findElement(AppiumBy.accessibilityId("proceed")).click();
+        Assert.assertEquals(probe.probe(), LoginState.OTP_SCREEN);
+    }
+}
@@ -0,0 +1,77 @@
+package com.abhi.appium.stub;
+
+import com.abhi.appium.utils.SessionScope;
+import io.appium.java_client.android.AndroidDriver;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+
+import java.io.IOException;
+
+/**
+ * StubSessionTest class gives each test method its own stub server and, on first use, a session on it
+ * The suite runs methods in parallel on one instance per class, so both are kept per thread;
+ * TestNG runs a method's @BeforeMethod and @AfterMethod on the thread that runs the method
+ */
+public abstract class StubSessionTest {
+
+    private final ThreadLocal<StubAppiumServer> server = new ThreadLocal<>();
+    private final ThreadLocal<AndroidDriver> driver = new ThreadLocal<>();
+
+    @BeforeMethod(alwaysRun = true)
+    public void startStub() throws IOException {
+        server.set(new StubAppiumServer(0).start());
+    }
+
+    /**
+     * Quits the test's session and stops its stub
+     */
+    @AfterMethod(alwaysRun = true)
+    public void stopStub() {
+        StubAppiumServer stub = server.get();
+        AndroidDriver session = driver.get();
+        server.remove();
+        driver.remove();
+        if (stub == null) {
+            return;
+        }
+        // A test may leave latency on, the quit shouldn't wait for it
+        stub.latency(0);
+        if (session != null) {
+            try {
+                SessionScope.quit(session);
+            } catch (RuntimeException e) {
+                System.out.println("ℹ️ Stub session was already gone: " + e.getMessage());
+            }
+        }
+        stub.close();
+    }
+
+    /**
+     * Gets this test's stub server
+     * @return The running stub
+     */
+    protected StubAppiumServer server() {
+        return server.get();
+    }
+
+    /**
+     * Gets this test's session, creating it on first use
+     * @return The driver, quit after the test
+     */
+    protected AndroidDriver driver() {
+        if (driver.get() == null) {
+            driver.set(server().newDriver());
+        }
+        return driver.get();
+    }
+
+    /**
+     * Makes a session the test built itself (e.g. with its own client config) the one quit after the test
+     * @param session The driver
+     * @return The same driver, for assignment
+     */
+    protected <T extends AndroidDriver> T useDriver(T session) {
+        driver.set(session);
+        return session;
+    }
+}
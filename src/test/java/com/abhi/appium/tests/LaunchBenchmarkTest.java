@@ -0,0 +1,106 @@
+package com.abhi.appium.tests;
+
+import com.abhi.appium.base.ApkInstallManager;
+import com.abhi.appium.base.BaseTest;
+import com.abhi.appium.base.DriverManager;
+import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.flows.LoginFlow;
+import com.abhi.appium.metrics.LaunchHistory;
+import com.abhi.appium.metrics.LaunchRegressionGate;
+import com.abhi.appium.metrics.LaunchSample;
+import io.appium.java_client.android.AndroidDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LaunchBenchmarkTest class measures app launch to avatar display over repeated launches
+ * Each variant runs warm-up launches that are discarded, then measured ones that are stored in
+ * perf-history/launch-history.csv and compared with the baseline; a significant p50/p90
+ * regression fails the test. Run it with: mvn test -Plaunch-benchmark
+ */
+public class LaunchBenchmarkTest extends BaseTest {
+
+    private static final String RUN_ID = String.valueOf(System.currentTimeMillis());
+    private static final LaunchHistory HISTORY =
+            new LaunchHistory(new File(ConfigManager.getPerfHistoryDir(), "launch-history.csv"));
+
+    @BeforeMethod
+    public void setUpTest() {
+        setUp();
+    }
+
+    @AfterMethod
+    public void tearDownTest() {
+        tearDown();
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void tearDownSuite() {
+        shutdownSessions();
+    }
+
+    /**
+     * Cold start: the app process is killed before every launch
+     */
+    @Test
+    public void testColdStartLaunch() throws Exception {
+        benchmark("cold", driver -> driver.terminateApp(ConfigManager.getAppPackage()));
+    }
+
+    /**
+     * Warm start: the app is sent to the background and brought back
+     */
+    @Test
+    public void testWarmStartLaunch() throws Exception {
+        benchmark("warm", driver -> driver.runAppInBackground(Duration.ofSeconds(-1)));
+    }
+
+    private void benchmark(String variant, LaunchPreparation preparation) throws Exception {
+        AndroidDriver driver = getDriver();
+        String device = DriverManager.getDevice().getName();
+        int warmups = ConfigManager.getBenchmarkWarmupIterations();
+        int iterations = ConfigManager.getBenchmarkIterations();
+
+        List<LaunchSample> samples = new ArrayList<>();
+        List<Long> current = new ArrayList<>();
+        for (int i = 0; i < warmups + iterations; i++) {
+            preparation.prepare(driver);
+            long start = System.nanoTime();
+            driver.activateApp(ConfigManager.getAppPackage());
+            boolean loggedIn = new LoginFlow(driver).login(ConfigManager.getDefaultPhoneNumber());
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            Assert.assertTrue(loggedIn, variant + " launch " + (i + 1) + " did not reach the avatar");
+            if (i < warmups) {
+                System.out.println("🔥 " + variant + " warm-up launch took " + millis + " ms (discarded)");
+                continue;
+            }
+            current.add(millis);
+            samples.add(new LaunchSample(RUN_ID, System.currentTimeMillis(), ApkInstallManager.getAppBuildId(),
+                    device, variant, i - warmups + 1, millis));
+        }
+
+        List<Long> baseline = HISTORY.baseline(device, variant, RUN_ID,
+                ConfigManager.getBenchmarkBaselineVersion(), ConfigManager.getBenchmarkBaselineRuns());
+        HISTORY.append(samples);
+        LaunchRegressionGate.Verdict verdict = new LaunchRegressionGate(
+                ConfigManager.getBenchmarkRegressionThresholdPercent(), ConfigManager.getBenchmarkSignificance())
+                .compare(baseline, current);
+        System.out.println("🚀 " + variant + " start on " + device + " " + current + ": " + verdict);
+        Assert.assertFalse(verdict.isRegression(), variant + " start launch time regressed: " + verdict.getSummary());
+    }
+
+    /**
+     * Puts the app in the state a launch variant starts from
+     */
+    private interface LaunchPreparation {
+        void prepare(AndroidDriver driver);
+    }
+}
@@ -0,0 +1,51 @@
+package com.abhi.appium.tests;
+
+import com.abhi.appium.base.BaseTest;
+import com.abhi.appium.base.DeviceRegistry;
+import com.abhi.appium.config.ConfigManager;
+import com.abhi.appium.load.AccountFeed;
+import com.abhi.appium.load.LoadRamp;
+import com.abhi.appium.load.LoadStats;
+import com.abhi.appium.load.LoginLoadRunner;
+import com.abhi.appium.load.SessionLoginWorker;
+import org.testng.Assert;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoginLoadTest class logs in with every account in the accounts CSV, one worker per device
+ * Progress (logins per minute, latency percentiles, errors) is printed while it runs, and the
+ * run fails when the error rate goes over load.max.error.pct. Run it with: mvn test -Plogin-load
+ */
+public class LoginLoadTest extends BaseTest {
+
+    @AfterSuite(alwaysRun = true)
+    public void tearDownSuite() {
+        shutdownSessions();
+    }
+
+    @Test
+    public void testLoginLoad() throws Exception {
+        File accounts = new File(ConfigManager.getLoadAccountsFile());
+        int workers = ConfigManager.getLoadWorkers() > 0 ? ConfigManager.getLoadWorkers() : DeviceRegistry.fromConfig().size();
+        LoadStats stats;
+        try (AccountFeed feed = AccountFeed.open(accounts, ConfigManager.getDefaultOtp(), ConfigManager.getDefaultMpin(),
+                ConfigManager.getLoadMaxAccounts())) {
+            LoadRamp ramp = new LoadRamp(ConfigManager.getLoadTargetPerMinute(), ConfigManager.getLoadRampUpSeconds());
+            stats = new LoginLoadRunner(feed, ramp, workers,
+                    TimeUnit.SECONDS.toMillis(ConfigManager.getLoadReportIntervalSeconds()))
+                    .run(() -> new SessionLoginWorker(this));
+            System.out.println("📇 Accounts used: " + feed.getServedCount() + ", lines without a phone number: "
+                    + feed.getSkippedCount());
+        }
+
+        long total = stats.getSuccessCount() + stats.getFailureCount();
+        Assert.assertTrue(total > 0, "No logins ran, check " + accounts);
+        double errorPercent = stats.getFailureCount() * 100.0 / total;
+        Assert.assertTrue(errorPercent <= ConfigManager.getLoadMaxErrorPercent(),
+                String.format("%.1f%% of logins failed: %s", errorPercent, stats.getErrorBreakdown()));
+    }
+}
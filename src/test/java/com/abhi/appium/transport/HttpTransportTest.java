@@ -0,0 +1,66 @@
+package com.abhi.appium.transport;
+
+import com.abhi.appium.metrics.CommandMetrics;
+import com.abhi.appium.metrics.LatencyHistogram;
+import com.abhi.appium.stub.StubSessionTest;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+/**
+ * HttpTransportTest class checks connection reuse, per-command timeouts and round trip metrics
+ */
+public class HttpTransportTest extends StubSessionTest {
+
+    private static DesiredCapabilities stubCapabilities() {
+        DesiredCapabilities caps = new DesiredCapabilities();
+        caps.setCapability("platformName", "Android");
+        caps.setCapability("appium:automationName", "UiAutomator2");
+        caps.setCapability("appium:deviceName", "stub");
+        return caps;
+    }
+
+    /**
+     * Sequential commands of one session share a kept-alive connection
+     */
+    @Test
+    public void testConnectionsAreReused() {
+        AndroidDriver driver = driver();
+        for (int i = 0; i < 20; i++) {
+            driver.findElements(AppiumBy.accessibilityId("missing"));
+        }
+        Assert.assertTrue(server().getConnectionCount() <= 2,
+                "Expected kept-alive connections, saw " + server().getConnectionCount());
+    }
+
+    /**
+     * Ordinary commands fail at the command timeout while session creation may take longer
+     */
+    @Test
+    public void testCommandTimeoutSparesLongCommands() {
+        server().latency(400);
+        AndroidDriver driver = useDriver(new AndroidDriver(HttpTransport.commandExecutor(server().getUrl(),
+                Duration.ofMillis(150), Duration.ofSeconds(10)), stubCapabilities()));
+        long start = System.nanoTime();
+        Assert.assertThrows(CommandTimeoutException.class, driver::getPageSource);
+        Assert.assertTrue((System.nanoTime() - start) / 1_000_000 < 400, "The command should be abandoned early");
+    }
+
+    /**
+     * Round trips are recorded per command template
+     */
+    @Test
+    public void testRoundTripsAreRecordedPerCommand() {
+        AndroidDriver driver = driver();
+        driver.getPageSource();
+        driver.getPageSource();
+        LatencyHistogram source = CommandMetrics.get("GET /session/:sessionId/source");
+        Assert.assertNotNull(source);
+        Assert.assertTrue(source.getCount() >= 2);
+        Assert.assertTrue(CommandMetrics.getRequestCount() >= 3);
+    }
+}
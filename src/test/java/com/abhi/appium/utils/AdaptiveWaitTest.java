@@ -0,0 +1,49 @@
+package com.abhi.appium.utils;
+
+import com.abhi.appium.stub.StubSessionTest;
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+/**
+ * AdaptiveWaitTest class checks that learned latencies shape the polling without overshooting it
+ */
+public class AdaptiveWaitTest extends StubSessionTest {
+
+    /**
+     * A condition met much earlier than its learned latency is still seen within one backed-off poll
+     */
+    @Test
+    public void testSkipAheadIsCappedByTheMaxPoll() {
+        String key = "test skip-ahead " + System.nanoTime();
+        WaitStats.forKey(key).recordHit(10_000);
+        AdaptiveWait wait = new AdaptiveWait(driver(), Duration.ofSeconds(5), 10, 100);
+        long start = System.nanoTime();
+        long readyAt = start + 150_000_000L;
+
+        Boolean met = wait.until(key, d -> System.nanoTime() >= readyAt);
+        long tookMillis = (System.nanoTime() - start) / 1_000_000;
+        Assert.assertTrue(met);
+        Assert.assertTrue(tookMillis < 1000, "Slept towards the 7 s skip-ahead: " + tookMillis + " ms");
+    }
+
+    /**
+     * An optional element that usually shows up late still gets no more than the caller's budget
+     */
+    @Test
+    public void testOptionalBudgetIsNeverStretched() {
+        String name = "late-dialog-" + System.nanoTime();
+        By dialog = AppiumBy.accessibilityId(name);
+        WaitStats.forKey("optional " + dialog).recordHit(5_000);
+        server().element("accessibility id", name).appearsAfter(2_000);
+        WaitUtils waits = WaitUtils.forDriver(driver());
+        long start = System.nanoTime();
+
+        Assert.assertFalse(waits.clickIfPresent(dialog, 200));
+        long tookMillis = (System.nanoTime() - start) / 1_000_000;
+        Assert.assertTrue(tookMillis < 1000, "The 200 ms budget was stretched to " + tookMillis + " ms");
+    }
+}
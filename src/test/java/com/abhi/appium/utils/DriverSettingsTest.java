@@ -0,0 +1,92 @@
+package com.abhi.appium.utils;
+
+import com.abhi.appium.flows.FlowEngine;
+import com.abhi.appium.flows.FlowStep;
+import com.abhi.appium.metrics.SettingsProfileMetrics;
+import com.abhi.appium.stub.StubAppiumServer;
+import com.abhi.appium.stub.StubSessionTest;
+import io.appium.java_client.android.AndroidDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+/**
+ * DriverSettingsTest class checks that settings profiles send only changes and restore the server's values
+ */
+public class DriverSettingsTest extends StubSessionTest {
+
+    private static final SettingsProfile ANIMATED = SettingsProfile.named("test-animated")
+            .set("waitForIdleTimeout", 100)
+            .set("waitForSelectorTimeout", 0);
+    private static final SettingsProfile COMPRESSED = SettingsProfile.named("test-compressed")
+            .set("waitForIdleTimeout", 100)
+            .set("ignoreUnimportantViews", true);
+
+    private static long settingsCalls(StubAppiumServer server) {
+        return server.getCommandCounts().getOrDefault("appium/settings", 0L);
+    }
+
+    /**
+     * Switching to the active profile sends nothing, and a switch sends only the settings that differ
+     */
+    @Test
+    public void testOnlyChangedSettingsAreSent() throws Exception {
+        AndroidDriver driver = driver();
+        DriverSettings settings = new DriverSettings(driver, true);
+        Assert.assertSame(settings.use(ANIMATED), SettingsProfile.DEFAULT);
+        Assert.assertEquals(settingsCalls(server()), 2, "The server's values are read once, then one change is sent");
+        Assert.assertEquals(driver.getSettings().get("waitForIdleTimeout"), 100L);
+
+        long before = settingsCalls(server());
+        settings.use(ANIMATED);
+        settings.run(ANIMATED, () -> { });
+        Assert.assertEquals(settingsCalls(server()), before, "The profile is already applied");
+        Assert.assertEquals(settings.getCachedSwitchCount(), 3);
+
+        settings.use(COMPRESSED);
+        Map<String, Object> values = driver.getSettings();
+        Assert.assertEquals(values.get("waitForIdleTimeout"), 100L);
+        Assert.assertEquals(values.get("waitForSelectorTimeout"), 10000L, "Settings the profile leaves out go back");
+        Assert.assertEquals(values.get("ignoreUnimportantViews"), true);
+
+        settings.restore();
+        values = driver.getSettings();
+        Assert.assertEquals(values.get("waitForIdleTimeout"), 10000L);
+        Assert.assertEquals(values.get("ignoreUnimportantViews"), false);
+        Assert.assertEquals(settings.getSetCallCount(), 3);
+    }
+
+    /**
+     * A group of steps on one profile costs one switch, and the flow ends on the server's values
+     */
+    @Test
+    public void testFlowStepsShareOneSwitch() throws Exception {
+        AndroidDriver driver = driver();
+        FlowEngine engine = new FlowEngine(driver, "settings-test", "stub")
+                .step(FlowStep.named("01-login-screen").retries(0))
+                .step(FlowStep.named("02-home").retries(0).settings(ANIMATED))
+                .step(FlowStep.named("03-home").retries(0).settings(ANIMATED))
+                .step(FlowStep.named("04-home").retries(0).settings(ANIMATED));
+
+        Assert.assertTrue(engine.run());
+        DriverSettings settings = DriverSettings.forDriver(driver);
+        Assert.assertSame(settings.getActive(), SettingsProfile.DEFAULT);
+        Assert.assertEquals(settings.getSetCallCount(), 2, "One switch to the profile and one back");
+        Assert.assertEquals(driver.getSettings().get("waitForIdleTimeout"), 10000L);
+        Assert.assertEquals(SettingsProfileMetrics.get("03-home", ANIMATED.getName()).getCount(), 1);
+        Assert.assertEquals(SettingsProfileMetrics.get("01-login-screen", "default").getCount(), 1);
+    }
+
+    /**
+     * The settings cache remembers what one session was sent, so it goes with the session
+     */
+    @Test
+    public void testSettingsCacheIsDroppedOnQuit() {
+        AndroidDriver driver = driver();
+        DriverSettings settings = DriverSettings.forDriver(driver);
+        Assert.assertSame(DriverSettings.forDriver(driver), settings);
+        SessionScope.quit(driver);
+        Assert.assertNull(SessionScope.peek(driver, DriverSettings.class));
+    }
+}
@@ -0,0 +1,187 @@
+package com.abhi.appium.utils;
+
+import com.abhi.appium.stub.StubAppiumServer;
+import com.abhi.appium.stub.StubSessionTest;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LazyElementTest class checks that lazy elements reuse handles on a screen and recover from stale ones
+ */
+public class LazyElementTest extends StubSessionTest {
+
+    private static final By INPUT = AppiumBy.className("android.widget.EditText");
+    private static final By NEXT = AppiumBy.accessibilityId("next");
+
+    private static long finds(StubAppiumServer server) {
+        return server.getCommandCounts().getOrDefault("findElement", 0L)
+                + server.getCommandCounts().getOrDefault("findElements", 0L);
+    }
+
+    /**
+     * Typing twice into a field on the same screen finds it once, a click makes the next use find it again
+     */
+    @Test
+    public void testHandleIsReusedUntilTheScreenChanges() throws Exception {
+        server().element("class name", "android.widget.EditText");
+        server().element("accessibility id", "next");
+        AndroidDriver driver = driver();
+        WaitUtils waits = WaitUtils.forDriver(driver);
+        Assert.assertSame(WaitUtils.forDriver(driver), waits);
+        LazyElement input = waits.element(INPUT);
+        Assert.assertSame(waits.element(INPUT), input, "Pages on one driver share the lazy element");
+
+        long before = finds(server());
+        input.sendKeys("12");
+        input.sendKeys("34");
+        Assert.assertEquals(input.getText(), "1234");
+        Assert.assertEquals(finds(server()) - before, 1);
+        Assert.assertEquals(input.getCacheHitCount(), 2);
+
+        waits.element(NEXT).click();
+        before = finds(server());
+        input.getText();
+        Assert.assertEquals(finds(server()) - before, 1, "A click may change the screen, so the input is found again");
+    }
+
+    /**
+     * A check that finds the element leaves its handle for the action that follows
+     */
+    @Test
+    public void testFindNowPrimesTheHandle() throws Exception {
+        server().element("class name", "android.widget.EditText");
+        AndroidDriver driver = driver();
+        LazyElement input = WaitUtils.forDriver(driver).element(INPUT);
+        Assert.assertNotNull(input.findNow());
+        long before = finds(server());
+        input.sendKeys("0000");
+        Assert.assertEquals(finds(server()), before);
+    }
+
+    /**
+     * A handle that went stale (the app relaunched) is found again and the action still lands
+     */
+    @Test
+    public void testStaleHandleIsFoundAgain() throws Exception {
+        server().element("class name", "android.widget.EditText");
+        AndroidDriver driver = driver();
+        LazyElement input = WaitUtils.forDriver(driver).element(INPUT);
+        input.sendKeys("12");
+        server().resetScreen();
+
+        input.sendKeys("34");
+        Assert.assertEquals(input.getStaleRecoveryCount(), 1);
+        Assert.assertEquals(input.getText(), "34");
+        Assert.assertEquals(input.getStaleRecoveryCount(), 1);
+    }
+
+    /**
+     * An element gone by the time the session lock is free is waited for again without holding the lock
+     */
+    @Test
+    public void testElementGoneUnderTheLockIsWaitedForOutsideIt() throws Exception {
+        server().element("class name", "android.widget.EditText").appearsAfter(600);
+        AndroidDriver driver = driver();
+        WaitUtils waits = WaitUtils.forDriver(driver);
+        LazyElement input = waits.element(INPUT);
+        input.get();
+
+        ReentrantLock lock = SessionLock.forDriver(driver);
+        Thread typing;
+        lock.lock();
+        try {
+            typing = new Thread(() -> input.sendKeys("12"));
+            typing.start();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!lock.hasQueuedThreads() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            // The screen changes while the typing thread waits for the lock
+            waits.screenChanged();
+            server().resetScreen();
+        } finally {
+            lock.unlock();
+        }
+        Thread.sleep(150);
+        Assert.assertTrue(typing.isAlive(), "The field is not back yet");
+        Assert.assertTrue(lock.tryLock(100, TimeUnit.MILLISECONDS), "The wait must not hold the session lock");
+        lock.unlock();
+
+        typing.join(5000);
+        Assert.assertEquals(input.getText(), "12");
+    }
+
+    /**
+     * A dialog the watcher dismissed moves the screen epoch, so handles are found again afterwards
+     */
+    @Test
+    public void testWatcherClickMovesTheScreenEpoch() throws Exception {
+        server().element("id", "android:id/button1").removedWhenClicked();
+        AndroidDriver driver = driver();
+        WaitUtils waits = WaitUtils.forDriver(driver);
+        long epoch = waits.getScreenEpoch();
+        try (InterruptWatcher watcher = new InterruptWatcher(driver, 20)
+                .register("system-ok", AppiumBy.id("android:id/button1")).start()) {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (watcher.countInterceptions("system-ok") == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(watcher.countInterceptions("system-ok"), 1);
+        }
+        Assert.assertTrue(waits.getScreenEpoch() > epoch, "The click may have changed the screen");
+    }
+
+    /**
+     * The watcher stops on its own once its session is gone instead of polling a dead session
+     */
+    @Test
+    public void testWatcherStopsWhenTheSessionIsGone() throws Exception {
+        AndroidDriver driver = driver();
+        try (InterruptWatcher watcher = new InterruptWatcher(driver, 20)
+                .register("system-ok", AppiumBy.id("android:id/button1")).start()) {
+            Assert.assertTrue(watcher.isWatching());
+            SessionScope.quit(driver);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (watcher.isWatching() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertFalse(watcher.isWatching());
+        }
+        Assert.assertNull(SessionScope.peek(driver, PageSnapshot.class), "Nothing is kept for the dead session");
+    }
+
+    /**
+     * A locator shared by two screens gets a lazy element and latency stats per screen
+     */
+    @Test
+    public void testScreensSharingALocatorLearnApart() {
+        server().element("class name", "android.widget.EditText");
+        WaitUtils waits = WaitUtils.forDriver(driver());
+        LazyElement otp = waits.element("lazy-test-otp", INPUT);
+        Assert.assertNotSame(otp, waits.element(INPUT));
+        Assert.assertSame(waits.element("lazy-test-otp", INPUT), otp);
+
+        otp.get();
+        Assert.assertEquals(WaitStats.forKey("lazy-test-otp " + INPUT).getHits(), 1);
+        Assert.assertEquals(WaitStats.forKey("lazy-test-phone " + INPUT).getHits(), 0);
+    }
+
+    /**
+     * Quitting the session releases the shared waits and the lazy elements they hold
+     */
+    @Test
+    public void testSharedWaitsAreReleasedOnQuit() {
+        AndroidDriver driver = driver();
+        WaitUtils waits = WaitUtils.forDriver(driver);
+        waits.element(INPUT);
+        SessionScope.quit(driver);
+        Assert.assertNull(SessionScope.peek(driver, WaitUtils.class));
+        Assert.assertNull(SessionScope.peek(driver, PageSnapshot.class));
+    }
+}
@@ -0,0 +1,69 @@
+package com.abhi.appium.utils;
+
+import com.abhi.appium.stub.StubElement;
+import com.abhi.appium.stub.StubSessionTest;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+/**
+ * LocatorOptimizerTest class checks when a learned locator is kept and when it is dropped
+ */
+public class LocatorOptimizerTest extends StubSessionTest {
+
+    private static final By SLOW = AppiumBy.className("android.widget.Button");
+    private static final By LEARNED = AppiumBy.id("com.example:id/next");
+
+    private LocatorOptimizer learnedOptimizer(AndroidDriver driver, WebElement element) throws Exception {
+        File cache = Files.createTempDirectory("locators").resolve("locator-cache.properties").toFile();
+        LocatorOptimizer optimizer = new LocatorOptimizer(cache);
+        optimizer.recordResolution(driver, SLOW, element);
+        optimizer.recordResolution(driver, SLOW, element);
+        Assert.assertEquals(optimizer.preferred(SLOW), LEARNED);
+        return optimizer;
+    }
+
+    /**
+     * A learned locator that still identifies the element survives single misses, and a hit resets the count
+     */
+    @Test
+    public void testMissesOnAMatchingScreenDemoteOnlyWhenRepeated() throws Exception {
+        server().element("class name", "android.widget.Button").attribute("resource-id", "com.example:id/next");
+        AndroidDriver driver = driver();
+        WebElement element = driver.findElement(SLOW);
+        LocatorOptimizer optimizer = learnedOptimizer(driver, element);
+
+        optimizer.recordFallback(driver, SLOW, element);
+        optimizer.recordFallback(driver, SLOW, element);
+        optimizer.recordLatency(SLOW, true, 10);
+        optimizer.recordFallback(driver, SLOW, element);
+        optimizer.recordFallback(driver, SLOW, element);
+        Assert.assertEquals(optimizer.preferred(SLOW), LEARNED, "Two misses in a row are not enough");
+
+        optimizer.recordFallback(driver, SLOW, element);
+        Assert.assertNull(optimizer.preferred(SLOW), "Three misses in a row demote the mapping");
+    }
+
+    /**
+     * A learned locator that no longer matches the element on the loaded screen is dropped at once
+     */
+    @Test
+    public void testConfirmedNoMatchDemotesAtOnce() throws Exception {
+        StubElement button = server().element("class name", "android.widget.Button")
+                .attribute("resource-id", "com.example:id/next");
+        AndroidDriver driver = driver();
+        WebElement element = driver.findElement(SLOW);
+        LocatorOptimizer optimizer = learnedOptimizer(driver, element);
+
+        // A new build renamed the id
+        button.attribute("resource-id", "com.example:id/continue");
+        optimizer.recordFallback(driver, SLOW, element);
+        Assert.assertNull(optimizer.preferred(SLOW));
+    }
+}
@@ -0,0 +1,127 @@
+package com.abhi.appium.utils;
+
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PageSnapshotTest class checks that locators are answered from one page source dump
+ */
+public class PageSnapshotTest {
+
+    private static final String PAGE_SOURCE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<hierarchy rotation=\"0\">"
+            + "<android.widget.FrameLayout class=\"android.widget.FrameLayout\" displayed=\"true\">"
+            + "<android.widget.ImageView class=\"android.widget.ImageView\" resource-id=\"indwin.c3.shareapp.test:id/logo\" displayed=\"true\"/>"
+            + "<android.widget.ImageView class=\"android.widget.ImageView\" content-desc=\"avatar\" displayed=\"true\" bounds=\"[0,0][96,96]\"/>"
+            + "<android.widget.EditText class=\"android.widget.EditText\" text=\"\" focused=\"true\" displayed=\"true\"/>"
+            + "<android.widget.Button class=\"android.widget.Button\" resource-id=\"android:id/button1\" text=\"OK\" displayed=\"false\"/>"
+            + "</android.widget.FrameLayout>"
+            + "</hierarchy>";
+
+    private static WebDriver driverReturning(String pageSource, AtomicInteger calls) {
+        return (WebDriver) Proxy.newProxyInstance(
+                WebDriver.class.getClassLoader(),
+                new Class<?>[] {WebDriver.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getPageSource")) {
+                        calls.incrementAndGet();
+                        return pageSource;
+                    }
+                    if (method.getName().equals("quit")) {
+                        return null;
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Several locator strategies are answered with a single page source fetch
+     */
+    @Test
+    public void testManyLocatorsFromOneFetch() {
+        AtomicInteger calls = new AtomicInteger();
+        PageSnapshot snapshot = new PageSnapshot(driverReturning(PAGE_SOURCE, calls), 60_000);
+
+        Assert.assertTrue(snapshot.isPresent(AppiumBy.id("android:id/button1")));
+        Assert.assertTrue(snapshot.isPresent(AppiumBy.id("logo")), "Bare ids should match the app package");
+        Assert.assertTrue(snapshot.isDisplayed(AppiumBy.accessibilityId("avatar")));
+        Assert.assertFalse(snapshot.isDisplayed(AppiumBy.id("android:id/button1")));
+        Assert.assertTrue(snapshot.isPresent(AppiumBy.className("android.widget.EditText")));
+        Assert.assertTrue(snapshot.isPresent(AppiumBy.androidUIAutomator("new UiSelector().textStartsWith(\"ok\")")),
+                "textStartsWith ignores case, like on the device");
+        Assert.assertFalse(snapshot.isPresent(AppiumBy.accessibilityId("mpin_id_pin_input_field")));
+        Assert.assertEquals(snapshot.getAttribute(AppiumBy.androidUIAutomator(
+                "new UiSelector().className(\"android.widget.ImageView\").instance(1)"), "bounds"), "[0,0][96,96]");
+        Assert.assertFalse(snapshot.isPresent(AppiumBy.androidUIAutomator(
+                "new UiSelector().className(\"android.widget.ImageView\").instance(2)")));
+
+        Assert.assertEquals(calls.get(), 1, "All queries should share one page source fetch");
+    }
+
+    /**
+     * Invalidating forces the next query to fetch again, and unsupported locators are reported as unknown
+     */
+    @Test
+    public void testInvalidateAndUnsupportedLocators() {
+        AtomicInteger calls = new AtomicInteger();
+        PageSnapshot snapshot = new PageSnapshot(driverReturning(PAGE_SOURCE, calls), 60_000);
+
+        snapshot.isPresent(AppiumBy.id("android:id/button1"));
+        snapshot.invalidate();
+        snapshot.isPresent(AppiumBy.id("android:id/button1"));
+        Assert.assertEquals(calls.get(), 2);
+
+        Assert.assertNull(snapshot.isPresent(AppiumBy.xpath("//android.widget.Button")));
+        Assert.assertNull(snapshot.isPresent(AppiumBy.androidUIAutomator("new UiScrollable(new UiSelector())")));
+    }
+
+    /**
+     * The shared snapshot is kept for the session's lifetime and released when it is quit
+     */
+    @Test
+    public void testSharedSnapshotIsDroppedOnQuit() {
+        WebDriver driver = driverReturning(PAGE_SOURCE, new AtomicInteger());
+        PageSnapshot snapshot = PageSnapshot.forDriver(driver);
+        Assert.assertSame(PageSnapshot.forDriver(driver), snapshot);
+        Assert.assertSame(SessionScope.peek(driver, PageSnapshot.class), snapshot);
+
+        SessionScope.quit(driver);
+        Assert.assertNull(SessionScope.peek(driver, PageSnapshot.class), "The snapshot holds the driver, it must go");
+        Assert.assertNotSame(PageSnapshot.forDriver(driver), snapshot);
+        SessionScope.clear(driver);
+    }
+
+    /**
+     * A page source can't make the parser read local files through a DTD
+     */
+    @Test
+    public void testExternalDtdIsNotRead() throws Exception {
+        File dtd = File.createTempFile("page-snapshot", ".dtd");
+        dtd.deleteOnExit();
+        Files.writeString(dtd.toPath(), "<!ENTITY leak \"top-secret\">");
+        String pageSource = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<!DOCTYPE hierarchy SYSTEM \"" + dtd.toURI() + "\">"
+                + "<hierarchy rotation=\"0\">"
+                + "<android.widget.TextView class=\"android.widget.TextView\" resource-id=\"android:id/message\" text=\"&leak;\"/>"
+                + "</hierarchy>";
+        PageSnapshot snapshot = new PageSnapshot(driverReturning(pageSource, new AtomicInteger()), 60_000);
+        try {
+            Assert.assertNotEquals(snapshot.getAttribute(AppiumBy.id("android:id/message"), "text"), "top-secret");
+        } catch (IllegalStateException e) {
+            Assert.assertFalse(e.getMessage().contains("top-secret"), "Refusing the page is fine, reading the file is not");
+        }
+    }
+}
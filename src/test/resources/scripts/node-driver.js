@@ -0,0 +1,33 @@
+// Runs a driver script the way the execute-driver plugin does, with a minimal W3C client in
+// place of webdriverio: node node-driver.js <server url> <session id>
+// SCRIPT is replaced with the script source; its return value is printed as JSON
+const [base, session] = process.argv.slice(2);
+
+async function call(method, path, body) {
+  const response = await fetch(base + '/session/' + session + path, {
+    method: method,
+    headers: { 'content-type': 'application/json' },
+    body: body === undefined ? undefined : JSON.stringify(body),
+  });
+  const json = await response.json();
+  if (response.status >= 400) {
+    throw new Error(json.value.error + ': ' + json.value.message);
+  }
+  return json.value;
+}
+
+const driver = {
+  findElements: (using, value) => call('POST', '/elements', { using: using, value: value }),
+  elementClick: (id) => call('POST', '/element/' + id + '/click', {}),
+  elementSendKeys: (id, text) => call('POST', '/element/' + id + '/value', { text: text, value: Array.from(text) }),
+  getElementAttribute: (id, name) => call('GET', '/element/' + id + '/attribute/' + name),
+};
+
+(async function (driver) {
+SCRIPT
+})(driver).then(
+  (result) => console.log(JSON.stringify(result)),
+  (error) => {
+    console.error(error.stack || error);
+    process.exit(1);
+  });